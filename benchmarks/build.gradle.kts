@@ -18,6 +18,8 @@ dependencies {
     jmh(project(":xodus-query"))
     jmh(project(":xodus-crypto"))
     jmh(project(":xodus-utils"))
+    jmh(project(":xodus-lucene-directory-v2"))
+    jmh(libs.lucene.core)
     jmh("org.openjdk.jmh:jmh-core:$currentJmhVersion")
     jmh("org.openjdk.jmh:jmh-generator-annprocess:$currentJmhVersion")
     jmh(libs.junit)
@@ -23,6 +23,7 @@ import org.openjdk.jmh.annotations.*;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
+import static jetbrains.exodus.crypto.streamciphers.AesCtrStreamCipherProviderKt.AES_CTR_CIPHER_ID;
 import static jetbrains.exodus.crypto.streamciphers.ChaChaStreamCipherProviderKt.CHACHA_CIPHER_ID;
 import static jetbrains.exodus.crypto.streamciphers.JBChaChaStreamCipherProviderKt.JB_CHACHA_CIPHER_ID;
 import static jetbrains.exodus.crypto.streamciphers.Salsa20StreamCipherProviderKt.SALSA20_CIPHER_ID;
@@ -32,6 +33,8 @@ public class JMHStreamCipherBenchmarks {
 
     private static final byte[] KEY_256_BITS;
     private static long IV;
+    // size of data processed by bulk benchmarks, score of bulk benchmarks is in bytes per nanosecond, i.e. GB/s
+    private static final int PAGE_SIZE = 64 * 1024;
 
     static {
         KEY_256_BITS = new byte[32];
@@ -43,15 +46,19 @@ public class JMHStreamCipherBenchmarks {
     private final StreamCipherProvider salsa20Provider = KryptKt.newCipherProvider(SALSA20_CIPHER_ID);
     private final StreamCipherProvider chaChaProvider = KryptKt.newCipherProvider(CHACHA_CIPHER_ID);
     private final StreamCipherProvider jbChaChaProvider = KryptKt.newCipherProvider(JB_CHACHA_CIPHER_ID);
+    private final StreamCipherProvider aesCtrProvider = KryptKt.newCipherProvider(AES_CTR_CIPHER_ID);
     private final StreamCipher salsa20Cipher = salsa20Provider.newCipher();
     private final StreamCipher chaChaCipher = chaChaProvider.newCipher();
     private final StreamCipher jbChaChaCipher = jbChaChaProvider.newCipher();
+    private final StreamCipher aesCtrCipher = aesCtrProvider.newCipher();
+    private final byte[] page = new byte[PAGE_SIZE];
 
     @Setup
     public void prepare() {
         salsa20Cipher.init(KEY_256_BITS, IV++);
         chaChaCipher.init(KEY_256_BITS, IV++);
         jbChaChaCipher.init(KEY_256_BITS, IV++);
+        aesCtrCipher.init(KEY_256_BITS, IV++);
     }
 
     @Benchmark
@@ -84,6 +91,16 @@ public class JMHStreamCipherBenchmarks {
         return jbChaChaCipher;
     }
 
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    public Object initAesCtrCipher() {
+        aesCtrCipher.init(KEY_256_BITS, IV++);
+        return aesCtrCipher;
+    }
+
     @Benchmark
     @OutputTimeUnit(TimeUnit.MICROSECONDS)
     @Warmup(iterations = 4, time = 1)
@@ -110,4 +127,61 @@ public class JMHStreamCipherBenchmarks {
     public Object jbChaChaCrypt() {
         return jbChaChaCipher.crypt((byte) 0);
     }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    public Object aesCtrCrypt() {
+        return aesCtrCipher.crypt((byte) 0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(PAGE_SIZE)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    public Object salsa20CryptBulk() {
+        salsa20Cipher.crypt(page, 0, PAGE_SIZE, page, 0);
+        return page;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(PAGE_SIZE)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    public Object chaChaCryptBulk() {
+        chaChaCipher.crypt(page, 0, PAGE_SIZE, page, 0);
+        return page;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(PAGE_SIZE)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    public Object jbChaChaCryptBulk() {
+        jbChaChaCipher.crypt(page, 0, PAGE_SIZE, page, 0);
+        return page;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(PAGE_SIZE)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    public Object aesCtrCryptBulk() {
+        aesCtrCipher.crypt(page, 0, PAGE_SIZE, page, 0);
+        return page;
+    }
 }
@@ -63,6 +63,15 @@ public class JMHHashMapBenchmark {
         return map.get(missingKey);
     }
 
+    @Benchmark
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(5)
+    public String hashMapPutRemove() {
+        map.put(missingKey, "");
+        return map.remove(missingKey);
+    }
+
     protected Map<Integer, String> createHashMap() {
         return new HashMap<>();
     }
@@ -0,0 +1,28 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.benchmark.dataStructures;
+
+import jetbrains.exodus.core.dataStructures.hash.IntHashMap;
+
+import java.util.Map;
+
+public class JMHIntHashMapBenchmark extends JMHHashMapBenchmark {
+
+    @Override
+    protected Map<Integer, String> createHashMap() {
+        return new IntHashMap<>();
+    }
+}
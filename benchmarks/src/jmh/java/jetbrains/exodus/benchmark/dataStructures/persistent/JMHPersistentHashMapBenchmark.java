@@ -0,0 +1,119 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.benchmark.dataStructures.persistent;
+
+import jetbrains.exodus.core.dataStructures.persistent.PersistentChampHashMap;
+import jetbrains.exodus.core.dataStructures.persistent.PersistentHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JMHPersistentHashMapBenchmark {
+    static final int MAP_SIZE = 100000;
+    static final int KEYS_PER_WRITE = 16;
+
+    private final PersistentHashMap<Integer, Object> hashMap = new PersistentHashMap<>();
+    private final PersistentChampHashMap<Integer, Object> champMap = new PersistentChampHashMap<>();
+    private final Object value = new Object();
+    private final Integer[] writeKeys = new Integer[KEYS_PER_WRITE];
+
+    private Integer existingKey = 0;
+    private Integer missingKey = MAP_SIZE;
+
+    @Setup
+    public void prepare() {
+        final PersistentHashMap<Integer, Object>.MutablePersistentHashMap mutableHashMap = hashMap.beginWrite();
+        final PersistentChampHashMap<Integer, Object>.MutablePersistentChampHashMap mutableChampMap = champMap.beginWrite();
+        for (int i = 0; i < MAP_SIZE; ++i) {
+            // the keys are even
+            mutableHashMap.put(i * 2, value);
+            mutableChampMap.put(i * 2, value);
+        }
+        mutableHashMap.endWrite();
+        mutableChampMap.endWrite();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareKeys() {
+        // the even key exists in the map, the odd one doesn't
+        existingKey = (int) (Math.random() * MAP_SIZE) * 2;
+        missingKey = existingKey + 1;
+        for (int i = 0; i < KEYS_PER_WRITE; ++i) {
+            writeKeys[i] = (int) (Math.random() * MAP_SIZE) * 2;
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public Object getHashMapExisting() {
+        return hashMap.getCurrent().get(existingKey);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public Object getHashMapMissing() {
+        return hashMap.getCurrent().get(missingKey);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public Object getChampMapExisting() {
+        return champMap.getCurrent().get(existingKey);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public Object getChampMapMissing() {
+        return champMap.getCurrent().get(missingKey);
+    }
+
+    /**
+     * Copy-on-write cycle: a batch of puts of existing keys followed by publication of the new version.
+     */
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public boolean putHashMap() {
+        final PersistentHashMap<Integer, Object>.MutablePersistentHashMap mutable = hashMap.beginWrite();
+        for (final Integer key : writeKeys) {
+            mutable.put(key, key);
+        }
+        return mutable.endWrite();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public boolean putChampMap() {
+        final PersistentChampHashMap<Integer, Object>.MutablePersistentChampHashMap mutable = champMap.beginWrite();
+        for (final Integer key : writeKeys) {
+            mutable.put(key, key);
+        }
+        return mutable.endWrite();
+    }
+}
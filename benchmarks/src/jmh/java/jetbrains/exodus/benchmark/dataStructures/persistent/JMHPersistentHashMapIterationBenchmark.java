@@ -0,0 +1,83 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.benchmark.dataStructures.persistent;
+
+import jetbrains.exodus.core.dataStructures.persistent.PersistentChampHashMap;
+import jetbrains.exodus.core.dataStructures.persistent.PersistentHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import static jetbrains.exodus.benchmark.dataStructures.persistent.JMHPersistentHashMapBenchmark.MAP_SIZE;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JMHPersistentHashMapIterationBenchmark {
+    private final PersistentHashMap<Integer, Object> hashMap = new PersistentHashMap<>();
+    private final PersistentChampHashMap<Integer, Object> champMap = new PersistentChampHashMap<>();
+    private final Object value = new Object();
+
+    @Setup
+    public void prepare() {
+        final PersistentHashMap<Integer, Object>.MutablePersistentHashMap mutableHashMap = hashMap.beginWrite();
+        final PersistentChampHashMap<Integer, Object>.MutablePersistentChampHashMap mutableChampMap = champMap.beginWrite();
+        for (int i = 0; i < MAP_SIZE; ++i) {
+            mutableHashMap.put(i, value);
+            mutableChampMap.put(i, value);
+        }
+        mutableHashMap.endWrite();
+        mutableChampMap.endWrite();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public long iterateHashMap() {
+        long result = 0;
+        for (final PersistentHashMap.Entry<Integer, Object> entry : hashMap.getCurrent()) {
+            result += entry.getKey();
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public long iterateChampMap() {
+        final Iterator<Integer> iterator = champMap.getCurrent().keyIterator();
+        long result = 0;
+        while (iterator.hasNext()) {
+            result += iterator.next();
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public long forEachChampMap() {
+        final long[] result = {0};
+        champMap.getCurrent().forEach((key, value) -> {
+            result[0] += key;
+            return true;
+        });
+        return result[0];
+    }
+}
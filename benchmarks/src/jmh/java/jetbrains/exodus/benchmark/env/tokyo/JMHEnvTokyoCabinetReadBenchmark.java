@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.benchmark.env.tokyo;
 
+import jetbrains.exodus.ByteArrayView;
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.ByteIterator;
 import jetbrains.exodus.env.Cursor;
@@ -53,6 +54,27 @@ public class JMHEnvTokyoCabinetReadBenchmark extends JMHEnvTokyoCabinetBenchmark
         });
     }
 
+    /**
+     * Same as {@linkplain #successiveRead(Blackhole)}, but reads keys and values to a reusable view, so the loop
+     * doesn't allocate. Run with {@code -prof gc} to compare allocation rates.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS)
+    @Fork(FORKS)
+    public void successiveReadToView(final Blackhole bh) {
+        env.executeInReadonlyTransaction(txn -> {
+            try (Cursor c = store.openCursor(txn)) {
+                final ByteArrayView view = new ByteArrayView();
+                while (c.getNext()) {
+                    consumeBytes(bh, c.getKey(view));
+                    consumeBytes(bh, c.getValue(view));
+                }
+            }
+        });
+    }
+
     @Benchmark
     @BenchmarkMode(Mode.SingleShotTime)
     @Warmup(iterations = WARMUP_ITERATIONS)
@@ -69,11 +91,31 @@ public class JMHEnvTokyoCabinetReadBenchmark extends JMHEnvTokyoCabinetBenchmark
         });
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS)
+    @Fork(FORKS)
+    public void randomGetAll(final Blackhole bh) {
+        env.executeInReadonlyTransaction(txn -> {
+            for (final ByteIterable value : store.getAll(txn, randomKeys)) {
+                consumeBytes(bh, value);
+            }
+        });
+    }
+
     @Override
     protected StoreConfig getStoreConfig() {
         return StoreConfig.WITHOUT_DUPLICATES;
     }
 
+    private static void consumeBytes(final Blackhole bh, final ByteArrayView view) {
+        final byte[] bytes = view.getBytes();
+        for (int i = view.getOffset(), end = i + view.getLength(); i < end; ++i) {
+            bh.consume(bytes[i]);
+        }
+    }
+
     private static void consumeBytes(final Blackhole bh, final ByteIterable it) {
         final ByteIterator iterator = it.iterator();
         while (iterator.hasNext()) {
@@ -0,0 +1,175 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.benchmark.lucene;
+
+import jetbrains.exodus.env.EnvironmentConfig;
+import jetbrains.exodus.env.Environments;
+import jetbrains.exodus.log.Log;
+import jetbrains.exodus.lucene2.XodusDirectory;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.junit.rules.TemporaryFolder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares indexing and search throughput of {@linkplain XodusDirectory} with {@linkplain MMapDirectory}.
+ */
+@State(Scope.Thread)
+public class JMHLuceneDirectoryBenchmark {
+
+    private static final int DOCS_COUNT = 100_000;
+    private static final int DOCS_PER_BATCH = 1000;
+    private static final int WORDS_COUNT = 10_000;
+    private static final int WORDS_PER_DOC = 20;
+    private static final String TEXT_FIELD = "text";
+    private static final String ID_FIELD = "id";
+
+    @Param({"xodus", "xodus-mmap", "xodus-encrypted", "mmap"})
+    public String directoryType;
+
+    private final Random rnd = new Random(314159);
+    private final String[] words = new String[WORDS_COUNT];
+    private TemporaryFolder temporaryFolder;
+    private Directory directory;
+    private IndexWriter writer;
+    private DirectoryReader reader;
+    private IndexSearcher searcher;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        for (int i = 0; i < WORDS_COUNT; ++i) {
+            words[i] = Integer.toString(rnd.nextInt(), Character.MAX_RADIX);
+        }
+        Log.invalidateSharedCache();
+        temporaryFolder = new TemporaryFolder();
+        temporaryFolder.create();
+        directory = createDirectory(temporaryFolder.newFolder("index"));
+        writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()));
+        for (int i = 0; i < DOCS_COUNT; ++i) {
+            writer.addDocument(newDocument());
+        }
+        writer.commit();
+        reader = DirectoryReader.open(writer);
+        searcher = new IndexSearcher(reader);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        writer.close();
+        directory.close();
+        temporaryFolder.delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    @OperationsPerInvocation(DOCS_PER_BATCH)
+    public void index() throws IOException {
+        for (int i = 0; i < DOCS_PER_BATCH; ++i) {
+            writer.addDocument(newDocument());
+        }
+        writer.commit();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    public TopDocs termQuery() throws IOException {
+        return searcher.search(new TermQuery(new Term(TEXT_FIELD, randomWord())), 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    public TopDocs booleanQuery() throws IOException {
+        final BooleanQuery query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TEXT_FIELD, randomWord())), BooleanClause.Occur.SHOULD)
+                .add(new TermQuery(new Term(TEXT_FIELD, randomWord())), BooleanClause.Occur.SHOULD)
+                .build();
+        return searcher.search(query, 10);
+    }
+
+    /**
+     * Sorting by doc values does random accesses to the index files.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 4, time = 1)
+    @Measurement(iterations = 6, time = 1)
+    @Fork(2)
+    public TopDocs sortedQuery() throws IOException {
+        return searcher.search(new TermQuery(new Term(TEXT_FIELD, randomWord())), 10,
+                new Sort(new SortField(ID_FIELD, SortField.Type.LONG, true)));
+    }
+
+    private Directory createDirectory(File location) throws IOException {
+        if ("mmap".equals(directoryType)) {
+            return new MMapDirectory(location.toPath());
+        }
+        final EnvironmentConfig config = new EnvironmentConfig();
+        config.removeSetting(EnvironmentConfig.CIPHER_ID);
+        config.removeSetting(EnvironmentConfig.CIPHER_KEY);
+        if ("xodus-encrypted".equals(directoryType)) {
+            config.setCipherId("jetbrains.exodus.crypto.streamciphers.JBChaChaStreamCipherProvider");
+            config.setCipherKey("000102030405060708090a0b0c0d0e0f000102030405060708090a0b0c0d0e0f");
+            config.setCipherBasicIV(314159262718281828L);
+        }
+        return new XodusDirectory(Environments.newInstance(location, config), "xodus-mmap".equals(directoryType));
+    }
+
+    private Document newDocument() {
+        final Document doc = new Document();
+        final long id = nextId++;
+        doc.add(new StringField(ID_FIELD, Long.toString(id), Field.Store.YES));
+        doc.add(new NumericDocValuesField(ID_FIELD, id));
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < WORDS_PER_DOC; ++i) {
+            text.append(randomWord()).append(' ');
+        }
+        doc.add(new TextField(TEXT_FIELD, text.toString(), Field.Store.NO));
+        return doc;
+    }
+
+    private String randomWord() {
+        // skewed distribution of words makes some terms frequent
+        final int i = rnd.nextInt(WORDS_COUNT);
+        return words[rnd.nextInt(i + 1)];
+    }
+}
@@ -63,6 +63,24 @@ public class InMemorySortBenchmark extends InMemorySortBenchmarkBase {
         return super.testMergeSortWithValueGetter();
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS)
+    @Fork(FORKS)
+    public long testExternalMergeSort() {
+        return super.testExternalMergeSort();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    @Measurement(iterations = MEASUREMENT_ITERATIONS)
+    @Fork(FORKS)
+    public long testExternalMergeSortInMemory() {
+        return super.testExternalMergeSortInMemory();
+    }
+
     @Benchmark
     @BenchmarkMode(Mode.SingleShotTime)
     @Warmup(iterations = WARMUP_ITERATIONS)
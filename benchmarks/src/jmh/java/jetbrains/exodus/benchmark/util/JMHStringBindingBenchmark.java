@@ -0,0 +1,118 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.benchmark.util;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.bindings.StringBinding;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JMHStringBindingBenchmark {
+
+    private static final int STRINGS_COUNT = 1000;
+
+    @Param({"ascii", "non-ascii"})
+    public String alphabet;
+
+    @Param({"8", "64", "512"})
+    public int length;
+
+    private final String[] strings = new String[STRINGS_COUNT];
+    private final ByteIterable[] entries = new ByteIterable[STRINGS_COUNT];
+
+    @Setup
+    public void prepare() {
+        final String chars = "ascii".equals(alphabet) ?
+                "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 _-" :
+                "abcdefghij\u0430\u0431\u0432\u0433\u0434\u0435\u0436\u0437\u0438\u0439\u00e9\u4e2d";
+        final Random rnd = new Random(239);
+        final char[] buffer = new char[length];
+        for (int j = 0; j < length; ++j) {
+            buffer[j] = chars.charAt(rnd.nextInt(chars.length()));
+        }
+        for (int i = 0; i < STRINGS_COUNT; ++i) {
+            // strings differ only in the last character, so comparison has to scan them entirely
+            buffer[length - 1] = (char) ('0' + i % 10);
+            strings[i] = new String(buffer);
+            entries[i] = StringBinding.stringToEntry(strings[i]);
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public ArrayByteIterable[] stringToEntry() {
+        final ArrayByteIterable[] result = new ArrayByteIterable[STRINGS_COUNT];
+        for (int i = 0; i < STRINGS_COUNT; ++i) {
+            result[i] = StringBinding.stringToEntry(strings[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public String[] entryToString() {
+        final String[] result = new String[STRINGS_COUNT];
+        for (int i = 0; i < STRINGS_COUNT; ++i) {
+            result[i] = StringBinding.entryToString(entries[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public int compareDecoded() {
+        int result = 0;
+        for (int i = 1; i < STRINGS_COUNT; ++i) {
+            result += StringBinding.entryToString(entries[i - 1]).compareTo(StringBinding.entryToString(entries[i]));
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public int compareEntries() {
+        int result = 0;
+        for (int i = 1; i < STRINGS_COUNT; ++i) {
+            result += StringBinding.compareEntries(entries[i - 1], entries[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 6, time = 1)
+    @Measurement(iterations = 8, time = 1)
+    @Fork(5)
+    public int compareEntryToString() {
+        int result = 0;
+        for (int i = 1; i < STRINGS_COUNT; ++i) {
+            result += StringBinding.compareEntryToString(entries[i - 1], strings[i]);
+        }
+        return result;
+    }
+}
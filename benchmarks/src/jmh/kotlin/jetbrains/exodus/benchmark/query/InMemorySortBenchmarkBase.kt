@@ -61,6 +61,15 @@ open class InMemorySortBenchmarkBase {
         return testSort { InMemoryMergeSortIterableWithValueGetter(it, valueGetter, valueComparator) }
     }
 
+    open fun testExternalMergeSort(): Long {
+        // 10 runs of 5000 entities spilled to disk
+        return testSort { ExternalMergeSortIterable(store, it, valueGetter, valueComparator, 5000) }
+    }
+
+    open fun testExternalMergeSortInMemory(): Long {
+        return testSort { ExternalMergeSortIterable(store, it, valueGetter, valueComparator) }
+    }
+
     open fun testTimSort(): Long {
         return testSort { InMemoryTimSortIterable(it, comparator) }
     }
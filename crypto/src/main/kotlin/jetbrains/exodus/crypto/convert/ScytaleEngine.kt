@@ -107,15 +107,17 @@ class ScytaleEngine(
         }
 
         private fun encrypt(size: Int, data: ByteArray) {
-            for (i in 0 until size) {
-                data[i] = cipher.crypt(data[i])
-            }
+            cipher.crypt(data, 0, size, data, 0)
         }
 
         private fun blockEncrypt(size: Int, data: ByteArray) {
-            for (i in 0 until size) {
-                data[i] = cipher.crypt(data[i])
-                if (++offset == blockAlignment) {
+            var i = 0
+            while (i < size) {
+                val len = minOf(size - i, blockAlignment - offset)
+                cipher.crypt(data, i, len, data, i)
+                i += len
+                offset += len
+                if (offset == blockAlignment) {
                     offset = 0
                     cipher.init(key, (++iv).asHashedIV())
                 }
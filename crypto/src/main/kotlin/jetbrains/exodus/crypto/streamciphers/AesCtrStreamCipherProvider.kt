@@ -0,0 +1,97 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.crypto.streamciphers
+
+import jetbrains.exodus.crypto.StreamCipher
+import jetbrains.exodus.crypto.StreamCipherProvider
+import jetbrains.exodus.crypto.toByteArray
+import javax.crypto.Cipher
+import javax.crypto.spec.IvParameterSpec
+import javax.crypto.spec.SecretKeySpec
+
+const val AES_CTR_CIPHER_ID = "jetbrains.exodus.crypto.streamciphers.AesCtrStreamCipherProvider"
+
+/**
+ * AES-256 stream cipher in CTR mode backed by JCA [Cipher], so it is accelerated by AES-NI intrinsics of the JVM
+ * where available. The 128-bit counter block consists of the 64-bit IV followed by the 64-bit block counter
+ * starting from zero. Is efficient if used with [StreamCipher.crypt] processing arrays of bytes.
+ */
+class AesCtrStreamCipherProvider : StreamCipherProvider() {
+
+    private var keyInfo = ByteArray(0) to SecretKeySpec(ByteArray(1), AES)
+
+    override fun getId() = AES_CTR_CIPHER_ID
+
+    override fun newCipher(): StreamCipher = AesCtrStreamCipher(this)
+
+    private fun getKeySpec(key: ByteArray): SecretKeySpec {
+        var keyInfo = keyInfo
+        if (keyInfo.first !== key) {
+            keyInfo = key to SecretKeySpec(key, AES)
+            this.keyInfo = keyInfo
+        }
+        return keyInfo.second
+    }
+
+    private class AesCtrStreamCipher(private val provider: AesCtrStreamCipherProvider) : StreamCipher {
+
+        private val cipher = Cipher.getInstance(TRANSFORMATION)
+        // key stream used to encrypt/decrypt single bytes
+        private val keyStream = ByteArray(BLOCK_SIZE)
+        private var index = BLOCK_SIZE
+
+        override fun init(key: ByteArray, iv: Long) {
+            if (key.size != 32) {
+                throw IllegalArgumentException("256 bit key is required")
+            }
+            val counterBlock = ByteArray(BLOCK_SIZE)
+            iv.toByteArray().copyInto(counterBlock)
+            cipher.init(Cipher.ENCRYPT_MODE, provider.getKeySpec(key), IvParameterSpec(counterBlock))
+            index = BLOCK_SIZE
+        }
+
+        override fun crypt(b: Byte): Byte {
+            if (index == BLOCK_SIZE) {
+                cipher.update(ZEROS, 0, BLOCK_SIZE, keyStream, 0)
+                index = 0
+            }
+            return (b.toInt() xor keyStream[index++].toInt()).toByte()
+        }
+
+        override fun crypt(src: ByteArray, off: Int, len: Int, dst: ByteArray, dstOff: Int) {
+            // at first, use the rest of key stream generated for single bytes
+            var done = 0
+            while (index < BLOCK_SIZE && done < len) {
+                dst[dstOff + done] = (src[off + done].toInt() xor keyStream[index++].toInt()).toByte()
+                ++done
+            }
+            if (done < len) {
+                cipher.update(src, off + done, len - done, dst, dstOff + done)
+            }
+        }
+    }
+
+    private companion object {
+
+        private const val AES = "AES"
+
+        private const val TRANSFORMATION = "AES/CTR/NoPadding"
+
+        private const val BLOCK_SIZE = 16
+
+        private val ZEROS = ByteArray(BLOCK_SIZE)
+    }
+}
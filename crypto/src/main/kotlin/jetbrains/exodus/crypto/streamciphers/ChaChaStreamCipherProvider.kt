@@ -46,6 +46,10 @@ class ChaChaStreamCipherProvider : KeyAwareStreamCipherProvider() {
             return engine.returnByte(b)
         }
 
+        override fun crypt(src: ByteArray, off: Int, len: Int, dst: ByteArray, dstOff: Int) {
+            engine.processBytes(src, off, len, dst, dstOff)
+        }
+
         private companion object {
 
             private const val CHACHA_IV_SIZE = 12
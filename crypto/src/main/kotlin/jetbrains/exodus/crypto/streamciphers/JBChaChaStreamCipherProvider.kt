@@ -39,7 +39,7 @@ class JBChaChaStreamCipherProvider : StreamCipherProvider() {
     private class JBChaChaStreamCipher(private val rounds: Int = DEFAULT_ROUNDS) : StreamCipher {
 
         private val state = IntArray(STATE_SIZE)
-        private val keyStream = ByteArray(STATE_SIZE * 4) // expanded state, 64 bytes
+        private val keyStream = ByteArray(STATE_SIZE * 4 * KEY_STREAM_BLOCKS) // expanded state, 64 bytes per block
         private var index = 0
 
         init {
@@ -65,23 +65,60 @@ class JBChaChaStreamCipherProvider : StreamCipherProvider() {
 
         override fun crypt(b: Byte): Byte {
             val out = keyStream[index] xor b
-            if (++index == STATE_SIZE * 4) {
-                index = 0
-                if (++state[12] == 0) {
-                    throw IllegalStateException("Attempt to increase counter past 2^32.")
-                }
-                generateKeyStream()
+            if (++index == keyStream.size) {
+                nextKeyStream()
             }
             return out
         }
 
+        override fun crypt(src: ByteArray, off: Int, len: Int, dst: ByteArray, dstOff: Int) {
+            var done = 0
+            while (done < len) {
+                val count = minOf(len - done, keyStream.size - index)
+                val srcStart = off + done
+                val dstStart = dstOff + done
+                // simple loop over arrays is vectorized by JIT
+                for (i in 0 until count) {
+                    dst[dstStart + i] = src[srcStart + i] xor keyStream[index + i]
+                }
+                done += count
+                index += count
+                if (index == keyStream.size) {
+                    nextKeyStream()
+                }
+            }
+        }
+
         fun reset() {
-            index = 0
             state[12] = 0
             generateKeyStream()
         }
 
+        private fun nextKeyStream() {
+            if (++state[12] == 0) {
+                throw IllegalStateException("Attempt to increase counter past 2^32.")
+            }
+            generateKeyStream()
+        }
+
+        /**
+         * Generates [KEY_STREAM_BLOCKS] successive blocks of key stream starting from current counter.
+         * The counter is left pointing to the last generated block.
+         */
         private fun generateKeyStream() {
+            index = 0
+            var offset = 0
+            while (true) {
+                generateBlock(offset)
+                offset += STATE_SIZE * 4
+                if (offset == keyStream.size) break
+                if (++state[12] == 0) {
+                    throw IllegalStateException("Attempt to increase counter past 2^32.")
+                }
+            }
+        }
+
+        private fun generateBlock(offset: Int) {
             var x00 = state[0]
             var x01 = state[1]
             var x02 = state[2]
@@ -164,22 +201,22 @@ class JBChaChaStreamCipherProvider : StreamCipherProvider() {
                 x09 += x14
                 x04 = rotl7(x04 xor x09)
             }
-            intToKeyStream(x00 + state[0], 0)
-            intToKeyStream(x01 + state[1], 4)
-            intToKeyStream(x02 + state[2], 8)
-            intToKeyStream(x03 + state[3], 12)
-            intToKeyStream(x04 + state[4], 16)
-            intToKeyStream(x05 + state[5], 20)
-            intToKeyStream(x06 + state[6], 24)
-            intToKeyStream(x07 + state[7], 28)
-            intToKeyStream(x08 + state[8], 32)
-            intToKeyStream(x09 + state[9], 36)
-            intToKeyStream(x10 + state[10], 40)
-            intToKeyStream(x11 + state[11], 44)
-            intToKeyStream(x12 + state[12], 48)
-            intToKeyStream(x13 + state[13], 52)
-            intToKeyStream(x14 + state[14], 56)
-            intToKeyStream(x15 + state[15], 60)
+            intToKeyStream(x00 + state[0], offset)
+            intToKeyStream(x01 + state[1], offset + 4)
+            intToKeyStream(x02 + state[2], offset + 8)
+            intToKeyStream(x03 + state[3], offset + 12)
+            intToKeyStream(x04 + state[4], offset + 16)
+            intToKeyStream(x05 + state[5], offset + 20)
+            intToKeyStream(x06 + state[6], offset + 24)
+            intToKeyStream(x07 + state[7], offset + 28)
+            intToKeyStream(x08 + state[8], offset + 32)
+            intToKeyStream(x09 + state[9], offset + 36)
+            intToKeyStream(x10 + state[10], offset + 40)
+            intToKeyStream(x11 + state[11], offset + 44)
+            intToKeyStream(x12 + state[12], offset + 48)
+            intToKeyStream(x13 + state[13], offset + 52)
+            intToKeyStream(x14 + state[14], offset + 56)
+            intToKeyStream(x15 + state[15], offset + 60)
         }
 
         private fun updateState(bs: ByteArray, off: Int, count: Int) {
@@ -213,6 +250,9 @@ class JBChaChaStreamCipherProvider : StreamCipherProvider() {
 
             private const val STATE_SIZE = 16
 
+            // number of 64-byte blocks of key stream generated at once
+            private const val KEY_STREAM_BLOCKS = 4
+
             private val TAU_SIGMA = Pack.littleEndianToInt(Strings.toByteArray("expand 16-byte k" + "expand 32-byte k"), 0, 8)
 
             private fun rotl16(x: Int) = x shl 16 or x.ushr(16)
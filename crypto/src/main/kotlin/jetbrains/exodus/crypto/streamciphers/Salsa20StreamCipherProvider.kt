@@ -40,5 +40,9 @@ class Salsa20StreamCipherProvider : KeyAwareStreamCipherProvider() {
         override fun crypt(b: Byte): Byte {
             return engine.returnByte(b)
         }
+
+        override fun crypt(src: ByteArray, off: Int, len: Int, dst: ByteArray, dstOff: Int) {
+            engine.processBytes(src, off, len, dst, dstOff)
+        }
     }
 }
\ No newline at end of file
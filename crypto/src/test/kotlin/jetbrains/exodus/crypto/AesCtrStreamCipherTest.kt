@@ -0,0 +1,58 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.crypto
+
+import jetbrains.exodus.crypto.streamciphers.AES_CTR_CIPHER_ID
+import org.junit.Assert
+import org.junit.Test
+import javax.crypto.Cipher
+import javax.crypto.spec.IvParameterSpec
+import javax.crypto.spec.SecretKeySpec
+
+class AesCtrStreamCipherTest : StreamCipherTest() {
+
+    override fun createCipher(): StreamCipher {
+        return newCipher(AES_CTR_CIPHER_ID)
+    }
+
+    @Test
+    fun testEqualToJca() {
+        val key = ByteArray(32) { (it * 7).toByte() }
+        val iv = 314159262718281828L
+        val data = ByteArray(1000) { it.toByte() }
+        val counterBlock = ByteArray(16)
+        iv.toByteArray().copyInto(counterBlock)
+        val expected = Cipher.getInstance("AES/CTR/NoPadding").apply {
+            init(Cipher.ENCRYPT_MODE, SecretKeySpec(key, "AES"), IvParameterSpec(counterBlock))
+        }.doFinal(data)
+        val cipher = createCipher().with(key, iv)
+        val result = ByteArray(data.size)
+        for (i in 0 until 5) {
+            result[i] = cipher.crypt(data[i])
+        }
+        cipher.crypt(data, 5, 500, result, 5)
+        for (i in 505 until 510) {
+            result[i] = cipher.crypt(data[i])
+        }
+        cipher.crypt(data, 510, data.size - 510, result, 510)
+        Assert.assertArrayEquals(expected, result)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun test128BitKey() {
+        createCipher().init(ByteArray(16), 0L)
+    }
+}
@@ -38,4 +38,26 @@ class ChaChaEqualityTest {
         val cipherInputStream = ByteArrayInputStream(baseOutputStream.bufferBytes, 0, baseOutputStream.size()) decryptBy { newCipher(JB_CHACHA_CIPHER_ID).apply { init(KEY, IV) } }
         Assert.assertEquals(RENAT_GILFANOV, cipherInputStream.reader().readText())
     }
+
+    @Test
+    fun `JB implementation is equal to BC in bulk`() {
+        val data = ByteArray(10000) { it.toByte() }
+        val expected = ByteArray(data.size)
+        newCipher(CHACHA_CIPHER_ID).apply { init(KEY, IV) }.crypt(data, 0, data.size, expected, 0)
+        val jbCipher = newCipher(JB_CHACHA_CIPHER_ID).apply { init(KEY, IV) }
+        val result = ByteArray(data.size)
+        var offset = 0
+        var chunk = 1
+        while (offset < data.size) {
+            val len = minOf(chunk, data.size - offset)
+            if (len == 1) {
+                result[offset] = jbCipher.crypt(data[offset])
+            } else {
+                jbCipher.crypt(data, offset, len, result, offset)
+            }
+            offset += len
+            chunk = chunk * 3 % 301 + 1
+        }
+        Assert.assertArrayEquals(expected, result)
+    }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.entitystore;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+final class PersistentEntityColumns<T> implements EntityColumns<T> {
+
+    @NotNull
+    private final PersistentEntityId[] ids;
+    @NotNull
+    private final Map<String, Object[]> columns;
+
+    PersistentEntityColumns(@NotNull final PersistentEntityId[] ids) {
+        this.ids = ids;
+        columns = new LinkedHashMap<>();
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @NotNull
+    @Override
+    public EntityId getId(final int row) {
+        return ids[row];
+    }
+
+    @NotNull
+    @Override
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    @Nullable
+    @Override
+    public T get(@NotNull final String name, final int row) {
+        //noinspection unchecked
+        return (T) getColumnArray(name)[row];
+    }
+
+    @NotNull
+    @Override
+    public List<T> getColumn(@NotNull final String name) {
+        //noinspection unchecked
+        return Collections.unmodifiableList(Arrays.asList((T[]) getColumnArray(name)));
+    }
+
+    @NotNull
+    PersistentEntityId[] getIds() {
+        return ids;
+    }
+
+    @NotNull
+    Object[] addColumn(@NotNull final String name) {
+        return columns.computeIfAbsent(name, n -> new Object[ids.length]);
+    }
+
+    @NotNull
+    private Object[] getColumnArray(@NotNull final String name) {
+        final Object[] result = columns.get(name);
+        if (result == null) {
+            throw new IllegalArgumentException("Column is not loaded: " + name);
+        }
+        return result;
+    }
+}
@@ -28,11 +28,14 @@ import jetbrains.exodus.crypto.StreamCipherProvider;
 import jetbrains.exodus.entitystore.PersistentStoreTransaction.TransactionType;
 import jetbrains.exodus.entitystore.iterate.EntityFromLinkSetIterable;
 import jetbrains.exodus.entitystore.iterate.EntityFromLinksIterable;
+import jetbrains.exodus.entitystore.iterate.EntityIdSet;
 import jetbrains.exodus.entitystore.iterate.EntityIterableBase;
+import jetbrains.exodus.entitystore.iterate.EntityIterableParallelEvaluator;
 import jetbrains.exodus.entitystore.management.EntityStoreConfig;
 import jetbrains.exodus.entitystore.management.EntityStoreStatistics;
 import jetbrains.exodus.entitystore.replication.PersistentEntityStoreReplicator;
 import jetbrains.exodus.entitystore.tables.*;
+import jetbrains.exodus.entitystore.util.EntityIdSetFactory;
 import jetbrains.exodus.env.*;
 import jetbrains.exodus.env.replication.EnvironmentReplicationDelta;
 import jetbrains.exodus.io.DataReaderWriterProvider;
@@ -53,6 +56,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 
 @SuppressWarnings({"UnusedDeclaration", "ThisEscapedInObjectConstruction", "VolatileLongOrDoubleField",
         "ObjectAllocationInLoop", "ReuseOfLocalVariable", "rawtypes"})
@@ -121,9 +125,12 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
     private Store blobFileLengths;
     private Store internalSettings;
     private Store sequences;
+    private boolean trigramIndexUsable;
 
     @NotNull
     private final EntityIterableCache iterableCache;
+    @Nullable
+    private final EntityIterableParallelEvaluator parallelEvaluator;
     private final Explainer explainer;
 
     private final DataGetter propertyDataGetter;
@@ -178,6 +185,8 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
 
         namingRulez = new StoreNamingRules(name);
         iterableCache = new EntityIterableCache(this);
+        final int parallelism = config.getEntityIterableParallelism();
+        parallelEvaluator = parallelism > 0 ? new EntityIterableParallelEvaluator(this, parallelism) : null;
         explainer = new Explainer(config.isExplainOn());
         propertyDataGetter = new PropertyDataGetter();
         linkDataGetter = config.isDebugLinkDataGetter() ? new DebugLinkDataGetter() : nonDebugLinkDataGetter;
@@ -267,6 +276,9 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
         if (!config.getRefactoringSkipAll() && !environment.isReadOnly()) {
             applyRefactorings(fromScratch); // this method includes refactorings that could be clustered into separate txns
         }
+        // trigram indices can be used for queries only if they were built for existing data
+        trigramIndexUsable = config.getTrigramIndex() &&
+                Settings.get(internalSettings, "refactorCreateTrigramIndices() applied") != null;
     }
 
     private void clearBrokenBlobs(PersistentStoreTransaction txn) {
@@ -449,6 +461,17 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
                 }
                 Settings.set(internalSettings, "Link null-indices present", "y");
             }
+            if (config.getTrigramIndex()) {
+                if (fromScratch || Settings.get(internalSettings, "refactorCreateTrigramIndices() applied") == null) {
+                    if (!fromScratch) {
+                        refactorings.refactorCreateTrigramIndices();
+                    }
+                    Settings.set(internalSettings, "refactorCreateTrigramIndices() applied", "y");
+                }
+            } else if (Settings.get(internalSettings, "refactorCreateTrigramIndices() applied") != null) {
+                // trigram indices are not maintained anymore, so they should be rebuilt once turned on again
+                Settings.delete(internalSettings, "refactorCreateTrigramIndices() applied");
+            }
             if (blobVault instanceof DiskBasedBlobVault) {
                 if (fromScratch || Settings.get(internalSettings, "refactorBlobFileLengths() applied") == null) {
                     if (!fromScratch) {
@@ -923,6 +946,16 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
         return iterableCache;
     }
 
+    /**
+     * @return evaluator of independent operands of entity iterables in parallel or {@code null} if parallel
+     * evaluation is disabled
+     * @see PersistentEntityStoreConfig#ENTITY_ITERABLE_PARALLELISM
+     */
+    @Nullable
+    public EntityIterableParallelEvaluator getParallelEvaluator() {
+        return parallelEvaluator;
+    }
+
     @Nullable
     public Comparable getProperty(@NotNull final PersistentStoreTransaction txn,
                                   @NotNull final PersistentEntity entity,
@@ -944,6 +977,174 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
         return result;
     }
 
+    @NotNull
+    public EntityColumns<Comparable> loadProperties(@NotNull final PersistentStoreTransaction txn,
+                                                    @NotNull final EntityIterable entities,
+                                                    @NotNull final Set<String> propertyNames) {
+        final PersistentEntityColumns<Comparable> result = new PersistentEntityColumns<>(toEntityIdArray(entities));
+        final IntHashMap<Object[]> columns = new IntHashMap<>();
+        for (final String propertyName : propertyNames) {
+            final Object[] column = result.addColumn(propertyName);
+            final int propertyId = getPropertyId(txn, propertyName, false);
+            if (propertyId >= 0) {
+                columns.put(propertyId, column);
+            }
+        }
+        loadColumns(result.getIds(), columns, typeId -> getPrimaryPropertyIndexCursor(txn, typeId), false,
+                (column, row, id, propertyId, value) -> {
+                    final PropertyValue propValue = propertyTypes.entryToPropertyValue(value);
+                    final Comparable data = propValue.getData();
+                    column[row] = data;
+                    if (propValue.getType().getTypeId() != ComparableValueType.COMPARABLE_SET_VALUE_TYPE) {
+                        txn.cacheProperty(id, propertyId, data);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Counts entities of specified type grouped by values of specified property scanning the property value index,
+     * so no entity is loaded. Values of string properties are grouped ignoring character case as they are indexed
+     * lower-cased. For {@linkplain ComparableSet} properties, entities are counted for each item of the set.
+     *
+     * @param constraint if not {@code null}, only entities from it are counted
+     * @return map of property values to the numbers of entities in ascending order of the values
+     */
+    @NotNull
+    public Map<Comparable, Long> countBy(@NotNull final PersistentStoreTransaction txn,
+                                         @NotNull final String entityType,
+                                         @NotNull final String propertyName,
+                                         @Nullable final EntityIterable constraint) {
+        final Map<Comparable, Long> result = new LinkedHashMap<>();
+        final int entityTypeId = getEntityTypeId(txn, entityType, false);
+        final int propertyId = getPropertyId(txn, propertyName, false);
+        if (entityTypeId < 0 || propertyId < 0) {
+            return result;
+        }
+        final EntityIdSet ids = constraint == null ? null : toEntityIdSet(txn, constraint);
+        if (ids != null && ids.isEmpty()) {
+            return result;
+        }
+        final Cursor cursor = getPropertyValuesIndexCursor(txn, entityTypeId, propertyId);
+        if (cursor == null) {
+            return result;
+        }
+        try (cursor) {
+            ComparableBinding binding = null;
+            for (boolean success = cursor.getNext(); success; success = cursor.getNextNoDup()) {
+                final long localId = LongBinding.compressedEntryToLong(cursor.getValue());
+                if (binding == null) {
+                    binding = getValueIndexBinding(txn, entityTypeId, propertyId, localId);
+                    if (binding == null) {
+                        break;
+                    }
+                }
+                final Comparable value = binding.entryToObject(cursor.getKey());
+                long count;
+                if (ids == null) {
+                    count = cursor.count();
+                } else {
+                    count = ids.contains(entityTypeId, localId) ? 1 : 0;
+                    while (cursor.getNextDup()) {
+                        if (ids.contains(entityTypeId, LongBinding.compressedEntryToLong(cursor.getValue()))) {
+                            ++count;
+                        }
+                    }
+                }
+                if (count > 0) {
+                    result.put(value, count);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns minimum or maximum value of specified property amongst entities of specified type. Only the edge of the
+     * property value index is read unless {@code constraint} filters out entities having the edge values. As with
+     * {@linkplain #countBy(PersistentStoreTransaction, String, String, EntityIterable)}, string values are lower-cased.
+     *
+     * @param constraint if not {@code null}, only values of entities from it are considered
+     * @param ascending  {@code true} for minimum value, {@code false} for maximum one
+     * @return minimum or maximum value or {@code null} if no entity has the property
+     */
+    @Nullable
+    public Comparable getBoundValue(@NotNull final PersistentStoreTransaction txn,
+                                    @NotNull final String entityType,
+                                    @NotNull final String propertyName,
+                                    @Nullable final EntityIterable constraint,
+                                    final boolean ascending) {
+        final int entityTypeId = getEntityTypeId(txn, entityType, false);
+        final int propertyId = getPropertyId(txn, propertyName, false);
+        if (entityTypeId < 0 || propertyId < 0) {
+            return null;
+        }
+        final EntityIdSet ids = constraint == null ? null : toEntityIdSet(txn, constraint);
+        if (ids != null && ids.isEmpty()) {
+            return null;
+        }
+        final Cursor cursor = getPropertyValuesIndexCursor(txn, entityTypeId, propertyId);
+        if (cursor == null) {
+            return null;
+        }
+        try (cursor) {
+            boolean success = ascending ? cursor.getNext() : cursor.getPrev();
+            while (success) {
+                long localId = LongBinding.compressedEntryToLong(cursor.getValue());
+                if (ids != null) {
+                    while (!ids.contains(entityTypeId, localId)) {
+                        if (!(ascending ? cursor.getNextDup() : cursor.getPrevDup())) {
+                            localId = -1;
+                            break;
+                        }
+                        localId = LongBinding.compressedEntryToLong(cursor.getValue());
+                    }
+                }
+                if (localId >= 0) {
+                    final ComparableBinding binding = getValueIndexBinding(txn, entityTypeId, propertyId, localId);
+                    return binding == null ? null : binding.entryToObject(cursor.getKey());
+                }
+                success = ascending ? cursor.getNextNoDup() : cursor.getPrevNoDup();
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    private static EntityIdSet toEntityIdSet(@NotNull final PersistentStoreTransaction txn,
+                                             @NotNull final EntityIterable entities) {
+        if (entities instanceof EntityIterableBase) {
+            return ((EntityIterableBase) entities).getSource().toSet(txn);
+        }
+        EntityIdSet result = EntityIdSetFactory.newSet();
+        final EntityIterator it = entities.iterator();
+        while (it.hasNext()) {
+            result = result.add(it.nextId());
+        }
+        return result;
+    }
+
+    /**
+     * Returns binding of keys of the value index of specified property. Like PropertiesIterable does, the type of
+     * indexed values is deduced from the value of the property of an entity having it.
+     */
+    @Nullable
+    private ComparableBinding getValueIndexBinding(@NotNull final PersistentStoreTransaction txn,
+                                                   final int entityTypeId,
+                                                   final int propertyId,
+                                                   final long localId) {
+        final ByteIterable entry = getRawProperty(txn, new PersistentEntityId(entityTypeId, localId), propertyId);
+        if (entry == null) {
+            return null;
+        }
+        final PropertyValue propValue = propertyTypes.entryToPropertyValue(entry);
+        if (propValue.getType().getTypeId() != ComparableValueType.COMPARABLE_SET_VALUE_TYPE) {
+            return propValue.getBinding();
+        }
+        final Class itemClass = ((ComparableSet) propValue.getData()).getItemClass();
+        return itemClass == null ? null : propertyTypes.getPropertyType(itemClass).getBinding();
+    }
+
     @Nullable
     public PropertyValue getPropertyValue(@NotNull final PersistentStoreTransaction txn,
                                           @NotNull final PersistentEntity entity,
@@ -1341,6 +1542,15 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
         return config.getUseIntForLocalId();
     }
 
+    /**
+     * @return {@code true} if trigram indices of string property values are maintained and are complete, so they
+     * can be used for sub-string search
+     * @see PersistentEntityStoreConfig#TRIGRAM_INDEX
+     */
+    public boolean isTrigramIndexUsable() {
+        return trigramIndexUsable;
+    }
+
     @Nullable
     private Pair<Long, InputStream> getInPlaceBlobStream(@NotNull final PersistentStoreTransaction txn,
                                                          @NotNull final PersistentEntity entity,
@@ -1788,6 +1998,30 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
         return resultId;
     }
 
+    @NotNull
+    public EntityColumns<EntityId> loadLinks(@NotNull final PersistentStoreTransaction txn,
+                                             @NotNull final EntityIterable entities,
+                                             @NotNull final Set<String> linkNames) {
+        final PersistentEntityColumns<EntityId> result = new PersistentEntityColumns<>(toEntityIdArray(entities));
+        final IntHashMap<Object[]> columns = new IntHashMap<>();
+        for (final String linkName : linkNames) {
+            final Object[] column = result.addColumn(linkName);
+            final int linkId = getLinkId(txn, linkName, false);
+            if (linkId >= 0) {
+                columns.put(linkId, column);
+            }
+        }
+        // only first link is loaded like getLinkAsEntityId() does
+        loadColumns(result.getIds(), columns,
+                typeId -> getLinksTable(txn, typeId).getFirstIndexCursor(txn.getEnvironmentTransaction()), true,
+                (column, row, id, linkId, value) -> {
+                    final PersistentEntityId targetId = (PersistentEntityId) LinkValue.entryToLinkValue(value).getEntityId();
+                    column[row] = targetId;
+                    txn.cacheLink(new PersistentEntity(this, id), linkId, targetId);
+                });
+        return result;
+    }
+
     @Nullable
     public PersistentEntityId getRawLinkAsEntityId(@NotNull final PersistentStoreTransaction txn,
                                                    @NotNull final PersistentEntityId fromId,
@@ -2114,17 +2348,20 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
 
         truncateStores(txn, Arrays.asList(
                         entityTableName, linksTableName, secondLinksTableName, propertiesTableName, blobsObsoleteTableName, blobsTableName),
-                () -> new Iterator<>() { // enumerate all property value indexes
-                    private int propertyId = 0;
+                () -> new Iterator<>() { // enumerate all property value and trigram indexes
+                    private int i = 0;
 
                     @Override
                     public boolean hasNext() {
-                        return propertyId < 10000; // this was taken from
+                        return i < 20000; // this was taken from
                     }
 
                     @Override
                     public String next() {
-                        return propertiesTableName + "#value_idx" + propertyId++;
+                        final int propertyId = i >> 1;
+                        return (i++ & 1) != 0 ?
+                                PropertiesTable.trigramIndexName(propertiesTableName, propertyId) :
+                                propertiesTableName + "#value_idx" + propertyId;
                     }
 
                     @Override
@@ -2399,6 +2636,9 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
         try {
             getAsyncProcessor().finish();
             getCountsAsyncProcessor().finish();
+            if (parallelEvaluator != null) {
+                parallelEvaluator.close();
+            }
             synchronized (this) {
                 blobVault.close();
                 // by default, do not close underlying environment since it can be used also by another EntityStore or in a different way
@@ -2478,6 +2718,85 @@ public class PersistentEntityStoreImpl implements PersistentEntityStore, FlushLo
         return new PersistentEntity(this, (PersistentEntityId) id);
     }
 
+    @NotNull
+    private static PersistentEntityId[] toEntityIdArray(@NotNull final EntityIterable entities) {
+        final List<PersistentEntityId> result = new ArrayList<>();
+        final EntityIterator it = entities.iterator();
+        while (it.hasNext()) {
+            final EntityId id = it.nextId();
+            if (id != null) {
+                result.add((PersistentEntityId) id);
+            }
+        }
+        return result.toArray(new PersistentEntityId[0]);
+    }
+
+    /**
+     * Loads columns of properties or links of entities with specified ids. Instead of looking up each pair of an
+     * entity and a property separately, rows are sorted by entity type and local id, so a single cursor per entity type
+     * walks the table forward: for each entity it moves to the smallest requested property id and reads all adjacent
+     * keys up to the greatest one.
+     */
+    private static void loadColumns(@NotNull final PersistentEntityId[] ids,
+                                    @NotNull final IntHashMap<Object[]> columns,
+                                    @NotNull final IntFunction<Cursor> cursorProvider,
+                                    final boolean skipDuplicates,
+                                    @NotNull final ColumnLoader loader) {
+        if (ids.length == 0 || columns.isEmpty()) {
+            return;
+        }
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        for (final int id : columns.keySet()) {
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+        }
+        final Integer[] rows = new Integer[ids.length];
+        for (int i = 0; i < rows.length; ++i) {
+            rows[i] = i;
+        }
+        Arrays.sort(rows, (r1, r2) -> ids[r1].compareTo(ids[r2]));
+        final LightOutputStream output = new LightOutputStream(7);
+        final int[] bytes = new int[8];
+        Cursor cursor = null;
+        int cursorTypeId = -1;
+        try {
+            for (final int row : rows) {
+                final PersistentEntityId id = ids[row];
+                final int typeId = id.getTypeId();
+                if (cursor == null || typeId != cursorTypeId) {
+                    if (cursor != null) {
+                        cursor.close();
+                    }
+                    cursor = cursorProvider.apply(typeId);
+                    cursorTypeId = typeId;
+                }
+                final long localId = id.getLocalId();
+                boolean found = cursor.getSearchKeyRange(PropertyKey.propertyKeyToEntry(output, bytes, localId, minId)) != null;
+                while (found) {
+                    final PropertyKey key = PropertyKey.entryToPropertyKey(cursor.getKey());
+                    if (key.getEntityLocalId() != localId || key.getPropertyId() > maxId) {
+                        break;
+                    }
+                    final Object[] column = columns.get(key.getPropertyId());
+                    if (column != null) {
+                        loader.load(column, row, id, key.getPropertyId(), cursor.getValue());
+                    }
+                    found = skipDuplicates ? cursor.getNextNoDup() : cursor.getNext();
+                }
+            }
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    private interface ColumnLoader {
+
+        void load(@NotNull Object[] column, int row, @NotNull PersistentEntityId id, int propertyId, @NotNull ByteIterable value);
+    }
+
     private interface DataGetter {
 
         ByteIterable getUpToDateEntry(@NotNull PersistentStoreTransaction txn, int typeId, PropertyKey key);
@@ -69,7 +69,7 @@ public class PersistentStoreTransaction implements StoreTransaction, TxnGetterSt
     private EntityIterableCacheAdapterMutable mutableCache;
     private List<Updatable> mutatedInTxn;
     @Nullable
-    private LongHashMap<Triple<Path, Boolean, Long>> blobStreams;
+    private LongFlatHashMap<Triple<Path, Boolean, Long>> blobStreams;
 
     private volatile LongHashMap<ArrayList<InputStream>> openedBlobStreams;
     private final ReentrantLock openedBlobStreamsLock = new ReentrantLock();
@@ -577,6 +577,68 @@ public class PersistentStoreTransaction implements StoreTransaction, TxnGetterSt
                 filtered, valueGetter, comparator);
     }
 
+    @Override
+    @NotNull
+    public Map<Comparable, Long> countBy(@NotNull final String entityType, @NotNull final String propertyName) {
+        return store.countBy(this, entityType, propertyName, null);
+    }
+
+    @Override
+    @NotNull
+    public Map<Comparable, Long> countBy(@NotNull final String entityType,
+                                         @NotNull final String propertyName,
+                                         @NotNull final EntityIterable constraint) {
+        return store.countBy(this, entityType, propertyName, constraint);
+    }
+
+    @Override
+    @NotNull
+    public List<Comparable> distinctValues(@NotNull final String entityType, @NotNull final String propertyName) {
+        return new ArrayList<>(store.countBy(this, entityType, propertyName, null).keySet());
+    }
+
+    @Override
+    @Nullable
+    public Comparable getMinValue(@NotNull final String entityType, @NotNull final String propertyName) {
+        return store.getBoundValue(this, entityType, propertyName, null, true);
+    }
+
+    @Override
+    @Nullable
+    public Comparable getMinValue(@NotNull final String entityType,
+                                  @NotNull final String propertyName,
+                                  @NotNull final EntityIterable constraint) {
+        return store.getBoundValue(this, entityType, propertyName, constraint, true);
+    }
+
+    @Override
+    @Nullable
+    public Comparable getMaxValue(@NotNull final String entityType, @NotNull final String propertyName) {
+        return store.getBoundValue(this, entityType, propertyName, null, false);
+    }
+
+    @Override
+    @Nullable
+    public Comparable getMaxValue(@NotNull final String entityType,
+                                  @NotNull final String propertyName,
+                                  @NotNull final EntityIterable constraint) {
+        return store.getBoundValue(this, entityType, propertyName, constraint, false);
+    }
+
+    @Override
+    @NotNull
+    public EntityColumns<Comparable> loadProperties(@NotNull final EntityIterable entities,
+                                                    @NotNull final Set<String> propertyNames) {
+        return store.loadProperties(this, entities, propertyNames);
+    }
+
+    @Override
+    @NotNull
+    public EntityColumns<EntityId> loadLinks(@NotNull final EntityIterable entities,
+                                             @NotNull final Set<String> linkNames) {
+        return store.loadLinks(this, entities, linkNames);
+    }
+
     @Override
     @NotNull
     public EntityId toEntityId(@NotNull final String representation) {
@@ -777,10 +839,10 @@ public class PersistentStoreTransaction implements StoreTransaction, TxnGetterSt
     void addBlobStream(final long blobHandle, final long tmpHandle,
                        @NotNull Path tmpFilePath,
                        final boolean invalidateOnRollback) {
-        LongHashMap<Triple<Path, Boolean, Long>> blobStreams = this.blobStreams;
+        LongFlatHashMap<Triple<Path, Boolean, Long>> blobStreams = this.blobStreams;
 
         if (blobStreams == null) {
-            blobStreams = new LongHashMap<>();
+            blobStreams = new LongFlatHashMap<>();
             this.blobStreams = blobStreams;
         }
 
@@ -818,7 +880,7 @@ public class PersistentStoreTransaction implements StoreTransaction, TxnGetterSt
     }
 
     long getBlobSize(final long blobHandle) throws IOException {
-        final LongHashMap<Triple<Path, Boolean, Long>> blobStreams = this.blobStreams;
+        final LongFlatHashMap<Triple<Path, Boolean, Long>> blobStreams = this.blobStreams;
 
         if (blobStreams != null) {
             final Triple<Path, Boolean, Long> streamTriple = blobStreams.get(blobHandle);
@@ -840,7 +902,7 @@ public class PersistentStoreTransaction implements StoreTransaction, TxnGetterSt
 
     @Nullable
     InputStream getBlobStream(final long blobHandle) throws IOException {
-        final LongHashMap<Triple<Path, Boolean, Long>> blobStreams = this.blobStreams;
+        final LongFlatHashMap<Triple<Path, Boolean, Long>> blobStreams = this.blobStreams;
 
         InputStream result = null;
         if (blobStreams != null) {
@@ -0,0 +1,156 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.entitystore.iterate;
+
+import jetbrains.exodus.entitystore.PersistentEntityStoreImpl;
+import jetbrains.exodus.entitystore.PersistentStoreTransaction;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Instantiates independent operands of an operation over {@linkplain EntityIterableBase entity iterables}
+ * concurrently in a bounded {@linkplain ForkJoinPool}. Each operand but the first one is instantiated by a worker
+ * against its own snapshot of the transaction, i.e. against the same {@code MetaTree} root, the first operand is
+ * instantiated by the calling thread. Workers inherit {@linkplain jetbrains.exodus.entitystore.QueryCancellingPolicy}
+ * of the transaction, so cancelled queries are cancelled in workers as well.
+ *
+ * @see jetbrains.exodus.entitystore.PersistentEntityStoreConfig#ENTITY_ITERABLE_PARALLELISM
+ */
+public final class EntityIterableParallelEvaluator {
+
+    private static final String THREAD_NAME = EntityIterableParallelEvaluator.class.getSimpleName();
+
+    @NotNull
+    private final PersistentEntityStoreImpl store;
+    @NotNull
+    private final ForkJoinPool pool;
+
+    public EntityIterableParallelEvaluator(@NotNull final PersistentEntityStoreImpl store, final int parallelism) {
+        this.store = store;
+        pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            final ForkJoinWorkerThread result = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            result.setName(THREAD_NAME + '-' + store.getLocation() + '-' + result.getPoolIndex());
+            result.setDaemon(true);
+            return result;
+        }, null, false);
+    }
+
+    /**
+     * Checks if specified operands are worth evaluating in parallel in specified transaction. The transaction
+     * should be the current one and should have no changes, since workers see only committed data of its snapshot.
+     * Operands should be thread-safe, i.e. they should get transaction from the current thread, and each of them
+     * should be neither cached nor a cached instance.
+     */
+    public boolean canEvaluate(@NotNull final PersistentStoreTransaction txn,
+                               @NotNull final EntityIterableBase... operands) {
+        if (pool.isShutdown() || store.getCurrentTransaction() != txn || !txn.isIdempotent()) {
+            return false;
+        }
+        for (final EntityIterableBase operand : operands) {
+            if (operand == EntityIterableBase.EMPTY || !operand.isThreadSafe() ||
+                operand.isCachedInstance() || operand.isCached()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Instantiates specified operands in parallel and returns their cached instances in the same order. Cached
+     * instances are not put to the EntityIterableCache.
+     */
+    @NotNull
+    public EntityIterableBase[] evaluate(@NotNull final PersistentStoreTransaction txn,
+                                         @NotNull final EntityIterableBase... operands) {
+        final int count = operands.length;
+        final EntityIterableBase[] result = new EntityIterableBase[count];
+        final OperandTask[] tasks = new OperandTask[count];
+        final boolean inPool = ForkJoinTask.getPool() == pool;
+        boolean success = false;
+        try {
+            for (int i = 1; i < count; ++i) {
+                final OperandTask task = new OperandTask(txn, operands[i]);
+                tasks[i] = task;
+                if (inPool) {
+                    task.fork();
+                } else {
+                    pool.execute(task);
+                }
+            }
+            result[0] = instantiate(txn, txn, operands[0]);
+            for (int i = 1; i < count; ++i) {
+                result[i] = tasks[i].join();
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                for (final OperandTask task : tasks) {
+                    if (task != null) {
+                        task.cancel(false);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    @NotNull
+    private static EntityIterableBase instantiate(@NotNull final PersistentStoreTransaction txn,
+                                                  @NotNull final PersistentStoreTransaction iterationTxn,
+                                                  @NotNull final EntityIterableBase operand) {
+        final EntityIterableBase it = operand.asProbablyCached();
+        if (it.isCachedInstance()) {
+            return it;
+        }
+        return EntityIdArrayCachedInstanceIterableFactory.createInstance(
+            txn, operand, (EntityIteratorBase) it.getIteratorImpl(iterationTxn));
+    }
+
+    private final class OperandTask extends RecursiveTask<EntityIterableBase> {
+
+        @NotNull
+        private final PersistentStoreTransaction txn;
+        @NotNull
+        private final EntityIterableBase operand;
+
+        private OperandTask(@NotNull final PersistentStoreTransaction txn, @NotNull final EntityIterableBase operand) {
+            this.txn = txn;
+            this.operand = operand;
+        }
+
+        @Override
+        protected EntityIterableBase compute() {
+            final PersistentStoreTransaction snapshot = txn.getSnapshot();
+            snapshot.setQueryCancellingPolicy(txn.getQueryCancellingPolicy());
+            // operand is thread-safe, so it gets the snapshot as current transaction of the worker
+            store.registerTransaction(snapshot);
+            try {
+                return instantiate(txn, snapshot, operand);
+            } finally {
+                store.unregisterTransaction(snapshot);
+                snapshot.abort();
+            }
+        }
+    }
+}
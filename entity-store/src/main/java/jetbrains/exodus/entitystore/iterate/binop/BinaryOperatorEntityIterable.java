@@ -21,6 +21,7 @@ import jetbrains.exodus.entitystore.EntityIterableType;
 import jetbrains.exodus.entitystore.PersistentStoreTransaction;
 import jetbrains.exodus.entitystore.iterate.EntityIterableBase;
 import jetbrains.exodus.entitystore.iterate.EntityIterableHandleBase;
+import jetbrains.exodus.entitystore.iterate.EntityIterableParallelEvaluator;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -109,6 +110,22 @@ public abstract class BinaryOperatorEntityIterable extends EntityIterableBase {
 
     protected abstract EntityIterableType getIterableType();
 
+    /**
+     * Returns operands which an iterator of the operation should be created of. If parallel evaluation of entity
+     * iterables is enabled and the operands can be evaluated in parallel, they are instantiated concurrently and
+     * their cached instances are returned. Otherwise, {@code iterable1} and {@code iterable2} are returned as is.
+     *
+     * @see jetbrains.exodus.entitystore.PersistentEntityStoreConfig#ENTITY_ITERABLE_PARALLELISM
+     */
+    @NotNull
+    protected final EntityIterableBase[] getOperands(@NotNull final PersistentStoreTransaction txn) {
+        final EntityIterableParallelEvaluator evaluator = getStore().getParallelEvaluator();
+        if (evaluator != null && evaluator.canEvaluate(txn, iterable1, iterable2)) {
+            return evaluator.evaluate(txn, iterable1, iterable2);
+        }
+        return new EntityIterableBase[]{iterable1, iterable2};
+    }
+
     @Override
     @NotNull
     protected EntityIterableHandleBase getHandleImpl() {
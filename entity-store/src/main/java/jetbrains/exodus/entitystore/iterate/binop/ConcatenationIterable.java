@@ -61,7 +61,8 @@ public final class ConcatenationIterable extends BinaryOperatorEntityIterable {
     @Override
     @NotNull
     public EntityIteratorBase getIteratorImpl(@NotNull final PersistentStoreTransaction txn) {
-        return new EntityIteratorFixingDecorator(this, new ConcatenationIterator(iterable1, iterable2));
+        final EntityIterableBase[] operands = getOperands(txn);
+        return new EntityIteratorFixingDecorator(this, new ConcatenationIterator(operands[0], operands[1]));
     }
 
     private final class ConcatenationIterator extends NonDisposableEntityIterator {
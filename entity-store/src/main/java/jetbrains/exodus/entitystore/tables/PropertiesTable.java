@@ -21,6 +21,7 @@ import jetbrains.exodus.bindings.ComparableSet;
 import jetbrains.exodus.bindings.ComparableValueType;
 import jetbrains.exodus.bindings.LongBinding;
 import jetbrains.exodus.core.dataStructures.hash.IntHashMap;
+import jetbrains.exodus.core.dataStructures.hash.LongHashSet;
 import jetbrains.exodus.entitystore.EntityStoreException;
 import jetbrains.exodus.entitystore.PersistentEntityStoreImpl;
 import jetbrains.exodus.entitystore.PersistentStoreTransaction;
@@ -34,18 +35,25 @@ import java.util.Collection;
 import java.util.Map;
 
 /**
- * A table for storing properties with secondary indexes of property values.
+ * A table for storing properties with secondary indexes of property values. Optionally, string property values are
+ * indexed by trigrams of their case-folded values (see {@linkplain jetbrains.exodus.entitystore.PersistentEntityStoreConfig#TRIGRAM_INDEX}).
  */
 public final class PropertiesTable extends Table {
 
     @NonNls
     private static final String PROP_VALUE_IDX = "#value_idx";
+    @NonNls
+    private static final String PROP_TRIGRAM_IDX = "#trigram_idx";
+
+    public static final int TRIGRAM_LENGTH = 3;
 
     @NotNull
     private final PersistentEntityStoreImpl store;
     private final Store primaryStore;
     private final IntHashMap<Store> valueIndexes;
     private final FieldIndex allPropsIndex;
+    private final boolean trigramIndexed;
+    private final IntHashMap<Store> trigramIndexes;
 
     public PropertiesTable(@NotNull final PersistentStoreTransaction txn,
                            @NotNull final String name,
@@ -57,6 +65,8 @@ public final class PropertiesTable extends Table {
         allPropsIndex = FieldIndex.fieldIndex(txn, name);
         store.trackTableCreation(primaryStore, txn);
         valueIndexes = new IntHashMap<>();
+        trigramIndexed = store.getConfig().getTrigramIndex();
+        trigramIndexes = new IntHashMap<>();
     }
 
     @Nullable
@@ -98,6 +108,9 @@ public final class PropertiesTable extends Table {
                 success = false;
             }
         }
+        if (trigramIndexed) {
+            updateTrigramIndex(txn, localId, oldValue, value, propertyId);
+        }
         checkStatus(success, "Failed to put");
     }
 
@@ -113,6 +126,9 @@ public final class PropertiesTable extends Table {
         deleteFromStore(envTxn, getOrCreateValueIndex(txn, propertyId),
             secondaryValue, createSecondaryKeys(store.getPropertyTypes(), value, type));
         allPropsIndex.remove(envTxn, propertyId, localId);
+        if (trigramIndexed) {
+            updateTrigramIndex(txn, localId, value, null, propertyId);
+        }
     }
 
     public Store getPrimaryIndex() {
@@ -150,6 +166,49 @@ public final class PropertiesTable extends Table {
         return result;
     }
 
+    public boolean isTrigramIndexed() {
+        return trigramIndexed;
+    }
+
+    @Nullable
+    public Store getTrigramIndex(@NotNull final PersistentStoreTransaction txn, final int propertyId, final boolean creationRequired) {
+        Store trigramIndex;
+        synchronized (trigramIndexes) {
+            trigramIndex = trigramIndexes.get(propertyId);
+            if (trigramIndex == null) {
+                final Transaction envTxn = txn.getEnvironmentTransaction();
+                trigramIndex = envTxn.getEnvironment().openStore(
+                        trigramIndexName(primaryStore.getName(), propertyId), StoreConfig.WITH_DUPLICATES, envTxn, creationRequired);
+                if (trigramIndex != null && !trigramIndex.getConfig().temporaryEmpty) {
+                    store.trackTableCreation(trigramIndex, txn);
+                    trigramIndexes.put(propertyId, trigramIndex);
+                }
+            }
+        }
+        return trigramIndex;
+    }
+
+    /**
+     * Adds trigrams of specified string value to the trigram index of the property. Used to build the index
+     * for existing data.
+     *
+     * @param localId    entity local id.
+     * @param value      property value.
+     * @param propertyId property id
+     */
+    public void putTrigrams(@NotNull final PersistentStoreTransaction txn,
+                            final long localId,
+                            @NotNull final ByteIterable value,
+                            final int propertyId) {
+        updateTrigramIndex(txn, localId, null, value, propertyId);
+    }
+
+    public void clearTrigramIndices() {
+        synchronized (trigramIndexes) {
+            trigramIndexes.clear();
+        }
+    }
+
     @NotNull
     public Collection<Map.Entry<Integer, Store>> getValueIndices() {
         synchronized (valueIndexes) {
@@ -178,10 +237,94 @@ public final class PropertiesTable extends Table {
         return new ByteIterable[]{value.subIterable(1, value.getLength() - 1)}; // skip property type
     }
 
+    /**
+     * Returns distinct trigrams of specified string with case folded. Each trigram is packed into a long value
+     * so that it can be used as a compressed key in the trigram index. Case is folded per char the same way as
+     * case-insensitive comparison of chars does, so folding neither depends on the default locale nor changes
+     * the length of the string.
+     *
+     * @param value string value
+     * @return array of distinct packed trigrams, empty if the string is shorter than {@linkplain #TRIGRAM_LENGTH}
+     */
+    public static long[] createTrigrams(@NotNull final String value) {
+        final int len = value.length();
+        if (len < TRIGRAM_LENGTH) {
+            return new long[0];
+        }
+        final LongHashSet result = new LongHashSet(len);
+        long trigram = ((long) foldCase(value.charAt(0)) << 16) + foldCase(value.charAt(1));
+        for (int i = 2; i < len; ++i) {
+            trigram = ((trigram << 16) & 0xffffffffffffL) + foldCase(value.charAt(i));
+            result.add(trigram);
+        }
+        return result.toLongArray();
+    }
+
+    private static char foldCase(final char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    public static ByteIterable trigramToEntry(final long trigram) {
+        return LongBinding.longToCompressedEntry(trigram);
+    }
+
+    public static String trigramIndexName(@NotNull final String propertiesTableName, final int propertyId) {
+        return propertiesTableName + PROP_TRIGRAM_IDX + propertyId;
+    }
+
     private String valueIndexName(final int propertyId) {
         return primaryStore.getName() + PROP_VALUE_IDX + propertyId;
     }
 
+    private void updateTrigramIndex(@NotNull final PersistentStoreTransaction txn,
+                                    final long localId,
+                                    @Nullable final ByteIterable oldValue,
+                                    @Nullable final ByteIterable value,
+                                    final int propertyId) {
+        final long[] oldTrigrams = getStringTrigrams(oldValue);
+        final long[] newTrigrams = getStringTrigrams(value);
+        if (oldTrigrams.length == 0 && newTrigrams.length == 0) {
+            return;
+        }
+        final Store trigramIdx = getTrigramIndex(txn, propertyId, true);
+        if (trigramIdx == null) {
+            throw new EntityStoreException("Failed to create trigram index " + trigramIndexName(primaryStore.getName(), propertyId));
+        }
+        final Transaction envTxn = txn.getEnvironmentTransaction();
+        final ByteIterable secondaryValue = LongBinding.longToCompressedEntry(localId);
+        final LongHashSet newTrigramSet = new LongHashSet(newTrigrams.length);
+        for (final long trigram : newTrigrams) {
+            newTrigramSet.add(trigram);
+        }
+        final LongHashSet oldTrigramSet = new LongHashSet(oldTrigrams.length);
+        if (oldTrigrams.length > 0) {
+            try (Cursor cursor = trigramIdx.openCursor(envTxn)) {
+                for (final long trigram : oldTrigrams) {
+                    oldTrigramSet.add(trigram);
+                    // trigram index can lag behind the primary one, so a missing pair is not an error
+                    if (!newTrigramSet.contains(trigram) && cursor.getSearchBoth(trigramToEntry(trigram), secondaryValue)) {
+                        cursor.deleteCurrent();
+                    }
+                }
+            }
+        }
+        for (final long trigram : newTrigrams) {
+            if (!oldTrigramSet.contains(trigram)) {
+                trigramIdx.put(envTxn, trigramToEntry(trigram), secondaryValue);
+            }
+        }
+    }
+
+    private long[] getStringTrigrams(@Nullable final ByteIterable value) {
+        if (value != null) {
+            final Object data = store.getPropertyTypes().entryToPropertyValue(value).getData();
+            if (data instanceof String) {
+                return createTrigrams((String) data);
+            }
+        }
+        return new long[0];
+    }
+
     private static boolean deleteFromStore(@NotNull final Transaction txn,
                                            @NotNull final Store store,
                                            @NotNull final ByteIterable value,
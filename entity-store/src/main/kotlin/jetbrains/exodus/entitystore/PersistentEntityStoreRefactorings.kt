@@ -144,6 +144,36 @@ class PersistentEntityStoreRefactorings(private val store: PersistentEntityStore
         }
     }
 
+    fun refactorCreateTrigramIndices() {
+        safeExecuteRefactoringForEachEntityType("Refactoring creating trigram indices") { entityType, txn ->
+            val entityTypeId = store.getEntityTypeId(txn, entityType, false)
+            val props = store.getPropertiesTable(txn, entityTypeId)
+            val envTxn = txn.environmentTransaction
+            val propertyIds = IntHashSet()
+            store.getPrimaryPropertyIndexCursor(txn, props).use { cursor ->
+                while (cursor.next) {
+                    propertyIds.add(PropertyKey.entryToPropertyKey(cursor.key).propertyId)
+                }
+            }
+            // trigram indices could be left from the time they were maintained last
+            with(envTxn.environment) {
+                for (propertyId in propertyIds) {
+                    val trigramIndexName = PropertiesTable.trigramIndexName(props.primaryIndex.name, propertyId)
+                    if (storeExists(trigramIndexName, envTxn)) {
+                        truncateStore(trigramIndexName, envTxn)
+                    }
+                }
+            }
+            props.clearTrigramIndices()
+            store.getPrimaryPropertyIndexCursor(txn, props).use { cursor ->
+                while (cursor.next) {
+                    val propertyKey = PropertyKey.entryToPropertyKey(cursor.key)
+                    props.putTrigrams(txn, propertyKey.entityLocalId, cursor.value, propertyKey.propertyId)
+                }
+            }
+        }
+    }
+
     fun refactorBlobFileLengths() {
         val blobVault = store.blobVault
         if (blobVault is DiskBasedBlobVault) {
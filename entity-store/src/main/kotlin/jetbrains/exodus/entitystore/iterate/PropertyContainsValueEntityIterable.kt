@@ -15,7 +15,13 @@
  */
 package jetbrains.exodus.entitystore.iterate
 
+import jetbrains.exodus.bindings.LongBinding
+import jetbrains.exodus.core.dataStructures.LongArrayList
 import jetbrains.exodus.entitystore.*
+import jetbrains.exodus.entitystore.tables.PropertiesTable
+import jetbrains.exodus.entitystore.tables.PropertyKey
+import jetbrains.exodus.env.Cursor
+import jetbrains.exodus.env.Store
 import jetbrains.exodus.kotlin.notNull
 
 class PropertyContainsValueEntityIterable(
@@ -26,7 +32,27 @@ class PropertyContainsValueEntityIterable(
     private val ignoreCase: Boolean
 ) : PropertyRangeOrValueIterableBase(txn, entityTypeId, propertyId) {
 
+    /**
+     * Trigrams of the value if sub-string search can be served by the trigram index, otherwise the iterable
+     * scans all values of the property.
+     */
+    private val trigrams: LongArray? =
+        if (txn.store.isTrigramIndexUsable) PropertiesTable.createTrigrams(value).takeIf { it.isNotEmpty() } else null
+
+    override fun canBeCached() = trigrams != null || super.canBeCached()
+
     override fun getIteratorImpl(txn: PersistentStoreTransaction): EntityIterator {
+        trigrams?.let { trigrams ->
+            val trigramIndex = store.getPropertiesTable(txn, entityTypeId).getTrigramIndex(txn, propertyId, false)
+                ?: return EntityIteratorBase.EMPTY
+            val candidates = intersectPostingLists(txn, trigramIndex, trigrams)
+            return if (candidates.isEmpty) {
+                EntityIteratorBase.EMPTY
+            } else {
+                PropertyContainsValueTrigramIterator(txn, candidates)
+            }
+        }
+
         val iterator = propertyValueIndex.iterator()
 
         return if (iterator.hasNext()) {
@@ -124,8 +150,105 @@ class PropertyContainsValueEntityIterable(
         }
     }
 
+    /**
+     * Checks candidates found by the trigram index against actual property values.
+     */
+    private inner class PropertyContainsValueTrigramIterator(
+        private val txn: PersistentStoreTransaction,
+        private val candidates: LongArrayList
+    ) : EntityIteratorBase(this), PropertyValueIterator {
+
+        private val properties = store.getPropertiesTable(txn, entityTypeId)
+        private var i = 0
+        private var nextId: EntityId? = null
+        private var currentValue: String? = null
+
+        public override fun hasNextImpl(): Boolean {
+            advance()
+            return nextId != PersistentEntityId.EMPTY_ID
+        }
+
+        public override fun nextIdImpl(): EntityId? {
+            if (!hasNextImpl()) return null
+            explain(getType())
+            return nextId.also {
+                nextId = null
+            }
+        }
+
+        override fun currentValue(): Comparable<Nothing> = currentValue.notNull
+
+        private fun advance() {
+            nextId ?: run {
+                while (i < candidates.size()) {
+                    val localId = candidates[i++]
+                    val entry = properties.get(txn, PropertyKey.propertyKeyToEntry(PropertyKey(localId, propertyId)))
+                    if (entry != null) {
+                        (store.propertyTypes.entryToPropertyValue(entry).data as? String)?.let {
+                            if (it.contains(value, ignoreCase)) {
+                                nextId = PersistentEntityId(entityTypeId, localId)
+                                currentValue = it
+                                return
+                            }
+                        }
+                    }
+                }
+                nextId = PersistentEntityId.EMPTY_ID
+            }
+        }
+    }
+
     companion object {
 
+        /**
+         * Intersects posting lists of specified trigrams. Since duplicates in the trigram index are compressed
+         * local ids sorted in ascending order, the intersection leapfrogs across the cursors using
+         * [Cursor.getSearchBothRange] and never reads posting lists completely unless they are equal.
+         */
+        private fun intersectPostingLists(
+            txn: PersistentStoreTransaction,
+            trigramIndex: Store,
+            trigrams: LongArray
+        ): LongArrayList {
+            val result = LongArrayList()
+            val envTxn = txn.environmentTransaction
+            val keys = trigrams.map { PropertiesTable.trigramToEntry(it) }
+            val cursors = ArrayList<Pair<Cursor, Int>>(keys.size)
+            try {
+                keys.forEachIndexed { i, key ->
+                    val cursor = trigramIndex.openCursor(envTxn)
+                    cursors.add(cursor to i)
+                    if (cursor.getSearchKey(key) == null) {
+                        return result
+                    }
+                }
+                // start from the shortest posting lists
+                cursors.sortBy { (cursor, _) -> cursor.count() }
+                val count = cursors.size
+                var candidate = 0L
+                while (true) {
+                    var matched = 0
+                    var c = 0
+                    while (matched < count) {
+                        val (cursor, i) = cursors[c]
+                        val value = cursor.getSearchBothRange(keys[i], LongBinding.longToCompressedEntry(candidate))
+                            ?: return result
+                        val localId = LongBinding.compressedEntryToLong(value)
+                        if (localId == candidate) {
+                            ++matched
+                        } else {
+                            candidate = localId
+                            matched = 1
+                        }
+                        c = (c + 1) % count
+                    }
+                    result.add(candidate++)
+                }
+            } finally {
+                cursors.forEach { (cursor, _) -> cursor.close() }
+            }
+        }
+
         private fun getType(): EntityIterableType = EntityIterableType.ENTITIES_WITH_PROP_CONTAINING_VALUE
 
         init {
@@ -41,6 +41,7 @@ class IntersectionIterable @JvmOverloads constructor(
     override fun getIterableType() = EntityIterableType.INTERSECT
 
     override fun getIteratorImpl(txn: PersistentStoreTransaction): EntityIteratorBase {
+        val (iterable1, iterable2) = getOperands(txn)
         val iterator = if (isSortedById) {
             if (iterable1.isSortedById) {
                 if (iterable2.isSortedById)
@@ -40,8 +40,7 @@ class MinusIterable(
     }
 
     override fun getIteratorImpl(txn: PersistentStoreTransaction): EntityIteratorBase {
-        val iterable1 = iterable1
-        val iterable2 = iterable2
+        val (iterable1, iterable2) = getOperands(txn)
         return EntityIteratorFixingDecorator(
             this,
             if (isSortedById && iterable2.isSortedById) SortedIterator(
@@ -33,7 +33,10 @@ class UnionIterable(txn: PersistentStoreTransaction?,
 
     override fun getIterableType() = EntityIterableType.UNION
 
-    override fun getIteratorImpl(txn: PersistentStoreTransaction) = EntityIteratorFixingDecorator(this, SortedIterator(this, iterable1, iterable2))
+    override fun getIteratorImpl(txn: PersistentStoreTransaction): EntityIteratorFixingDecorator {
+        val (iterable1, iterable2) = getOperands(txn)
+        return EntityIteratorFixingDecorator(this, SortedIterator(this, iterable1, iterable2))
+    }
 
     private class SortedIterator(iterable: EntityIterableBase,
                                  iterable1: EntityIterableBase,
@@ -23,6 +23,10 @@ import org.junit.Assert;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
 
 public class StoreTransactionTests extends EntityStoreTestBase {
 
@@ -152,6 +156,106 @@ public class StoreTransactionTests extends EntityStoreTestBase {
         getEntityStore().executeInTransaction(txn -> TestUtil.runWithExpectedException(() -> txn.newEntity("Issue"), ReadonlyTransactionException.class));
     }
 
+    public void testLoadProperties() {
+        final StoreTransaction txn = getStoreTransactionSafe();
+        for (int i = 0; i < 100; ++i) {
+            final Entity issue = txn.newEntity("Issue");
+            issue.setProperty("summary", "Issue #" + i);
+            if (i % 2 == 0) {
+                issue.setProperty("size", i);
+            }
+            issue.setProperty("description", "Description");
+        }
+        txn.flush();
+        final EntityIterable issues = txn.sort("Issue", "summary", false);
+        final EntityColumns<Comparable> columns = txn.loadProperties(issues,
+                new HashSet<>(Arrays.asList("summary", "size", "unknown")));
+        Assert.assertEquals(100, columns.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("summary", "size", "unknown")), columns.getNames());
+        int row = 0;
+        for (final Entity issue : issues) {
+            Assert.assertEquals(issue.getId(), columns.getId(row));
+            Assert.assertEquals(issue.getProperty("summary"), columns.get("summary", row));
+            Assert.assertEquals(issue.getProperty("size"), columns.get("size", row));
+            Assert.assertNull(columns.get("unknown", row));
+            ++row;
+        }
+        Assert.assertEquals(100, columns.getColumn("summary").size());
+        TestUtil.runWithExpectedException(() -> columns.getColumn("description"), IllegalArgumentException.class);
+    }
+
+    public void testLoadLinks() {
+        final StoreTransaction txn = getStoreTransactionSafe();
+        for (int i = 0; i < 100; ++i) {
+            final Entity issue = txn.newEntity("Issue");
+            final Entity user = txn.newEntity("User");
+            issue.setLink("reporter", user);
+            if (i % 3 == 0) {
+                issue.addLink("comment", txn.newEntity("Comment"));
+                issue.addLink("comment", txn.newEntity("Comment"));
+            }
+        }
+        txn.flush();
+        final EntityIterable issues = txn.getAll("Issue");
+        final EntityColumns<EntityId> columns = txn.loadLinks(issues, new HashSet<>(Arrays.asList("reporter", "comment")));
+        Assert.assertEquals(100, columns.size());
+        int row = 0;
+        for (final Entity issue : issues) {
+            Assert.assertEquals(issue.getId(), columns.getId(row));
+            Assert.assertEquals(issue.getLink("reporter").getId(), columns.get("reporter", row));
+            final Entity comment = issue.getLink("comment");
+            Assert.assertEquals(comment == null ? null : comment.getId(), columns.get("comment", row));
+            ++row;
+        }
+    }
+
+    public void testCountBy() {
+        final StoreTransaction txn = getStoreTransactionSafe();
+        for (int i = 0; i < 100; ++i) {
+            final Entity issue = txn.newEntity("Issue");
+            issue.setProperty("priority", i % 5);
+            issue.setProperty("state", i % 2 == 0 ? "Open" : "fixed");
+        }
+        txn.newEntity("Issue");
+        txn.flush();
+        final Map<Comparable, Long> byPriority = txn.countBy("Issue", "priority");
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), new ArrayList<>(byPriority.keySet()));
+        for (final Long count : byPriority.values()) {
+            Assert.assertEquals(20L, count.longValue());
+        }
+        final Map<Comparable, Long> byState = txn.countBy("Issue", "state");
+        Assert.assertEquals(2, byState.size());
+        Assert.assertEquals(50L, byState.get("open").longValue());
+        Assert.assertEquals(50L, byState.get("fixed").longValue());
+        final Map<Comparable, Long> constrained = txn.countBy("Issue", "state", txn.find("Issue", "priority", 0));
+        Assert.assertEquals(10L, constrained.get("open").longValue());
+        Assert.assertEquals(10L, constrained.get("fixed").longValue());
+        Assert.assertTrue(txn.countBy("Issue", "state", txn.find("Issue", "priority", 5)).isEmpty());
+        Assert.assertTrue(txn.countBy("Issue", "assignee").isEmpty());
+        Assert.assertTrue(txn.countBy("Comment", "state").isEmpty());
+        Assert.assertEquals(Arrays.asList("fixed", "open"), txn.distinctValues("Issue", "state"));
+    }
+
+    public void testMinMaxValue() {
+        final StoreTransaction txn = getStoreTransactionSafe();
+        Assert.assertNull(txn.getMinValue("Issue", "size"));
+        for (int i = 0; i < 100; ++i) {
+            final Entity issue = txn.newEntity("Issue");
+            issue.setProperty("size", (long) i * 10);
+            issue.setProperty("even", i % 2 == 0);
+        }
+        txn.flush();
+        Assert.assertEquals(0L, txn.getMinValue("Issue", "size"));
+        Assert.assertEquals(990L, txn.getMaxValue("Issue", "size"));
+        final EntityIterable odd = txn.find("Issue", "even", false);
+        Assert.assertEquals(10L, txn.getMinValue("Issue", "size", odd));
+        Assert.assertEquals(990L, txn.getMaxValue("Issue", "size", odd));
+        final EntityIterable even = txn.find("Issue", "even", true);
+        Assert.assertEquals(0L, txn.getMinValue("Issue", "size", even));
+        Assert.assertEquals(980L, txn.getMaxValue("Issue", "size", even));
+        Assert.assertNull(txn.getMaxValue("Issue", "size", txn.find("Issue", "size", 5L)));
+    }
+
     private void setReadonly() {
         getEntityStore().getEnvironment().getEnvironmentConfig().setEnvIsReadonly(true);
     }
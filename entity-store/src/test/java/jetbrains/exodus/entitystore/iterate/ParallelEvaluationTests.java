@@ -0,0 +1,127 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.entitystore.iterate;
+
+import jetbrains.exodus.entitystore.*;
+import jetbrains.exodus.env.Environments;
+import org.junit.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+public class ParallelEvaluationTests extends EntityStoreTestBase {
+
+    private static final int ISSUES = 3000;
+
+    @Override
+    protected PersistentEntityStoreImpl createStoreInternal(String dbTempFolder) {
+        return PersistentEntityStores.newInstance(
+            new PersistentEntityStoreConfig().setEntityIterableParallelism(4).setCachingDisabled(true),
+            Environments.newInstance(dbTempFolder), "ParallelEvaluationTests");
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        final StoreTransaction txn = getStoreTransactionSafe();
+        for (int i = 0; i < ISSUES; ++i) {
+            final Entity issue = txn.newEntity("Issue");
+            issue.setProperty("priority", i % 5);
+            issue.setProperty("size", i % 7);
+        }
+        txn.flush();
+    }
+
+    public void testParallelEvaluatorIsCreated() {
+        Assert.assertNotNull(getEntityStore().getParallelEvaluator());
+    }
+
+    public void testIntersect() {
+        getEntityStore().executeInReadonlyTransaction(txn -> {
+            final EntityIterable result = txn.find("Issue", "priority", 1).intersect(txn.find("Issue", "size", 2));
+            assertIssues(result, i -> i % 5 == 1 && i % 7 == 2);
+        });
+    }
+
+    public void testUnion() {
+        getEntityStore().executeInReadonlyTransaction(txn -> {
+            final EntityIterable result = txn.find("Issue", "priority", 1).union(txn.find("Issue", "size", 2));
+            assertIssues(result, i -> i % 5 == 1 || i % 7 == 2);
+        });
+    }
+
+    public void testMinus() {
+        getEntityStore().executeInReadonlyTransaction(txn -> {
+            final EntityIterable result = txn.find("Issue", "priority", 1).minus(txn.find("Issue", "size", 2));
+            assertIssues(result, i -> i % 5 == 1 && i % 7 != 2);
+        });
+    }
+
+    public void testConcat() {
+        getEntityStore().executeInReadonlyTransaction(txn -> {
+            final EntityIterable result = txn.find("Issue", "priority", 1).concat(txn.find("Issue", "priority", 2));
+            Assert.assertEquals(2 * ISSUES / 5, toList(result).size());
+        });
+    }
+
+    public void testNested() {
+        getEntityStore().executeInReadonlyTransaction(txn -> {
+            final EntityIterable result = txn.find("Issue", "priority", 1).union(txn.find("Issue", "priority", 3))
+                .intersect(txn.find("Issue", "size", 2).union(txn.find("Issue", "size", 4)));
+            assertIssues(result, i -> (i % 5 == 1 || i % 5 == 3) && (i % 7 == 2 || i % 7 == 4));
+        });
+    }
+
+    public void testQueryCancellingPolicy() {
+        getEntityStore().executeInReadonlyTransaction(txn -> {
+            txn.setQueryCancellingPolicy(new QueryCancellingPolicy() {
+                @Override
+                public boolean needToCancel() {
+                    return true;
+                }
+
+                @Override
+                public void doCancel() {
+                    throw new QueryCancelledException();
+                }
+            });
+            final EntityIterable result = txn.getAll("Issue").minus(txn.find("Issue", "size", 2).union(txn.getAll("Issue")));
+            try {
+                result.iterator().hasNext();
+                Assert.fail();
+            } catch (QueryCancelledException ignore) {
+            }
+        });
+    }
+
+    private static void assertIssues(EntityIterable result, IntPredicate predicate) {
+        final List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < ISSUES; ++i) {
+            if (predicate.test(i)) {
+                expected.add((long) i);
+            }
+        }
+        final List<Long> actual = new ArrayList<>();
+        for (final Entity issue : result) {
+            actual.add(issue.getId().getLocalId());
+        }
+        Assert.assertEquals(expected, actual);
+    }
+
+    private static class QueryCancelledException extends RuntimeException {
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.entitystore.iterate;
+
+import jetbrains.exodus.entitystore.*;
+import jetbrains.exodus.entitystore.tables.PropertiesTable;
+import jetbrains.exodus.env.Environments;
+import org.junit.Assert;
+
+import java.util.Locale;
+
+public class TrigramIndexTests extends EntityStoreTestBase {
+
+    @Override
+    protected PersistentEntityStoreImpl createStoreInternal(String dbTempFolder) {
+        return PersistentEntityStores.newInstance(
+            new PersistentEntityStoreConfig().setTrigramIndex(true),
+            Environments.newInstance(dbTempFolder), "TrigramIndexTests");
+    }
+
+    public void testTrigramIndexUsable() {
+        Assert.assertTrue(getEntityStore().isTrigramIndexUsable());
+    }
+
+    public void testCreateTrigrams() {
+        Assert.assertEquals(0, PropertiesTable.createTrigrams("ab").length);
+        Assert.assertEquals(1, PropertiesTable.createTrigrams("aBc").length);
+        Assert.assertArrayEquals(PropertiesTable.createTrigrams("abc"), PropertiesTable.createTrigrams("ABC"));
+        Assert.assertEquals(1, PropertiesTable.createTrigrams("aaaa").length);
+    }
+
+    public void testCreateTrigramsIgnoresDefaultLocale() {
+        final long[] trigrams = PropertiesTable.createTrigrams("TITLE");
+        final Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            Assert.assertArrayEquals(trigrams, PropertiesTable.createTrigrams("TITLE"));
+            Assert.assertArrayEquals(trigrams, PropertiesTable.createTrigrams("title"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    public void testCreateTrigramsFoldsCasePerChar() {
+        // lower-casing the whole string would produce "i\u0307stanbul" and a final sigma
+        Assert.assertArrayEquals(PropertiesTable.createTrigrams("istanbul"), PropertiesTable.createTrigrams("\u0130STANBUL"));
+        Assert.assertArrayEquals(PropertiesTable.createTrigrams("\u03bf\u03b4\u03bf\u03c3"), PropertiesTable.createTrigrams("\u03bf\u03b4\u03bf\u03c2"));
+    }
+
+    public void testFindContainingSpecialCaseChars() {
+        final StoreTransaction txn = getStoreTransactionSafe();
+        txn.newEntity("Issue").setProperty("summary", "\u0130stanbul");
+        txn.newEntity("Issue").setProperty("summary", "\u039f\u0394\u039f\u03a3");
+        txn.flush();
+        assertContaining(txn, "summary", "\u0130stan", true, 1);
+        assertContaining(txn, "summary", "ISTAN", true, 1);
+        assertContaining(txn, "summary", "\u03bf\u03b4\u03bf\u03c2", true, 1);
+        assertContaining(txn, "summary", "\u03bf\u03b4\u03bf\u03c3", true, 1);
+        assertContaining(txn, "summary", "\u03bf\u03b4\u03bf\u03c2", false, 0);
+    }
+
+    public void testFindContaining() {
+        final StoreTransaction txn = getStoreTransactionSafe();
+        for (int i = 0; i < 100; ++i) {
+            final Entity entity = txn.newEntity("Issue");
+            entity.setProperty("description", "Test issue #" + (i % 10));
+        }
+        txn.flush();
+        assertContaining(txn, "description", "e #5", false, 10);
+        assertContaining(txn, "description", "ISSUE #5", true, 10);
+        assertContaining(txn, "description", "ISSUE #5", false, 0);
+        assertContaining(txn, "description", "issue #10", true, 0);
+        assertContaining(txn, "description", "#5", true, 10); // shorter than trigram
+    }
+
+    public void testFindContainingAfterChanges() {
+        final StoreTransaction txn = getStoreTransactionSafe();
+        final Entity issue = txn.newEntity("Issue");
+        issue.setProperty("summary", "Trigram index is not used");
+        txn.flush();
+        assertContaining(txn, "summary", "not used", false, 1);
+        issue.setProperty("summary", "Trigram index is used");
+        txn.flush();
+        assertContaining(txn, "summary", "not used", false, 0);
+        assertContaining(txn, "summary", "is used", false, 1);
+        issue.setProperty("summary", 239);
+        txn.flush();
+        assertContaining(txn, "summary", "is used", false, 0);
+        issue.setProperty("summary", "Trigram index is used again");
+        txn.flush();
+        assertContaining(txn, "summary", "used again", false, 1);
+        issue.deleteProperty("summary");
+        txn.flush();
+        assertContaining(txn, "summary", "used again", false, 0);
+    }
+
+    public void testIndexIsBuiltForExistingData() throws Exception {
+        final PersistentEntityStoreImpl store = PersistentEntityStores.newInstance(
+            Environments.newInstance(getDatabaseFolder() + "_noTrigrams"), "TrigramIndexTests");
+        store.setCloseEnvironment(true);
+        try {
+            store.executeInTransaction(txn -> {
+                for (int i = 0; i < 100; ++i) {
+                    txn.newEntity("Issue").setProperty("description", "Test issue #" + (i % 10));
+                }
+            });
+        } finally {
+            store.close();
+        }
+        final PersistentEntityStoreImpl trigramStore = createStoreInternal(getDatabaseFolder() + "_noTrigrams");
+        trigramStore.setCloseEnvironment(true);
+        try {
+            Assert.assertTrue(trigramStore.isTrigramIndexUsable());
+            trigramStore.executeInReadonlyTransaction(txn -> assertContaining(txn, "description", "issue #7", false, 10));
+        } finally {
+            trigramStore.close();
+            cleanUp(getDatabaseFolder() + "_noTrigrams");
+        }
+    }
+
+    private static void assertContaining(StoreTransaction txn, String propertyName, String value, boolean ignoreCase, int expectedCount) {
+        int count = 0;
+        for (final Entity issue : txn.findContaining("Issue", propertyName, value, ignoreCase)) {
+            Assert.assertTrue(contains((String) issue.getProperty(propertyName), value, ignoreCase));
+            count++;
+        }
+        Assert.assertEquals(expectedCount, count);
+    }
+
+    private static boolean contains(String s, String value, boolean ignoreCase) {
+        for (int i = 0; i <= s.length() - value.length(); ++i) {
+            if (s.regionMatches(ignoreCase, i, value, 0, value.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
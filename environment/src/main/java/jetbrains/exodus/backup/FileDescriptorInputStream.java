@@ -24,13 +24,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 
 public class FileDescriptorInputStream extends InputStream {
-    private final @NotNull FileInputStream fileInputStream;
+    private final @NotNull InputStream fileInputStream;
 
     private final long fileAddress;
     private final int pageSize;
@@ -52,7 +51,7 @@ public class FileDescriptorInputStream extends InputStream {
     private final long cipherBasicIV;
 
 
-    public FileDescriptorInputStream(final @NotNull FileInputStream fileInputStream, long fileAddress, int pageSize,
+    public FileDescriptorInputStream(final @NotNull InputStream fileInputStream, long fileAddress, int pageSize,
                                      long backupFileSize, long storedDataFilesSize,
                                      Log log, @Nullable StreamCipherProvider cipherProvider,
                                      byte @Nullable [] cipherKey, long cipherBasicIV) {
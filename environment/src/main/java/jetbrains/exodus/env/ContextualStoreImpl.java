@@ -20,6 +20,10 @@ import jetbrains.exodus.tree.TreeMetaInfo;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+
 public class ContextualStoreImpl extends StoreImpl implements ContextualStore {
 
     @NotNull
@@ -41,6 +45,11 @@ public class ContextualStoreImpl extends StoreImpl implements ContextualStore {
         return get(environment.getAndCheckCurrentTransaction(), key);
     }
 
+    @NotNull
+    public ByteIterable[] getAll(@NotNull final ByteIterable[] keys) {
+        return getAll(environment.getAndCheckCurrentTransaction(), keys);
+    }
+
     public boolean exists(@NotNull final ByteIterable key, @NotNull final ByteIterable value) {
         return exists(environment.getAndCheckCurrentTransaction(), key, value);
     }
@@ -49,6 +58,14 @@ public class ContextualStoreImpl extends StoreImpl implements ContextualStore {
         return put(environment.getAndCheckCurrentTransaction(), key, value);
     }
 
+    public boolean put(@NotNull final ByteIterable key, @NotNull final ByteIterable value, final long expirationTime) {
+        return put(environment.getAndCheckCurrentTransaction(), key, value, expirationTime);
+    }
+
+    public void merge(@NotNull final ByteIterable key, @NotNull final ByteIterable operand) {
+        merge(environment.getAndCheckCurrentTransaction(), key, operand);
+    }
+
     public void putRight(@NotNull final ByteIterable key, @NotNull final ByteIterable value) {
         putRight(environment.getAndCheckCurrentTransaction(), key, value);
     }
@@ -65,6 +82,23 @@ public class ContextualStoreImpl extends StoreImpl implements ContextualStore {
         return count(environment.getAndCheckCurrentTransaction());
     }
 
+    public long estimateCount(@Nullable final ByteIterable from, @Nullable final ByteIterable to) {
+        return estimateCount(environment.getAndCheckCurrentTransaction(), from, to);
+    }
+
+    public long estimateSize(@Nullable final ByteIterable from, @Nullable final ByteIterable to) {
+        return estimateSize(environment.getAndCheckCurrentTransaction(), from, to);
+    }
+
+    @NotNull
+    public Spliterator<Map.Entry<ByteIterable, ByteIterable>> spliterator() {
+        return spliterator(environment.getAndCheckCurrentTransaction());
+    }
+
+    public void parallelScan(final int parallelism, @NotNull final BiConsumer<ByteIterable, ByteIterable> consumer) {
+        parallelScan(environment.getAndCheckCurrentTransaction(), parallelism, consumer);
+    }
+
     public Cursor openCursor() {
         return openCursor(environment.getAndCheckCurrentTransaction());
     }
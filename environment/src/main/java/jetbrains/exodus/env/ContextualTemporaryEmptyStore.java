@@ -23,6 +23,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
 
 class ContextualTemporaryEmptyStore extends ContextualStoreImpl {
 
@@ -37,6 +41,34 @@ class ContextualTemporaryEmptyStore extends ContextualStoreImpl {
         return null;
     }
 
+    @NotNull
+    @Override
+    public ByteIterable[] getAll(@NotNull final Transaction txn, @NotNull final ByteIterable[] keys) {
+        return new ByteIterable[keys.length];
+    }
+
+    @Override
+    public long estimateCount(@NotNull final Transaction txn, @Nullable final ByteIterable from, @Nullable final ByteIterable to) {
+        return 0;
+    }
+
+    @Override
+    public long estimateSize(@NotNull final Transaction txn, @Nullable final ByteIterable from, @Nullable final ByteIterable to) {
+        return 0;
+    }
+
+    @NotNull
+    @Override
+    public Spliterator<Map.Entry<ByteIterable, ByteIterable>> spliterator(@NotNull final Transaction txn) {
+        return Spliterators.emptySpliterator();
+    }
+
+    @Override
+    public void parallelScan(@NotNull final Transaction txn,
+                             final int parallelism,
+                             @NotNull final BiConsumer<ByteIterable, ByteIterable> consumer) {
+    }
+
     @Override
     public boolean exists(@NotNull final Transaction txn,
                           @NotNull final ByteIterable key,
@@ -51,6 +83,21 @@ class ContextualTemporaryEmptyStore extends ContextualStoreImpl {
         return throwCantModify();
     }
 
+    @Override
+    public boolean put(@NotNull final Transaction txn,
+                       @NotNull final ByteIterable key,
+                       @NotNull final ByteIterable value,
+                       final long expirationTime) {
+        return throwCantModify();
+    }
+
+    @Override
+    public void merge(@NotNull final Transaction txn,
+                      @NotNull final ByteIterable key,
+                      @NotNull final ByteIterable operand) {
+        throwCantModify();
+    }
+
     @Override
     public void putRight(@NotNull final Transaction txn,
                          @NotNull final ByteIterable key,
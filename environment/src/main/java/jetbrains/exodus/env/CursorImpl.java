@@ -15,11 +15,13 @@
  */
 package jetbrains.exodus.env;
 
+import jetbrains.exodus.ByteArrayView;
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.ExodusException;
 import jetbrains.exodus.tree.ITreeCursor;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.ByteBuffer;
 import java.util.ConcurrentModificationException;
 
 final class CursorImpl implements Cursor {
@@ -98,6 +100,86 @@ final class CursorImpl implements Cursor {
         return treeCursor.getValue();
     }
 
+    @Override
+    @NotNull
+    public ByteArrayView getKey(@NotNull final ByteArrayView view) {
+        checkTreeCursor();
+        return treeCursor.getKey(view);
+    }
+
+    @Override
+    @NotNull
+    public ByteArrayView getValue(@NotNull final ByteArrayView view) {
+        checkTreeCursor();
+        return treeCursor.getValue(view);
+    }
+
+    @Override
+    public int getKeyInto(final byte @NotNull [] dst, final int offset) {
+        checkTreeCursor();
+        return treeCursor.getKeyInto(dst, offset);
+    }
+
+    @Override
+    public int getValueInto(final byte @NotNull [] dst, final int offset) {
+        checkTreeCursor();
+        return treeCursor.getValueInto(dst, offset);
+    }
+
+    @Override
+    public int getValueInto(@NotNull final ByteBuffer dst) {
+        checkTreeCursor();
+        return treeCursor.getValueInto(dst);
+    }
+
+    @Override
+    public long getKeyAsCompressedLong() {
+        checkTreeCursor();
+        return treeCursor.getKeyAsCompressedLong();
+    }
+
+    @Override
+    public long getValueAsCompressedLong() {
+        checkTreeCursor();
+        return treeCursor.getValueAsCompressedLong();
+    }
+
+    @Override
+    public int getKeyAsCompressedInt() {
+        checkTreeCursor();
+        return treeCursor.getKeyAsCompressedInt();
+    }
+
+    @Override
+    public int getValueAsCompressedInt() {
+        checkTreeCursor();
+        return treeCursor.getValueAsCompressedInt();
+    }
+
+    @Override
+    public long getKeyAsLong() {
+        checkTreeCursor();
+        return treeCursor.getKeyAsLong();
+    }
+
+    @Override
+    public long getValueAsLong() {
+        checkTreeCursor();
+        return treeCursor.getValueAsLong();
+    }
+
+    @Override
+    public int getKeyAsInt() {
+        checkTreeCursor();
+        return treeCursor.getKeyAsInt();
+    }
+
+    @Override
+    public int getValueAsInt() {
+        checkTreeCursor();
+        return treeCursor.getValueAsInt();
+    }
+
     @Override
     public ByteIterable getSearchKey(@NotNull final ByteIterable key) {
         checkTreeCursor();
@@ -18,6 +18,7 @@ package jetbrains.exodus.env;
 import jetbrains.exodus.backup.BackupStrategy;
 import jetbrains.exodus.backup.FileDescriptorInputStream;
 import jetbrains.exodus.backup.VirtualFileDescriptor;
+import jetbrains.exodus.io.CompressedLogFile;
 import jetbrains.exodus.log.BackupMetadata;
 import jetbrains.exodus.log.DataCorruptionException;
 import jetbrains.exodus.log.LogUtil;
@@ -87,10 +88,12 @@ class EnvironmentBackupStrategyImpl extends BackupStrategy {
                             final File file = files[i++];
 
                             if (file.isFile()) {
-                                final long fileSize = file.length();
                                 final String logFileName = file.getName();
+                                final boolean isLogFile = logFileName.endsWith(LogUtil.LOG_FILE_EXTENSION);
+                                // compressed log files are backed up uncompressed
+                                final long fileSize = isLogFile ? CompressedLogFile.getLength(file) : file.length();
 
-                                if (fileSize != 0 && logFileName.endsWith(LogUtil.LOG_FILE_EXTENSION)) {
+                                if (fileSize != 0 && isLogFile) {
                                     final long fileAddress = LogUtil.getAddress(file.getName());
 
                                     if (fileLastAddress < fileAddress) {
@@ -107,7 +110,7 @@ class EnvironmentBackupStrategyImpl extends BackupStrategy {
                                     next = new FileDescriptor(file, "", updatedFileSize) {
                                         @Override
                                         public @NotNull InputStream getInputStream() throws IOException {
-                                            return new FileDescriptorInputStream(new FileInputStream(file),
+                                            return new FileDescriptorInputStream(CompressedLogFile.newInputStream(file),
                                                     fileAddress, pageSize, getFileSize(),
                                                     highAddress - fileAddress,
                                                     environment.getLog(), environment.getCipherProvider(),
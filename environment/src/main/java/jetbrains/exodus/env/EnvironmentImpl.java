@@ -131,6 +131,10 @@ public class EnvironmentImpl implements Environment {
 
     private boolean checkLuceneDirectory = false;
 
+    @NotNull
+    private final Map<String, MergeOperator> mergeOperators = new ConcurrentHashMap<>();
+    private final Map<String, Long> storeTimesToLive = new ConcurrentHashMap<>();
+
     @SuppressWarnings({"ThisEscapedInObjectConstruction"})
     EnvironmentImpl(@NotNull final Log log, @NotNull final EnvironmentConfig ec) {
         try {
@@ -615,6 +619,39 @@ public class EnvironmentImpl implements Environment {
         t.storeCreated(store);
     }
 
+    @Override
+    public void ingest(@NotNull final String storeName, @NotNull final File file) {
+        // the file is checked in full before the commit, since a failure in the middle of the commit would make
+        // the environment read-only
+        final StoreConfig config;
+        try (StoreFileReader reader = new StoreFileReader(file)) {
+            config = reader.getConfig();
+            //noinspection StatementWithEmptyBody
+            while (reader.next()) ;
+        }
+        try (StoreFileReader reader = new StoreFileReader(file)) {
+            final ReadWriteTransaction txn = (ReadWriteTransaction) beginExclusiveTransaction();
+            try {
+                checkCanIngest(storeName, txn);
+                if (storeExists(storeName, txn)) {
+                    removeStore(storeName, txn);
+                }
+                final TreeMetaInfo metaInfo = TreeMetaInfo.load(this, false, false, config.expiration,
+                        ec.getTreeKeyPrefixCompression(), allocateStructureId());
+                // values of ingested store expire as values put to the store at the time of ingestion
+                final long expirationTime = config.expiration ?
+                        ExpiringValue.getExpirationTime(getStoreTimeToLive(storeName)) : 0L;
+                // the tree is built from pairs of the file on commit
+                txn.storeIngested(createStore(storeName, metaInfo), reader.nodes(expirationTime));
+                if (!txn.commit()) {
+                    throw new ExodusException("Failed to commit store '" + storeName + "' ingested from " + file);
+                }
+            } finally {
+                abortIfNotFinished(txn);
+            }
+        }
+    }
+
     @Override
     public void removeStore(@NotNull final String storeName, @NotNull final Transaction txn) {
         final ReadWriteTransaction t = throwIfReadonly(txn, "Can't remove a store in read-only transaction");
@@ -645,6 +682,12 @@ public class EnvironmentImpl implements Environment {
         return ((TransactionBase) txn).getTreeMetaInfo(storeName) != null;
     }
 
+    private void checkCanIngest(@NotNull final String storeName, @NotNull final Transaction txn) {
+        if (storeExists(storeName, txn) && openStore(storeName, StoreConfig.USE_EXISTING, txn).count(txn) > 0) {
+            throw new ExodusException("Can't ingest into non-empty store '" + storeName + '\'');
+        }
+    }
+
     @NotNull
     public Log getLog() {
         return log;
@@ -670,6 +713,43 @@ public class EnvironmentImpl implements Environment {
         gc.addBeforeGcAction(action);
     }
 
+    @Override
+    public void setMergeOperator(@NotNull final String storeName, @Nullable final MergeOperator operator) {
+        if (operator == null) {
+            mergeOperators.remove(storeName);
+        } else {
+            mergeOperators.put(storeName, operator);
+        }
+    }
+
+    @Override
+    @Nullable
+    public MergeOperator getMergeOperator(@NotNull final String storeName) {
+        return mergeOperators.get(storeName);
+    }
+
+    boolean hasMergeOperators() {
+        return !mergeOperators.isEmpty();
+    }
+
+    @Override
+    public void setStoreTimeToLive(@NotNull final String storeName, final long timeToLive) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("Time to live can't be negative");
+        }
+        if (timeToLive == 0) {
+            storeTimesToLive.remove(storeName);
+        } else {
+            storeTimesToLive.put(storeName, timeToLive);
+        }
+    }
+
+    @Override
+    public long getStoreTimeToLive(@NotNull final String storeName) {
+        final Long result = storeTimesToLive.get(storeName);
+        return result == null ? 0 : result;
+    }
+
     public BTreeBalancePolicy getBTreeBalancePolicy() {
         // we don't care of possible race condition here
         if (balancePolicy == null) {
@@ -921,6 +1001,7 @@ public class EnvironmentImpl implements Environment {
         final long initialHighAddress;
         final long resultingHighAddress;
         final boolean isGcTransaction = txn.isGCTransaction();
+        boolean wasRebased = false;
 
         boolean wasUpSaved = false;
         final UtilizationProfile up = gc.getUtilizationProfile();
@@ -928,6 +1009,8 @@ public class EnvironmentImpl implements Environment {
             up.save(txn);
             wasUpSaved = true;
         }
+        // buffered changes are applied outside of commitLock
+        txn.applyWriteBuffers();
 
         synchronized (commitLock) {
             if (isReadOnly()) {
@@ -936,10 +1019,19 @@ public class EnvironmentImpl implements Environment {
             checkIsOperative();
             if (txn.invalidVersion(metaTree.root)) {
                 // meta lock not needed 'cause write can only occur in another commit lock
-                return false;
+                if (!(ec.getEnvTxnRebase() || txn.hasMerges()) || !txn.canRebase(metaTree)) {
+                    statistics.getStatisticsItem(REPLAYED_TRANSACTIONS).incTotal();
+                    return false;
+                }
+                // concurrent commits touched only the stores which the txn has neither read nor modified,
+                // or the ones it has changed only by merging
+                txn.rebase(metaTree);
+                wasRebased = true;
             }
 
             txn.executeBeforeTransactionFlushAction();
+            // the action could have buffered some changes
+            txn.applyWriteBuffers();
 
             if (wasUpSaved) {
                 up.setDirty(false);
@@ -986,6 +1078,9 @@ public class EnvironmentImpl implements Environment {
             statistics.getStatisticsItem(BYTES_MOVED_BY_GC).addTotal(resultingHighAddress - initialHighAddress);
         }
         statistics.getStatisticsItem(FLUSHED_TRANSACTIONS).incTotal();
+        if (wasRebased) {
+            statistics.getStatisticsItem(REBASED_TRANSACTIONS).incTotal();
+        }
 
         return true;
     }
@@ -1059,7 +1154,8 @@ public class EnvironmentImpl implements Environment {
                 return createTemporaryEmptyStore(name);
             }
             final int structureId = allocateStructureId();
-            metaInfo = TreeMetaInfo.load(this, config.duplicates, config.prefixing, structureId);
+            metaInfo = TreeMetaInfo.load(this, config.duplicates, config.prefixing, config.expiration,
+                    ec.getTreeKeyPrefixCompression(), structureId);
             result = createStore(name, metaInfo);
             final ReadWriteTransaction tx = throwIfReadonly(txn, "Can't create a store in read-only transaction");
             tx.getMutableTree(result);
@@ -1070,6 +1166,10 @@ public class EnvironmentImpl implements Environment {
                 throw new ExodusException("Attempt to open store '" + name + "' with duplicates = " +
                         config.duplicates + " while it was created with duplicates =" + hasDuplicates);
             }
+            if (metaInfo.hasExpiration() != config.expiration) {
+                throw new ExodusException("Attempt to open store '" + name + "' with expiration = " +
+                        config.expiration + " while it was created with expiration = " + metaInfo.hasExpiration());
+            }
             if (metaInfo.isKeyPrefixing() != config.prefixing) {
                 if (!config.prefixing) {
                     throw new ExodusException("Attempt to open store '" + name +
@@ -1077,7 +1177,8 @@ public class EnvironmentImpl implements Environment {
                 }
                 // if we're trying to open existing store with prefixing which actually wasn't created as store
                 // with prefixing due to lack of the PatriciaTree feature, then open store with existing config
-                metaInfo = TreeMetaInfo.load(this, hasDuplicates, false, metaInfo.getStructureId());
+                metaInfo = TreeMetaInfo.load(this, hasDuplicates, false, metaInfo.hasExpiration(),
+                        metaInfo.hasKeyPrefixCompression(), metaInfo.getStructureId());
             }
             result = createStore(name, metaInfo);
             // XD-774: if the store was just removed in the same txn forget the removal
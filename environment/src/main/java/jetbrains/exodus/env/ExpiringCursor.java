@@ -0,0 +1,189 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.env;
+
+import jetbrains.exodus.ByteArrayView;
+import jetbrains.exodus.ByteIterable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cursor over a store created with {@linkplain StoreConfig#expiration expiration}. It skips pairs which values
+ * are expired by the time the cursor was opened and returns values without expiration time.
+ */
+final class ExpiringCursor implements Cursor {
+
+    @NotNull
+    private final Cursor cursor;
+    private final long now;
+
+    ExpiringCursor(@NotNull final Cursor cursor) {
+        this.cursor = cursor;
+        now = System.currentTimeMillis();
+    }
+
+    @Override
+    public boolean getNext() {
+        while (cursor.getNext()) {
+            if (!isExpired()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean getNextDup() {
+        // stores with expiration have no duplicates
+        return false;
+    }
+
+    @Override
+    public boolean getNextNoDup() {
+        return getNext();
+    }
+
+    @Override
+    public boolean getLast() {
+        return cursor.getLast() && (!isExpired() || getPrev());
+    }
+
+    @Override
+    public boolean getPrev() {
+        while (cursor.getPrev()) {
+            if (!isExpired()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean getPrevDup() {
+        return false;
+    }
+
+    @Override
+    public boolean getPrevNoDup() {
+        return getPrev();
+    }
+
+    @NotNull
+    @Override
+    public ByteIterable getKey() {
+        return cursor.getKey();
+    }
+
+    @NotNull
+    @Override
+    public ByteIterable getValue() {
+        return ExpiringValue.getValue(cursor.getValue());
+    }
+
+    /**
+     * @return expiration time of current value in milliseconds since the epoch
+     */
+    long getExpirationTime() {
+        return ExpiringValue.getExpirationTime(cursor.getValue());
+    }
+
+    @NotNull
+    @Override
+    public ByteArrayView getKey(@NotNull final ByteArrayView view) {
+        return cursor.getKey(view);
+    }
+
+    @Override
+    public int getKeyInto(final byte @NotNull [] dst, final int offset) {
+        return cursor.getKeyInto(dst, offset);
+    }
+
+    @Override
+    public long getKeyAsCompressedLong() {
+        return cursor.getKeyAsCompressedLong();
+    }
+
+    @Override
+    public int getKeyAsCompressedInt() {
+        return cursor.getKeyAsCompressedInt();
+    }
+
+    @Override
+    public long getKeyAsLong() {
+        return cursor.getKeyAsLong();
+    }
+
+    @Override
+    public int getKeyAsInt() {
+        return cursor.getKeyAsInt();
+    }
+
+    @Nullable
+    @Override
+    public ByteIterable getSearchKey(@NotNull final ByteIterable key) {
+        return ExpiringValue.getLiveValue(cursor.getSearchKey(key), now);
+    }
+
+    @Nullable
+    @Override
+    public ByteIterable getSearchKeyRange(@NotNull final ByteIterable key) {
+        final ByteIterable storedValue = cursor.getSearchKeyRange(key);
+        if (storedValue == null) {
+            return null;
+        }
+        if (!ExpiringValue.isExpired(storedValue, now)) {
+            return ExpiringValue.getValue(storedValue);
+        }
+        return getNext() ? getValue() : null;
+    }
+
+    @Override
+    public boolean getSearchBoth(@NotNull final ByteIterable key, @NotNull final ByteIterable value) {
+        final ByteIterable currentValue = getSearchKey(key);
+        return currentValue != null && currentValue.compareTo(value) == 0;
+    }
+
+    @Nullable
+    @Override
+    public ByteIterable getSearchBothRange(@NotNull final ByteIterable key, @NotNull final ByteIterable value) {
+        final ByteIterable currentValue = getSearchKey(key);
+        return currentValue != null && currentValue.compareTo(value) >= 0 ? currentValue : null;
+    }
+
+    @Override
+    public int count() {
+        return cursor.count();
+    }
+
+    @Override
+    public boolean isMutable() {
+        return cursor.isMutable();
+    }
+
+    @Override
+    public void close() {
+        cursor.close();
+    }
+
+    @Override
+    public boolean deleteCurrent() {
+        return cursor.deleteCurrent();
+    }
+
+    private boolean isExpired() {
+        return ExpiringValue.isExpired(cursor.getValue(), now);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.env;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.util.LightOutputStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Format of values of stores created with {@linkplain StoreConfig#expiration expiration}: the value is prefixed
+ * with its expiration time written as unsigned 8-byte big-endian number of milliseconds since the epoch.
+ */
+final class ExpiringValue {
+
+    static final long NEVER = Long.MAX_VALUE;
+
+    private static final int EXPIRATION_TIME_LENGTH = Long.BYTES;
+
+    private ExpiringValue() {
+    }
+
+    @NotNull
+    static ArrayByteIterable create(@NotNull final ByteIterable value, final long expirationTime) {
+        final int length = value.getLength();
+        final LightOutputStream output = new LightOutputStream(EXPIRATION_TIME_LENGTH + length);
+        output.writeUnsignedLong(expirationTime);
+        output.write(value.getBaseBytes(), value.baseOffset(), length);
+        return output.asArrayByteIterable();
+    }
+
+    /**
+     * @return expiration time of the value put now to a store with specified time to live
+     */
+    static long getExpirationTime(final long timeToLive) {
+        if (timeToLive <= 0) {
+            return NEVER;
+        }
+        final long result = System.currentTimeMillis() + timeToLive;
+        return result < 0 ? NEVER : result;
+    }
+
+    static long getExpirationTime(@NotNull final ByteIterable storedValue) {
+        return storedValue.iterator().nextLong(EXPIRATION_TIME_LENGTH);
+    }
+
+    static boolean isExpired(@NotNull final ByteIterable storedValue, final long now) {
+        return getExpirationTime(storedValue) <= now;
+    }
+
+    @NotNull
+    static ByteIterable getValue(@NotNull final ByteIterable storedValue) {
+        return storedValue.subIterable(EXPIRATION_TIME_LENGTH, storedValue.getLength() - EXPIRATION_TIME_LENGTH);
+    }
+
+    /**
+     * @return value without expiration time or {@code null} if stored value is {@code null} or expired
+     */
+    @Nullable
+    static ByteIterable getLiveValue(@Nullable final ByteIterable storedValue, final long now) {
+        return storedValue == null || isExpired(storedValue, now) ? null : getValue(storedValue);
+    }
+}
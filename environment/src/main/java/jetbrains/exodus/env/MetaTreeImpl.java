@@ -140,6 +140,27 @@ final class MetaTreeImpl implements MetaTree {
         return value == null ? Loggable.NULL_ADDRESS : CompressedUnsignedLongByteIterable.getLong(value);
     }
 
+    /**
+     * @return {@code true} if the store with specified structure id has the same tree in this and other meta trees.
+     */
+    boolean isSameTree(@NotNull final MetaTreeImpl other, final int structureId) {
+        return getRootAddress(structureId) == other.getRootAddress(structureId);
+    }
+
+    /**
+     * @return {@code true} if the store with specified name is either missing in both this and other meta trees or
+     * has the same meta info in them.
+     */
+    boolean isSameMetaInfo(@NotNull final MetaTreeImpl other, @NotNull final String storeName) {
+        final ByteIterable key = StringBinding.stringToEntry(storeName);
+        final ByteIterable value = tree.get(key);
+        final ByteIterable otherValue = other.tree.get(key);
+        if (value == null || otherValue == null) {
+            return value == otherValue;
+        }
+        return value.compareTo(otherValue) == 0;
+    }
+
     static void removeStore(@NotNull final ITreeMutable out, @NotNull final String storeName, final long id) {
         out.delete(StringBinding.stringToEntry(storeName));
         out.delete(LongBinding.longToCompressedEntry(id));
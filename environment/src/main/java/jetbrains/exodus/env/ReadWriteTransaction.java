@@ -15,17 +15,24 @@
  */
 package jetbrains.exodus.env;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.ExodusException;
 import jetbrains.exodus.core.dataStructures.Pair;
 import jetbrains.exodus.core.dataStructures.decorators.HashMapDecorator;
 import jetbrains.exodus.log.Log;
 import jetbrains.exodus.tree.ExpiredLoggableCollection;
+import jetbrains.exodus.tree.INode;
 import jetbrains.exodus.tree.ITree;
 import jetbrains.exodus.tree.ITreeMutable;
 import jetbrains.exodus.tree.TreeMetaInfo;
+import jetbrains.exodus.tree.btree.BTreeBase;
+import jetbrains.exodus.tree.btree.BTreeBulkMutable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -39,6 +46,32 @@ public class ReadWriteTransaction extends TransactionBase {
     private final Long2ObjectOpenHashMap<Pair<String, ITree>> removedStores;
     @NotNull
     private final Map<String, TreeMetaInfo> createdStores;
+    /**
+     * Structure ids of stores read or modified since the transaction got its snapshot, if the transaction can be
+     * rebased. Is {@code null} if rebase is disabled.
+     */
+    @Nullable
+    private final IntOpenHashSet readStores;
+    /**
+     * Names of stores whose meta info was read since the transaction got its snapshot.
+     */
+    @NotNull
+    private final Set<String> readStoreNames;
+    private boolean readAllStores;
+    /**
+     * Merges applied to stores which the transaction has changed only by merging, by structure ids of the stores.
+     * The merges can be applied again on top of newer versions of the stores if the transaction is rebased.
+     */
+    @NotNull
+    private final Int2ObjectOpenHashMap<StoreMerges> storeMerges;
+    /**
+     * Write buffers of stores without duplicates by structure ids of the stores. Is {@code null} if write
+     * buffering is disabled.
+     *
+     * @see EnvironmentConfig#ENV_TXN_WRITE_BUFFER
+     */
+    @Nullable
+    private final Int2ObjectOpenHashMap<WriteBuffer> writeBuffers;
     @Nullable
     private final Runnable beginHook;
     @Nullable
@@ -55,6 +88,10 @@ public class ReadWriteTransaction extends TransactionBase {
         removedStores = new Long2ObjectOpenHashMap<>();
 
         createdStores = new HashMapDecorator<>();
+        readStores = env.getEnvironmentConfig().getEnvTxnRebase() || env.hasMergeOperators() ? new IntOpenHashSet() : null;
+        readStoreNames = new HashSet<>();
+        storeMerges = new Int2ObjectOpenHashMap<>();
+        writeBuffers = env.getEnvironmentConfig().getEnvTxnWriteBuffer() ? new Int2ObjectOpenHashMap<>() : null;
         this.beginHook = () -> {
             final MetaTreeImpl currentMetaTree = env.getMetaTreeInternal();
             setMetaTree(cloneMeta ? currentMetaTree.getClone() : currentMetaTree);
@@ -74,6 +111,10 @@ public class ReadWriteTransaction extends TransactionBase {
         removedStores = new Long2ObjectOpenHashMap<>();
         createdStores = new HashMapDecorator<>();
         final EnvironmentImpl env = getEnvironment();
+        readStores = env.getEnvironmentConfig().getEnvTxnRebase() || env.hasMergeOperators() ? new IntOpenHashSet() : null;
+        readStoreNames = new HashSet<>();
+        storeMerges = new Int2ObjectOpenHashMap<>();
+        writeBuffers = env.getEnvironmentConfig().getEnvTxnWriteBuffer() ? new Int2ObjectOpenHashMap<>() : null;
         this.beginHook = getWrappedBeginHook(beginHook);
         replayCount = 0;
         setMetaTree(origin.getMetaTree());
@@ -83,7 +124,8 @@ public class ReadWriteTransaction extends TransactionBase {
     }
 
     public boolean isIdempotent() {
-        return mutableTrees.isEmpty() && removedStores.isEmpty() && createdStores.isEmpty();
+        return mutableTrees.isEmpty() && removedStores.isEmpty() && createdStores.isEmpty() &&
+                (writeBuffers == null || writeBuffers.isEmpty());
     }
 
     @Override
@@ -169,6 +211,7 @@ public class ReadWriteTransaction extends TransactionBase {
     public StoreImpl openStoreByStructureId(final int structureId) {
         checkIsFinished();
         final EnvironmentImpl env = getEnvironment();
+        readAllStores = true;
         final String storeName = getMetaTree().getStoreNameByStructureId(structureId, env);
         return storeName == null ?
                 new TemporaryEmptyStore(env) :
@@ -178,11 +221,29 @@ public class ReadWriteTransaction extends TransactionBase {
     @NotNull
     @Override
     public ITree getTree(@NotNull final StoreImpl store) {
+        applyWriteBuffer(store);
+        return getUnbufferedTree(store);
+    }
+
+    /**
+     * @return tree of the store without changes buffered in its {@linkplain WriteBuffer write buffer}
+     */
+    @NotNull
+    ITree getUnbufferedTree(@NotNull final StoreImpl store) {
         checkIsFinished();
-        final ITreeMutable result = mutableTrees.get(store.getStructureId());
+        final int structureId = store.getStructureId();
+        final ITreeMutable result = mutableTrees.get(structureId);
         if (result == null) {
+            final IntOpenHashSet readStores = this.readStores;
+            if (readStores != null) {
+                synchronized (readStores) {
+                    readStores.add(structureId);
+                }
+            }
             return super.getTree(store);
         }
+        // merges can't be applied again if their result was read
+        storeMerges.remove(structureId);
         return result;
     }
 
@@ -191,7 +252,15 @@ public class ReadWriteTransaction extends TransactionBase {
     TreeMetaInfo getTreeMetaInfo(@NotNull final String name) {
         checkIsFinished();
         final TreeMetaInfo result = createdStores.get(name);
-        return result == null ? super.getTreeMetaInfo(name) : result;
+        if (result != null) {
+            return result;
+        }
+        if (readStores != null) {
+            synchronized (readStoreNames) {
+                readStoreNames.add(name);
+            }
+        }
+        return super.getTreeMetaInfo(name);
     }
 
     void storeRemoved(@NotNull final StoreImpl store) {
@@ -201,6 +270,10 @@ public class ReadWriteTransaction extends TransactionBase {
         final ITree tree = store.openImmutableTree(getMetaTree());
         removedStores.put(structureId, new Pair<>(store.getName(), tree));
         mutableTrees.remove(structureId);
+        storeMerges.remove(structureId);
+        if (writeBuffers != null) {
+            writeBuffers.remove(structureId);
+        }
     }
 
     void storeOpened(@NotNull final StoreImpl store) {
@@ -212,6 +285,22 @@ public class ReadWriteTransaction extends TransactionBase {
         createdStores.put(store.getName(), store.getMetaInfo());
     }
 
+    /**
+     * Creates the store with the tree which is built on commit from sorted unique pairs, see
+     * {@linkplain BTreeBulkMutable}. The store should be new, and it isn't supposed to be read or modified
+     * in the transaction.
+     */
+    void storeIngested(@NotNull final StoreImpl store, @NotNull final Iterator<INode> pairs) {
+        checkIsFinished();
+        checkWritingThread();
+        final ITree tree = super.getTree(store);
+        if (!(tree instanceof BTreeBase)) {
+            throw new ExodusException("Can't ingest store '" + store.getName() + "' which is not a B-tree");
+        }
+        mutableTrees.put(store.getStructureId(), new BTreeBulkMutable((BTreeBase) tree, pairs));
+        createdStores.put(store.getName(), store.getMetaInfo());
+    }
+
     int getReplayCount() {
         return replayCount;
     }
@@ -220,6 +309,159 @@ public class ReadWriteTransaction extends TransactionBase {
         ++replayCount;
     }
 
+    /**
+     * Checks if the transaction can be committed on top of specified meta tree rather than on top of the one which
+     * it has started with. This is so if the stores which the transaction has read or modified are the same in
+     * both meta trees, i.e. if concurrently committed transactions touched only other stores. Stores which the
+     * transaction has changed only by {@linkplain #merge(StoreImpl, MergeOperator, ByteIterable, ByteIterable)
+     * merging} can be changed concurrently.
+     *
+     * @param current newest meta tree of the environment
+     * @return {@code true} if the transaction can be rebased
+     */
+    boolean canRebase(@NotNull final MetaTreeImpl current) {
+        final IntOpenHashSet readStores = this.readStores;
+        if (readStores == null || readAllStores || isGCTransaction()) {
+            return false;
+        }
+        final MetaTreeImpl metaTree = getMetaTree();
+        synchronized (readStores) {
+            final IntIterator it = readStores.iterator();
+            while (it.hasNext()) {
+                if (!metaTree.isSameTree(current, it.nextInt())) {
+                    return false;
+                }
+            }
+        }
+        final IntIterator it = mutableTrees.keySet().iterator();
+        while (it.hasNext()) {
+            final int structureId = it.nextInt();
+            if (!storeMerges.containsKey(structureId) && !metaTree.isSameTree(current, structureId)) {
+                return false;
+            }
+        }
+        for (final StoreMerges merges : storeMerges.values()) {
+            if (!metaTree.isSameMetaInfo(current, merges.store.getName())) {
+                return false;
+            }
+        }
+        for (final Long2ObjectMap.Entry<Pair<String, ITree>> entry : removedStores.long2ObjectEntrySet()) {
+            if (!metaTree.isSameTree(current, (int) entry.getLongKey()) ||
+                    !metaTree.isSameMetaInfo(current, entry.getValue().getFirst())) {
+                return false;
+            }
+        }
+        for (final String name : createdStores.keySet()) {
+            if (!metaTree.isSameMetaInfo(current, name)) {
+                return false;
+            }
+        }
+        synchronized (readStoreNames) {
+            for (final String name : readStoreNames) {
+                if (!metaTree.isSameMetaInfo(current, name)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Makes the transaction to be committed on top of specified meta tree. Mutable trees are preserved, except
+     * the ones of stores changed only by merging: merges are applied again to the newest versions of the stores.
+     *
+     * @param current newest meta tree of the environment
+     * @see #canRebase(MetaTreeImpl)
+     */
+    void rebase(@NotNull final MetaTreeImpl current) {
+        setMetaTree(current);
+        clearImmutableTrees();
+        for (final Int2ObjectMap.Entry<StoreMerges> entry : storeMerges.int2ObjectEntrySet()) {
+            final int structureId = entry.getIntKey();
+            final StoreMerges merges = entry.getValue();
+            final ITreeMutable tree = merges.store.openImmutableTree(current).getMutableCopy();
+            merges.applyTo(tree);
+            mutableTrees.put(structureId, tree);
+        }
+    }
+
+    /**
+     * Merges operand into the value of the key using specified operator. If the store has not been changed
+     * otherwise, the merge is saved to be applied again if the transaction is rebased.
+     *
+     * @return mutable tree of the store
+     */
+    @NotNull
+    ITreeMutable merge(@NotNull final StoreImpl store,
+                       @NotNull final MergeOperator operator,
+                       @NotNull final ByteIterable key,
+                       @NotNull final ByteIterable operand) {
+        // buffered changes are not merges, so they are applied before checking if the store is changed only by merging
+        applyWriteBuffer(store);
+        final int structureId = store.getStructureId();
+        StoreMerges merges = storeMerges.get(structureId);
+        if (merges == null && !mutableTrees.containsKey(structureId)) {
+            merges = new StoreMerges(store, operator);
+            storeMerges.put(structureId, merges);
+        }
+        // merging doesn't read the store, so the tree is not tracked as read
+        final ITreeMutable tree = getMutableTree(store, false);
+        tree.put(key, operator.merge(tree.get(key), operand));
+        if (merges != null) {
+            merges.add(key, operand);
+        }
+        return tree;
+    }
+
+    /**
+     * Returns write buffer of the store, creating it if necessary. Changes are buffered only if write buffering
+     * is enabled, the store has no duplicates and its tree is not yet mutable in the transaction, since cursors
+     * of mutable trees should see changes immediately.
+     *
+     * @return write buffer of the store, or {@code null} if changes should be applied to the tree directly
+     */
+    @Nullable
+    WriteBuffer getWriteBuffer(@NotNull final StoreImpl store) {
+        final Int2ObjectOpenHashMap<WriteBuffer> writeBuffers = this.writeBuffers;
+        if (writeBuffers == null || store.getMetaInfo().hasDuplicates()) {
+            return null;
+        }
+        checkIsFinished();
+        checkWritingThread();
+        final int structureId = store.getStructureId();
+        WriteBuffer result = writeBuffers.get(structureId);
+        if (result == null && !mutableTrees.containsKey(structureId)) {
+            result = new WriteBuffer(store);
+            writeBuffers.put(structureId, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return existing write buffer of the store, or {@code null}
+     */
+    @Nullable
+    WriteBuffer findWriteBuffer(@NotNull final StoreImpl store) {
+        final Int2ObjectOpenHashMap<WriteBuffer> writeBuffers = this.writeBuffers;
+        return writeBuffers == null || writeBuffers.isEmpty() ? null : writeBuffers.get(store.getStructureId());
+    }
+
+    /**
+     * Applies all buffered changes to mutable trees of the stores. Is called before the transaction is flushed.
+     */
+    void applyWriteBuffers() {
+        final Int2ObjectOpenHashMap<WriteBuffer> writeBuffers = this.writeBuffers;
+        if (writeBuffers != null && !writeBuffers.isEmpty()) {
+            for (final WriteBuffer writeBuffer : new ArrayList<>(writeBuffers.values())) {
+                applyWriteBuffer(writeBuffer.store);
+            }
+        }
+    }
+
+    boolean hasMerges() {
+        return !storeMerges.isEmpty();
+    }
+
     int getAcquiredPermits() {
         return acquiredPermits;
     }
@@ -257,6 +499,8 @@ public class ReadWriteTransaction extends TransactionBase {
 
         clearImmutableTrees();
         mutableTrees.clear();
+        storeMerges.clear();
+        clearReadStores();
         expiredLoggables = expiredLoggables.mergeWith(metaTreeMutable.getExpiredLoggables().trimToSize());
         out[0] = MetaTreeImpl.saveMetaTree(metaTreeMutable, getEnvironment(), expiredLoggables);
         return expiredLoggables;
@@ -270,18 +514,22 @@ public class ReadWriteTransaction extends TransactionBase {
 
     @NotNull
     ITreeMutable getMutableTree(@NotNull final StoreImpl store) {
+        final ITreeMutable result = getMutableTree(store, true);
+        // the store is changed not only by merging
+        storeMerges.remove(store.getStructureId());
+        return result;
+    }
+
+    @NotNull
+    private ITreeMutable getMutableTree(@NotNull final StoreImpl store, final boolean trackRead) {
         checkIsFinished();
-        if (getEnvironment().getEnvironmentConfig().getEnvTxnSingleThreadWrites()) {
-            final Thread creatingThread = getCreatingThread();
-            if (!creatingThread.equals(Thread.currentThread())) {
-                throw new ExodusException("Can't create mutable tree in a thread different from the one which transaction was created in");
-            }
-        }
+        checkWritingThread();
+        applyWriteBuffer(store);
         final int structureId = store.getStructureId();
 
         ITreeMutable result = mutableTrees.get(structureId);
         if (result == null) {
-            result = getTree(store).getMutableCopy();
+            result = (trackRead ? getTree(store) : super.getTree(store)).getMutableCopy();
             mutableTrees.put(structureId, result);
         }
         return result;
@@ -289,19 +537,41 @@ public class ReadWriteTransaction extends TransactionBase {
 
     /**
      * @param store opened store.
-     * @return whether a mutable tree is created for specified store.
+     * @return whether a mutable tree or a write buffer is created for specified store.
      */
     boolean hasTreeMutable(@NotNull final StoreImpl store) {
-        return mutableTrees.containsKey(store.getStructureId());
+        final int structureId = store.getStructureId();
+        return mutableTrees.containsKey(structureId) || (writeBuffers != null && writeBuffers.containsKey(structureId));
+    }
+
+    private void checkWritingThread() {
+        if (getEnvironment().getEnvironmentConfig().getEnvTxnSingleThreadWrites()) {
+            final Thread creatingThread = getCreatingThread();
+            if (!creatingThread.equals(Thread.currentThread())) {
+                throw new ExodusException("Can't create mutable tree in a thread different from the one which transaction was created in");
+            }
+        }
+    }
+
+    private void applyWriteBuffer(@NotNull final StoreImpl store) {
+        final Int2ObjectOpenHashMap<WriteBuffer> writeBuffers = this.writeBuffers;
+        if (writeBuffers != null && !writeBuffers.isEmpty()) {
+            final WriteBuffer writeBuffer = writeBuffers.remove(store.getStructureId());
+            if (writeBuffer != null) {
+                writeBuffer.applyTo(getMutableTree(store));
+            }
+        }
     }
 
     void removeTreeMutable(@NotNull final StoreImpl store) {
         mutableTrees.remove(store.getStructureId());
+        storeMerges.remove(store.getStructureId());
     }
 
     @NotNull
     @Override
     List<String> getAllStoreNames() {
+        readAllStores = true;
         List<String> result = super.getAllStoreNames();
         if (createdStores.isEmpty()) return result;
         if (result.isEmpty()) {
@@ -322,6 +592,9 @@ public class ReadWriteTransaction extends TransactionBase {
     protected boolean setIsFinished() {
         if (super.setIsFinished()) {
             mutableTrees.clear();
+            if (writeBuffers != null) {
+                writeBuffers.clear();
+            }
             return true;
         }
         return false;
@@ -329,7 +602,50 @@ public class ReadWriteTransaction extends TransactionBase {
 
     private void doRevert() {
         mutableTrees.clear();
+        if (writeBuffers != null) {
+            writeBuffers.clear();
+        }
+        storeMerges.clear();
         removedStores.clear();
         createdStores.clear();
+        clearReadStores();
+    }
+
+    private void clearReadStores() {
+        final IntOpenHashSet readStores = this.readStores;
+        if (readStores != null) {
+            synchronized (readStores) {
+                readStores.clear();
+            }
+            synchronized (readStoreNames) {
+                readStoreNames.clear();
+            }
+        }
+        readAllStores = false;
+    }
+
+    private static final class StoreMerges {
+
+        @NotNull
+        private final StoreImpl store;
+        @NotNull
+        private final MergeOperator operator;
+        private final List<Pair<ByteIterable, ByteIterable>> merges = new ArrayList<>();
+
+        private StoreMerges(@NotNull final StoreImpl store, @NotNull final MergeOperator operator) {
+            this.store = store;
+            this.operator = operator;
+        }
+
+        private void add(@NotNull final ByteIterable key, @NotNull final ByteIterable operand) {
+            merges.add(new Pair<>(key, operand));
+        }
+
+        private void applyTo(@NotNull final ITreeMutable tree) {
+            for (final Pair<ByteIterable, ByteIterable> merge : merges) {
+                final ByteIterable key = merge.getFirst();
+                tree.put(key, operator.merge(tree.get(key), merge.getSecond()));
+            }
+        }
     }
 }
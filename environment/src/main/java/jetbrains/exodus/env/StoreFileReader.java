@@ -0,0 +1,161 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.env;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ExodusException;
+import jetbrains.exodus.tree.INode;
+import jetbrains.exodus.tree.btree.LeafNodeKV;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads pairs of a file written by {@linkplain StoreFileWriter} and checks their order.
+ */
+final class StoreFileReader implements Closeable {
+
+    @NotNull
+    private final File file;
+    @NotNull
+    private final DataInputStream input;
+    @NotNull
+    private final StoreConfig config;
+    @Nullable
+    private ArrayByteIterable key;
+    @Nullable
+    private ArrayByteIterable value;
+
+    StoreFileReader(@NotNull final File file) {
+        this.file = file;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        } catch (IOException e) {
+            throw ExodusException.toExodusException(e, "Can't open store file " + file);
+        }
+        try {
+            if (input.readInt() != StoreFileWriter.MAGIC || input.readByte() != StoreFileWriter.VERSION) {
+                throw new ExodusException("Not a store file: " + file);
+            }
+            config = findConfig(input.readByte());
+        } catch (Throwable t) {
+            close();
+            throw ExodusException.toExodusException(t, "Can't read store file " + file);
+        }
+    }
+
+    @NotNull
+    StoreConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Reads next pair.
+     *
+     * @return {@code false} if there are no more pairs
+     */
+    boolean next() {
+        try {
+            final int keyLength = input.readInt();
+            if (keyLength == StoreFileWriter.END_OF_PAIRS) {
+                return false;
+            }
+            final ArrayByteIterable nextKey = read(keyLength);
+            final ArrayByteIterable nextValue = read(input.readInt());
+            StoreFileWriter.checkOrder(key, nextKey);
+            key = nextKey;
+            value = nextValue;
+            return true;
+        } catch (IOException e) {
+            throw ExodusException.toExodusException(e, "Can't read store file " + file);
+        }
+    }
+
+    @NotNull
+    ArrayByteIterable getKey() {
+        //noinspection ConstantConditions
+        return key;
+    }
+
+    @NotNull
+    ArrayByteIterable getValue() {
+        //noinspection ConstantConditions
+        return value;
+    }
+
+    /**
+     * Iterates the rest of pairs as leaf nodes which can be saved to a tree of the store.
+     *
+     * @param expirationTime expiration time values are wrapped with if the config has expiration
+     */
+    @NotNull
+    Iterator<INode> nodes(final long expirationTime) {
+        return new Iterator<INode>() {
+
+            private boolean hasNext = StoreFileReader.this.next();
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public INode next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+                final ArrayByteIterable value = getValue();
+                final INode result = new LeafNodeKV(getKey(),
+                        config.expiration ? ExpiringValue.create(value, expirationTime) : value);
+                hasNext = StoreFileReader.this.next();
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        try {
+            input.close();
+        } catch (IOException e) {
+            throw ExodusException.toExodusException(e, "Can't close store file " + file);
+        }
+    }
+
+    @NotNull
+    private ArrayByteIterable read(final int length) throws IOException {
+        if (length < 0) {
+            throw new ExodusException("Store file is corrupted: " + file);
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new ArrayByteIterable(bytes);
+    }
+
+    @NotNull
+    private StoreConfig findConfig(final int id) {
+        for (final StoreConfig config : StoreConfig.values()) {
+            if (config.id == id && !config.duplicates && !config.prefixing &&
+                    !config.temporaryEmpty && !config.useExisting) {
+                return config;
+            }
+        }
+        throw new ExodusException("Unknown store config " + id + " in store file " + file);
+    }
+}
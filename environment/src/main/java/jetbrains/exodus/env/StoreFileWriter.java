@@ -0,0 +1,117 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.env;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.ExodusException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+
+/**
+ * Writes key/value pairs of a {@linkplain Store} to a standalone file outside of any {@linkplain Environment}.
+ * The file can be ingested later by {@linkplain Environment#ingest(String, File)}. Pairs should be added in
+ * ascending order of unique keys. Stores with duplicates and key prefixing are not supported.
+ * <pre>
+ * try (StoreFileWriter writer = new StoreFileWriter(file, StoreConfig.WITHOUT_DUPLICATES)) {
+ *     for (...) {
+ *         writer.add(key, value);
+ *     }
+ * }
+ * env.ingest("storeName", file);
+ * </pre>
+ *
+ * @see Environment#ingest(String, File)
+ */
+public final class StoreFileWriter implements Closeable {
+
+    static final int MAGIC = 0x58445346;
+    static final int VERSION = 1;
+    static final int END_OF_PAIRS = -1;
+
+    @NotNull
+    private final StoreConfig config;
+    @NotNull
+    private final DataOutputStream output;
+    @Nullable
+    private ArrayByteIterable lastKey;
+    private long count;
+
+    public StoreFileWriter(@NotNull final File file, @NotNull final StoreConfig config) {
+        if (config.duplicates || config.prefixing || config.temporaryEmpty || config.useExisting) {
+            throw new IllegalArgumentException("Can't write store file with config " + config);
+        }
+        this.config = config;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.writeByte(config.id);
+        } catch (IOException e) {
+            throw ExodusException.toExodusException(e, "Can't create store file " + file);
+        }
+    }
+
+    /**
+     * Adds key/value pair to the file.
+     *
+     * @param key   key greater than the keys added before
+     * @param value value
+     * @throws ExodusException if the pair is out of order
+     */
+    public void add(@NotNull final ByteIterable key, @NotNull final ByteIterable value) {
+        checkOrder(lastKey, key);
+        lastKey = new ArrayByteIterable(key);
+        try {
+            write(lastKey);
+            write(value);
+        } catch (IOException e) {
+            throw ExodusException.toExodusException(e, "Can't write to store file");
+        }
+        ++count;
+    }
+
+    /**
+     * @return number of pairs added to the file
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() {
+        try {
+            output.writeInt(END_OF_PAIRS);
+            output.close();
+        } catch (IOException e) {
+            throw ExodusException.toExodusException(e, "Can't close store file");
+        }
+    }
+
+    static void checkOrder(@Nullable final ByteIterable lastKey, @NotNull final ByteIterable key) {
+        if (lastKey != null && lastKey.compareTo(key) >= 0) {
+            throw new ExodusException("Pairs of store file should be sorted and unique");
+        }
+    }
+
+    private void write(@NotNull final ByteIterable it) throws IOException {
+        final int length = it.getLength();
+        output.writeInt(length);
+        output.write(it.getBytesUnsafe(), 0, length);
+    }
+}
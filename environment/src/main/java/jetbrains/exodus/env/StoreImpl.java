@@ -15,12 +15,15 @@
  */
 package jetbrains.exodus.env;
 
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import jetbrains.exodus.ArrayByteIterable;
 import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.ExodusException;
 import jetbrains.exodus.log.Log;
 import jetbrains.exodus.log.Loggable;
 import jetbrains.exodus.log.RandomAccessLoggable;
 import jetbrains.exodus.tree.ITree;
+import jetbrains.exodus.tree.ITreeCursor;
 import jetbrains.exodus.tree.ITreeMutable;
 import jetbrains.exodus.tree.TreeCursorMutable;
 import jetbrains.exodus.tree.TreeMetaInfo;
@@ -34,12 +37,22 @@ import jetbrains.exodus.util.StringInterner;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.StreamSupport;
 
 public class StoreImpl implements Store {
 
     @NotNull
     private static final ArrayByteIterable NULL_CACHED_VALUE = new ArrayByteIterable(ByteIterable.EMPTY);
+    // number of ranges per thread the key space is split into for parallel scans
+    private static final int RANGES_PER_THREAD = 4;
+    // number of pairs which lengths are averaged to estimate size of a key range
+    private static final int SIZE_ESTIMATE_SAMPLE = 16;
 
     @NotNull
     private final EnvironmentImpl environment;
@@ -64,42 +77,146 @@ public class StoreImpl implements Store {
     @Override
     @Nullable
     public ByteIterable get(@NotNull final Transaction txn, @NotNull final ByteIterable key) {
+        final ByteIterable result = getStoredValue(txn, key);
+        return metaInfo.hasExpiration() ? ExpiringValue.getLiveValue(result, System.currentTimeMillis()) : result;
+    }
+
+    @NotNull
+    @Override
+    public ByteIterable[] getAll(@NotNull final Transaction txn, @NotNull final ByteIterable[] keys) {
+        final ByteIterable[] result = getAllStoredValues(txn, keys);
+        if (metaInfo.hasExpiration()) {
+            final long now = System.currentTimeMillis();
+            for (int i = 0; i < result.length; ++i) {
+                result[i] = ExpiringValue.getLiveValue(result[i], now);
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private ByteIterable getStoredValue(@NotNull final Transaction txn, @NotNull final ByteIterable key) {
         final TransactionBase tx = (TransactionBase) txn;
-        final ITree tree = tx.getTree(this);
-        if (!tx.isDisableStoreGetCache()) {
-            final StoreGetCache storeGetCache = environment.getStoreGetCache();
+        final WriteBuffer writeBuffer = findWriteBuffer(tx);
+        if (writeBuffer == null) {
+            return getStoredValue(tx, tx.getTree(this), key);
+        }
+        // read your own buffered writes without applying them to the tree
+        final ByteIterable result = writeBuffer.get(key);
+        if (result != null) {
+            return WriteBuffer.isDeleted(result) ? null : result;
+        }
+        return getStoredValue(tx, ((ReadWriteTransaction) tx).getUnbufferedTree(this), key);
+    }
+
+    @Nullable
+    private ByteIterable getStoredValue(@NotNull final TransactionBase tx,
+                                        @NotNull final ITree tree,
+                                        @NotNull final ByteIterable key) {
+        final StoreGetCache storeGetCache = getStoreGetCache(tx, tree);
+        // if neither tree is empty nor mutable
+        if (storeGetCache != null) {
+            final long treeRootAddress = tree.getRootAddress();
+            ByteIterable result = storeGetCache.tryKey(treeRootAddress, key);
+            if (result != null) {
+                return result == NULL_CACHED_VALUE ? null : result;
+            }
+            result = tree.get(key);
+            cacheValue(storeGetCache, treeRootAddress, key, result);
+            return result;
+        }
+        return tree.get(key);
+    }
+
+    @NotNull
+    private ByteIterable[] getAllStoredValues(@NotNull final Transaction txn, @NotNull final ByteIterable[] keys) {
+        final int count = keys.length;
+        final ByteIterable[] result = new ByteIterable[count];
+        if (count == 0) {
+            return result;
+        }
+        final TransactionBase tx = (TransactionBase) txn;
+        final WriteBuffer writeBuffer = findWriteBuffer(tx);
+        if (writeBuffer == null) {
+            return getAllStoredValues(tx, tx.getTree(this), keys, result);
+        }
+        getAllStoredValues(tx, ((ReadWriteTransaction) tx).getUnbufferedTree(this), keys, result);
+        for (int i = 0; i < count; ++i) {
+            final ByteIterable buffered = writeBuffer.get(keys[i]);
+            if (buffered != null) {
+                result[i] = WriteBuffer.isDeleted(buffered) ? null : buffered;
+            }
+        }
+        return result;
+    }
+
+    @NotNull
+    private ByteIterable[] getAllStoredValues(@NotNull final TransactionBase tx,
+                                              @NotNull final ITree tree,
+                                              @NotNull final ByteIterable[] keys,
+                                              @NotNull final ByteIterable[] result) {
+        final int count = keys.length;
+        final StoreGetCache storeGetCache = getStoreGetCache(tx, tree);
+        final long treeRootAddress = tree.getRootAddress();
+        // indices of keys which are not found in StoreGetCache
+        final int[] misses = new int[count];
+        int missCount = 0;
+        boolean sorted = true;
+        for (int i = 0; i < count; ++i) {
+            final ByteIterable key = keys[i];
             if (storeGetCache != null) {
-                final long treeRootAddress = tree.getRootAddress();
-                final boolean useStoreGetCache = treeRootAddress != Loggable.NULL_ADDRESS && tree.getSize() >= storeGetCache.getMinTreeSize();
-                // if neither tree is empty nor mutable
-                if (useStoreGetCache) {
-                    ByteIterable result = storeGetCache.tryKey(treeRootAddress, key);
-                    if (result != null) {
-                        return result == NULL_CACHED_VALUE ? null : result;
-                    }
-                    result = tree.get(key);
-                    final ArrayByteIterable cachedValue;
-                    if (result == null) {
-                        cachedValue = NULL_CACHED_VALUE;
-                    } else if (result instanceof ArrayByteIterable) {
-                        cachedValue = (ArrayByteIterable) result;
-                    } else {
-                        cachedValue = new ArrayByteIterable(result);
-                    }
-                    if (cachedValue.getLength() <= storeGetCache.getMaxValueSize()) {
-                        storeGetCache.cacheObject(treeRootAddress, key, cachedValue);
-                    }
-                    return result;
+                final ByteIterable cached = storeGetCache.tryKey(treeRootAddress, key);
+                if (cached != null) {
+                    result[i] = cached == NULL_CACHED_VALUE ? null : cached;
+                    continue;
                 }
             }
+            if (sorted && missCount > 0 && keys[misses[missCount - 1]].compareTo(key) > 0) {
+                sorted = false;
+            }
+            misses[missCount++] = i;
         }
-        return tree.get(key);
+        if (missCount == 0) {
+            return result;
+        }
+        if (!sorted) {
+            IntArrays.mergeSort(misses, 0, missCount, (i, j) -> keys[i].compareTo(keys[j]));
+        }
+        // search for distinct keys only
+        final ByteIterable[] distinctKeys = new ByteIterable[missCount];
+        int distinctCount = 0;
+        for (int i = 0; i < missCount; ++i) {
+            final ByteIterable key = keys[misses[i]];
+            if (distinctCount == 0 || distinctKeys[distinctCount - 1].compareTo(key) != 0) {
+                distinctKeys[distinctCount++] = key;
+            }
+        }
+        final ByteIterable[] values;
+        try (ITreeCursor cursor = tree.openCursor()) {
+            values = cursor.multiSeek(distinctCount == missCount ? distinctKeys : Arrays.copyOf(distinctKeys, distinctCount));
+        }
+        for (int i = 0, j = -1; i < missCount; ++i) {
+            final int index = misses[i];
+            final ByteIterable key = keys[index];
+            if (j < 0 || distinctKeys[j].compareTo(key) != 0) {
+                ++j;
+                if (storeGetCache != null) {
+                    cacheValue(storeGetCache, treeRootAddress, key, values[j]);
+                }
+            }
+            result[index] = values[j];
+        }
+        return result;
     }
 
     @Override
     public boolean exists(@NotNull final Transaction txn,
                           @NotNull final ByteIterable key,
                           @NotNull final ByteIterable value) {
+        if (metaInfo.hasExpiration() || findWriteBuffer((TransactionBase) txn) != null) {
+            final ByteIterable currentValue = get(txn, key);
+            return currentValue != null && currentValue.compareTo(value) == 0;
+        }
         return ((TransactionBase) txn).getTree(this).hasPair(key, value);
     }
 
@@ -107,7 +224,15 @@ public class StoreImpl implements Store {
     public boolean put(@NotNull final Transaction txn,
                        @NotNull final ByteIterable key,
                        @NotNull final ByteIterable value) {
-        final ITreeMutable mutableTree = EnvironmentImpl.throwIfReadonly(txn, "Can't put in read-only transaction").getMutableTree(this);
+        if (metaInfo.hasExpiration()) {
+            return put(txn, key, value, getExpirationTime());
+        }
+        final ReadWriteTransaction tx = EnvironmentImpl.throwIfReadonly(txn, "Can't put in read-only transaction");
+        final WriteBuffer writeBuffer = tx.getWriteBuffer(this);
+        if (writeBuffer != null) {
+            return putBuffered(tx, writeBuffer, key, value);
+        }
+        final ITreeMutable mutableTree = tx.getMutableTree(this);
         if (mutableTree.put(key, value)) {
             TreeCursorMutable.notifyCursors(mutableTree);
             return true;
@@ -115,18 +240,70 @@ public class StoreImpl implements Store {
         return false;
     }
 
+    @Override
+    public boolean put(@NotNull final Transaction txn,
+                       @NotNull final ByteIterable key,
+                       @NotNull final ByteIterable value,
+                       final long expirationTime) {
+        final ReadWriteTransaction tx = EnvironmentImpl.throwIfReadonly(txn, "Can't put in read-only transaction");
+        if (!metaInfo.hasExpiration()) {
+            throw new ExodusException("Can't put expiring value in store without expiration: " + name);
+        }
+        final WriteBuffer writeBuffer = tx.getWriteBuffer(this);
+        if (writeBuffer != null) {
+            return putBuffered(tx, writeBuffer, key, ExpiringValue.create(value, expirationTime));
+        }
+        final ITreeMutable mutableTree = tx.getMutableTree(this);
+        if (mutableTree.put(key, ExpiringValue.create(value, expirationTime))) {
+            TreeCursorMutable.notifyCursors(mutableTree);
+            return true;
+        }
+        return false;
+    }
+
     public boolean putNotifyNoCursors(@NotNull final Transaction txn,
                                       @NotNull final ByteIterable key,
                                       @NotNull final ByteIterable value) {
-        return EnvironmentImpl.throwIfReadonly(txn, "Can't put in read-only transaction").getMutableTree(this).put(key, value);
+        final ReadWriteTransaction tx = EnvironmentImpl.throwIfReadonly(txn, "Can't put in read-only transaction");
+        final ByteIterable storedValue = metaInfo.hasExpiration() ? ExpiringValue.create(value, getExpirationTime()) : value;
+        final WriteBuffer writeBuffer = tx.getWriteBuffer(this);
+        if (writeBuffer != null) {
+            return putBuffered(tx, writeBuffer, key, storedValue);
+        }
+        return tx.getMutableTree(this).put(key, storedValue);
+    }
+
+    @Override
+    public void merge(@NotNull final Transaction txn,
+                      @NotNull final ByteIterable key,
+                      @NotNull final ByteIterable operand) {
+        final ReadWriteTransaction tx = EnvironmentImpl.throwIfReadonly(txn, "Can't merge in read-only transaction");
+        final MergeOperator operator = environment.getMergeOperator(name);
+        if (operator == null) {
+            throw new ExodusException("Merge operator is not set for store " + name);
+        }
+        if (metaInfo.hasDuplicates()) {
+            throw new ExodusException("Can't merge in store with duplicates: " + name);
+        }
+        if (metaInfo.hasExpiration()) {
+            throw new ExodusException("Can't merge in store with expiration: " + name);
+        }
+        TreeCursorMutable.notifyCursors(tx.merge(this, operator, key, operand));
     }
 
     @Override
     public void putRight(@NotNull final Transaction txn,
                          @NotNull final ByteIterable key,
                          @NotNull final ByteIterable value) {
-        final ITreeMutable mutableTree = EnvironmentImpl.throwIfReadonly(txn, "Can't put in read-only transaction").getMutableTree(this);
-        mutableTree.putRight(key, value);
+        final ReadWriteTransaction tx = EnvironmentImpl.throwIfReadonly(txn, "Can't put in read-only transaction");
+        final ByteIterable storedValue = metaInfo.hasExpiration() ? ExpiringValue.create(value, getExpirationTime()) : value;
+        final WriteBuffer writeBuffer = tx.getWriteBuffer(this);
+        if (writeBuffer != null) {
+            writeBuffer.put(key, storedValue);
+            return;
+        }
+        final ITreeMutable mutableTree = tx.getMutableTree(this);
+        mutableTree.putRight(key, storedValue);
         TreeCursorMutable.notifyCursors(mutableTree);
     }
 
@@ -134,7 +311,21 @@ public class StoreImpl implements Store {
     public boolean add(@NotNull final Transaction txn,
                        @NotNull final ByteIterable key,
                        @NotNull final ByteIterable value) {
-        final ITreeMutable mutableTree = EnvironmentImpl.throwIfReadonly(txn, "Can't add in read-only transaction").getMutableTree(this);
+        if (metaInfo.hasExpiration()) {
+            EnvironmentImpl.throwIfReadonly(txn, "Can't add in read-only transaction");
+            // expired value doesn't prevent adding
+            return get(txn, key) == null && put(txn, key, value);
+        }
+        final ReadWriteTransaction tx = EnvironmentImpl.throwIfReadonly(txn, "Can't add in read-only transaction");
+        final WriteBuffer writeBuffer = tx.getWriteBuffer(this);
+        if (writeBuffer != null) {
+            if (getStoredValue(tx, key) != null) {
+                return false;
+            }
+            writeBuffer.put(key, value);
+            return true;
+        }
+        final ITreeMutable mutableTree = tx.getMutableTree(this);
         if (mutableTree.add(key, value)) {
             TreeCursorMutable.notifyCursors(mutableTree);
             return true;
@@ -147,18 +338,104 @@ public class StoreImpl implements Store {
         return ((TransactionBase) txn).getTree(this).getSize();
     }
 
+    @Override
+    public long estimateCount(@NotNull final Transaction txn, @Nullable final ByteIterable from, @Nullable final ByteIterable to) {
+        return estimateCount(((TransactionBase) txn).getTree(this), from, to);
+    }
+
+    @Override
+    public long estimateSize(@NotNull final Transaction txn, @Nullable final ByteIterable from, @Nullable final ByteIterable to) {
+        final ITree tree = ((TransactionBase) txn).getTree(this);
+        final long count = estimateCount(tree, from, to);
+        if (count == 0) {
+            return 0;
+        }
+        long length = 0;
+        int sampled = 0;
+        try (ITreeCursor cursor = tree.openCursor()) {
+            boolean found = from == null ? cursor.getNext() : cursor.getSearchKeyRange(from) != null;
+            while (found && sampled < SIZE_ESTIMATE_SAMPLE) {
+                final ByteIterable key = cursor.getKey();
+                if (to != null && key.compareTo(to) >= 0) {
+                    break;
+                }
+                length += key.getLength() + cursor.getValue().getLength();
+                ++sampled;
+                found = cursor.getNext();
+            }
+        }
+        return sampled == 0 ? 0 : Math.round((double) length / sampled * count);
+    }
+
     @Override
     public Cursor openCursor(@NotNull final Transaction txn) {
-        return new CursorImpl(this, (TransactionBase) txn);
+        final CursorImpl result = new CursorImpl(this, (TransactionBase) txn);
+        return metaInfo.hasExpiration() ? new ExpiringCursor(result) : result;
+    }
+
+    @NotNull
+    @Override
+    public Spliterator<Map.Entry<ByteIterable, ByteIterable>> spliterator(@NotNull final Transaction txn) {
+        return spliterator(txn, ForkJoinPool.getCommonPoolParallelism() * RANGES_PER_THREAD);
+    }
+
+    @Override
+    public void parallelScan(@NotNull final Transaction txn,
+                             final int parallelism,
+                             @NotNull final BiConsumer<ByteIterable, ByteIterable> consumer) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive");
+        }
+        final Spliterator<Map.Entry<ByteIterable, ByteIterable>> spliterator = spliterator(txn, parallelism * RANGES_PER_THREAD);
+        if (parallelism == 1) {
+            spliterator.forEachRemaining(pair -> consumer.accept(pair.getKey(), pair.getValue()));
+            return;
+        }
+        // parallel stream started by a task of the pool is evaluated by the workers of the pool
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> StreamSupport.stream(spliterator, true)
+                    .forEach(pair -> consumer.accept(pair.getKey(), pair.getValue()))).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @NotNull
+    Spliterator<Map.Entry<ByteIterable, ByteIterable>> spliterator(@NotNull final Transaction txn, final int maxRanges) {
+        final TransactionBase tx = (TransactionBase) txn;
+        final ITree tree = tx.getTree(this);
+        if (tree instanceof ITreeMutable) {
+            // changes of the transaction are visible only to cursors of the transaction
+            return new StoreSpliterator(() -> openCursor(txn), ITree.NO_SPLIT_KEYS, tree.getSize(), false);
+        }
+        // each range is read from its own instance of the tree, since trees cache data iterators
+        final MetaTreeImpl metaTree = tx.getMetaTree();
+        return new StoreSpliterator(() -> {
+            tx.checkIsFinished();
+            final Cursor result = openImmutableTree(metaTree).openCursor();
+            return metaInfo.hasExpiration() ? new ExpiringCursor(result) : result;
+        }, tree.getSplitKeys(maxRanges), tree.getSize(), true);
     }
 
     @Override
     public boolean delete(@NotNull final Transaction txn,
                           @NotNull final ByteIterable key) {
-        final ITreeMutable mutableTree = EnvironmentImpl.throwIfReadonly(txn, "Can't delete in read-only transaction").getMutableTree(this);
+        final ReadWriteTransaction tx = EnvironmentImpl.throwIfReadonly(txn, "Can't delete in read-only transaction");
+        // expired value is deleted, but not reported
+        final boolean hasLiveValue = !metaInfo.hasExpiration() || get(tx, key) != null;
+        final WriteBuffer writeBuffer = tx.getWriteBuffer(this);
+        if (writeBuffer != null) {
+            if (getStoredValue(tx, key) == null) {
+                return false;
+            }
+            writeBuffer.delete(key);
+            return hasLiveValue;
+        }
+        final ITreeMutable mutableTree = tx.getMutableTree(this);
         if (mutableTree.delete(key)) {
             TreeCursorMutable.notifyCursors(mutableTree);
-            return true;
+            return hasLiveValue;
         }
         return false;
     }
@@ -197,7 +474,16 @@ public class StoreImpl implements Store {
                         @NotNull final Iterator<RandomAccessLoggable> loggables) {
         final ReadWriteTransaction txn = EnvironmentImpl.throwIfReadonly(transaction, "Can't reclaim in read-only transaction");
         final boolean hadTreeMutated = txn.hasTreeMutable(this);
-        if (!txn.getMutableTree(this).reclaim(loggable, loggables) && !hadTreeMutated) {
+        final ITreeMutable mutableTree = txn.getMutableTree(this);
+        final boolean wasReclaim;
+        if (metaInfo.hasExpiration()) {
+            // expired values are deleted rather than copied
+            final long now = System.currentTimeMillis();
+            wasReclaim = mutableTree.reclaim(loggable, loggables, value -> ExpiringValue.isExpired(value, now));
+        } else {
+            wasReclaim = mutableTree.reclaim(loggable, loggables);
+        }
+        if (!wasReclaim && !hadTreeMutated) {
             txn.removeTreeMutable(this);
         }
     }
@@ -211,9 +497,10 @@ public class StoreImpl implements Store {
         final ITree result;
         if (!metaInfo.isKeyPrefixing()) {
             final BTreeBalancePolicy balancePolicy = environment.getBTreeBalancePolicy();
+            final boolean keyPrefixCompression = metaInfo.hasKeyPrefixCompression();
             result = treeIsEmpty ?
-                new BTreeEmpty(log, balancePolicy, hasDuplicates, structureId) :
-                new BTree(log, balancePolicy, upToDateRootAddress, hasDuplicates, structureId);
+                new BTreeEmpty(log, balancePolicy, hasDuplicates, keyPrefixCompression, structureId) :
+                new BTree(log, balancePolicy, upToDateRootAddress, hasDuplicates, keyPrefixCompression, structureId);
         } else {
             if (treeIsEmpty) {
                 result = new PatriciaTreeEmpty(log, structureId, hasDuplicates);
@@ -226,7 +513,71 @@ public class StoreImpl implements Store {
         return result;
     }
 
+    private boolean putBuffered(@NotNull final ReadWriteTransaction txn,
+                                @NotNull final WriteBuffer writeBuffer,
+                                @NotNull final ByteIterable key,
+                                @NotNull final ByteIterable storedValue) {
+        final ByteIterable currentValue = getStoredValue(txn, key);
+        if (currentValue != null && currentValue.compareTo(storedValue) == 0) {
+            return false;
+        }
+        writeBuffer.put(key, storedValue);
+        return true;
+    }
+
+    @Nullable
+    private WriteBuffer findWriteBuffer(@NotNull final TransactionBase txn) {
+        return txn.isReadonly() ? null : ((ReadWriteTransaction) txn).findWriteBuffer(this);
+    }
+
+    private long getExpirationTime() {
+        return ExpiringValue.getExpirationTime(environment.getStoreTimeToLive(name));
+    }
+
+    private static long estimateCount(@NotNull final ITree tree, @Nullable final ByteIterable from, @Nullable final ByteIterable to) {
+        final long size = tree.getSize();
+        if (size == 0) {
+            return 0;
+        }
+        final double fromRank = from == null ? 0 : tree.estimateRank(from);
+        final double toRank = to == null ? 1 : tree.estimateRank(to);
+        return toRank <= fromRank ? 0 : Math.round((toRank - fromRank) * size);
+    }
+
     int getStructureId() {
         return metaInfo.getStructureId();
     }
+
+    /**
+     * @return {@linkplain StoreGetCache} if it can be used to get values from specified tree, or {@code null}
+     */
+    @Nullable
+    private StoreGetCache getStoreGetCache(@NotNull final TransactionBase txn, @NotNull final ITree tree) {
+        if (txn.isDisableStoreGetCache()) {
+            return null;
+        }
+        final StoreGetCache storeGetCache = environment.getStoreGetCache();
+        if (storeGetCache == null || tree.getRootAddress() == Loggable.NULL_ADDRESS ||
+                tree.getSize() < storeGetCache.getMinTreeSize()) {
+            return null;
+        }
+        return storeGetCache;
+    }
+
+    private static void cacheValue(@NotNull final StoreGetCache storeGetCache,
+                                   final long treeRootAddress,
+                                   @NotNull final ByteIterable key,
+                                   @Nullable final ByteIterable value) {
+        final ArrayByteIterable cachedValue;
+        if (value == null) {
+            cachedValue = NULL_CACHED_VALUE;
+        } else if (value instanceof ArrayByteIterable) {
+            cachedValue = (ArrayByteIterable) value;
+        } else {
+            cachedValue = new ArrayByteIterable(value);
+        }
+        if (cachedValue.getLength() <= storeGetCache.getMaxValueSize()) {
+            storeGetCache.cacheObject(treeRootAddress, key, cachedValue);
+        }
+    }
 }
\ No newline at end of file
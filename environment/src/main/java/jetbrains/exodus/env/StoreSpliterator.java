@@ -0,0 +1,119 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.env;
+
+import jetbrains.exodus.ByteIterable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Spliterator over key/value pairs of a {@linkplain Store}. Split keys divide the key space into ranges, the first
+ * range ends before the first split key, the last one starts at the last split key. The spliterator covers ranges
+ * from {@code from} (inclusive) to {@code to} (exclusive), {@linkplain #trySplit()} halves them. Each spliterator
+ * reads its ranges with its own cursor created on first advance, so the spliterators can be used in different threads
+ * if the cursor factory creates cursors over different tree instances.
+ */
+final class StoreSpliterator implements Spliterator<Map.Entry<ByteIterable, ByteIterable>> {
+
+    @NotNull
+    private final Supplier<Cursor> cursorFactory;
+    @NotNull
+    private final ByteIterable[] splitKeys;
+    private final int characteristics;
+    private int from;
+    private final int to;
+    private long estimatedSize;
+    @Nullable
+    private Cursor cursor;
+    private boolean finished;
+
+    StoreSpliterator(@NotNull final Supplier<Cursor> cursorFactory,
+                     @NotNull final ByteIterable[] splitKeys,
+                     final long estimatedSize,
+                     final boolean immutable) {
+        this(cursorFactory, splitKeys, 0, splitKeys.length + 1, estimatedSize,
+                immutable ? ORDERED | NONNULL | IMMUTABLE : ORDERED | NONNULL);
+    }
+
+    private StoreSpliterator(@NotNull final Supplier<Cursor> cursorFactory,
+                             @NotNull final ByteIterable[] splitKeys,
+                             final int from,
+                             final int to,
+                             final long estimatedSize,
+                             final int characteristics) {
+        this.cursorFactory = cursorFactory;
+        this.splitKeys = splitKeys;
+        this.from = from;
+        this.to = to;
+        this.estimatedSize = estimatedSize;
+        this.characteristics = characteristics;
+    }
+
+    @Override
+    public boolean tryAdvance(@NotNull final Consumer<? super Map.Entry<ByteIterable, ByteIterable>> action) {
+        if (finished) {
+            return false;
+        }
+        Cursor cursor = this.cursor;
+        final boolean found;
+        if (cursor == null) {
+            this.cursor = cursor = cursorFactory.get();
+            found = from == 0 ? cursor.getNext() : cursor.getSearchKeyRange(splitKeys[from - 1]) != null;
+        } else {
+            found = cursor.getNext();
+        }
+        final ByteIterable key = found ? cursor.getKey() : null;
+        if (key == null || (to <= splitKeys.length && key.compareTo(splitKeys[to - 1]) >= 0)) {
+            finished = true;
+            estimatedSize = 0;
+            cursor.close();
+            return false;
+        }
+        action.accept(new AbstractMap.SimpleImmutableEntry<>(key, cursor.getValue()));
+        return true;
+    }
+
+    @Override
+    @Nullable
+    public Spliterator<Map.Entry<ByteIterable, ByteIterable>> trySplit() {
+        final int rangeCount = to - from;
+        if (cursor != null || finished || rangeCount < 2) {
+            return null;
+        }
+        final int mid = (from + to) >>> 1;
+        final long prefixSize = estimatedSize * (mid - from) / rangeCount;
+        final StoreSpliterator prefix = new StoreSpliterator(cursorFactory, splitKeys, from, mid, prefixSize, characteristics);
+        from = mid;
+        estimatedSize -= prefixSize;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
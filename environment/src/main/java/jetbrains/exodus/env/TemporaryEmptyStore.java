@@ -23,6 +23,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
 
 class TemporaryEmptyStore extends StoreImpl {
 
@@ -46,6 +50,34 @@ class TemporaryEmptyStore extends StoreImpl {
         return null;
     }
 
+    @NotNull
+    @Override
+    public ByteIterable[] getAll(@NotNull final Transaction txn, @NotNull final ByteIterable[] keys) {
+        return new ByteIterable[keys.length];
+    }
+
+    @Override
+    public long estimateCount(@NotNull final Transaction txn, @Nullable final ByteIterable from, @Nullable final ByteIterable to) {
+        return 0;
+    }
+
+    @Override
+    public long estimateSize(@NotNull final Transaction txn, @Nullable final ByteIterable from, @Nullable final ByteIterable to) {
+        return 0;
+    }
+
+    @NotNull
+    @Override
+    public Spliterator<Map.Entry<ByteIterable, ByteIterable>> spliterator(@NotNull final Transaction txn) {
+        return Spliterators.emptySpliterator();
+    }
+
+    @Override
+    public void parallelScan(@NotNull final Transaction txn,
+                             final int parallelism,
+                             @NotNull final BiConsumer<ByteIterable, ByteIterable> consumer) {
+    }
+
     @Override
     public boolean exists(@NotNull final Transaction txn,
                           @NotNull final ByteIterable key,
@@ -60,6 +92,21 @@ class TemporaryEmptyStore extends StoreImpl {
         return throwCantModify(txn);
     }
 
+    @Override
+    public boolean put(@NotNull final Transaction txn,
+                       @NotNull final ByteIterable key,
+                       @NotNull final ByteIterable value,
+                       final long expirationTime) {
+        return throwCantModify(txn);
+    }
+
+    @Override
+    public void merge(@NotNull final Transaction txn,
+                      @NotNull final ByteIterable key,
+                      @NotNull final ByteIterable operand) {
+        throwCantModify(txn);
+    }
+
     @Override
     public void putRight(@NotNull final Transaction txn,
                          @NotNull final ByteIterable key,
@@ -0,0 +1,84 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.env;
+
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.tree.ITreeMutable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sorted transaction-local buffer of puts and deletes of a store without duplicates. Latest change of each key is
+ * kept, so repeated changes of a key are coalesced. The buffer is applied to the mutable tree of the store in
+ * ascending order of keys.
+ *
+ * @see EnvironmentConfig#ENV_TXN_WRITE_BUFFER
+ */
+final class WriteBuffer {
+
+    @NotNull
+    private static final ArrayByteIterable DELETED = new ArrayByteIterable(ByteIterable.EMPTY);
+
+    @NotNull
+    final StoreImpl store;
+    @NotNull
+    private final TreeMap<ByteIterable, ByteIterable> pairs = new TreeMap<>();
+
+    WriteBuffer(@NotNull final StoreImpl store) {
+        this.store = store;
+    }
+
+    /**
+     * @return buffered value of the key, {@linkplain #isDeleted(ByteIterable) deleted value} if the key is
+     * deleted, or {@code null} if the key was not changed
+     */
+    @Nullable
+    ByteIterable get(@NotNull final ByteIterable key) {
+        return pairs.get(key);
+    }
+
+    void put(@NotNull final ByteIterable key, @NotNull final ByteIterable value) {
+        pairs.put(key, value);
+    }
+
+    void delete(@NotNull final ByteIterable key) {
+        pairs.put(key, DELETED);
+    }
+
+    boolean isEmpty() {
+        return pairs.isEmpty();
+    }
+
+    void applyTo(@NotNull final ITreeMutable tree) {
+        for (final Map.Entry<ByteIterable, ByteIterable> pair : pairs.entrySet()) {
+            final ByteIterable value = pair.getValue();
+            if (value == DELETED) {
+                tree.delete(pair.getKey());
+            } else {
+                tree.put(pair.getKey(), value);
+            }
+        }
+        pairs.clear();
+    }
+
+    static boolean isDeleted(@NotNull final ByteIterable value) {
+        return value == DELETED;
+    }
+}
@@ -43,6 +43,8 @@ public class AsyncFileDataWriter extends AbstractDataWriter {
 
     private AsynchronousFileChannel dirChannel;
     private final FileDataReader reader;
+    // log files are changed holding the lock, since they can be replaced by compressed versions in background
+    private final Object fileLock;
     private AsynchronousFileChannel channel;
     private FileDataReader.FileBlock block;
 
@@ -55,6 +57,7 @@ public class AsyncFileDataWriter extends AbstractDataWriter {
 
     public AsyncFileDataWriter(final FileDataReader reader, final String lockId) {
         this.reader = reader;
+        this.fileLock = CompressedLogFile.getDirectoryLock(reader.getDir());
 
         this.lockingManager = new LockingManager(reader.getDir(), lockId);
         AsynchronousFileChannel channel = null;
@@ -163,15 +166,17 @@ public class AsyncFileDataWriter extends AbstractDataWriter {
 
     @Override
     protected void clearImpl() {
-        for (var file : LogUtil.listFiles(reader.getDir())) {
-            if (!file.canWrite()) {
-                if (!file.setWritable(true)) {
-                    throw new ExodusException("File " + file.getAbsolutePath() + " is protected from writes.");
+        synchronized (fileLock) {
+            for (var file : LogUtil.listFiles(reader.getDir())) {
+                if (!file.canWrite()) {
+                    if (!file.setWritable(true)) {
+                        throw new ExodusException("File " + file.getAbsolutePath() + " is protected from writes.");
+                    }
                 }
-            }
 
-            if (file.exists() && !file.delete()) {
-                throw new ExodusException("Failed to delete " + file.getAbsolutePath());
+                if (file.exists() && !file.delete()) {
+                    throw new ExodusException("Failed to delete " + file.getAbsolutePath());
+                }
             }
         }
     }
@@ -204,17 +209,20 @@ public class AsyncFileDataWriter extends AbstractDataWriter {
         var block = new FileDataReader.FileBlock(blockAddress, reader);
         removeFileFromFileCache(block);
 
-        if (block.exists() && !block.setWritable(true)) {
-            throw new ExodusException("File " + block.getAbsolutePath() + " is protected from write.");
-        }
-
         boolean deleted;
-        if (rbt == RemoveBlockType.Delete) {
-            deleted = block.delete();
-        } else {
-            deleted = renameFile(block);
+        synchronized (fileLock) {
+            if (block.exists() && !block.setWritable(true)) {
+                throw new ExodusException("File " + block.getAbsolutePath() + " is protected from write.");
+            }
+
+            if (rbt == RemoveBlockType.Delete) {
+                deleted = block.delete();
+            } else {
+                deleted = renameFile(block);
+            }
         }
 
+        reader.removeCompressedIndex(blockAddress);
         if (!deleted) {
             throw new ExodusException("Failed to delete file " + block.getAbsolutePath());
         } else {
@@ -238,16 +246,19 @@ public class AsyncFileDataWriter extends AbstractDataWriter {
         var block = new FileDataReader.FileBlock(blockAddress, reader);
         removeFileFromFileCache(block);
 
-        if (block.exists() && !block.setWritable(true)) {
-            throw new ExodusException("File " + block.getAbsolutePath() + " is protected from write.");
-        }
+        synchronized (fileLock) {
+            if (block.exists() && !block.setWritable(true)) {
+                throw new ExodusException("File " + block.getAbsolutePath() + " is protected from write.");
+            }
 
-        try (var file = new RandomAccessFile(block, "rw")) {
-            file.setLength(length);
-        } catch (FileNotFoundException e) {
-            throw new ExodusException("File " + block.getAbsolutePath() + " was not found", e);
-        } catch (IOException e) {
-            throw new ExodusException("Can not truncate file " + block.getAbsolutePath(), e);
+            CompressedLogFile.decompress(block);
+            try (var file = new RandomAccessFile(block, "rw")) {
+                file.setLength(length);
+            } catch (FileNotFoundException e) {
+                throw new ExodusException("File " + block.getAbsolutePath() + " was not found", e);
+            } catch (IOException e) {
+                throw new ExodusException("Can not truncate file " + block.getAbsolutePath(), e);
+            }
         }
 
         logger.info("Truncated file " + block.getAbsolutePath() + " to length = " + length);
@@ -282,23 +293,29 @@ public class AsyncFileDataWriter extends AbstractDataWriter {
                                                         long length) throws IOException {
         var blockPath = fileBlock.toPath();
 
-        if (!fileBlock.exists()) {
-            Files.createFile(blockPath);
-        }
-        if (!fileBlock.canWrite()) {
-            if (!fileBlock.setWritable(true)) {
-                throw new ExodusException("File " + fileBlock.getAbsolutePath() + " is protected from writes and can not be used.");
+        final long position;
+        final AsynchronousFileChannel channel;
+        synchronized (fileLock) {
+            if (!fileBlock.exists()) {
+                Files.createFile(blockPath);
+            } else {
+                CompressedLogFile.decompress(fileBlock);
+            }
+            if (!fileBlock.canWrite()) {
+                if (!fileBlock.setWritable(true)) {
+                    throw new ExodusException("File " + fileBlock.getAbsolutePath() + " is protected from writes and can not be used.");
+                }
             }
-        }
 
-        var position = (Long) Files.getAttribute(blockPath, "size");
+            position = (Long) Files.getAttribute(blockPath, "size");
 
-        if (position != length) {
-            throw new ExodusException("Invalid size for the file " + blockPath.toAbsolutePath());
-        }
+            if (position != length) {
+                throw new ExodusException("Invalid size for the file " + blockPath.toAbsolutePath());
+            }
 
-        final AsynchronousFileChannel channel = AsynchronousFileChannel.open(blockPath,
-                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel = AsynchronousFileChannel.open(blockPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
 
         this.block = fileBlock;
         this.channel = channel;
@@ -0,0 +1,419 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.io;
+
+import jetbrains.exodus.ExodusException;
+import jetbrains.exodus.log.LogUtil;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compressed format of complete and immutable {@code Log} files (.xd files). A compressed file consists of
+ * a header, an index of pages and LZ4 compressed pages:
+ * <pre>
+ * magic (8 bytes) | version (4 bytes) | page size (4 bytes) | length of uncompressed file (8 bytes) |
+ * page count (4 bytes) | end offsets of pages (8 bytes each) | pages
+ * </pre>
+ * A page which doesn't shrink is stored as is. The format is detected by the magic, so compressed and
+ * uncompressed files can coexist in a log. The first byte of an uncompressed file is always a loggable type
+ * with the highest bit set, whereas the first byte of the magic is less than {@code 0x80}.
+ *
+ * @see jetbrains.exodus.env.EnvironmentConfig#LOG_COMPRESSION
+ */
+public final class CompressedLogFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressedLogFile.class);
+
+    static final long MAGIC = 0x586F6475734C5A34L; // "XodusLZ4"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final String TMP_FILE_EXTENSION = ".xdz";
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+    private static final ConcurrentHashMap<String, Object> DIRECTORY_LOCKS = new ConcurrentHashMap<>();
+
+    private CompressedLogFile() {
+    }
+
+    /**
+     * Compresses complete log file in place. The file is replaced atomically, so readers holding the file
+     * open keep on reading uncompressed data. The file is replaced holding {@linkplain #getDirectoryLock(File)
+     * the lock of its directory} and only if it wasn't changed or deleted while it was being compressed.
+     *
+     * @param file     log file
+     * @param pageSize log cache page size
+     * @param readonly {@code true} if the compressed file should be marked with read-only attribute
+     * @return {@code true} if the file was compressed
+     */
+    public static boolean compress(@NotNull final File file, final int pageSize, final boolean readonly) {
+        final File tmpFile = getTmpFile(file);
+        try {
+            final long lastModified = file.lastModified();
+            final long length;
+            try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+                if (readIndex(input) != null) {
+                    return false;
+                }
+                length = input.length();
+                final int pageCount = (int) ((length + pageSize - 1) / pageSize);
+                final long dataOffset = HEADER_SIZE + (long) pageCount * Long.BYTES;
+                final long[] pageEnds = new long[pageCount];
+                try (FileChannel channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    channel.position(dataOffset);
+                    final OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel));
+                    final LZ4Compressor compressor = LZ4.fastCompressor();
+                    final byte[] page = new byte[pageSize];
+                    final byte[] compressed = new byte[compressor.maxCompressedLength(pageSize)];
+                    input.seek(0);
+                    long end = dataOffset;
+                    for (int i = 0; i < pageCount; ++i) {
+                        final int pageLength = (int) Math.min(pageSize, length - (long) i * pageSize);
+                        input.readFully(page, 0, pageLength);
+                        final int compressedLength =
+                                compressor.compress(page, 0, pageLength, compressed, 0, compressed.length);
+                        if (compressedLength < pageLength) {
+                            output.write(compressed, 0, compressedLength);
+                            end += compressedLength;
+                        } else {
+                            output.write(page, 0, pageLength);
+                            end += pageLength;
+                        }
+                        pageEnds[i] = end;
+                    }
+                    output.flush();
+                    if (end >= length) {
+                        channel.close();
+                        deleteTmpFile(tmpFile);
+                        return false;
+                    }
+                    final ByteBuffer header = ByteBuffer.allocate((int) dataOffset);
+                    header.putLong(MAGIC).putInt(VERSION).putInt(pageSize).putLong(length).putInt(pageCount);
+                    for (final long pageEnd : pageEnds) {
+                        header.putLong(pageEnd);
+                    }
+                    header.flip();
+                    while (header.hasRemaining()) {
+                        channel.write(header, header.position());
+                    }
+                    channel.force(true);
+                }
+            }
+            if (readonly) {
+                //noinspection ResultOfMethodCallIgnored
+                tmpFile.setReadOnly();
+            }
+            synchronized (getDirectoryLock(file.getParentFile())) {
+                if (!file.exists() || file.lastModified() != lastModified || Files.size(file.toPath()) != length) {
+                    // the file was deleted or truncated meanwhile
+                    deleteTmpFile(tmpFile);
+                    return false;
+                }
+                return replace(file, tmpFile);
+            }
+        } catch (IOException | LZ4Exception e) {
+            logger.warn("Failed to compress file " + file.getAbsolutePath() + ", it is left uncompressed", e);
+            deleteTmpFile(tmpFile);
+            return false;
+        }
+    }
+
+    /**
+     * Decompresses log file in place if it is compressed.
+     *
+     * @param file log file
+     * @return {@code true} if the file was decompressed
+     */
+    public static boolean decompress(@NotNull final File file) {
+        final File tmpFile = getTmpFile(file);
+        try {
+            try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+                final Index index = readIndex(input);
+                if (index == null) {
+                    return false;
+                }
+                try (RandomAccessFile output = new RandomAccessFile(tmpFile, "rw")) {
+                    output.setLength(0);
+                    final byte[] page = new byte[index.pageSize];
+                    for (long position = 0; position < index.length; position += index.pageSize) {
+                        output.write(page, 0, read(input, index, page, position, 0, page.length));
+                    }
+                    output.getFD().sync();
+                }
+            }
+            if (!replace(file, tmpFile)) {
+                throw new ExodusException("Can't replace file " + file.getAbsolutePath());
+            }
+            return true;
+        } catch (IOException e) {
+            deleteTmpFile(tmpFile);
+            throw new ExodusException("Can't decompress file " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Returns the monitor which should be held while deleting or changing log files in the directory, since
+     * files are replaced by their compressed versions in background. The monitor is the same for all
+     * {@code Log} instances opened in the directory, so a compression started by a closed instance is safe.
+     *
+     * @param dir log directory
+     * @return monitor guarding changes of log files in the directory
+     */
+    @NotNull
+    public static Object getDirectoryLock(@NotNull final File dir) {
+        return DIRECTORY_LOCKS.computeIfAbsent(dir.getAbsoluteFile().toPath().normalize().toString(), path -> new Object());
+    }
+
+    /**
+     * Deletes temporary files left in the directory by interrupted compression or decompression.
+     *
+     * @param dir log directory
+     * @return number of deleted files
+     */
+    public static int deleteTmpFiles(@NotNull final File dir) {
+        final File[] tmpFiles = dir.listFiles((d, name) -> name.endsWith(TMP_FILE_EXTENSION));
+        if (tmpFiles == null) {
+            return 0;
+        }
+        for (final File tmpFile : tmpFiles) {
+            //noinspection ResultOfMethodCallIgnored
+            tmpFile.setWritable(true);
+            deleteTmpFile(tmpFile);
+        }
+        return tmpFiles.length;
+    }
+
+    /**
+     * @return length of uncompressed file
+     */
+    public static long getLength(@NotNull final File file) {
+        try (RandomAccessFile f = new RandomAccessFile(file, "r")) {
+            final Index index = readIndex(f);
+            return index == null ? f.length() : index.length;
+        } catch (FileNotFoundException e) {
+            return 0L;
+        } catch (IOException e) {
+            throw new ExodusException("Can't read file " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return stream of uncompressed contents of the file
+     */
+    @NotNull
+    public static InputStream newInputStream(@NotNull final File file) throws IOException {
+        final RandomAccessFile f = new RandomAccessFile(file, "r");
+        try {
+            final Index index = readIndex(f);
+            if (index == null) {
+                f.close();
+                return new FileInputStream(file);
+            }
+            return new DecompressingInputStream(f, index);
+        } catch (Throwable t) {
+            f.close();
+            throw t;
+        }
+    }
+
+    /**
+     * Reads header and index of pages of the file.
+     *
+     * @return {@code null} if the file is not compressed
+     */
+    @Nullable
+    static Index readIndex(@NotNull final RandomAccessFile file) throws IOException {
+        if (file.length() < HEADER_SIZE) {
+            return null;
+        }
+        final byte[] headerBytes = new byte[HEADER_SIZE];
+        file.seek(0);
+        file.readFully(headerBytes);
+        final ByteBuffer header = ByteBuffer.wrap(headerBytes);
+        if (header.getLong() != MAGIC) {
+            return null;
+        }
+        final int version = header.getInt();
+        if (version != VERSION) {
+            throw new ExodusException("Unsupported version of compressed log file: " + version);
+        }
+        final int pageSize = header.getInt();
+        final long length = header.getLong();
+        final int pageCount = header.getInt();
+        final byte[] indexBytes = new byte[pageCount * Long.BYTES];
+        file.readFully(indexBytes);
+        final long[] pageEnds = new long[pageCount];
+        ByteBuffer.wrap(indexBytes).asLongBuffer().get(pageEnds);
+        return new Index(pageSize, length, pageEnds);
+    }
+
+    /**
+     * Reads uncompressed bytes of the file decompressing pages which cover the range.
+     *
+     * @return number of bytes read
+     */
+    static int read(@NotNull final RandomAccessFile file, @NotNull final Index index,
+                    final byte @NotNull [] output, long position, final int offset, final int count) throws IOException {
+        final int pageSize = index.pageSize;
+        final LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+        byte[] extent = null;
+        byte[] page = null;
+        int read = 0;
+        while (read < count && position < index.length) {
+            final int pageIndex = (int) (position / pageSize);
+            final int pageOffset = (int) (position % pageSize);
+            final int pageLength = (int) Math.min(pageSize, index.length - (long) pageIndex * pageSize);
+            final int toCopy = Math.min(count - read, pageLength - pageOffset);
+            final long extentStart = index.getPageStart(pageIndex);
+            final int extentLength = (int) (index.pageEnds[pageIndex] - extentStart);
+            if (extentLength == pageLength) {
+                // page is stored uncompressed
+                file.seek(extentStart + pageOffset);
+                file.readFully(output, offset + read, toCopy);
+            } else {
+                if (extent == null) {
+                    extent = new byte[pageSize];
+                }
+                file.seek(extentStart);
+                file.readFully(extent, 0, extentLength);
+                final int decompressed;
+                if (toCopy == pageLength) {
+                    decompressed = decompressor.decompress(extent, 0, extentLength, output, offset + read, pageLength);
+                } else {
+                    if (page == null) {
+                        page = new byte[pageSize];
+                    }
+                    decompressed = decompressor.decompress(extent, 0, extentLength, page, 0, pageLength);
+                    System.arraycopy(page, pageOffset, output, offset + read, toCopy);
+                }
+                if (decompressed != pageLength) {
+                    throw new ExodusException("Compressed page is corrupted, page index = " + pageIndex);
+                }
+            }
+            read += toCopy;
+            position += toCopy;
+        }
+        return read;
+    }
+
+    private static boolean replace(@NotNull final File file, @NotNull final File tmpFile) throws IOException {
+        //noinspection ResultOfMethodCallIgnored
+        file.setWritable(true);
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // non-atomic replacement can lose the file on crash
+            logger.warn("Atomic move is not supported, file " + file.getAbsolutePath() + " is left as is");
+            deleteTmpFile(tmpFile);
+            return false;
+        }
+        SharedOpenFilesCache.getInstance().removeFile(file);
+        SharedMappedFilesCache.removeFileBufferIfCreated(file);
+        return true;
+    }
+
+    @NotNull
+    private static File getTmpFile(@NotNull final File file) {
+        final String name = file.getName();
+        return new File(file.getParentFile(),
+                name.substring(0, name.length() - LogUtil.LOG_FILE_EXTENSION_LENGTH) + TMP_FILE_EXTENSION);
+    }
+
+    private static void deleteTmpFile(@NotNull final File tmpFile) {
+        if (tmpFile.exists() && !tmpFile.delete()) {
+            logger.warn("Failed to delete " + tmpFile.getAbsolutePath());
+        }
+    }
+
+    static final class Index {
+
+        final int pageSize;
+        final long length;
+        final long[] pageEnds;
+
+        private Index(final int pageSize, final long length, final long[] pageEnds) {
+            this.pageSize = pageSize;
+            this.length = length;
+            this.pageEnds = pageEnds;
+        }
+
+        long getPageStart(final int pageIndex) {
+            return pageIndex == 0 ? HEADER_SIZE + (long) pageEnds.length * Long.BYTES : pageEnds[pageIndex - 1];
+        }
+    }
+
+    private static final class DecompressingInputStream extends InputStream {
+
+        @NotNull
+        private final RandomAccessFile file;
+        @NotNull
+        private final Index index;
+        private long position;
+
+        private DecompressingInputStream(@NotNull final RandomAccessFile file, @NotNull final Index index) {
+            this.file = file;
+            this.index = index;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) == 1 ? b[0] & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte @NotNull [] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= index.length) {
+                return -1;
+            }
+            final int read = CompressedLogFile.read(file, index, b, position, off, len);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final long skipped = Math.max(0, Math.min(n, index.length - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}
@@ -123,6 +123,13 @@ public final class SharedMappedFilesCache {
         }
     }
 
+    static void removeFileBufferIfCreated(@NotNull final File file) {
+        final SharedMappedFilesCache cache = theCache;
+        if (cache != null) {
+            cache.removeFileBuffer(file);
+        }
+    }
+
     void removeFileBuffer(@NotNull final File file) {
         try {
             final SharedMappedByteBuffer obsolete;
@@ -21,9 +21,11 @@ import jetbrains.exodus.bindings.BindingUtils;
 import jetbrains.exodus.core.dataStructures.LongIntPair;
 import jetbrains.exodus.core.dataStructures.Pair;
 import jetbrains.exodus.core.dataStructures.hash.LongIterator;
+import jetbrains.exodus.core.execution.Job;
 import jetbrains.exodus.crypto.EnvKryptKt;
 import jetbrains.exodus.crypto.StreamCipherProvider;
 import jetbrains.exodus.io.*;
+import jetbrains.exodus.util.DeferredIO;
 import net.jpountz.xxhash.StreamingXXHash64;
 import net.jpountz.xxhash.XXHash64;
 import net.jpountz.xxhash.XXHashFactory;
@@ -37,7 +39,9 @@ import java.io.File;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 
@@ -87,6 +91,9 @@ public final class BufferedDataWriter {
 
     private final NonBlockingHashMapLong<PageHolder> writeCache;
 
+    // compression of files queued by this writer and not finished yet
+    private final Set<CompressionJob> compressionJobs = ConcurrentHashMap.newKeySet();
+
     BufferedDataWriter(@NotNull final Log log,
                        @NotNull final DataWriter writer,
                        final boolean calculateHashCode,
@@ -971,12 +978,97 @@ public final class BufferedDataWriter {
                 // fsync the directory to ensure we will find the log file in the directory after system crash
                 writer.syncDirectory();
                 log.notifyBlockCreated(block);
+
+                compressFileIfNeeded(fileAddress - fileLengthBound, fileLengthBound, log.getConfig());
             } else {
                 log.notifyBlockModified(block);
             }
         }
     }
 
+    /**
+     * Queues compression of the file which has become complete and immutable since the next one is created.
+     * The file is compressed by the deferred I/O job processor, so committing transactions don't wait for it.
+     *
+     * @see jetbrains.exodus.env.EnvironmentConfig#LOG_COMPRESSION
+     */
+    private void compressFileIfNeeded(long fileAddress, long fileLengthBound, LogConfig config) {
+        // encrypted pages are incompressible
+        if (fileAddress < 0 || !config.isCompression() || config.getCipherProvider() != null) {
+            return;
+        }
+
+        assert blockSetMutable != null;
+
+        var block = blockSetMutable.getBlock(fileAddress);
+        if (block instanceof FileDataReader.FileBlock) {
+            final var file = (File) block;
+            final var job = new CompressionJob(file, fileLengthBound, config.isFullFileReadonly());
+            compressionJobs.add(job);
+            DeferredIO.getJobProcessor().queue(job);
+        }
+    }
+
+    /**
+     * Compresses files queued for compression by this writer which the deferred I/O job processor hasn't started
+     * to compress yet, and waits for the ones it is compressing. Jobs of other logs sharing the processor are
+     * neither run nor waited for.
+     */
+    void finishCompression() {
+        for (final CompressionJob job : compressionJobs) {
+            try {
+                job.compress();
+            } catch (Throwable t) {
+                logger.error("Failed to compress file " + job.file, t);
+            }
+            try {
+                job.done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compresses the file which has become complete. It is run either by the deferred I/O job processor or by
+     * {@linkplain #finishCompression()} on close of the log, whichever claims it first.
+     */
+    private final class CompressionJob extends Job {
+
+        @NotNull
+        private final File file;
+        private final long fileLengthBound;
+        private final boolean readonly;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private CompressionJob(@NotNull final File file, final long fileLengthBound, final boolean readonly) {
+            this.file = file;
+            this.fileLengthBound = fileLengthBound;
+            this.readonly = readonly;
+        }
+
+        @Override
+        protected void execute() {
+            compress();
+        }
+
+        private void compress() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (file.length() == fileLengthBound && CompressedLogFile.compress(file, pageSize, readonly)) {
+                    writer.syncDirectory();
+                }
+            } finally {
+                compressionJobs.remove(this);
+                done.countDown();
+            }
+        }
+    }
+
     BlockSet.Mutable mutableBlocksUnsafe() {
         return blockSet.beginWrite();
     }
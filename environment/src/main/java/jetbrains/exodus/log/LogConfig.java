@@ -50,6 +50,7 @@ public class LogConfig {
     private boolean warmup;
     private long syncPeriod;
     private boolean fullFileReadonly;
+    private boolean compression;
     private StreamCipherProvider cipherProvider;
     private byte[] cipherKey;
     private long cipherBasicIV;
@@ -334,6 +335,16 @@ public class LogConfig {
         return this;
     }
 
+    public boolean isCompression() {
+        return compression;
+    }
+
+    @SuppressWarnings("unused")
+    public LogConfig setCompression(boolean compression) {
+        this.compression = compression;
+        return this;
+    }
+
     public StreamCipherProvider getCipherProvider() {
         return cipherProvider;
     }
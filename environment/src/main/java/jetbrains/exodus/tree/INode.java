@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.tree;
 
+import jetbrains.exodus.ByteArrayView;
 import jetbrains.exodus.ByteIterable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -30,6 +31,20 @@ public interface INode extends Dumpable {
     @Nullable
     ByteIterable getValue();
 
+    @NotNull
+    default ByteArrayView getKey(@NotNull final ByteArrayView view) {
+        return view.set(getKey());
+    }
+
+    @NotNull
+    default ByteArrayView getValue(@NotNull final ByteArrayView view) {
+        final ByteIterable value = getValue();
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        return view.set(value);
+    }
+
     INode EMPTY = new INode() {
         @Override
         public boolean hasValue() {
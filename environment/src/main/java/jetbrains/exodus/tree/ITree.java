@@ -28,6 +28,8 @@ import java.io.PrintStream;
  */
 public interface ITree {
 
+    ByteIterable[] NO_SPLIT_KEYS = {};
+
     @NotNull
     Log getLog();
 
@@ -54,6 +56,42 @@ public interface ITree {
 
     ITreeCursor openCursor();
 
+    /**
+     * Returns ascending keys splitting the tree into at most {@code maxRanges} key ranges at boundaries of its
+     * internal nodes, so that the ranges are approximately balanced. The first range starts at the beginning of
+     * the tree and ends before the first split key, each next one starts at a split key. The keys are not
+     * necessarily present in the tree. Trees which can't be split return an empty array.
+     *
+     * @param maxRanges maximum number of ranges
+     * @return ascending split keys, at most {@code maxRanges - 1}
+     */
+    @NotNull
+    default ByteIterable[] getSplitKeys(final int maxRanges) {
+        return NO_SPLIT_KEYS;
+    }
+
+    /**
+     * Estimates the share of keys of the tree which are less than specified key. Returned value is in range
+     * {@code [0, 1]}. Implementations descend the tree only along the path to the key and assume that sibling
+     * subtrees have equal sizes. The default implementation is exact, but it iterates over the keys.
+     *
+     * @param key key
+     * @return estimated share of keys less than the key
+     */
+    default double estimateRank(@NotNull final ByteIterable key) {
+        final long size = getSize();
+        if (size == 0) {
+            return 0;
+        }
+        long less = 0;
+        try (ITreeCursor cursor = openCursor()) {
+            while (cursor.getNext() && cursor.getKey().compareTo(key) < 0) {
+                ++less;
+            }
+        }
+        return (double) less / size;
+    }
+
     LongIterator addressIterator();
 
     void dump(PrintStream out);
@@ -21,6 +21,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Iterator;
+import java.util.function.Predicate;
 
 public interface ITreeMutable extends ITree {
 
@@ -131,4 +132,17 @@ public interface ITreeMutable extends ITree {
      * @return true if any loggable (the candidate or any among loggables) was reclaimed.
      */
     boolean reclaim(@NotNull RandomAccessLoggable loggable, @NotNull Iterator<RandomAccessLoggable> loggables);
+
+    /**
+     * Same as {@linkplain #reclaim(RandomAccessLoggable, Iterator)}, but key/value pairs which values are expired
+     * are deleted rather than reclaimed, so expired values are not copied. Not supported by trees with duplicates.
+     *
+     * @param loggable       a candidate to reclaim.
+     * @param loggables      loggables following the candidate.
+     * @param isValueExpired checks if a value being reclaimed is expired.
+     * @return true if any loggable (the candidate or any among loggables) was reclaimed or deleted.
+     */
+    boolean reclaim(@NotNull RandomAccessLoggable loggable,
+                    @NotNull Iterator<RandomAccessLoggable> loggables,
+                    @NotNull Predicate<ByteIterable> isValueExpired);
 }
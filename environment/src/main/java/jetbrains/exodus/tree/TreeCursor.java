@@ -15,10 +15,15 @@
  */
 package jetbrains.exodus.tree;
 
+import jetbrains.exodus.ByteArrayView;
 import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.bindings.IntegerBinding;
+import jetbrains.exodus.bindings.LongBinding;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
+
 /**
  *
  */
@@ -29,6 +34,8 @@ public class TreeCursor implements ITreeCursor {
     protected boolean canGoDown;
     boolean alreadyIn;
     boolean inited;
+    @Nullable
+    private ByteArrayView view; // reusable view for primitive readers
 
     public TreeCursor(@NotNull final TreeTraverser traverser) {
         this(traverser, false);
@@ -117,6 +124,84 @@ public class TreeCursor implements ITreeCursor {
         return traverser.getValue();
     }
 
+    @Override
+    @NotNull
+    public ByteArrayView getKey(@NotNull final ByteArrayView view) {
+        return traverser.getKey(view);
+    }
+
+    @Override
+    @NotNull
+    public ByteArrayView getValue(@NotNull final ByteArrayView view) {
+        return traverser.getValue(view);
+    }
+
+    @Override
+    public int getKeyInto(final byte @NotNull [] dst, final int offset) {
+        return copyInto(getKey(getView()), dst, offset);
+    }
+
+    @Override
+    public int getValueInto(final byte @NotNull [] dst, final int offset) {
+        return copyInto(getValue(getView()), dst, offset);
+    }
+
+    @Override
+    public int getValueInto(@NotNull final ByteBuffer dst) {
+        final ByteArrayView value = getValue(getView());
+        final int length = value.getLength();
+        dst.put(value.getBytes(), value.getOffset(), Math.min(length, dst.remaining()));
+        return length;
+    }
+
+    @Override
+    public long getKeyAsCompressedLong() {
+        final ByteArrayView key = getKey(getView());
+        return LongBinding.readCompressed(key.getBytes(), key.getOffset());
+    }
+
+    @Override
+    public long getValueAsCompressedLong() {
+        final ByteArrayView value = getValue(getView());
+        return LongBinding.readCompressed(value.getBytes(), value.getOffset());
+    }
+
+    @Override
+    public int getKeyAsCompressedInt() {
+        final ByteArrayView key = getKey(getView());
+        return IntegerBinding.readCompressed(key.getBytes(), key.getOffset());
+    }
+
+    @Override
+    public int getValueAsCompressedInt() {
+        final ByteArrayView value = getValue(getView());
+        return IntegerBinding.readCompressed(value.getBytes(), value.getOffset());
+    }
+
+    @Override
+    public long getKeyAsLong() {
+        final ByteArrayView key = getKey(getView());
+        return LongBinding.entryToLong(key.getBytes(), key.getOffset());
+    }
+
+    @Override
+    public long getValueAsLong() {
+        final ByteArrayView value = getValue(getView());
+        return LongBinding.entryToLong(value.getBytes(), value.getOffset());
+    }
+
+    @Override
+    public int getKeyAsInt() {
+        final ByteArrayView key = getKey(getView());
+        return IntegerBinding.entryToInt(key.getBytes(), key.getOffset());
+    }
+
+    @Override
+    public int getValueAsInt() {
+        final ByteArrayView value = getValue(getView());
+        return IntegerBinding.entryToInt(value.getBytes(), value.getOffset());
+    }
+
     @Override
     public boolean getNextDup() {
         // tree without duplicates can has next dup only in -1 position
@@ -182,6 +267,21 @@ public class TreeCursor implements ITreeCursor {
         return traverser.getTree();
     }
 
+    @NotNull
+    private ByteArrayView getView() {
+        ByteArrayView result = view;
+        if (result == null) {
+            view = result = new ByteArrayView();
+        }
+        return result;
+    }
+
+    private static int copyInto(@NotNull final ByteArrayView source, final byte @NotNull [] dst, final int offset) {
+        final int length = source.getLength();
+        System.arraycopy(source.getBytes(), source.getOffset(), dst, offset, Math.min(length, dst.length - offset));
+        return length;
+    }
+
     @Nullable
     protected ByteIterable moveTo(@NotNull ByteIterable key, @Nullable ByteIterable value, boolean rangeSearch) {
         if (rangeSearch ? traverser.moveToRange(key, value) : traverser.moveTo(key, value)) {
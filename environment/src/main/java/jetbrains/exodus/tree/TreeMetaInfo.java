@@ -32,14 +32,22 @@ public abstract class TreeMetaInfo {
 
     protected static final int DUPLICATES_BIT = 1;
     protected static final int KEY_PREFIXING_BIT = 2;
+    protected static final int EXPIRATION_BIT = 4;
+    protected static final int KEY_PREFIX_COMPRESSION_BIT = 8;
 
     public final boolean duplicates;
+    public final boolean expiration;
     public final int structureId;
     public final Log log;
 
     protected TreeMetaInfo(final Log log, final boolean duplicates, final int structureId) {
+        this(log, duplicates, false, structureId);
+    }
+
+    protected TreeMetaInfo(final Log log, final boolean duplicates, final boolean expiration, final int structureId) {
         this.log = log;
         this.duplicates = duplicates;
+        this.expiration = expiration;
         this.structureId = structureId;
     }
 
@@ -47,8 +55,22 @@ public abstract class TreeMetaInfo {
         return duplicates;
     }
 
+    /**
+     * @return {@code true} if values of the tree are prefixed with expiration time
+     */
+    public boolean hasExpiration() {
+        return expiration;
+    }
+
     public abstract boolean isKeyPrefixing();
 
+    /**
+     * @return {@code true} if keys of B+Tree leaves are written with prefix compression
+     */
+    public boolean hasKeyPrefixCompression() {
+        return false;
+    }
+
     public int getStructureId() {
         return structureId;
     }
@@ -58,6 +80,12 @@ public abstract class TreeMetaInfo {
         if (isKeyPrefixing()) {
             flags += KEY_PREFIXING_BIT;
         }
+        if (expiration) {
+            flags += EXPIRATION_BIT;
+        }
+        if (hasKeyPrefixCompression()) {
+            flags += KEY_PREFIX_COMPRESSION_BIT;
+        }
         final LightOutputStream output = new LightOutputStream(10);
         output.write(flags);
         CompressedUnsignedLongByteIterable.fillBytes(0, output); // legacy format
@@ -71,17 +99,34 @@ public abstract class TreeMetaInfo {
         if (metaInfo.getStructureId() < 0) {
             return StoreConfig.TEMPORARY_EMPTY;
         }
-        return StoreConfig.getStoreConfig(metaInfo.duplicates, metaInfo.isKeyPrefixing());
+        return StoreConfig.getStoreConfig(metaInfo.duplicates, metaInfo.isKeyPrefixing(), metaInfo.expiration);
+    }
+
+    public static TreeMetaInfo load(@NotNull final EnvironmentImpl environment,
+                                    final boolean duplicates,
+                                    final boolean keyPrefixing,
+                                    final int structureId) {
+        return load(environment, duplicates, keyPrefixing, false, structureId);
+    }
+
+    public static TreeMetaInfo load(@NotNull final EnvironmentImpl environment,
+                                    final boolean duplicates,
+                                    final boolean keyPrefixing,
+                                    final boolean expiration,
+                                    final int structureId) {
+        return load(environment, duplicates, keyPrefixing, expiration, false, structureId);
     }
 
     public static TreeMetaInfo load(@NotNull final EnvironmentImpl environment,
                                     final boolean duplicates,
                                     final boolean keyPrefixing,
+                                    final boolean expiration,
+                                    final boolean keyPrefixCompression,
                                     final int structureId) {
         if (keyPrefixing) {
-            return new PatriciaMetaInfo(environment.getLog(), duplicates, structureId);
+            return new PatriciaMetaInfo(environment.getLog(), duplicates, expiration, structureId);
         } else {
-            return new BTreeMetaInfo(environment, duplicates, structureId);
+            return new BTreeMetaInfo(environment, duplicates, expiration, keyPrefixCompression, structureId);
         }
     }
 
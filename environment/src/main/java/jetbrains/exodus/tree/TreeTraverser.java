@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.tree;
 
+import jetbrains.exodus.ByteArrayView;
 import jetbrains.exodus.ByteIterable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -31,6 +32,16 @@ public interface TreeTraverser {
     @NotNull
     ByteIterable getValue();
 
+    @NotNull
+    default ByteArrayView getKey(@NotNull final ByteArrayView view) {
+        return view.set(getKey());
+    }
+
+    @NotNull
+    default ByteArrayView getValue(@NotNull final ByteArrayView view) {
+        return view.set(getValue());
+    }
+
     boolean hasValue();
 
     boolean canMoveRight();
@@ -33,7 +33,16 @@ public class BTree extends BTreeBase {
                  final long rootAddress,
                  final boolean allowsDuplicates,
                  final int structureId) {
-        super(log, policy, allowsDuplicates, structureId);
+        this(log, policy, rootAddress, allowsDuplicates, false, structureId);
+    }
+
+    public BTree(@NotNull final Log log,
+                 @NotNull final BTreeBalancePolicy policy,
+                 final long rootAddress,
+                 final boolean allowsDuplicates,
+                 final boolean keyPrefixCompression,
+                 final int structureId) {
+        super(log, policy, allowsDuplicates, keyPrefixCompression, structureId);
         if (rootAddress == Loggable.NULL_ADDRESS) {
             throw new IllegalArgumentException("Can't instantiate not empty tree with null root address.");
         }
@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.tree.btree;
 
+import jetbrains.exodus.ArrayByteIterable;
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.ExodusException;
 import jetbrains.exodus.log.*;
@@ -26,6 +27,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Base BTree implementation
@@ -43,6 +47,8 @@ public abstract class BTreeBase implements ITree {
     public static final byte DUP_BOTTOM = 9;
     public static final byte DUP_INTERNAL = 10;
     public static final byte DUP_LEAF = 11;
+    // leaf with prefix-compressed key, the type follows the range of patricia loggable types
+    public static final byte LEAF_PREFIXED = 44;
 
     @NotNull
     protected final Log log;
@@ -50,13 +56,27 @@ public abstract class BTreeBase implements ITree {
     @NotNull
     protected final BTreeBalancePolicy balancePolicy;
     protected final boolean allowsDuplicates;
+    /**
+     * If {@code true} then new leaves are written with prefix-compressed keys, see {@linkplain LeafNodeMutable}.
+     * Leaves with prefix-compressed keys are read regardless of the flag.
+     */
+    protected final boolean keyPrefixCompression;
     protected long size = -1;
     protected final int structureId;
 
     BTreeBase(@NotNull final Log log, @NotNull final BTreeBalancePolicy balancePolicy, final boolean allowsDuplicates, final int structureId) {
+        this(log, balancePolicy, allowsDuplicates, false, structureId);
+    }
+
+    BTreeBase(@NotNull final Log log,
+              @NotNull final BTreeBalancePolicy balancePolicy,
+              final boolean allowsDuplicates,
+              final boolean keyPrefixCompression,
+              final int structureId) {
         this.log = log;
         this.balancePolicy = balancePolicy;
         this.allowsDuplicates = allowsDuplicates;
+        this.keyPrefixCompression = keyPrefixCompression;
         this.structureId = structureId;
     }
 
@@ -119,6 +139,79 @@ public abstract class BTreeBase implements ITree {
                 new TreeCursor(new BTreeTraverser(getRoot()));
     }
 
+    @Override
+    @NotNull
+    public ByteIterable[] getSplitKeys(final int maxRanges) {
+        // go down till a level having enough pages, the tree is balanced so their subtrees are of similar size
+        List<BasePage> level = Collections.singletonList(getRoot());
+        int keyCount = getRoot().getSize();
+        while (keyCount < maxRanges && !level.get(0).isBottom()) {
+            final List<BasePage> children = new ArrayList<>(keyCount);
+            keyCount = 0;
+            for (final BasePage page : level) {
+                for (int i = 0; i < page.getSize(); ++i) {
+                    final BasePage child = page.getChild(i);
+                    children.add(child);
+                    keyCount += child.getSize();
+                }
+            }
+            level = children;
+        }
+        final int rangeCount = Math.min(maxRanges, keyCount);
+        if (rangeCount < 2) {
+            return NO_SPLIT_KEYS;
+        }
+        final ByteIterable[] result = new ByteIterable[rangeCount - 1];
+        int keyIndex = 0;
+        int splitIndex = 0;
+        for (final BasePage page : level) {
+            final int pageSize = page.getSize();
+            while (splitIndex < result.length) {
+                final int splitKeyIndex = (int) ((long) (splitIndex + 1) * keyCount / rangeCount);
+                if (splitKeyIndex >= keyIndex + pageSize) {
+                    break;
+                }
+                result[splitIndex++] = new ArrayByteIterable(page.getKey(splitKeyIndex - keyIndex).getKey());
+            }
+            keyIndex += pageSize;
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the rank by positions of the key in the pages on the path to it, only one page per level is read.
+     * The error depends on how sibling subtrees differ in size: if pages hold from {@code m} to {@code M} keys,
+     * the actual size of a subtree of height {@code h} can differ from the assumed one up to {@code (M / m) ^ h}
+     * times. Trees filled in order of keys have almost full pages, so the error is small for them.
+     */
+    @Override
+    public double estimateRank(@NotNull final ByteIterable key) {
+        BasePage page = getRoot();
+        double result = 0;
+        double width = 1;
+        while (true) {
+            final int size = page.getSize();
+            if (size == 0) {
+                return result;
+            }
+            final int index = page.binarySearch(key);
+            if (page.isBottom()) {
+                return result + width * (index < 0 ? -index - 1 : index) / size;
+            }
+            if (index >= 0) {
+                // the key is the first one of a child page
+                return result + width * index / size;
+            }
+            final int childIndex = -index - 2;
+            if (childIndex < 0) {
+                return result;
+            }
+            result += width * childIndex / size;
+            width /= size;
+            page = page.getChild(childIndex);
+        }
+    }
+
     protected final RandomAccessLoggable getLoggable(long address) {
         return log.readNotNull(getDataIterator(address), address);
     }
@@ -158,6 +251,7 @@ public abstract class BTreeBase implements ITree {
         final byte type = loggable.getType();
         switch (type) {
             case LEAF:
+            case LEAF_PREFIXED:
             case DUP_LEAF:
                 return new LeafNode(log, loggable);
             case LEAF_DUP_BOTTOM_ROOT:
@@ -180,8 +274,11 @@ public abstract class BTreeBase implements ITree {
         return type == LEAF_DUP_BOTTOM_ROOT || type == LEAF_DUP_INTERNAL_ROOT;
     }
 
-    int compareLeafToKey(final long address, @NotNull final ByteIterable key) {
+    int compareLeafToKey(final long address, @NotNull final ByteIterable key, @NotNull final BasePageImmutable page) {
         final RandomAccessLoggable loggable = getLoggable(address);
+        if (loggable.getType() == LEAF_PREFIXED) {
+            return LeafNode.comparePrefixedKeyTo(log, loggable, key, page.getBaseKeys());
+        }
         final ByteIterableWithAddress data = loggable.getData();
         final int keyLength = data.getCompressedUnsignedInt();
         final int keyRecordSize = CompressedUnsignedLongByteIterable.getCompressedSize(keyLength);
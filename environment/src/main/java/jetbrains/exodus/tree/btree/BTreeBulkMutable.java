@@ -0,0 +1,111 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.tree.btree;
+
+import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.ExodusException;
+import jetbrains.exodus.tree.INode;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Mutable B-tree without duplicates which is built from sorted unique pairs on save. Pages are built bottom-up
+ * and fully packed: a bottom page is filled with leaves and saved together with them as soon as it is full, and
+ * its parent page keeps only addresses. So pairs are neither searched nor inserted one by one, and only one page
+ * per level of the tree is kept in memory regardless of the number of pairs. The tree should be empty and isn't
+ * supposed to be read or modified before it is saved.
+ */
+public class BTreeBulkMutable extends BTreeMutable {
+
+    @NotNull
+    private final Iterator<INode> pairs;
+    private boolean built;
+
+    public BTreeBulkMutable(@NotNull final BTreeBase tree, @NotNull final Iterator<INode> pairs) {
+        super(tree);
+        if (tree.allowsDuplicates || tree.getSize() != 0) {
+            throw new ExodusException("Bulk built tree should be empty and without duplicates");
+        }
+        this.pairs = pairs;
+    }
+
+    @Override
+    public long save() {
+        if (!built) {
+            build();
+            built = true;
+        }
+        return super.save();
+    }
+
+    private void build() {
+        final int maxPageSize = getBalancePolicy().getPageMaxSize();
+        // not yet saved pages of the levels above the bottom one, the last of them is the root
+        final List<InternalPageMutable> parents = new ArrayList<>();
+        BottomPageMutable bottom = new BottomPageMutable(this);
+        ByteIterable lastKey = null;
+        while (pairs.hasNext()) {
+            final INode pair = pairs.next();
+            final ByteIterable key = pair.getKey();
+            if (lastKey != null && lastKey.compareTo(key) >= 0) {
+                throw new ExodusException("Pairs of bulk built tree should be sorted and unique");
+            }
+            if (bottom.size == maxPageSize) {
+                addChild(parents, 0, bottom);
+                bottom = new BottomPageMutable(this);
+            }
+            //noinspection ConstantConditions
+            bottom.insertDirectly(bottom.size, createMutableLeaf(key, pair.getValue()), null);
+            incrementSize();
+            lastKey = key;
+        }
+        // pages are saved only when their next sibling is started, so the last page of each level isn't empty,
+        // and the top level has at least two pages
+        if (parents.isEmpty()) {
+            setRoot(bottom);
+            return;
+        }
+        addChild(parents, 0, bottom);
+        // adding the last pages can add a level if the pages of the next level are full
+        for (int level = 0; level < parents.size() - 1; ++level) {
+            addChild(parents, level + 1, parents.get(level));
+        }
+        setRoot(parents.get(parents.size() - 1));
+    }
+
+    /**
+     * Saves the page and adds it to its parent on the specified level, the parent is saved and replaced with
+     * an empty one if it's full.
+     */
+    private void addChild(@NotNull final List<InternalPageMutable> parents,
+                          final int level,
+                          @NotNull final BasePageMutable child) {
+        final long childAddress = child.save();
+        if (parents.size() == level) {
+            parents.add(new InternalPageMutable(this));
+        }
+        InternalPageMutable parent = parents.get(level);
+        if (parent.size == getBalancePolicy().getPageMaxSize()) {
+            addChild(parents, level + 1, parent);
+            parent = new InternalPageMutable(this);
+            parents.set(level, parent);
+        }
+        parent.addSavedChild(child.keysAddresses[0], childAddress);
+    }
+}
@@ -27,7 +27,15 @@ public class BTreeEmpty extends BTreeBase {
                       @NotNull final BTreeBalancePolicy balancePolicy,
                       final boolean allowsDuplicates,
                       final int structureId) {
-        super(log, balancePolicy, allowsDuplicates, structureId);
+        this(log, balancePolicy, allowsDuplicates, false, structureId);
+    }
+
+    public BTreeEmpty(@NotNull final Log log,
+                      @NotNull final BTreeBalancePolicy balancePolicy,
+                      final boolean allowsDuplicates,
+                      final boolean keyPrefixCompression,
+                      final int structureId) {
+        super(log, balancePolicy, allowsDuplicates, keyPrefixCompression, structureId);
         size = 0;
     }
 
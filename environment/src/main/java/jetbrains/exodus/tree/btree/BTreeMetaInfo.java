@@ -25,17 +25,40 @@ import org.jetbrains.annotations.NotNull;
 public class BTreeMetaInfo extends TreeMetaInfo {
 
     final BTreeBalancePolicy balancePolicy;
+    /**
+     * Version of the format of leaves' keys: if {@code true}, leaves can be written with keys compressed against
+     * the keys of other leaves of the same bottom page, otherwise all keys are written in full.
+     */
+    final boolean keyPrefixCompression;
 
     private BTreeMetaInfo(@NotNull final Log log,
                           @NotNull final BTreeBalancePolicy balancePolicy,
                           final boolean duplicates,
+                          final boolean expiration,
+                          final boolean keyPrefixCompression,
                           final int structureId) {
-        super(log, duplicates, structureId);
+        super(log, duplicates, expiration, structureId);
         this.balancePolicy = balancePolicy;
+        this.keyPrefixCompression = keyPrefixCompression;
     }
 
     public BTreeMetaInfo(@NotNull final EnvironmentImpl env, final boolean duplicates, final int structureId) {
-        this(env.getLog(), env.getBTreeBalancePolicy(), duplicates, structureId);
+        this(env, duplicates, false, structureId);
+    }
+
+    public BTreeMetaInfo(@NotNull final EnvironmentImpl env,
+                         final boolean duplicates,
+                         final boolean expiration,
+                         final int structureId) {
+        this(env, duplicates, expiration, false, structureId);
+    }
+
+    public BTreeMetaInfo(@NotNull final EnvironmentImpl env,
+                         final boolean duplicates,
+                         final boolean expiration,
+                         final boolean keyPrefixCompression,
+                         final int structureId) {
+        this(env.getLog(), env.getBTreeBalancePolicy(), duplicates, expiration, keyPrefixCompression, structureId);
     }
 
     @Override
@@ -43,15 +66,22 @@ public class BTreeMetaInfo extends TreeMetaInfo {
         return false;
     }
 
+    @Override
+    public boolean hasKeyPrefixCompression() {
+        return keyPrefixCompression;
+    }
+
     @Override
     public BTreeMetaInfo clone(final int newStructureId) {
-        return new BTreeMetaInfo(log, balancePolicy, duplicates, newStructureId);
+        return new BTreeMetaInfo(log, balancePolicy, duplicates, expiration, keyPrefixCompression, newStructureId);
     }
 
     public static BTreeMetaInfo load(@NotNull final EnvironmentImpl env, byte flagsByte, ByteIterator it) {
         final boolean duplicates = (flagsByte & DUPLICATES_BIT) != 0;
+        final boolean expiration = (flagsByte & EXPIRATION_BIT) != 0;
+        final boolean keyPrefixCompression = (flagsByte & KEY_PREFIX_COMPRESSION_BIT) != 0;
         CompressedUnsignedLongByteIterable.getInt(it); // legacy format
         final int structureId = CompressedUnsignedLongByteIterable.getInt(it);
-        return new BTreeMetaInfo(env, duplicates, structureId);
+        return new BTreeMetaInfo(env, duplicates, expiration, keyPrefixCompression, structureId);
     }
 }
@@ -27,6 +27,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Predicate;
 
 
 public class BTreeMutable extends BTreeBase implements ITreeMutable {
@@ -42,7 +43,7 @@ public class BTreeMutable extends BTreeBase implements ITreeMutable {
     }
 
     BTreeMutable(@NotNull final BTreeBase tree, final ExtraMutableBelongings extraBelongings) {
-        super(tree.log, tree.balancePolicy, tree.allowsDuplicates, tree.structureId);
+        super(tree.log, tree.balancePolicy, tree.allowsDuplicates, tree.keyPrefixCompression, tree.structureId);
         immutableTree = tree;
         root = tree.getRoot().getMutableCopy(this);
         size = tree.getSize();
@@ -184,6 +185,10 @@ public class BTreeMutable extends BTreeBase implements ITreeMutable {
         return res[0];
     }
 
+    protected void setRoot(@NotNull final BasePageMutable root) {
+        this.root = root;
+    }
+
     protected void decrementSize(final long delta) {
         size -= delta;
     }
@@ -296,7 +301,25 @@ public class BTreeMutable extends BTreeBase implements ITreeMutable {
     @Override
     public boolean reclaim(@NotNull RandomAccessLoggable loggable,
                            @NotNull final Iterator<RandomAccessLoggable> loggables) {
-        final BTreeReclaimTraverser context = new BTreeReclaimTraverser(this);
+        return reclaim(new BTreeReclaimTraverser(this), loggable, loggables);
+    }
+
+    @Override
+    public boolean reclaim(@NotNull RandomAccessLoggable loggable,
+                           @NotNull final Iterator<RandomAccessLoggable> loggables,
+                           @NotNull final Predicate<ByteIterable> isValueExpired) {
+        final BTreeReclaimTraverser context = new BTreeReclaimTraverser(this, isValueExpired);
+        boolean result = reclaim(context, loggable, loggables);
+        // leaves with expired values were left as is by the traverser, so they are deleted instead of being copied
+        for (final ByteIterable key : context.expiredKeys) {
+            result |= delete(key);
+        }
+        return result;
+    }
+
+    private boolean reclaim(@NotNull final BTreeReclaimTraverser context,
+                            @NotNull RandomAccessLoggable loggable,
+                            @NotNull final Iterator<RandomAccessLoggable> loggables) {
         final long nextFileAddress = log.getFileAddress(loggable.getAddress()) + log.getFileLengthBound();
         loop:
         while (true) {
@@ -312,6 +335,7 @@ public class BTreeMutable extends BTreeBase implements ITreeMutable {
                     new LeafNodeDup(this, loggable).reclaim(context);
                     break;
                 case LEAF:
+                case LEAF_PREFIXED:
                     new LeafNode(log, loggable).reclaim(context);
                     break;
                 case BOTTOM_ROOT:
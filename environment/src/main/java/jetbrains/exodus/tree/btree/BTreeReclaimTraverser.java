@@ -15,11 +15,14 @@
  */
 package jetbrains.exodus.tree.btree;
 
+import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.log.RandomAccessLoggable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 class BTreeReclaimTraverser extends BTreeTraverser {
     @NotNull
@@ -29,10 +32,24 @@ class BTreeReclaimTraverser extends BTreeTraverser {
     final List<RandomAccessLoggable> dupLeafsLo = new ArrayList<>();
     @NotNull
     final List<RandomAccessLoggable> dupLeafsHi = new ArrayList<>();
+    @Nullable
+    private final Predicate<ByteIterable> isValueExpired;
+    // keys of up-to-date leaves with expired values which should be deleted rather than reclaimed
+    @NotNull
+    final List<ByteIterable> expiredKeys = new ArrayList<>();
 
     BTreeReclaimTraverser(@NotNull BTreeMutable mainTree) {
+        this(mainTree, null);
+    }
+
+    BTreeReclaimTraverser(@NotNull BTreeMutable mainTree, @Nullable Predicate<ByteIterable> isValueExpired) {
         super(mainTree.getRoot());
         this.mainTree = mainTree;
+        this.isValueExpired = isValueExpired;
+    }
+
+    boolean isValueExpired(@NotNull final ByteIterable value) {
+        return isValueExpired != null && isValueExpired.test(value);
     }
 
     protected void setPage(BasePage node) {
@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.tree.btree;
 
+import jetbrains.exodus.ByteArrayView;
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.tree.INode;
 import jetbrains.exodus.tree.MutableTreeRoot;
@@ -75,6 +76,18 @@ class BTreeTraverser implements TreeTraverser {
         return result;
     }
 
+    @Override
+    @NotNull
+    public ByteArrayView getKey(@NotNull final ByteArrayView view) {
+        return node.getKey(view);
+    }
+
+    @Override
+    @NotNull
+    public ByteArrayView getValue(@NotNull final ByteArrayView view) {
+        return node.getValue(view);
+    }
+
     @Override
     public boolean hasValue() {
         return node.hasValue();
@@ -27,6 +27,8 @@ abstract class BasePageImmutable extends BasePage {
     byte keyAddressLen;
     private ILeafNode minKey = null;
     private ILeafNode maxKey = null;
+    // keys of base leaves of prefix-compressed leaves, created on first comparison with such a leaf
+    private LeafNode.BaseKeys baseKeys = null;
     protected final Log log;
 
     protected final byte[] page;
@@ -132,6 +134,11 @@ abstract class BasePageImmutable extends BasePage {
         return maxKey = super.getMaxKey();
     }
 
+    @NotNull LeafNode.BaseKeys getBaseKeys() {
+        if (baseKeys != null) return baseKeys;
+        return baseKeys = new LeafNode.BaseKeys();
+    }
+
     @Override
     protected long getDataAddress() {
         return data.getDataAddress();
@@ -264,7 +271,7 @@ abstract class BasePageImmutable extends BasePage {
                 leafAddress = it.nextLong(bytesPerAddress);
             }
 
-            final int cmp = tree.compareLeafToKey(leafAddress, key);
+            final int cmp = tree.compareLeafToKey(leafAddress, key, this);
             if (cmp < 0) {
                 low = mid + 1;
             } else if (cmp > 0) {
@@ -288,7 +295,7 @@ abstract class BasePageImmutable extends BasePage {
             final int offset = mid * bytesPerAddress;
             final long leafAddress = getLong(offset, bytesPerAddress);
 
-            final int cmp = tree.compareLeafToKey(leafAddress, key);
+            final int cmp = tree.compareLeafToKey(leafAddress, key, this);
 
             if (cmp < 0) {
                 low = mid + 1;
@@ -358,7 +365,7 @@ abstract class BasePageImmutable extends BasePage {
                 leafAddress = it.nextLong(bytesPerAddress);
             }
 
-            final int cmp = tree.compareLeafToKey(leafAddress, key);
+            final int cmp = tree.compareLeafToKey(leafAddress, key, this);
             if (cmp < 0) {
                 low = mid + 1;
             } else if (cmp > 0) {
@@ -18,6 +18,7 @@ package jetbrains.exodus.tree.btree;
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.bindings.CompressedUnsignedLongArrayByteIterable;
 import jetbrains.exodus.log.CompressedUnsignedLongByteIterable;
+import jetbrains.exodus.log.Log;
 import jetbrains.exodus.log.Loggable;
 import jetbrains.exodus.tree.LongIterator;
 import org.jetbrains.annotations.NotNull;
@@ -28,10 +29,21 @@ import java.util.Arrays;
 
 class BottomPageMutable extends BasePageMutable {
 
+    // max distance between a leaf with prefix-compressed key and its base leaf
+    private static final int KEY_PREFIX_RESTART_INTERVAL = 16;
+
     BottomPageMutable(BTreeMutable tree, BottomPage page) {
         super(tree, page);
     }
 
+    /**
+     * Creates empty page of the maximum size.
+     */
+    BottomPageMutable(BTreeMutable tree) {
+        super(tree);
+        createChildren(tree.getBalancePolicy().getPageMaxSize());
+    }
+
     private BottomPageMutable(BottomPageMutable page, int from, int length) {
         super((BTreeMutable) page.getTree());
 
@@ -164,13 +176,41 @@ class BottomPageMutable extends BasePageMutable {
         ReclaimFlag result = ReclaimFlag.RECLAIM;
         for (int i = 0; i < size; i++) {
             if (keysAddresses[i] == Loggable.NULL_ADDRESS) {
-                keysAddresses[i] = keys[i].save(tree);
+                final BaseLeafNodeMutable key = keys[i];
+                keysAddresses[i] = tree.keyPrefixCompression && key instanceof LeafNodeMutable ?
+                    saveWithKeyPrefixCompression((LeafNodeMutable) key, i) : key.save(tree);
                 result = ReclaimFlag.PRESERVE;
             }
         }
         return result;
     }
 
+    /**
+     * Saves the leaf compressing its key against the key of the nearest preceding leaf of the page which is
+     * written in full to the file the log is currently written to.
+     */
+    private long saveWithKeyPrefixCompression(@NotNull final LeafNodeMutable leaf, final int index) {
+        final BTreeMutable tree = (BTreeMutable) getTree();
+        final Log log = tree.getLog();
+        final long fileAddress = log.getFileAddress(log.getWrittenHighAddress());
+        for (int i = index - 1; i >= 0 && i >= index - KEY_PREFIX_RESTART_INTERVAL; --i) {
+            final long baseAddress = keysAddresses[i];
+            if (log.getFileAddress(baseAddress) != fileAddress) {
+                continue;
+            }
+            final BaseLeafNodeMutable key = keys[i];
+            if (key == null) {
+                final LeafNode base = tree.loadLeaf(baseAddress);
+                if (base.getType() == BTreeBase.LEAF) {
+                    return leaf.save(tree, baseAddress, base.getKey());
+                }
+            } else if (key instanceof LeafNodeMutable && !((LeafNodeMutable) key).isPrefixed()) {
+                return leaf.save(tree, baseAddress, key.getKey());
+            }
+        }
+        return leaf.save(tree);
+    }
+
     @Override
     protected ByteIterable[] getByteIterables(@NotNull final ReclaimFlag flag) {
         return new ByteIterable[]{
@@ -49,6 +49,14 @@ public class InternalPageMutable extends BasePageMutable {
         size = length;
     }
 
+    /**
+     * Creates empty page of the maximum size.
+     */
+    InternalPageMutable(BTreeMutable tree) {
+        super(tree);
+        createChildren(tree.getBalancePolicy().getPageMaxSize());
+    }
+
     InternalPageMutable(BTreeMutable tree, BasePageMutable page1, BasePageMutable page2) {
         super(tree);
 
@@ -183,6 +191,18 @@ public class InternalPageMutable extends BasePageMutable {
         return null;
     }
 
+    /**
+     * Appends already saved child page.
+     *
+     * @param keyAddress   address of the min leaf of the child
+     * @param childAddress address of the child
+     */
+    void addSavedChild(final long keyAddress, final long childAddress) {
+        keysAddresses[size] = keyAddress;
+        childrenAddresses[size] = childAddress;
+        ++size;
+    }
+
     @Override
     protected void set(int pos, @NotNull ILeafNode key, @Nullable BasePageMutable child) {
         super.set(pos, key, child);
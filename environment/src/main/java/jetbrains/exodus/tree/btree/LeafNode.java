@@ -16,9 +16,12 @@
 package jetbrains.exodus.tree.btree;
 
 import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteArrayView;
 import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.CompoundByteIterable;
 import jetbrains.exodus.log.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Stateless leaf node for immutable btree
@@ -27,7 +30,18 @@ class LeafNode extends BaseLeafNode {
 
     @NotNull
     private final RandomAccessLoggable loggable;
+    // offset and length of the key in loggable's data, or of the key suffix if the key is prefix-compressed
+    private final int keyOffset;
     private final int keyLength;
+    // address of the base leaf and length of the prefix shared with its key if the key is prefix-compressed
+    private final long baseAddress;
+    private final int prefixLength;
+    // key of the base leaf if the key is prefix-compressed, resolved lazily on first comparison
+    @Nullable
+    private BaseKey baseKey;
+    // full key if it is prefix-compressed, built lazily since comparisons don't need it
+    @Nullable
+    private ArrayByteIterable prefixedKey;
     protected final Log log;
     protected final boolean insideSinglePage;
 
@@ -35,9 +49,20 @@ class LeafNode extends BaseLeafNode {
         this.log = log;
         this.loggable = loggable;
         final ByteIterableWithAddress data = loggable.getData();
-        final int keyLength = data.getCompressedUnsignedInt();
-        final int keyRecordSize = CompressedUnsignedLongByteIterable.getCompressedSize(keyLength);
-        this.keyLength = (keyLength << 3) + keyRecordSize;
+        if (loggable.getType() == BTreeBase.LEAF_PREFIXED) {
+            // base leaf is located in the same file
+            final ByteIteratorWithAddress it = data.iterator();
+            final long baseOffset = it.getCompressedUnsignedLong();
+            prefixLength = it.getCompressedUnsignedInt();
+            keyLength = it.getCompressedUnsignedInt();
+            keyOffset = getPrefixedKeyOffset(baseOffset, prefixLength, keyLength);
+            baseAddress = log.getFileAddress(loggable.getAddress()) + baseOffset;
+        } else {
+            keyLength = data.getCompressedUnsignedInt();
+            keyOffset = CompressedUnsignedLongByteIterable.getCompressedSize(keyLength);
+            baseAddress = Loggable.NULL_ADDRESS;
+            prefixLength = 0;
+        }
         this.insideSinglePage = loggable.isDataInsideSinglePage();
     }
 
@@ -52,20 +77,24 @@ class LeafNode extends BaseLeafNode {
 
     @Override
     public int compareKeyTo(@NotNull final ByteIterable iterable) {
-        return loggable.getData().compareTo(getKeyRecordSize(), getKeyLength(), iterable,
-                0, iterable.getLength());
+        if (baseAddress != Loggable.NULL_ADDRESS) {
+            return comparePrefixedKeyTo(getBaseKey(), prefixLength, loggable.getData(), keyOffset, keyLength, iterable);
+        }
+        return loggable.getData().compareTo(keyOffset, keyLength, iterable, 0, iterable.getLength());
     }
 
     @Override
     public int compareValueTo(@NotNull final ByteIterable iterable) {
-        return loggable.getData().compareTo(getKeyRecordSize() + getKeyLength(),
-                getValueLength(), iterable, 0, iterable.getLength());
+        return loggable.getData().compareTo(getValueOffset(), getValueLength(), iterable, 0, iterable.getLength());
     }
 
     @Override
     @NotNull
     public ByteIterable getKey() {
-        return loggable.getData().subIterable(getKeyRecordSize(), getKeyLength());
+        if (baseAddress != Loggable.NULL_ADDRESS) {
+            return getPrefixedKey();
+        }
+        return loggable.getData().subIterable(keyOffset, keyLength);
     }
 
     @Override
@@ -75,7 +104,33 @@ class LeafNode extends BaseLeafNode {
         if (valueLength == 0) {
             return ArrayByteIterable.EMPTY;
         }
-        return loggable.getData().subIterable(getKeyRecordSize() + getKeyLength(), valueLength);
+        return loggable.getData().subIterable(getValueOffset(), valueLength);
+    }
+
+    @Override
+    @NotNull
+    public ByteArrayView getKey(@NotNull final ByteArrayView view) {
+        if (baseAddress != Loggable.NULL_ADDRESS) {
+            final ArrayByteIterable prefixedKey = getPrefixedKey();
+            return view.set(prefixedKey.getBaseBytes(), prefixedKey.baseOffset(), prefixedKey.getLength());
+        }
+        if (insideSinglePage) {
+            // refer to the page without creating a sub-iterable
+            final ByteIterableWithAddress data = loggable.getData();
+            return view.set(data.getBaseBytes(), data.baseOffset() + keyOffset, keyLength);
+        }
+        return view.set(getKey());
+    }
+
+    @Override
+    @NotNull
+    public ByteArrayView getValue(@NotNull final ByteArrayView view) {
+        if (insideSinglePage) {
+            final ByteIterableWithAddress data = loggable.getData();
+            final int keyEnd = getValueOffset();
+            return view.set(data.getBaseBytes(), data.baseOffset() + keyEnd, loggable.getDataLength() - keyEnd);
+        }
+        return view.set(getValue());
     }
 
     @Override
@@ -90,28 +145,29 @@ class LeafNode extends BaseLeafNode {
     @NotNull
     ByteIterableWithAddress getRawValue(final int offset) {
         final var data = loggable.getData();
-        return data.cloneWithOffset(getKeyRecordSize() + getKeyLength() + offset);
-    }
-
-    private int getKeyLength() {
-        return keyLength >>> 3;
+        return data.cloneWithOffset(getValueOffset() + offset);
     }
 
-    private int getKeyRecordSize() {
-        return keyLength & 7;
+    private int getValueOffset() {
+        return keyOffset + keyLength;
     }
 
     private int getValueLength() {
-        return loggable.getDataLength() - getKeyRecordSize() - getKeyLength();
+        return loggable.getDataLength() - getValueOffset();
     }
 
     protected void doReclaim(@NotNull BTreeReclaimTraverser context, final int leafIndex) {
         final long keyAddress = context.currentNode.getKeyAddress(leafIndex);
         if (keyAddress == loggable.getAddress()) {
+            final ByteIterable value = getValue();
+            if (context.isValueExpired(value)) {
+                context.expiredKeys.add(getKey());
+                return;
+            }
             final BTreeMutable tree = context.mainTree;
             tree.addExpiredLoggable(keyAddress);
             final BasePageMutable node = context.currentNode.getMutableCopy(tree);
-            node.set(leafIndex, tree.createMutableLeaf(getKey(), getValue()), null);
+            node.set(leafIndex, tree.createMutableLeaf(getKey(), value), null);
             context.wasReclaim = true;
             context.setPage(node);
         }
@@ -172,4 +228,115 @@ class LeafNode extends BaseLeafNode {
             context.moveTo(-leafIndex - 1);
         }
     }
+
+    @NotNull
+    private BaseKey getBaseKey() {
+        BaseKey result = baseKey;
+        if (result == null) {
+            baseKey = result = new BaseKey(log, baseAddress);
+        }
+        return result;
+    }
+
+    @NotNull
+    private ArrayByteIterable getPrefixedKey() {
+        ArrayByteIterable result = prefixedKey;
+        if (result == null) {
+            final BaseKey base = getBaseKey();
+            prefixedKey = result = new ArrayByteIterable(new CompoundByteIterable(new ByteIterable[]{
+                    base.data.subIterable(base.keyOffset, prefixLength), loggable.getData().subIterable(keyOffset, keyLength)}));
+        }
+        return result;
+    }
+
+    /**
+     * Compares the key of a leaf of type {@linkplain BTreeBase#LEAF_PREFIXED} to specified key without creating
+     * a {@code LeafNode} and building the full key.
+     *
+     * @param baseKeys keys of base leaves already resolved by the page the leaf belongs to
+     */
+    static int comparePrefixedKeyTo(@NotNull final Log log,
+                                     @NotNull final RandomAccessLoggable loggable,
+                                     @NotNull final ByteIterable key,
+                                     @NotNull final BaseKeys baseKeys) {
+        final ByteIterableWithAddress data = loggable.getData();
+        final ByteIteratorWithAddress it = data.iterator();
+        final long baseOffset = it.getCompressedUnsignedLong();
+        final int prefixLength = it.getCompressedUnsignedInt();
+        final int suffixLength = it.getCompressedUnsignedInt();
+        return comparePrefixedKeyTo(baseKeys.get(log, log.getFileAddress(loggable.getAddress()) + baseOffset),
+                prefixLength, data, getPrefixedKeyOffset(baseOffset, prefixLength, suffixLength), suffixLength, key);
+    }
+
+    // compares the prefix in the base leaf, then the suffix in the leaf itself
+    private static int comparePrefixedKeyTo(@NotNull final BaseKey base,
+                                            final int prefixLength,
+                                            @NotNull final ByteIterableWithAddress data,
+                                            final int suffixOffset,
+                                            final int suffixLength,
+                                            @NotNull final ByteIterable key) {
+        final int length = key.getLength();
+        // if the key is shorter than the prefix, the result can't be 0
+        final int cmp = base.data.compareTo(base.keyOffset, prefixLength, key, 0, Math.min(prefixLength, length));
+        if (cmp != 0) {
+            return cmp;
+        }
+        return data.compareTo(suffixOffset, suffixLength, key, prefixLength, length - prefixLength);
+    }
+
+    private static int getPrefixedKeyOffset(final long baseOffset, final int prefixLength, final int suffixLength) {
+        return CompressedUnsignedLongByteIterable.getCompressedSize(baseOffset) +
+                CompressedUnsignedLongByteIterable.getCompressedSize(prefixLength) +
+                CompressedUnsignedLongByteIterable.getCompressedSize(suffixLength);
+    }
+
+    @NotNull
+    private static RandomAccessLoggable readBaseLeaf(@NotNull final Log log, final long baseAddress) {
+        final RandomAccessLoggable base = log.read(baseAddress);
+        if (base.getType() != BTreeBase.LEAF) {
+            DataCorruptionException.raise("Unexpected type of base leaf: " + base.getType(), log, baseAddress);
+        }
+        return base;
+    }
+
+    /**
+     * Key of a base leaf of prefix-compressed leaves.
+     */
+    static final class BaseKey {
+
+        private final long address;
+        @NotNull
+        private final ByteIterableWithAddress data;
+        private final int keyOffset;
+
+        private BaseKey(@NotNull final Log log, final long address) {
+            this.address = address;
+            data = readBaseLeaf(log, address).getData();
+            keyOffset = CompressedUnsignedLongByteIterable.getCompressedSize(data.getCompressedUnsignedInt());
+        }
+    }
+
+    /**
+     * Keys of base leaves resolved while searching in a page, so that the base leaf shared by several
+     * prefix-compressed leaves of the page is read from the log once rather than on each binary search probe.
+     * Keys are kept in a small direct-mapped table. Since {@linkplain BaseKey} is immutable, the table can be
+     * updated by threads searching in the page concurrently without synchronization.
+     */
+    static final class BaseKeys {
+
+        // the number of base leaves in a page is about page size divided by the key prefix restart interval
+        private static final int SIZE_LOG = 3;
+
+        private final BaseKey[] keys = new BaseKey[1 << SIZE_LOG];
+
+        @NotNull
+        BaseKey get(@NotNull final Log log, final long address) {
+            final int index = (int) ((address * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - SIZE_LOG));
+            BaseKey result = keys[index];
+            if (result == null || result.address != address) {
+                keys[index] = result = new BaseKey(log, address);
+            }
+            return result;
+        }
+    }
 }
@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.tree.btree;
 
+import jetbrains.exodus.ByteArrayView;
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.ExodusException;
 import jetbrains.exodus.log.*;
@@ -44,6 +45,12 @@ class LeafNodeDup extends LeafNode {
         return tree.getRoot().getMinKey().getKey();
     }
 
+    @NotNull
+    @Override
+    public ByteArrayView getValue(@NotNull final ByteArrayView view) {
+        return tree.getRoot().getMinKey().getKey(view);
+    }
+
     @Override
     public int compareValueTo(@NotNull ByteIterable iterable) {
         throw new UnsupportedOperationException();
@@ -131,6 +138,7 @@ class LeafNodeDup extends LeafNode {
                     tree.mainTree = mainTree;
                     break;
                 case BTreeBase.LEAF:
+                case BTreeBase.LEAF_PREFIXED:
                     return; // current node is duplicate no more
                 default:
                     throw new ExodusException("Unexpected loggable type " + upToDate.getType());
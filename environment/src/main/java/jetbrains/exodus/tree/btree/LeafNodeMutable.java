@@ -17,18 +17,27 @@ package jetbrains.exodus.tree.btree;
 
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.ByteIterableBase;
+import jetbrains.exodus.ByteIterator;
 import jetbrains.exodus.log.CompressedUnsignedLongByteIterable;
+import jetbrains.exodus.log.Log;
 import jetbrains.exodus.log.Loggable;
 import jetbrains.exodus.tree.ITree;
 import jetbrains.exodus.util.LightOutputStream;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Stateful leaf node for mutable tree
+ * Stateful leaf node for mutable tree.
+ * <p>
+ * If the tree has key prefix compression, the leaf can be saved with the key compressed against the key of
+ * a base leaf: the loggable of type {@linkplain BTreeBase#LEAF_PREFIXED} contains offset of the base leaf in
+ * the file, length of the prefix shared with the key of the base leaf, length of the rest of the key, the rest
+ * of the key and the value. The base leaf is always written in full to the same file, so the leaf can be read
+ * and reclaimed by GC without any context, as any other leaf.
  */
 class LeafNodeMutable extends BaseLeafNodeMutable {
 
     private long address = Loggable.NULL_ADDRESS;
+    private boolean prefixed;
     private final ByteIterable key;
     private final ByteIterable value;
 
@@ -70,6 +79,46 @@ class LeafNodeMutable extends BaseLeafNodeMutable {
         return address;
     }
 
+    /**
+     * Saves the leaf with the key compressed against the key of specified base leaf if this makes the leaf shorter.
+     * The base leaf should be written in full to the file which the log is currently written to.
+     */
+    long save(@NotNull final BTreeMutable tree, final long baseAddress, @NotNull final ByteIterable baseKey) {
+        if (address != Loggable.NULL_ADDRESS) {
+            throw new IllegalStateException("Leaf already saved");
+        }
+        final Log log = tree.getLog();
+        final long baseOffset = baseAddress - log.getFileAddress(baseAddress);
+        final int prefixLength = getCommonPrefixLength(baseKey, key);
+        if (prefixLength <= CompressedUnsignedLongByteIterable.getCompressedSize(baseOffset) +
+                CompressedUnsignedLongByteIterable.getCompressedSize(prefixLength)) {
+            return save(tree);
+        }
+        final int suffixLength = key.getLength() - prefixLength;
+        final LightOutputStream output = tree.getLeafStream();
+        CompressedUnsignedLongByteIterable.fillBytes(baseOffset, output);
+        CompressedUnsignedLongByteIterable.fillBytes(prefixLength, output);
+        CompressedUnsignedLongByteIterable.fillBytes(suffixLength, output);
+        ByteIterableBase.fillBytes(key.subIterable(prefixLength, suffixLength), output);
+        ByteIterableBase.fillBytes(value, output);
+        // the leaf can't be placed to the next file, so it is written in full if it doesn't fit the current one
+        final long result = log.writeContinuously(BTreeBase.LEAF_PREFIXED, tree.getStructureId(),
+                output.asArrayByteIterable(), tree.getExpiredLoggables());
+        if (result < 0) {
+            return save(tree);
+        }
+        prefixed = true;
+        address = result;
+        return result;
+    }
+
+    /**
+     * @return {@code true} if the leaf is saved with prefix-compressed key
+     */
+    boolean isPrefixed() {
+        return prefixed;
+    }
+
     @Override
     public boolean delete(ByteIterable value) {
         throw new UnsupportedOperationException("Supported by dup node only");
@@ -79,4 +128,14 @@ class LeafNodeMutable extends BaseLeafNodeMutable {
     public String toString() {
         return "LN* {key:" + key + "} @ " + address;
     }
+
+    private static int getCommonPrefixLength(@NotNull final ByteIterable first, @NotNull final ByteIterable second) {
+        final ByteIterator firstIt = first.iterator();
+        final ByteIterator secondIt = second.iterator();
+        int result = 0;
+        while (firstIt.hasNext() && secondIt.hasNext() && firstIt.next() == secondIt.next()) {
+            ++result;
+        }
+        return result;
+    }
 }
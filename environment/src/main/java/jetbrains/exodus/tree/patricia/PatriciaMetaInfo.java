@@ -25,7 +25,14 @@ import org.jetbrains.annotations.NotNull;
 public class PatriciaMetaInfo extends TreeMetaInfo {
 
     public PatriciaMetaInfo(@NotNull final Log log, final boolean duplicates, final int structureId) {
-        super(log, duplicates, structureId);
+        this(log, duplicates, false, structureId);
+    }
+
+    public PatriciaMetaInfo(@NotNull final Log log,
+                            final boolean duplicates,
+                            final boolean expiration,
+                            final int structureId) {
+        super(log, duplicates, expiration, structureId);
     }
 
     @Override
@@ -35,13 +42,14 @@ public class PatriciaMetaInfo extends TreeMetaInfo {
 
     @Override
     public TreeMetaInfo clone(final int newStructureId) {
-        return new PatriciaMetaInfo(log, duplicates, newStructureId);
+        return new PatriciaMetaInfo(log, duplicates, expiration, newStructureId);
     }
 
     public static PatriciaMetaInfo load(@NotNull final EnvironmentImpl env, byte flagsByte, ByteIterator it) {
         final boolean duplicates = (flagsByte & DUPLICATES_BIT) != 0;
+        final boolean expiration = (flagsByte & EXPIRATION_BIT) != 0;
         CompressedUnsignedLongByteIterable.getInt(it); // legacy format
         final int structureId = CompressedUnsignedLongByteIterable.getInt(it);
-        return new PatriciaMetaInfo(env.getLog(), duplicates, structureId);
+        return new PatriciaMetaInfo(env.getLog(), duplicates, expiration, structureId);
     }
 }
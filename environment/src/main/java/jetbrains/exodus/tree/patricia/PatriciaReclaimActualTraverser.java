@@ -15,20 +15,42 @@
  */
 package jetbrains.exodus.tree.patricia;
 
+import jetbrains.exodus.ByteIterable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
 
 final class PatriciaReclaimActualTraverser extends PatriciaTraverser {
 
     @NotNull
     final PatriciaTreeMutable mainTree;
     boolean wasReclaim;
+    @Nullable
+    private final Predicate<ByteIterable> isValueExpired;
+    // keys of reclaimed nodes with expired values which should be deleted rather than saved
+    @NotNull
+    final List<ByteIterable> expiredKeys = new ArrayList<>();
 
-    PatriciaReclaimActualTraverser(@NotNull final PatriciaTreeMutable mainTree) {
+    PatriciaReclaimActualTraverser(@NotNull final PatriciaTreeMutable mainTree,
+                                   @Nullable final Predicate<ByteIterable> isValueExpired) {
         super(mainTree, mainTree.getRoot());
         this.mainTree = mainTree;
+        this.isValueExpired = isValueExpired;
         init(true);
     }
 
+    void collectKeyIfValueExpired() {
+        if (isValueExpired != null && currentNode.hasValue()) {
+            final ByteIterable value = currentNode.getValue();
+            if (value != null && isValueExpired.test(value)) {
+                expiredKeys.add(getKey());
+            }
+        }
+    }
+
     void popAndMutate() {
         --top;
         final NodeChildrenIterator topItr = stack[top];
@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.tree.patricia;
 
+import jetbrains.exodus.ArrayByteIterable;
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.ByteIterator;
 import jetbrains.exodus.log.DataIterator;
@@ -27,6 +28,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class PatriciaTreeBase implements ITree {
 
@@ -113,6 +116,122 @@ public abstract class PatriciaTreeBase implements ITree {
         new TreeAwareNodeDecorator(this, getRoot()).dump(out, 0, renderer);
     }
 
+    @Override
+    @NotNull
+    public ByteIterable[] getSplitKeys(final int maxRanges) {
+        if (isEmpty()) {
+            return NO_SPLIT_KEYS;
+        }
+        // lower bounds of ranges, full keys of nodes and nodes of current level
+        List<ByteIterable> bounds = new ArrayList<>();
+        List<ByteIterable> keys = new ArrayList<>();
+        List<NodeBase> nodes = new ArrayList<>();
+        final NodeBase root = getRoot();
+        bounds.add(ByteIterable.EMPTY);
+        keys.add(root.keySequence);
+        nodes.add(root);
+        boolean expanded = true;
+        while (bounds.size() < maxRanges && expanded) {
+            expanded = false;
+            final List<ByteIterable> nextBounds = new ArrayList<>();
+            final List<ByteIterable> nextKeys = new ArrayList<>();
+            final List<NodeBase> nextNodes = new ArrayList<>();
+            for (int i = 0; i < nodes.size(); ++i) {
+                final NodeBase node = nodes.get(i);
+                final ByteIterable key = keys.get(i);
+                if (node.getChildrenCount() == 0) {
+                    nextBounds.add(bounds.get(i));
+                    nextKeys.add(key);
+                    nextNodes.add(node);
+                    continue;
+                }
+                expanded = true;
+                boolean first = true;
+                for (final ChildReference ref : node.getChildren()) {
+                    final NodeBase child = ref.getNode(this);
+                    final ByteIterable childKey = getChildKey(key, ref.firstByte, child.keySequence);
+                    // the first child's range also contains the node itself
+                    nextBounds.add(first ? bounds.get(i) : childKey);
+                    nextKeys.add(childKey);
+                    nextNodes.add(child);
+                    first = false;
+                }
+            }
+            bounds = nextBounds;
+            keys = nextKeys;
+            nodes = nextNodes;
+        }
+        final int boundCount = bounds.size();
+        final int rangeCount = Math.min(maxRanges, boundCount);
+        if (rangeCount < 2) {
+            return NO_SPLIT_KEYS;
+        }
+        final ByteIterable[] result = new ByteIterable[rangeCount - 1];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = bounds.get((int) ((long) (i + 1) * boundCount / rangeCount));
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the rank by positions of bytes of the key among children of the nodes on the path to it, a node's
+     * value is treated as its first child. Patricia trie is not balanced, so the error depends on distribution of
+     * the keys: it is small for uniformly distributed keys and can be as large as the share of the largest subtree
+     * on the path for skewed ones.
+     */
+    @Override
+    public double estimateRank(@NotNull final ByteIterable key) {
+        if (isEmpty()) {
+            return 0;
+        }
+        final ByteIterator it = key.iterator();
+        NodeBase node = getRoot();
+        double result = 0;
+        double width = 1;
+        while (true) {
+            final ByteIterator sequence = node.keySequence.iterator();
+            while (sequence.hasNext()) {
+                if (!it.hasNext()) {
+                    return result;
+                }
+                final int cmp = (it.next() & 0xff) - (sequence.next() & 0xff);
+                if (cmp != 0) {
+                    return cmp < 0 ? result : result + width;
+                }
+            }
+            if (!it.hasNext()) {
+                return result;
+            }
+            final int b = it.next() & 0xff;
+            final boolean hasValue = node.hasValue();
+            final int slots = node.getChildrenCount() + (hasValue ? 1 : 0);
+            if (slots == 0) {
+                return result + width;
+            }
+            int less = hasValue ? 1 : 0;
+            NodeBase child = null;
+            for (final ChildReference ref : node.getChildren()) {
+                if (ref == null) {
+                    continue;
+                }
+                final int firstByte = ref.firstByte & 0xff;
+                if (firstByte >= b) {
+                    if (firstByte == b) {
+                        child = ref.getNode(this);
+                    }
+                    break;
+                }
+                ++less;
+            }
+            result += width * less / slots;
+            if (child == null) {
+                return result;
+            }
+            width /= slots;
+            node = child;
+        }
+    }
+
     @Override
     public LongIterator addressIterator() {
         if (isEmpty()) {
@@ -136,6 +255,18 @@ public abstract class PatriciaTreeBase implements ITree {
         return new MultiPageImmutableNode(log, loggable, loggable.getData());
     }
 
+    private static ByteIterable getChildKey(@NotNull final ByteIterable parentKey,
+                                            final byte firstByte,
+                                            @NotNull final ByteIterable keySequence) {
+        final int parentLength = parentKey.getLength();
+        final int length = keySequence.getLength();
+        final byte[] result = new byte[parentLength + length + 1];
+        System.arraycopy(parentKey.getBytesUnsafe(), 0, result, 0, parentLength);
+        result[parentLength] = firstByte;
+        System.arraycopy(keySequence.getBytesUnsafe(), 0, result, parentLength + 1, length);
+        return new ArrayByteIterable(result);
+    }
+
     static boolean nodeHasKey(final byte type) {
         return ((type - NODE_WO_KEY_WO_VALUE_WO_CHILDREN) & HAS_KEY_BIT) != 0;
     }
@@ -24,6 +24,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Iterator;
+import java.util.function.Predicate;
 
 final class PatriciaTreeWithDuplicatesMutable extends PatriciaTreeWithDuplicates implements ITreeMutable {
     PatriciaTreeWithDuplicatesMutable(@NotNull final ITreeMutable treeNoDuplicates) {
@@ -145,6 +146,13 @@ final class PatriciaTreeWithDuplicatesMutable extends PatriciaTreeWithDuplicates
         return ((ITreeMutable) treeNoDuplicates).reclaim(loggable, loggables);
     }
 
+    @Override
+    public boolean reclaim(@NotNull final RandomAccessLoggable loggable,
+                           @NotNull final Iterator<RandomAccessLoggable> loggables,
+                           @NotNull final Predicate<ByteIterable> isValueExpired) {
+        throw new UnsupportedOperationException("Expiring values are not supported in trees with duplicates");
+    }
+
     private ITreeMutable getTreeNoDuplicates() {
         return (ITreeMutable) treeNoDuplicates;
     }
@@ -76,9 +76,9 @@ private fun cryptBlocksImpl(cipherProvider: StreamCipherProvider,
                 cipher.crypt(0)
             }
         }
-        repeat(blockLen) {
-            output[outputOff++] = cipher.crypt(input[inputOff++])
-        }
+        cipher.crypt(input, inputOff, blockLen, output, outputOff)
+        inputOff += blockLen
+        outputOff += blockLen
         ++iv
         len -= blockLen
     }
@@ -54,13 +54,14 @@ fun Environment.copyTo(
                             val targetConfig = sourceStore.config.let { sourceConfig ->
                                 if (forcePrefixing) StoreConfig.getStoreConfig(
                                     sourceConfig.duplicates,
-                                    true
+                                    true,
+                                    sourceConfig.expiration
                                 ) else sourceConfig
                             }
                             val targetStore = newEnv.openStore(name, targetConfig, targetTxn)
                             storeSize = sourceStore.count(sourceTxn)
                             sourceStore.openCursor(sourceTxn).forEachIndexed {
-                                targetStore.putRight(targetTxn, ArrayByteIterable(key), ArrayByteIterable(value))
+                                copyCurrentTo(targetStore, targetTxn, putRight = true)
                                 if ((it + 1) % 100_000 == 0 || guard.isItCloseToOOM()) {
                                     targetTxn.flush()
                                     guard.reset()
@@ -98,13 +99,14 @@ fun Environment.copyTo(
                                 val targetConfig = sourceStore.config.let { sourceConfig ->
                                     if (forcePrefixing) StoreConfig.getStoreConfig(
                                         sourceConfig.duplicates,
-                                        true
+                                        true,
+                                        sourceConfig.expiration
                                     ) else sourceConfig
                                 }
                                 val targetStore = newEnv.openStore(name, targetConfig, targetTxn)
                                 storeSize = sourceStore.count(sourceTxn)
                                 sourceStore.openCursor(sourceTxn).forEachReversed {
-                                    targetStore.put(targetTxn, ArrayByteIterable(key), ArrayByteIterable(value))
+                                    copyCurrentTo(targetStore, targetTxn, putRight = false)
                                     if (guard.isItCloseToOOM()) {
                                         targetTxn.flush()
                                         guard.reset()
@@ -164,12 +166,13 @@ fun Environment.copyToAsWhole(
                     val targetConfig = sourceStore.config.let { sourceConfig ->
                         if (forcePrefixing) StoreConfig.getStoreConfig(
                             sourceConfig.duplicates,
-                            true
+                            true,
+                            sourceConfig.expiration
                         ) else sourceConfig
                     }
                     val targetStore = newEnv.openStore(name, targetConfig, targetTxn)
                     sourceStore.openCursor(sourceTxn).forEach {
-                        targetStore.putRight(targetTxn, ArrayByteIterable(key), ArrayByteIterable(value))
+                        copyCurrentTo(targetStore, targetTxn, putRight = true)
                     }
 
                     val actualSize = newEnv.computeInReadonlyTransaction { txn ->
@@ -186,5 +189,16 @@ fun Environment.copyToAsWhole(
 }
 
 
+// values of stores with expiration are copied with their expiration times
+private fun Cursor.copyCurrentTo(targetStore: Store, targetTxn: Transaction, putRight: Boolean) {
+    val keyCopy = ArrayByteIterable(key)
+    val valueCopy = ArrayByteIterable(value)
+    when {
+        this is ExpiringCursor -> targetStore.put(targetTxn, keyCopy, valueCopy, expirationTime)
+        putRight -> targetStore.putRight(targetTxn, keyCopy, valueCopy)
+        else -> targetStore.put(targetTxn, keyCopy, valueCopy)
+    }
+}
+
 private fun copyStoreMessage(started: Date, name: String, n: Int, totalCount: Int, percent: Long) =
     "\r$started Copying store $name ($n of $totalCount): $percent%"
\ No newline at end of file
@@ -128,6 +128,7 @@ object Environments : KLogging() {
             isWarmup = ec.logCacheWarmup
             syncPeriod = ec.logSyncPeriod
             isFullFileReadonly = ec.isLogFullFileReadonly
+            isCompression = ec.logCompression
             cipherProvider = ec.cipherId?.let { cipherId -> newCipherProvider(cipherId) }
             cipherKey = ec.cipherKey
             cipherBasicIV = ec.cipherBasicIV
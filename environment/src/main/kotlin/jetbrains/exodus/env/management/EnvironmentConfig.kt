@@ -80,6 +80,9 @@ open class EnvironmentConfig(protected val env: EnvironmentImpl) : MBeanBase(get
     override val isLogFullFileReadonly: Boolean
         get() = config.isLogFullFileReadonly
 
+    override val logCompression: Boolean
+        get() = config.logCompression
+
     override val isLogAllowRemovable: Boolean
         get() = config.isLogAllowRemovable
 
@@ -155,6 +158,18 @@ open class EnvironmentConfig(protected val env: EnvironmentImpl) : MBeanBase(get
             config.envTxnSingleThreadWrites = singleThreadWrites
         }
 
+    override var envTxnRebase: Boolean
+        get() = config.envTxnRebase
+        set(rebase) {
+            config.envTxnRebase = rebase
+        }
+
+    override var envTxnWriteBuffer: Boolean
+        get() = config.envTxnWriteBuffer
+        set(writeBuffer) {
+            config.envTxnWriteBuffer = writeBuffer
+        }
+
     override var envTxnTraceFinish: Boolean
         get() = config.isEnvTxnTraceFinish
         set(traceFinish) {
@@ -179,6 +194,12 @@ open class EnvironmentConfig(protected val env: EnvironmentImpl) : MBeanBase(get
             config.treeMaxPageSize = treeMaxPageSize
         }
 
+    override var treeKeyPrefixCompression: Boolean
+        get() = config.treeKeyPrefixCompression
+        set(compression) {
+            config.treeKeyPrefixCompression = compression
+        }
+
     override var isGcEnabled: Boolean
         get() = config.isGcEnabled
         set(enabled) {
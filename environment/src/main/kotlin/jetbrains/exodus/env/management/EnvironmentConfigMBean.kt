@@ -34,6 +34,7 @@ interface EnvironmentConfigMBean {
     val isLogClearInvalid: Boolean
     var logSyncPeriod: Long
     val isLogFullFileReadonly: Boolean
+    val logCompression: Boolean
     val isLogAllowRemovable: Boolean
     val isLogAllowRemote: Boolean
     val isLogAllowRamDisk: Boolean
@@ -48,12 +49,15 @@ interface EnvironmentConfigMBean {
     var envTxnReplayMaxCount: Int
     var envTxnDowngradeAfterFlush: Boolean
     var envTxnSingleThreadWrites: Boolean
+    var envTxnRebase: Boolean
+    var envTxnWriteBuffer: Boolean
     var envTxnTraceFinish: Boolean
     val envMaxParallelTxns: Int
     val envMonitorTxnsTimeout: Int
     val envMonitorTxnsCheckFreq: Int
     val envGatherStatistics: Boolean
     var treeMaxPageSize: Int
+    var treeKeyPrefixCompression: Boolean
     var isGcEnabled: Boolean
     val isGcSuspended: Boolean
     val gcStartIn: Int
@@ -72,6 +72,18 @@ class EnvironmentStatistics(private val env: EnvironmentImpl) : MBeanBase(getObj
     override val numberOfFlushedTransactionsPerSecond: Double
         get() = getMean(EnvironmentStatistics.Type.FLUSHED_TRANSACTIONS)
 
+    override val numberOfReplayedTransactions: Long
+        get() = getTotal(EnvironmentStatistics.Type.REPLAYED_TRANSACTIONS)
+
+    override val numberOfReplayedTransactionsPerSecond: Double
+        get() = getMean(EnvironmentStatistics.Type.REPLAYED_TRANSACTIONS)
+
+    override val numberOfRebasedTransactions: Long
+        get() = getTotal(EnvironmentStatistics.Type.REBASED_TRANSACTIONS)
+
+    override val numberOfRebasedTransactionsPerSecond: Double
+        get() = getMean(EnvironmentStatistics.Type.REBASED_TRANSACTIONS)
+
     override val transactionsDuration: Long
         get() = getTotal(EnvironmentStatistics.Type.TRANSACTIONS_DURATION)
 
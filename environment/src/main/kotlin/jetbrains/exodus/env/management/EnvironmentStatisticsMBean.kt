@@ -34,6 +34,10 @@ interface EnvironmentStatisticsMBean {
     val activeTransactions: Int
     val numberOfFlushedTransactions: Long
     val numberOfFlushedTransactionsPerSecond: Double
+    val numberOfReplayedTransactions: Long
+    val numberOfReplayedTransactionsPerSecond: Double
+    val numberOfRebasedTransactions: Long
+    val numberOfRebasedTransactionsPerSecond: Double
     val transactionsDuration: Long
     val readonlyTransactionsDuration: Long
     val gcTransactionsDuration: Long
@@ -15,7 +15,7 @@
  */
 package jetbrains.exodus.gc
 
-import jetbrains.exodus.core.dataStructures.hash.LongHashMap
+import jetbrains.exodus.core.dataStructures.hash.LongLongFlatHashMap
 import jetbrains.exodus.env.StoreConfig
 import jetbrains.exodus.env.TransactionBase
 
@@ -23,7 +23,7 @@ internal class ComputeUtilizationFromScratchJob(gc: GarbageCollector) : GcJob(gc
 
     override fun doJob() {
         val gc = this.gc ?: return
-        val usedSpace = LongHashMap<Long>()
+        val usedSpace = LongLongFlatHashMap()
         val env = gc.environment
         val location = env.location
         GarbageCollector.loggingInfo { "Started calculation of log utilization from scratch at $location" }
@@ -48,8 +48,7 @@ internal class ComputeUtilizationFromScratchJob(gc: GarbageCollector) : GcJob(gc
                                     val address = it.next()
                                     val loggable = log.read(address)
                                     val fileAddress = log.getFileAddress(address)
-                                    usedSpace[fileAddress] = (usedSpace[fileAddress]
-                                            ?: 0L) + loggable.length()
+                                    usedSpace.put(fileAddress, usedSpace.get(fileAddress, 0L) + loggable.length())
                                 }
                             }
                         }
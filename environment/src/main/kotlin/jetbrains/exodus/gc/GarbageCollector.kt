@@ -18,7 +18,7 @@ package jetbrains.exodus.gc
 import jetbrains.exodus.ExodusException
 import jetbrains.exodus.core.dataStructures.LongArrayList
 import jetbrains.exodus.core.dataStructures.Priority
-import jetbrains.exodus.core.dataStructures.hash.IntHashMap
+import jetbrains.exodus.core.dataStructures.hash.IntFlatHashMap
 import jetbrains.exodus.core.dataStructures.hash.PackedLongHashSet
 import jetbrains.exodus.core.execution.Job
 import jetbrains.exodus.core.execution.JobProcessorAdapter
@@ -51,7 +51,7 @@ class GarbageCollector(internal val environment: EnvironmentImpl) {
     private val pendingFilesToDelete = PackedLongHashSet()
     private val deletionQueue = ConcurrentLinkedQueue<Long>()
     internal val cleaner = BackgroundCleaner(this)
-    private val openStoresCache = IntHashMap<StoreImpl>()
+    private val openStoresCache = IntFlatHashMap<StoreImpl>()
 
     @Volatile
     private var logExceptionMessage: String? = null
@@ -17,7 +17,8 @@ package jetbrains.exodus.gc
 
 import jetbrains.exodus.bindings.LongBinding
 import jetbrains.exodus.core.dataStructures.Pair
-import jetbrains.exodus.core.dataStructures.hash.LongHashMap
+import jetbrains.exodus.core.dataStructures.hash.LongFlatHashMap
+import jetbrains.exodus.core.dataStructures.hash.LongLongFlatHashMap
 import jetbrains.exodus.core.dataStructures.hash.PackedLongHashSet
 import jetbrains.exodus.core.execution.Job
 import jetbrains.exodus.env.EnvironmentConfig
@@ -38,7 +39,7 @@ class UtilizationProfile(private val env: EnvironmentImpl, private val gc: Garba
     private val log: Log = env.log
     private val usefulFileSize = (log.fileLengthBound / log.cachePageSize) *
             (log.cachePageSize - BufferedDataWriter.HASH_CODE_SIZE) // file size which could be used by loggables
-    private val filesUtilization = LongHashMap<MutableLong>() // file address -> number of free bytes
+    private val filesUtilization = LongFlatHashMap<MutableLong>() // file address -> number of free bytes
     private var totalBytes: Long = 0
     private var totalFreeBytes: Long = 0
 
@@ -78,7 +79,7 @@ class UtilizationProfile(private val env: EnvironmentImpl, private val gc: Garba
                             computeUtilizationFromScratch()
                         }
                     } else {
-                        val filesUtilization = LongHashMap<MutableLong>()
+                        val filesUtilization = LongFlatHashMap<MutableLong>()
                         val store = env.openStore(
                             GarbageCollector.UTILIZATION_PROFILE_STORE_NAME,
                             StoreConfig.WITHOUT_DUPLICATES,
@@ -271,13 +272,13 @@ class UtilizationProfile(private val env: EnvironmentImpl, private val gc: Garba
      */
     fun loadUtilizationFromFile(path: String) {
         gc.cleaner.getJobProcessor().queueAt(GcJob(gc) {
-            val usedSpace = LongHashMap<Long>()
+            val usedSpace = LongLongFlatHashMap()
             try {
                 Scanner(File(path)).use { scanner ->
                     while (scanner.hasNextLong()) {
                         val address = scanner.nextLong()
                         val usedBytes = scanner.nextLong()
-                        usedSpace[address] = usedBytes
+                        usedSpace.put(address, usedBytes)
                     }
                 }
             } catch (t: Throwable) {
@@ -308,11 +309,12 @@ class UtilizationProfile(private val env: EnvironmentImpl, private val gc: Garba
         }
     }
 
-    internal fun setUtilization(usedSpace: LongHashMap<Long>) = filesUtilization.synchronized {
-        for ((fileAddress, usedBytes) in usedSpace) {
+    internal fun setUtilization(usedSpace: LongLongFlatHashMap): Unit = filesUtilization.synchronized {
+        usedSpace.forEachKeyValue { fileAddress, usedBytes ->
             (this[fileAddress] ?: MutableLong(0L).also {
                 this[fileAddress] = it
             }).value += max((usefulFileSize - usedBytes), 0L)
+            true
         }
     }
 
@@ -321,7 +323,7 @@ class UtilizationProfile(private val env: EnvironmentImpl, private val gc: Garba
 
     /**
      * Is used instead of [Long] for saving free bytes per file in  order to update the value in-place, so
-     * reducing number of lookups in the [LongHashMap][.filesUtilization].
+     * reducing number of lookups in the [LongFlatHashMap][.filesUtilization].
      */
     private class MutableLong constructor(var value: Long) {
 
@@ -23,6 +23,7 @@ import mu.KLogging
 import java.io.File
 import java.io.IOException
 import java.io.RandomAccessFile
+import java.util.concurrent.ConcurrentHashMap
 
 class FileDataReader(val dir: File) : DataReader, KLogging() {
 
@@ -31,6 +32,13 @@ class FileDataReader(val dir: File) : DataReader, KLogging() {
     private var useNio = false
     private var log: Log? = null
 
+    /**
+     * Indexes of immutable files by file address, the index is null for an uncompressed file. A file can be
+     * replaced by its compressed version at any moment, so the index is valid only for the file handle it was
+     * read from. Handles of immutable files are cached, so the index is read once per handle.
+     */
+    private val compressedIndexes = ConcurrentHashMap<Long, CompressedIndex>()
+
     internal var usedWithWatcher = false
 
     override fun getBlocks(): Iterable<Block> {
@@ -47,6 +55,7 @@ class FileDataReader(val dir: File) : DataReader, KLogging() {
 
 
     override fun close() {
+        compressedIndexes.clear()
         try {
             SharedOpenFilesCache.getInstance().removeDirectory(dir)
             if (useNio) {
@@ -73,11 +82,51 @@ class FileDataReader(val dir: File) : DataReader, KLogging() {
     private fun toBlocks(files: LongArrayList) =
             files.toArray().asSequence().map { address -> FileBlock(address, this) }.asIterable()
 
+    /**
+     * Forgets the index of the file which is deleted.
+     */
+    fun removeCompressedIndex(address: Long) {
+        compressedIndexes.remove(address)
+    }
+
+    private fun getCompressedIndex(address: Long, file: RandomAccessFile): CompressedLogFile.Index? {
+        val cached = compressedIndexes[address]
+        if (cached != null && cached.file === file) {
+            return cached.index
+        }
+        val index = CompressedLogFile.readIndex(file)
+        compressedIndexes[address] = CompressedIndex(file, index)
+        return index
+    }
+
     class FileBlock(private val address: Long, private val reader: FileDataReader) :
             File(reader.dir, LogUtil.getLogFilename(address)), Block {
 
+        /**
+         * Length of the immutable file, it doesn't change if the file is compressed.
+         */
+        @Volatile
+        private var immutableLength = -1L
+
         override fun getAddress() = address
 
+        /**
+         * Length of the file, for a compressed file it's the length of uncompressed data.
+         */
+        override fun length(): Long {
+            val log = reader.log ?: return CompressedLogFile.getLength(this)
+            if (!log.isImmutableFile(address)) {
+                // the file being written is never compressed, it can also be truncated on rollback
+                immutableLength = -1L
+                return super.length()
+            }
+            val cached = immutableLength
+            if (cached >= 0) {
+                return cached
+            }
+            return CompressedLogFile.getLength(this).also { immutableLength = it }
+        }
+
         override fun read(output: ByteArray, position: Long, offset: Int, count: Int): Int {
             try {
                 val log = reader.log
@@ -85,6 +134,14 @@ class FileDataReader(val dir: File) : DataReader, KLogging() {
                 val filesCache = SharedOpenFilesCache.getInstance()
                 val file = if (immutable && !reader.usedWithWatcher) filesCache.getCachedFile(this) else filesCache.openFile(this)
                 file.use { f ->
+                    // only complete files are compressed
+                    if (immutable || log == null) {
+                        val index = reader.getCompressedIndex(address, f)
+                        if (index != null) {
+                            return CompressedLogFile.read(f, index, output, position, offset, count)
+                        }
+                    }
+
                     if (reader.useNio &&
                             /* only read-only (immutable) files can be mapped */ immutable) {
                         try {
@@ -127,4 +184,6 @@ class FileDataReader(val dir: File) : DataReader, KLogging() {
 
         override fun refresh() = this
     }
+
+    private class CompressedIndex(val file: RandomAccessFile, val index: CompressedLogFile.Index?)
 }
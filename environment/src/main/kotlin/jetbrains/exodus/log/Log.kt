@@ -351,6 +351,8 @@ class Log(val config: LogConfig, expectedEnvironmentVersion: Int) : Closeable, C
                         tmpLeftovers = true
                     }
                 }
+                // files left by interrupted compression are never part of the log
+                CompressedLogFile.deleteTmpFiles(File(location))
             }
 
             var blockSetMutable = BlockSet.Immutable(fileLength).beginWrite()
@@ -1145,7 +1147,9 @@ class Log(val config: LogConfig, expectedEnvironmentVersion: Int) : Closeable, C
         endBlock: File,
         position: Long,
         lastPage: ByteArray?
-    ) {
+    ) = synchronized(CompressedLogFile.getDirectoryLock(endBlock.parentFile)) {
+        CompressedLogFile.decompress(endBlock)
+
         val endBlockBackupPath =
             Path.of(location).resolve(
                 endBlock.name.substring(
@@ -1530,6 +1534,11 @@ class Log(val config: LogConfig, expectedEnvironmentVersion: Int) : Closeable, C
             }
         }
 
+        if (config.isCompression) {
+            // let files queued for compression be compressed before the writer is closed
+            writer.finishCompression()
+        }
+
         writer.close(!rwIsReadonly)
         reader.close()
 
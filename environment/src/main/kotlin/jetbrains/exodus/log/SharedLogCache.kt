@@ -160,6 +160,19 @@ class SharedLogCache : LogCache {
         pagesCache.removeLocked(key)
     }
 
+    /**
+     * Removes cached pages of the data provider in the range of addresses [startAddress, startAddress + length),
+     * e.g. pages of a deleted file, so they don't occupy the cache until they are evicted.
+     */
+    fun removePages(cacheDataProvider: CacheDataProvider, startAddress: Long, length: Long) {
+        val endAddress = startAddress + length
+        var pageAddress = startAddress - startAddress % pageSize
+        while (pageAddress < endAddress) {
+            removePage(cacheDataProvider, pageAddress)
+            pageAddress += pageSize
+        }
+    }
+
     private fun cachePage(key: Long, logIdentity: Int, address: Long, page: ByteArray) {
         pagesCache.cacheObjectLocked(key, CachedValue(logIdentity, address, page))
     }
@@ -24,6 +24,7 @@ import jetbrains.exodus.log.*
 import jetbrains.exodus.tree.*
 import jetbrains.exodus.tree.ExpiredLoggableCollection.EMPTY
 import java.util.*
+import java.util.function.Predicate
 
 internal class PatriciaTreeMutable(
         log: Log,
@@ -265,6 +266,18 @@ internal class PatriciaTreeMutable(
     override fun reclaim(
             loggable: RandomAccessLoggable,
             loggables: Iterator<RandomAccessLoggable>
+    ) = reclaimImpl(loggable, loggables, null)
+
+    override fun reclaim(
+            loggable: RandomAccessLoggable,
+            loggables: Iterator<RandomAccessLoggable>,
+            isValueExpired: Predicate<ByteIterable>
+    ) = reclaimImpl(loggable, loggables, isValueExpired)
+
+    private fun reclaimImpl(
+            loggable: RandomAccessLoggable,
+            loggables: Iterator<RandomAccessLoggable>,
+            isValueExpired: Predicate<ByteIterable>?
     ): Boolean {
         var l = loggable
         var minAddress = l.address
@@ -303,9 +316,16 @@ internal class PatriciaTreeMutable(
             }
             minAddress = treeStartAddress
         }
-        val actual = PatriciaReclaimActualTraverser(this)
+        val actual = PatriciaReclaimActualTraverser(this, isValueExpired)
         reclaim(PatriciaReclaimSourceTraverser(sourceTree, sourceRoot, minAddress), actual)
-        return actual.wasReclaim || sourceRoot.address == root.sourceAddress
+        var result = actual.wasReclaim || sourceRoot.address == root.sourceAddress
+        // reclaimed nodes with expired values are mutable now, deleting them prevents the values from being saved
+        actual.expiredKeys.forEach { key ->
+            if (delete(key)) {
+                result = true
+            }
+        }
+        return result
     }
 
     override fun getRoot() = root
@@ -490,6 +510,7 @@ internal class PatriciaTreeMutable(
                 source: PatriciaReclaimSourceTraverser,
                 actual: PatriciaReclaimActualTraverser
         ) {
+            actual.collectKeyIfValueExpired()
             actual.currentNode = actual.currentNode.getMutableCopy(actual.mainTree)
             actual.getItr()
             actual.wasReclaim = true
@@ -501,6 +522,7 @@ internal class PatriciaTreeMutable(
                     val suffixAddress = actualChild.suffixAddress
                     if (source.isAddressReclaimable(suffixAddress)) {
                         actual.moveDown()
+                        actual.collectKeyIfValueExpired()
                         actual.currentNode = actual.currentNode.getMutableCopy(actual.mainTree)
                         actual.getItr()
                         actual.wasReclaim = true
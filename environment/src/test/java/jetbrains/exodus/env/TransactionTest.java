@@ -17,6 +17,7 @@ package jetbrains.exodus.env;
 
 import jetbrains.exodus.*;
 import jetbrains.exodus.bindings.IntegerBinding;
+import jetbrains.exodus.bindings.LongBinding;
 import jetbrains.exodus.bindings.StringBinding;
 import jetbrains.exodus.core.execution.LatchJob;
 import jetbrains.exodus.log.LogConfig;
@@ -243,6 +244,128 @@ public class TransactionTest extends EnvironmentTestsBase {
         txn.abort();
     }
 
+    @Test
+    public void testRebase() {
+        final EnvironmentImpl env = getEnvironment();
+        env.getEnvironmentConfig().setEnvTxnRebase(true);
+        final ByteIterable key = StringBinding.stringToEntry("key");
+        Transaction txn = env.beginTransaction();
+        final Store store1 = env.openStore("store1", StoreConfig.WITHOUT_DUPLICATES, txn);
+        final Store store2 = env.openStore("store2", StoreConfig.WITHOUT_DUPLICATES, txn);
+        txn.commit();
+        txn = env.beginTransaction();
+        store1.put(txn, key, StringBinding.stringToEntry("value1"));
+        executeParallelTransaction(txn1 -> store2.put(txn1, key, StringBinding.stringToEntry("value2")));
+        Assert.assertTrue(txn.flush());
+        txn.abort();
+        assertNotNullStringValue(store1, key, "value1");
+        assertNotNullStringValue(store2, key, "value2");
+        Assert.assertEquals(1L, env.getStatistics().getStatisticsItem(EnvironmentStatistics.Type.REBASED_TRANSACTIONS).getTotal());
+        Assert.assertEquals(0L, env.getStatistics().getStatisticsItem(EnvironmentStatistics.Type.REPLAYED_TRANSACTIONS).getTotal());
+    }
+
+    @Test
+    public void testMerge() {
+        final EnvironmentImpl env = getEnvironment();
+        env.setMergeOperator("counters", MergeOperator.LONG_SUM);
+        final ByteIterable key = StringBinding.stringToEntry("key");
+        Transaction txn = env.beginTransaction();
+        final Store counters = env.openStore("counters", StoreConfig.WITHOUT_DUPLICATES, txn);
+        txn.commit();
+        txn = env.beginTransaction();
+        counters.merge(txn, key, LongBinding.longToEntry(1L));
+        counters.merge(txn, key, LongBinding.longToEntry(2L));
+        // concurrent merge to the same key doesn't make the txn to be replayed
+        executeParallelTransaction(txn1 -> counters.merge(txn1, key, LongBinding.longToEntry(10L)));
+        Assert.assertTrue(txn.flush());
+        txn.abort();
+        env.executeInReadonlyTransaction(txn1 -> Assert.assertEquals(13L, LongBinding.entryToLong(counters.get(txn1, key))));
+        Assert.assertEquals(0L, env.getStatistics().getStatisticsItem(EnvironmentStatistics.Type.REPLAYED_TRANSACTIONS).getTotal());
+        // the txn read the value before merging
+        txn = env.beginTransaction();
+        Assert.assertNotNull(counters.get(txn, key));
+        counters.merge(txn, key, LongBinding.longToEntry(1L));
+        executeParallelTransaction(txn1 -> counters.merge(txn1, key, LongBinding.longToEntry(10L)));
+        Assert.assertFalse(txn.flush());
+        txn.abort();
+        env.executeInReadonlyTransaction(txn1 -> Assert.assertEquals(23L, LongBinding.entryToLong(counters.get(txn1, key))));
+    }
+
+    @Test
+    public void testRebaseConflict() {
+        final EnvironmentImpl env = getEnvironment();
+        env.getEnvironmentConfig().setEnvTxnRebase(true);
+        final ByteIterable key1 = StringBinding.stringToEntry("key1");
+        final ByteIterable key2 = StringBinding.stringToEntry("key2");
+        Transaction txn = env.beginTransaction();
+        final Store store1 = env.openStore("store1", StoreConfig.WITHOUT_DUPLICATES, txn);
+        final Store store2 = env.openStore("store2", StoreConfig.WITHOUT_DUPLICATES, txn);
+        txn.commit();
+        // concurrent write to the store modified by the txn
+        txn = env.beginTransaction();
+        store1.put(txn, key1, StringBinding.stringToEntry("value1"));
+        executeParallelTransaction(txn1 -> store1.put(txn1, key2, StringBinding.stringToEntry("value2")));
+        Assert.assertFalse(txn.flush());
+        txn.revert();
+        // concurrent write to the store read by the txn
+        Assert.assertNull(store2.get(txn, key1));
+        store1.put(txn, key1, StringBinding.stringToEntry("value1"));
+        executeParallelTransaction(txn1 -> store2.put(txn1, key1, StringBinding.stringToEntry("value2")));
+        Assert.assertFalse(txn.flush());
+        txn.abort();
+        assertEmptyValue(store1, key1);
+        Assert.assertEquals(0L, env.getStatistics().getStatisticsItem(EnvironmentStatistics.Type.REBASED_TRANSACTIONS).getTotal());
+        Assert.assertEquals(2L, env.getStatistics().getStatisticsItem(EnvironmentStatistics.Type.REPLAYED_TRANSACTIONS).getTotal());
+    }
+
+    @Test
+    public void testWriteBuffer() {
+        final EnvironmentImpl env = getEnvironment();
+        env.getEnvironmentConfig().setEnvTxnWriteBuffer(true);
+        final ByteIterable key1 = StringBinding.stringToEntry("key1");
+        final ByteIterable key2 = StringBinding.stringToEntry("key2");
+        final ByteIterable key3 = StringBinding.stringToEntry("key3");
+        Transaction txn = env.beginTransaction();
+        final Store store = env.openStore("store", StoreConfig.WITHOUT_DUPLICATES, txn);
+        store.put(txn, key1, StringBinding.stringToEntry("value1"));
+        txn.commit();
+        txn = env.beginTransaction();
+        Assert.assertTrue(store.put(txn, key3, StringBinding.stringToEntry("value3")));
+        Assert.assertFalse(store.put(txn, key3, StringBinding.stringToEntry("value3")));
+        Assert.assertTrue(store.add(txn, key2, StringBinding.stringToEntry("value2")));
+        Assert.assertFalse(store.add(txn, key1, StringBinding.stringToEntry("value2")));
+        Assert.assertTrue(store.delete(txn, key1));
+        Assert.assertFalse(store.delete(txn, key1));
+        // buffered writes are visible to the transaction only
+        Assert.assertNotNull(((ReadWriteTransaction) txn).findWriteBuffer((StoreImpl) store));
+        Assert.assertNull(store.get(txn, key1));
+        Assert.assertEquals("value2", StringBinding.entryToString(store.get(txn, key2)));
+        Assert.assertTrue(store.exists(txn, key3, StringBinding.stringToEntry("value3")));
+        final Transaction readonlyTxn = env.beginReadonlyTransaction();
+        assertNotNullStringValue(readonlyTxn, store, key1, "value1");
+        assertEmptyValue(readonlyTxn, store, key2);
+        readonlyTxn.abort();
+        // cursors see buffered writes
+        try (Cursor cursor = store.openCursor(txn)) {
+            Assert.assertTrue(cursor.getNext());
+            Assert.assertEquals("key2", StringBinding.entryToString(cursor.getKey()));
+            Assert.assertTrue(cursor.getNext());
+            Assert.assertEquals("key3", StringBinding.entryToString(cursor.getKey()));
+            Assert.assertFalse(cursor.getNext());
+        }
+        Assert.assertEquals(2L, store.count(txn));
+        Assert.assertTrue(store.delete(txn, key2));
+        txn.revert();
+        Assert.assertTrue(((ReadWriteTransaction) txn).isIdempotent());
+        Assert.assertEquals("value1", StringBinding.entryToString(store.get(txn, key1)));
+        store.put(txn, key2, StringBinding.stringToEntry("value2"));
+        store.delete(txn, key1);
+        Assert.assertFalse(((ReadWriteTransaction) txn).isIdempotent());
+        Assert.assertTrue(txn.commit());
+        assertEmptyValue(store, key1);
+        assertNotNullStringValue(store, key2, "value2");
+    }
+
     @Test(expected = ReadonlyTransactionException.class)
     public void testExecuteInReadonlyTransaction() {
         final EnvironmentImpl env = getEnvironment();
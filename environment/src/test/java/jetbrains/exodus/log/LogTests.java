@@ -21,11 +21,15 @@ import jetbrains.exodus.ExodusException;
 import jetbrains.exodus.TestUtil;
 import jetbrains.exodus.core.dataStructures.LongArrayList;
 import jetbrains.exodus.core.dataStructures.hash.LongHashMap;
+import jetbrains.exodus.io.CompressedLogFile;
 import jetbrains.exodus.tree.ExpiredLoggableCollection;
+import jetbrains.exodus.util.DeferredIO;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Iterator;
 
 import static java.lang.Integer.valueOf;
@@ -346,6 +350,72 @@ public class LogTests extends LogTestsBase {
         Assert.assertEquals(count, i);
     }
 
+    @Test
+    public void testCompression() throws IOException {
+        initLog(new LogConfig().setFileSize(4).setCachePageSize(1024).setCompression(true));
+        final int count = 50000;
+        final LongArrayList addrs = new LongArrayList();
+        log.beginWrite();
+        for (int i = 0; i < count; ++i) {
+            addrs.add(writeData(CompressedUnsignedLongByteIterable.getIterable(i)));
+        }
+        log.flush();
+        log.endWrite();
+        // complete files are compressed in background
+        DeferredIO.getJobProcessor().waitForJobs(100);
+        final long[] fileAddresses = getLog().getAllFileAddresses();
+        Assert.assertTrue(fileAddresses.length > 1);
+        final long lastFileAddress = getLog().getHighFileAddress();
+        for (final long fileAddress : fileAddresses) {
+            final File file = new File(getLogDirectory(), LogUtil.getLogFilename(fileAddress));
+            if (fileAddress == lastFileAddress) {
+                Assert.assertEquals(file.length(), CompressedLogFile.getLength(file));
+            } else {
+                Assert.assertEquals(getLog().getFileLengthBound(), CompressedLogFile.getLength(file));
+                Assert.assertTrue(file.length() < getLog().getFileLengthBound());
+            }
+        }
+        for (int i = 0; i < count; ++i) {
+            Assert.assertEquals(i, (int) CompressedUnsignedLongByteIterable.getLong(getLog().read(addrs.get(i)).getData()));
+        }
+        closeLog();
+
+        // compressed files are readable with compression turned off
+        Assert.assertTrue(CompressedLogFile.decompress(new File(getLogDirectory(), LogUtil.getLogFilename(fileAddresses[0]))));
+        // temporary file left by interrupted compression is deleted on opening the log
+        final File tmpFile = new File(getLogDirectory(), "00000000000.xdz");
+        Assert.assertTrue(tmpFile.createNewFile());
+        initLog(4, 1024);
+        Assert.assertFalse(tmpFile.exists());
+        for (int i = 0; i < count; ++i) {
+            Assert.assertEquals(i, (int) CompressedUnsignedLongByteIterable.getLong(getLog().read(addrs.get(i)).getData()));
+        }
+    }
+
+    @Test
+    public void testCompressionFinishedOnClose() {
+        initLog(new LogConfig().setFileSize(4).setCachePageSize(1024).setCompression(true));
+        log.beginWrite();
+        for (int i = 0; i < 50000; ++i) {
+            writeData(CompressedUnsignedLongByteIterable.getIterable(i));
+        }
+        log.flush();
+        log.endWrite();
+        final long[] fileAddresses = getLog().getAllFileAddresses();
+        Assert.assertTrue(fileAddresses.length > 1);
+        final long lastFileAddress = getLog().getHighFileAddress();
+        final long fileLengthBound = getLog().getFileLengthBound();
+        // files queued for compression by the log are compressed on close without waiting for the job processor
+        closeLog();
+        for (final long fileAddress : fileAddresses) {
+            if (fileAddress != lastFileAddress) {
+                final File file = new File(getLogDirectory(), LogUtil.getLogFilename(fileAddress));
+                Assert.assertEquals(fileLengthBound, CompressedLogFile.getLength(file));
+                Assert.assertTrue(file.length() < fileLengthBound);
+            }
+        }
+    }
+
     private long writeData(ByteIterable iterable) {
         var expired = ExpiredLoggableCollection.newInstance(log);
         return getLog().write((byte) 126, Loggable.NO_STRUCTURE_ID, iterable, expired);
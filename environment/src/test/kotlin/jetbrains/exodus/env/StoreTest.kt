@@ -24,6 +24,7 @@ import jetbrains.exodus.core.dataStructures.hash.LongHashSet
 import jetbrains.exodus.core.execution.Job
 import jetbrains.exodus.core.execution.JobProcessorExceptionHandler
 import jetbrains.exodus.core.execution.MultiThreadDelegatingJobProcessor
+import jetbrains.exodus.tree.btree.BTreeBase
 import org.junit.Assert.*
 import org.junit.Test
 import java.io.File
@@ -119,6 +120,132 @@ class StoreTest : EnvironmentTestsBase() {
         assertNotNullStringValues(store, "value", "value2")
     }
 
+    @Test
+    fun testGetAll() {
+        getAll(StoreConfig.WITHOUT_DUPLICATES)
+    }
+
+    @Test
+    fun testGetAllWithPrefixing() {
+        getAll(StoreConfig.WITHOUT_DUPLICATES_WITH_PREFIXING)
+    }
+
+    @Test
+    fun testGetAllWithDuplicates() {
+        getAll(StoreConfig.WITH_DUPLICATES)
+    }
+
+    @Test
+    fun testGetAllWithDuplicatesWithPrefixing() {
+        getAll(StoreConfig.WITH_DUPLICATES_WITH_PREFIXING)
+    }
+
+    @Test
+    fun testCursorReaders() {
+        cursorReaders(StoreConfig.WITHOUT_DUPLICATES)
+    }
+
+    @Test
+    fun testCursorReadersWithPrefixing() {
+        cursorReaders(StoreConfig.WITHOUT_DUPLICATES_WITH_PREFIXING)
+    }
+
+    @Test
+    fun testCursorReadersWithDuplicates() {
+        cursorReaders(StoreConfig.WITH_DUPLICATES)
+    }
+
+    @Test
+    fun testCursorReadersWithDuplicatesWithPrefixing() {
+        cursorReaders(StoreConfig.WITH_DUPLICATES_WITH_PREFIXING)
+    }
+
+    @Test
+    fun testSpliterator() {
+        spliterator(StoreConfig.WITHOUT_DUPLICATES)
+    }
+
+    @Test
+    fun testSpliteratorWithPrefixing() {
+        spliterator(StoreConfig.WITHOUT_DUPLICATES_WITH_PREFIXING)
+    }
+
+    @Test
+    fun testSpliteratorWithDuplicates() {
+        spliterator(StoreConfig.WITH_DUPLICATES)
+    }
+
+    @Test
+    fun testSpliteratorWithDuplicatesWithPrefixing() {
+        spliterator(StoreConfig.WITH_DUPLICATES_WITH_PREFIXING)
+    }
+
+    @Test
+    fun testEstimateCount() {
+        estimateCount(StoreConfig.WITHOUT_DUPLICATES)
+    }
+
+    @Test
+    fun testEstimateCountWithPrefixing() {
+        estimateCount(StoreConfig.WITHOUT_DUPLICATES_WITH_PREFIXING)
+    }
+
+    @Test
+    fun testEstimateCountWithDuplicates() {
+        estimateCount(StoreConfig.WITH_DUPLICATES)
+    }
+
+    @Test
+    fun testEstimateCountWithDuplicatesWithPrefixing() {
+        estimateCount(StoreConfig.WITH_DUPLICATES_WITH_PREFIXING)
+    }
+
+    @Test
+    fun testExpiration() {
+        expiration(StoreConfig.WITHOUT_DUPLICATES_WITH_EXPIRATION)
+    }
+
+    @Test
+    fun testExpirationWithPrefixing() {
+        expiration(StoreConfig.WITHOUT_DUPLICATES_WITH_PREFIXING_WITH_EXPIRATION)
+    }
+
+    @Test
+    fun testIngest() {
+        ingest(StoreConfig.WITHOUT_DUPLICATES)
+    }
+
+    @Test
+    fun testIngestWithExpiration() {
+        ingest(StoreConfig.WITHOUT_DUPLICATES_WITH_EXPIRATION)
+    }
+
+    @Test
+    fun testIngestWithPrefixing() {
+        ingestNotSupported(StoreConfig.WITHOUT_DUPLICATES_WITH_PREFIXING)
+    }
+
+    @Test
+    fun testIngestWithDuplicates() {
+        ingestNotSupported(StoreConfig.WITH_DUPLICATES)
+    }
+
+    @Test
+    fun testKeyPrefixCompression() {
+        keyPrefixCompression(StoreConfig.WITHOUT_DUPLICATES)
+    }
+
+    @Test
+    fun testKeyPrefixCompressionWithDuplicates() {
+        keyPrefixCompression(StoreConfig.WITH_DUPLICATES)
+    }
+
+    @Test
+    fun testKeyPrefixCompressionSmallFiles() {
+        set2KbFileWithoutGC()
+        keyPrefixCompression(StoreConfig.WITHOUT_DUPLICATES)
+    }
+
     @TestFor(issue = "XD-705")
     @Test
     fun testCloseCursorTwice() {
@@ -464,6 +591,340 @@ class StoreTest : EnvironmentTestsBase() {
         assertNotNullStringValue(store, key, "value2")
     }
 
+    private fun getAll(config: StoreConfig) {
+        val store = openStoreAutoCommit("store", config)
+        env.executeInTransaction { txn ->
+            for (i in 0 until 10000 step 2) {
+                store.put(txn, IntegerBinding.intToEntry(i), IntegerBinding.intToEntry(i))
+                if (config.duplicates) {
+                    store.put(txn, IntegerBinding.intToEntry(i), IntegerBinding.intToEntry(i + 1))
+                }
+            }
+        }
+        val rnd = Random(239)
+        val keys = IntArray(3000) { rnd.nextInt(10001) }
+        val checkGetAll = { txn: Transaction ->
+            val values = store.getAll(txn, Array(keys.size) { IntegerBinding.intToEntry(keys[it]) })
+            assertEquals(keys.size, values.size)
+            keys.forEachIndexed { i, key ->
+                val value = values[i]
+                if (key % 2 == 0) {
+                    assertNotNull(value)
+                    assertEquals(key, IntegerBinding.entryToInt(value!!))
+                } else {
+                    assertNull(value)
+                }
+            }
+        }
+        env.executeInReadonlyTransaction { checkGetAll(it) }
+        env.executeInTransaction { txn ->
+            // mutable tree
+            store.put(txn, IntegerBinding.intToEntry(10002), IntegerBinding.intToEntry(10002))
+            checkGetAll(txn)
+            assertEquals(0, store.getAll(txn, arrayOf()).size)
+        }
+        keys.sort()
+        env.executeInReadonlyTransaction { checkGetAll(it) }
+    }
+
+    private fun cursorReaders(config: StoreConfig) {
+        val store = openStoreAutoCommit("store", config)
+        env.executeInTransaction { txn ->
+            for (i in 0 until 1000) {
+                store.put(txn, LongBinding.longToEntry(i.toLong()), IntegerBinding.intToCompressedEntry(i))
+            }
+        }
+        val checkReaders = { txn: Transaction ->
+            store.openCursor(txn).use { cursor ->
+                val view = ByteArrayView()
+                val buffer = ByteArray(16)
+                val byteBuffer = java.nio.ByteBuffer.allocate(16)
+                var i = 0
+                while (cursor.next) {
+                    assertEquals(i.toLong(), cursor.keyAsLong)
+                    assertEquals(i, cursor.valueAsCompressedInt)
+                    assertEquals(i.toLong(), cursor.valueAsCompressedLong)
+                    assertEquals(0, cursor.key.compareTo(cursor.getKey(view).toByteIterable()))
+                    assertEquals(0, cursor.value.compareTo(cursor.getValue(view).toByteIterable()))
+                    assertEquals(Long.SIZE_BYTES, cursor.getKeyInto(buffer, 1))
+                    assertEquals(i.toLong(), LongBinding.entryToLong(buffer, 1))
+                    val valueLength = cursor.value.length
+                    assertEquals(valueLength, cursor.getValueInto(buffer, buffer.size - 1))
+                    assertEquals(cursor.value.byteAt(0), buffer[buffer.size - 1])
+                    byteBuffer.clear()
+                    assertEquals(valueLength, cursor.getValueInto(byteBuffer))
+                    assertEquals(valueLength, byteBuffer.position())
+                    ++i
+                }
+                assertEquals(1000, i)
+                assertNotNull(cursor.getSearchKey(LongBinding.longToEntry(777L)))
+                assertEquals(777L, cursor.keyAsLong)
+                assertEquals(777L, LongBinding.entryToLong(cursor.getKey(view).toByteIterable()))
+            }
+        }
+        env.executeInReadonlyTransaction { checkReaders(it) }
+        env.executeInTransaction { txn ->
+            // mutable tree
+            store.put(txn, LongBinding.longToEntry(1000L), IntegerBinding.intToCompressedEntry(1000))
+            store.delete(txn, LongBinding.longToEntry(1000L))
+            checkReaders(txn)
+        }
+    }
+
+    private fun spliterator(config: StoreConfig) {
+        val store = openStoreAutoCommit("store", config)
+        val count = 20000
+        env.executeInTransaction { txn ->
+            for (i in 0 until count) {
+                store.put(txn, IntegerBinding.intToEntry(i), IntegerBinding.intToEntry(i))
+                if (config.duplicates) {
+                    store.put(txn, IntegerBinding.intToEntry(i), IntegerBinding.intToEntry(i + count))
+                }
+            }
+        }
+        val pairCount = if (config.duplicates) count * 2 else count
+        val checkScans = { txn: Transaction ->
+            val keys = java.util.stream.StreamSupport.stream(store.spliterator(txn), true)
+                .mapToInt { IntegerBinding.entryToInt(it.key) }.toArray()
+            assertEquals(pairCount, keys.size)
+            for (i in 1 until keys.size) {
+                assertTrue(keys[i - 1] <= keys[i])
+            }
+            val scanned = java.util.concurrent.atomic.AtomicLong()
+            val valueSum = java.util.concurrent.atomic.AtomicLong()
+            store.parallelScan(txn, 4) { _, value ->
+                scanned.incrementAndGet()
+                valueSum.addAndGet(IntegerBinding.entryToInt(value).toLong())
+            }
+            assertEquals(pairCount.toLong(), scanned.get())
+            assertEquals((0 until pairCount).sumOf { it.toLong() }, valueSum.get())
+        }
+        env.executeInReadonlyTransaction { txn ->
+            if (!config.duplicates || !config.prefixing) {
+                assertNotNull((store as StoreImpl).spliterator(txn, 8).trySplit())
+            }
+            checkScans(txn)
+        }
+        env.executeInTransaction { txn ->
+            // mutable tree can't be split
+            store.put(txn, IntegerBinding.intToEntry(count), IntegerBinding.intToEntry(pairCount))
+            store.delete(txn, IntegerBinding.intToEntry(count))
+            assertNull((store as StoreImpl).spliterator(txn, 8).trySplit())
+            checkScans(txn)
+        }
+    }
+
+    private fun estimateCount(config: StoreConfig) {
+        val store = openStoreAutoCommit("store", config)
+        env.executeInReadonlyTransaction { txn ->
+            assertEquals(0L, store.estimateCount(txn, null, null))
+            assertEquals(0L, store.estimateSize(txn, null, null))
+        }
+        val count = 10000
+        env.executeInTransaction { txn ->
+            for (i in 0 until count) {
+                store.put(txn, IntegerBinding.intToEntry(i), LongBinding.longToEntry(i.toLong()))
+            }
+        }
+        val checkEstimates = { txn: Transaction ->
+            assertEquals(count.toLong(), store.estimateCount(txn, null, null))
+            assertEquals(count * (Int.SIZE_BYTES + Long.SIZE_BYTES).toLong(), store.estimateSize(txn, null, null))
+            val from = IntegerBinding.intToEntry(count / 4)
+            val to = IntegerBinding.intToEntry(count * 3 / 4)
+            val estimate = store.estimateCount(txn, from, to)
+            assertTrue("Estimate: $estimate", abs(estimate - count / 2) <= count / 20)
+            assertEquals(estimate * (Int.SIZE_BYTES + Long.SIZE_BYTES), store.estimateSize(txn, from, to))
+            assertEquals(0L, store.estimateCount(txn, to, from))
+            assertEquals(0L, store.estimateCount(txn, from, from))
+            assertEquals(0L, store.estimateSize(txn, IntegerBinding.intToEntry(count), null))
+        }
+        env.executeInReadonlyTransaction { checkEstimates(it) }
+        env.executeInTransaction { txn ->
+            // mutable tree
+            store.put(txn, IntegerBinding.intToEntry(count), LongBinding.longToEntry(count.toLong()))
+            store.delete(txn, IntegerBinding.intToEntry(count))
+            checkEstimates(txn)
+        }
+    }
+
+    private fun expiration(config: StoreConfig) {
+        val store = openStoreAutoCommit("store", config)
+        val expired = System.currentTimeMillis() - 1
+        env.executeInTransaction { txn ->
+            for (i in 0 until 100) {
+                val entry = IntegerBinding.intToEntry(i)
+                store.put(txn, entry, entry, if (i % 2 == 0) expired else Long.MAX_VALUE)
+            }
+        }
+        env.executeInReadonlyTransaction { txn ->
+            for (i in 0 until 100) {
+                val value = store.get(txn, IntegerBinding.intToEntry(i))
+                if (i % 2 == 0) {
+                    assertNull(value)
+                } else {
+                    assertEquals(i, IntegerBinding.entryToInt(value!!))
+                }
+            }
+            assertFalse(store.exists(txn, IntegerBinding.intToEntry(0), IntegerBinding.intToEntry(0)))
+            assertTrue(store.exists(txn, IntegerBinding.intToEntry(1), IntegerBinding.intToEntry(1)))
+            store.openCursor(txn).use { cursor ->
+                var i = 1
+                while (cursor.next) {
+                    assertEquals(i, IntegerBinding.entryToInt(cursor.key))
+                    assertEquals(i, IntegerBinding.entryToInt(cursor.value))
+                    i += 2
+                }
+                assertEquals(101, i)
+                assertTrue(cursor.last)
+                assertEquals(99, IntegerBinding.entryToInt(cursor.value))
+                assertNull(cursor.getSearchKey(IntegerBinding.intToEntry(0)))
+                assertEquals(1, IntegerBinding.entryToInt(cursor.getSearchKeyRange(IntegerBinding.intToEntry(0))!!))
+            }
+        }
+        env.executeInTransaction { txn ->
+            // expired value doesn't prevent adding, but isn't reported as deleted
+            assertTrue(store.add(txn, IntegerBinding.intToEntry(0), IntegerBinding.intToEntry(0)))
+            assertFalse(store.add(txn, IntegerBinding.intToEntry(1), IntegerBinding.intToEntry(1)))
+            assertFalse(store.delete(txn, IntegerBinding.intToEntry(2)))
+            assertTrue(store.delete(txn, IntegerBinding.intToEntry(3)))
+            assertEquals(0, IntegerBinding.entryToInt(store.get(txn, IntegerBinding.intToEntry(0))!!))
+            assertNull(store.get(txn, IntegerBinding.intToEntry(3)))
+        }
+        env.setStoreTimeToLive("store", 1)
+        assertEquals(1L, env.getStoreTimeToLive("store"))
+        env.executeInTransaction { txn ->
+            store.put(txn, IntegerBinding.intToEntry(100), IntegerBinding.intToEntry(100))
+        }
+        Thread.sleep(10)
+        env.executeInReadonlyTransaction { txn ->
+            assertNull(store.get(txn, IntegerBinding.intToEntry(100)))
+        }
+        env.setStoreTimeToLive("store", 0)
+        assertEquals(0L, env.getStoreTimeToLive("store"))
+        try {
+            openStoreAutoCommit("store", StoreConfig.getStoreConfig(false, config.prefixing))
+            fail("Exception on open store with different expiration is not thrown!")
+        } catch (ex: ExodusException) {
+            // ignore
+        }
+    }
+
+    private fun keyPrefixCompression(config: StoreConfig) {
+        env.environmentConfig.treeKeyPrefixCompression = true
+        val count = 1000
+        val store = openStoreAutoCommit("store", config)
+        assertTrue((store as StoreImpl).metaInfo.hasKeyPrefixCompression())
+        env.executeInTransaction { txn ->
+            for (i in 0 until count) {
+                store.put(txn, prefixedKey(i), IntegerBinding.intToEntry(i))
+            }
+        }
+        var prefixedLeaves = 0
+        env.log.getLoggableIterator(0).forEach { loggable ->
+            if (loggable.type == BTreeBase.LEAF_PREFIXED) {
+                ++prefixedLeaves
+            }
+        }
+        assertTrue(prefixedLeaves > 0)
+        env.executeInTransaction { txn ->
+            for (i in 0 until count step 3) {
+                assertTrue(store.delete(txn, prefixedKey(i)))
+            }
+        }
+        reopenEnvironment()
+        val reopenedStore = openStoreAutoCommit("store", StoreConfig.USE_EXISTING)
+        assertTrue((reopenedStore as StoreImpl).metaInfo.hasKeyPrefixCompression())
+        checkPrefixedKeys(reopenedStore, count)
+        env.gc.cleanEntireLog()
+        checkPrefixedKeys(reopenedStore, count)
+    }
+
+    private fun checkPrefixedKeys(store: Store, count: Int) {
+        env.executeInReadonlyTransaction { txn ->
+            assertEquals((count - (count + 2) / 3).toLong(), store.count(txn))
+            store.openCursor(txn).use { cursor ->
+                for (i in 0 until count) {
+                    if (i % 3 == 0) {
+                        assertNull(store.get(txn, prefixedKey(i)))
+                        continue
+                    }
+                    assertEquals(i, IntegerBinding.entryToInt(store.get(txn, prefixedKey(i))!!))
+                    assertTrue(cursor.next)
+                    assertEquals(prefixedKey(i), cursor.key)
+                    assertEquals(i, IntegerBinding.entryToInt(cursor.value))
+                }
+                assertFalse(cursor.next)
+            }
+            store.openCursor(txn).use { cursor ->
+                // search keys shorter than the shared prefix and keys between the stored ones
+                assertNotNull(cursor.getSearchKeyRange(StringBinding.stringToEntry("common")))
+                assertEquals(prefixedKey(1), cursor.key)
+                assertNotNull(cursor.getSearchKeyRange(StringBinding.stringToEntry("common/key/prefix/00001")))
+                assertEquals(prefixedKey(10), cursor.key)
+                assertNull(cursor.getSearchKey(StringBinding.stringToEntry("common/key/prefix/00001")))
+                assertNull(cursor.getSearchKeyRange(StringBinding.stringToEntry("common/key/prefix/1")))
+            }
+        }
+    }
+
+    private fun prefixedKey(i: Int) = StringBinding.stringToEntry("common/key/prefix/" + String.format("%06d", i))
+
+    private fun ingest(config: StoreConfig) {
+        val file = File.createTempFile("StoreFile", null, TestUtil.createTempDir())
+        // enough pairs for several levels of internal pages
+        val count = 100000
+        try {
+            StoreFileWriter(file, config).use { writer ->
+                for (i in 0 until count) {
+                    writer.add(IntegerBinding.intToEntry(i), IntegerBinding.intToEntry(i))
+                }
+                try {
+                    writer.add(IntegerBinding.intToEntry(0), IntegerBinding.intToEntry(0))
+                    fail("Exception on adding unsorted pair is not thrown!")
+                } catch (ex: ExodusException) {
+                    // ignore
+                }
+            }
+            env.ingest("store", file)
+            val store = openStoreAutoCommit("store", StoreConfig.USE_EXISTING)
+            assertEquals(config, store.config)
+            env.executeInReadonlyTransaction { txn ->
+                assertEquals(count.toLong(), store.count(txn))
+                store.openCursor(txn).use { cursor ->
+                    for (i in 0 until count) {
+                        assertTrue(cursor.next)
+                        assertEquals(i, IntegerBinding.entryToInt(cursor.key))
+                        assertEquals(i, IntegerBinding.entryToInt(cursor.value))
+                    }
+                    assertFalse(cursor.next)
+                }
+                for (i in 0 until count step 997) {
+                    assertEquals(i, IntegerBinding.entryToInt(store.get(txn, IntegerBinding.intToEntry(i))!!))
+                }
+            }
+            try {
+                env.ingest("store", file)
+                fail("Exception on ingesting to non-empty store is not thrown!")
+            } catch (ex: ExodusException) {
+                // ignore
+            }
+        } finally {
+            file.delete()
+        }
+    }
+
+    private fun ingestNotSupported(config: StoreConfig) {
+        val file = File.createTempFile("StoreFile", null, TestUtil.createTempDir())
+        try {
+            StoreFileWriter(file, config).close()
+            fail("Exception on writing store file with unsupported config is not thrown!")
+        } catch (ex: IllegalArgumentException) {
+            // ignore
+        } finally {
+            file.delete()
+        }
+    }
+
     private fun successivePutRightWithoutDuplicates(config: StoreConfig) {
         val env = environment
         val txn = env.beginTransaction()
@@ -336,6 +336,42 @@ open class GarbageCollectorTest : EnvironmentTestsBase() {
         Assert.assertTrue(env.log.numberOfFiles <= 3L)
     }
 
+    @Test
+    fun expiredValuesAreNotCopied() {
+        set1KbFileWithoutGC()
+        val config = StoreConfig.getStoreConfig(false, getStoreConfig(false).prefixing, true)
+        val store = openStoreAutoCommit("expiration", config)
+        val expired = System.currentTimeMillis() - 1
+        env.executeInTransaction { txn ->
+            for (i in 0..999) {
+                val entry = IntegerBinding.intToEntry(i)
+                store.put(txn, entry, entry, if (i % 2 == 0) expired else Long.MAX_VALUE)
+            }
+        }
+        // make sure all values of the store are in files which will be cleaned
+        val filler = openStoreAutoCommit("filler")
+        env.executeInTransaction { txn ->
+            for (i in 0..199) {
+                filler.put(txn, IntegerBinding.intToEntry(i), IntegerBinding.intToEntry(i))
+            }
+        }
+        Assert.assertTrue(env.log.numberOfFiles > 1)
+
+        env.gc.cleanEntireLog()
+
+        env.executeInReadonlyTransaction { txn ->
+            Assert.assertEquals(500L, store.count(txn))
+            for (i in 0..999) {
+                val value = store.get(txn, IntegerBinding.intToEntry(i))
+                if (i % 2 == 0) {
+                    Assert.assertNull(value)
+                } else {
+                    Assert.assertEquals(i, IntegerBinding.entryToInt(value!!))
+                }
+            }
+        }
+    }
+
     protected fun openStoreAutoCommit(name: String): StoreImpl {
         return openStoreAutoCommit(name, getStoreConfig(false)) as StoreImpl
     }
@@ -18,6 +18,8 @@ package jetbrains.exodus.lucene2;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.ExodusException;
+import jetbrains.exodus.backup.BackupStrategy;
+import jetbrains.exodus.backup.Backupable;
 import jetbrains.exodus.bindings.LongBinding;
 import jetbrains.exodus.bindings.StringBinding;
 import jetbrains.exodus.crypto.StreamCipher;
@@ -26,6 +28,8 @@ import jetbrains.exodus.env.Environment;
 import jetbrains.exodus.env.EnvironmentImpl;
 import jetbrains.exodus.env.Store;
 import jetbrains.exodus.env.StoreConfig;
+import jetbrains.exodus.env.TransactionalComputable;
+import jetbrains.exodus.env.TransactionalExecutable;
 import jetbrains.exodus.io.SharedOpenFilesCache;
 import jetbrains.exodus.log.CacheDataProvider;
 import jetbrains.exodus.log.Log;
@@ -42,15 +46,19 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 
-public class XodusDirectory extends Directory implements CacheDataProvider {
+public class XodusDirectory extends Directory implements CacheDataProvider, Backupable {
     private static final Logger logger = LoggerFactory.getLogger(XodusDirectory.class);
     private static final VarHandle SHORT_VAR_HANDLE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
     private static final VarHandle INT_VAR_HANDLE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
@@ -59,6 +67,28 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
 
     private static final String NAME_TO_ADDRESS_STORE_NAME = "xodus.lucene.v2.nameToAddressStore";
 
+    /**
+     * Number of pages read at once by inputs opened for merges or for reading once. Such inputs read
+     * sequentially, so their pages are read ahead and bypass {@linkplain SharedLogCache}.
+     */
+    static final int READ_AHEAD_PAGES = 16;
+
+    /**
+     * Size of each of two buffers of {@linkplain AsyncBufferedOutputStream}.
+     */
+    static final int ASYNC_BUFFER_SIZE = 128 * 1024;
+
+    /**
+     * Pool encrypting and writing full buffers of index outputs, shared by all directories.
+     */
+    private static volatile ExecutorService writerPool;
+
+    /**
+     * Pool syncing files, shared by all directories. It is separate from {@linkplain #writerPool}, so that
+     * a long fsync doesn't delay buffers of index outputs queued behind it and vice versa.
+     */
+    private static volatile ExecutorService syncPool;
+
     private static final AtomicLong ticks = new AtomicLong(System.nanoTime());
 
     private final SharedLogCache sharedLogCache;
@@ -92,7 +122,30 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
 
     private final Random ivRnd = new Random();
 
+    private final boolean useMmap;
+
+    /**
+     * Transactions which add or remove names of files hold the read lock. Backup holds the write lock while it
+     * fixes the state of the environment and collects live files, so that the files match the backed up names.
+     */
+    private final ReentrantReadWriteLock backupLock = new ReentrantReadWriteLock();
+
+    /**
+     * Index files referenced by running backups mapped to the number of such backups, guarded by {@code this}.
+     * Deletion of referenced files is postponed until all backups referencing them are finished.
+     */
+    private final HashMap<Path, Integer> backupReferences = new HashMap<>();
+
     public XodusDirectory(Environment environment) throws IOException {
+        this(environment, false);
+    }
+
+    /**
+     * @param environment environment with shared log cache
+     * @param useMmap     if {@code true} and the environment is not encrypted, then index files are read from
+     *                    memory mapped buffers bypassing {@linkplain SharedLogCache}
+     */
+    public XodusDirectory(Environment environment, boolean useMmap) throws IOException {
         this.environment = (EnvironmentImpl) environment;
         var log = this.environment.getLog();
         var logConfig = log.getConfig();
@@ -113,6 +166,7 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
 
         this.cipherProvider = logConfig.getCipherProvider();
         this.cipherKey = logConfig.getCipherKey();
+        this.useMmap = useMmap && cipherKey == null;
 
         this.identity = Log.Companion.getIdentityGenerator().nextId();
 
@@ -355,7 +409,7 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
         ensureOpen();
         maybeDeletePendingFiles();
 
-        var exist = environment.computeInTransaction(txn -> {
+        var exist = computeInNameStoreTransaction(txn -> {
             var key = StringBinding.stringToEntry(name);
             var value = nameToAddressStore.get(txn, key);
 
@@ -394,7 +448,9 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
     public void sync(Collection<String> names) {
         ensureOpen();
 
-        environment.executeInReadonlyTransaction(txn -> {
+        var paths = environment.computeInReadonlyTransaction(txn -> {
+            var result = new ArrayList<Path>();
+
             try (var cursor = nameToAddressStore.openCursor(txn)) {
                 for (var fileName : names) {
                     var key = StringBinding.stringToEntry(fileName);
@@ -408,21 +464,12 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
 
                     if (address >= 0) {
                         var indexName = DirUtil.getFileNameByAddress(address);
-                        try {
-                            IOUtils.fsync(luceneIndex.resolve(indexName), false);
-                        } catch (IOException e) {
-                            throw new ExodusException("Error during syncing of file " + fileName, e);
-                        }
+                        result.add(luceneIndex.resolve(indexName));
 
                         if (cipherKey != null) {
-                            var ivFileName = DirUtil.getIvFileName(indexName);
-                            try {
-                                var ivFilePath = luceneIndex.resolve(ivFileName);
-                                if (Files.exists(ivFilePath)) {
-                                    IOUtils.fsync(ivFilePath, false);
-                                }
-                            } catch (IOException e) {
-                                throw new ExodusException("Error during syncing of file " + ivFileName, e);
+                            var ivFilePath = luceneIndex.resolve(DirUtil.getIvFileName(indexName));
+                            if (Files.exists(ivFilePath)) {
+                                result.add(ivFilePath);
                             }
                         }
                     } else {
@@ -430,8 +477,34 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
                     }
                 }
             }
+
+            return result;
         });
 
+        // files are synced in parallel outside of the transaction, so the sync doesn't delay writers
+        var syncs = new CompletableFuture<?>[paths.size()];
+        for (int i = 0; i < syncs.length; i++) {
+            var filePath = paths.get(i);
+            syncs[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    IOUtils.fsync(filePath, false);
+                } catch (IOException e) {
+                    throw new ExodusException("Error during syncing of file " + filePath, e);
+                }
+            }, getSyncPool());
+        }
+
+        try {
+            CompletableFuture.allOf(syncs).join();
+        } catch (CompletionException e) {
+            var cause = e.getCause();
+            if (cause instanceof ExodusException) {
+                throw (ExodusException) cause;
+            }
+
+            throw new ExodusException("Error during syncing of files " + names, cause);
+        }
+
         maybeDeletePendingFiles();
     }
 
@@ -451,7 +524,7 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
 
         maybeDeletePendingFiles();
 
-        environment.executeInTransaction(txn -> {
+        executeInNameStoreTransaction(txn -> {
             var fromKey = StringBinding.stringToEntry(source);
             var value = nameToAddressStore.get(txn, fromKey);
 
@@ -489,7 +562,7 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
     public void deleteFile(String name) throws IOException {
         ensureOpen();
 
-        var addr = environment.computeInTransaction(txn -> {
+        var addr = computeInNameStoreTransaction(txn -> {
             var key = StringBinding.stringToEntry(name);
             var byteAddr = nameToAddressStore.get(txn, key);
 
@@ -557,12 +630,19 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
                 return null;
             }
 
+            if (backupReferences.containsKey(path)) {
+                // the file is being backed up, it is deleted after the backup is finished
+                return path;
+            }
+
             try {
                 if (cache != null) {
                     cache.removeFile(path.toFile());
                 }
 
+                var fileSize = Files.exists(path) ? Files.size(path) : 0;
                 Files.deleteIfExists(path);
+                removeCachedPages(path, fileSize);
 
                 if (cipherKey != null) {
                     var ivPath = luceneIndex.resolve(DirUtil.getIvFileName(path.getFileName().toString()));
@@ -580,6 +660,107 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
     }
 
 
+    /**
+     * Eagerly removes pages of the deleted file from {@linkplain SharedLogCache}, so they don't occupy the cache
+     * until they are evicted by pages of live files.
+     */
+    private void removeCachedPages(Path path, long fileSize) {
+        var fileAddress = DirUtil.getFileAddress(path.getFileName().toString());
+        sharedLogCache.removePages(this, fileAddress, fileSize);
+    }
+
+    private <T> T computeInNameStoreTransaction(TransactionalComputable<T> computable) {
+        var lock = backupLock.readLock();
+        lock.lock();
+        try {
+            return environment.computeInTransaction(computable);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void executeInNameStoreTransaction(TransactionalExecutable executable) {
+        var lock = backupLock.readLock();
+        lock.lock();
+        try {
+            environment.executeInTransaction(executable);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @NotNull
+    @Override
+    public BackupStrategy getBackupStrategy() {
+        return new XodusDirectoryBackupStrategy(this, environment.getBackupStrategy());
+    }
+
+    /**
+     * Prepares the environment for backup and references index files which are live in the backed up
+     * state of the environment. Referenced files are not deleted until {@linkplain #afterBackup(List)} is called.
+     *
+     * @return referenced index files and their iv files
+     */
+    List<Path> beforeBackup(BackupStrategy environmentStrategy) throws Exception {
+        var lock = backupLock.writeLock();
+        lock.lock();
+        try {
+            environmentStrategy.beforeBackup();
+            try {
+                var files = environment.computeInReadonlyTransaction(txn -> {
+                    var result = new ArrayList<Path>();
+
+                    try (var cursor = nameToAddressStore.openCursor(txn)) {
+                        while (cursor.getNext()) {
+                            var address = LongBinding.entryToLong(cursor.getValue());
+
+                            if (address >= 0) {
+                                var indexName = DirUtil.getFileNameByAddress(address);
+                                result.add(luceneIndex.resolve(indexName));
+
+                                if (cipherKey != null) {
+                                    var ivFilePath = luceneIndex.resolve(DirUtil.getIvFileName(indexName));
+                                    if (Files.exists(ivFilePath)) {
+                                        result.add(ivFilePath);
+                                    }
+                                }
+                            }
+                        }
+                    }
+
+                    return result;
+                });
+
+                synchronized (this) {
+                    for (var file : files) {
+                        backupReferences.merge(file, 1, Integer::sum);
+                    }
+                }
+
+                return files;
+            } catch (Throwable t) {
+                environmentStrategy.afterBackup();
+                throw t;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases index files referenced by {@linkplain #beforeBackup(BackupStrategy)} and deletes the ones
+     * which were deleted during backup.
+     */
+    void afterBackup(List<Path> files) {
+        synchronized (this) {
+            for (var file : files) {
+                backupReferences.computeIfPresent(file, (path, count) -> count == 1 ? null : count - 1);
+            }
+        }
+
+        deletePendingFiles();
+    }
+
     @Override
     public int getIdentity() {
         return identity;
@@ -602,19 +783,47 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
             throw new ExodusException("Can not access file " + fileName, e);
         }
 
+        decryptPage(page, 0, dataRead);
+
+        return page;
+    }
+
+    private void decryptPage(byte[] page, int offset, int dataRead) {
         if (cipherKey != null) {
             assert dataRead > Long.BYTES;
 
             var cipher = cipherProvider.newCipher();
-            var iv = (long) LONG_VAR_HANDLE.get(page, 0);
+            var iv = (long) LONG_VAR_HANDLE.get(page, offset);
 
             cipher.init(cipherKey, iv);
-            for (int i = Long.BYTES; i < dataRead; i++) {
-                page[i] = cipher.crypt(page[i]);
-            }
+            cipher.crypt(page, offset + Long.BYTES, dataRead - Long.BYTES, page, offset + Long.BYTES);
         }
+    }
 
-        return page;
+    /**
+     * Reads several pages of the file at once bypassing {@linkplain SharedLogCache}.
+     *
+     * @return number of bytes read
+     */
+    private int readPages(long pageAddress, long fileAddress, byte[] pages) {
+        var filesCache = SharedOpenFilesCache.getInstance();
+        var fileName = DirUtil.getFileNameByAddress(fileAddress);
+        var pageOffset = pageAddress - fileAddress;
+
+        var filePath = luceneIndex.resolve(fileName);
+
+        int dataRead;
+        try (var file = filesCache.getCachedFile(filePath.toFile())) {
+            dataRead = DirUtil.readFully(file, pageOffset, pages);
+        } catch (IOException e) {
+            throw new ExodusException("Can not access file " + fileName, e);
+        }
+
+        for (int offset = 0; offset < dataRead; offset += pageSize) {
+            decryptPage(pages, offset, Math.min(pageSize, dataRead - offset));
+        }
+
+        return dataRead;
     }
 
     @Override
@@ -627,14 +836,22 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
         var indexFilePath = luceneIndex.resolve(indexFileName);
         var fileSize = Files.size(indexFilePath);
 
+        if (useMmap && fileSize <= Integer.MAX_VALUE) {
+            try (var channel = FileChannel.open(indexFilePath, StandardOpenOption.READ)) {
+                return new MappedIndexInput("MappedIndexInput(path=\"" + indexFilePath + "\")",
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize));
+            }
+        }
+
+        var readAhead = context.readOnce || context.context == IOContext.Context.MERGE;
         if (cipherKey != null) {
             return new XodusIndexInput("XodusIndexInput(path=\"" + indexFilePath + "\")", fileAddress,
-                    Long.BYTES, fileSize);
+                    Long.BYTES, fileSize, readAhead);
 
         }
 
         return new XodusIndexInput("XodusIndexInput(path=\"" + indexFilePath + "\")", fileAddress,
-                0, fileSize);
+                0, fileSize, readAhead);
     }
 
     float hitRate() {
@@ -682,18 +899,7 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
 
         XodusIndexOutput(String fileName, String indexName, boolean storeivFile, OutputStream stream) {
             super("XodusIndexOutput(path=\"" + luceneOutputPath.resolve(fileName) + "\")", fileName,
-                    new FilterOutputStream(stream) {
-                        // This implementation ensures, that we never write more than CHUNK_SIZE bytes:
-                        @Override
-                        public void write(byte @NotNull [] b, int offset, int length) throws IOException {
-                            while (length > 0) {
-                                final int chunk = Math.min(length, CHUNK_SIZE);
-                                out.write(b, offset, chunk);
-                                length -= chunk;
-                                offset += chunk;
-                            }
-                        }
-                    }, CHUNK_SIZE);
+                    new AsyncBufferedOutputStream(stream), CHUNK_SIZE);
 
             filePath = luceneOutputPath.resolve(fileName);
             this.storeivFile = storeivFile;
@@ -738,7 +944,7 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
                     }
                 }
 
-                environment.executeInTransaction(txn -> {
+                executeInNameStoreTransaction(txn -> {
                     var key = StringBinding.stringToEntry(indexName);
                     var value = LongBinding.longToEntry(fileAddress);
 
@@ -750,6 +956,175 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
         }
     }
 
+    /**
+     * Double-buffered stream. Full buffers are passed to the underlying stream by {@linkplain #writerPool}
+     * in the order they are filled, so encryption and I/O of one buffer overlap with filling of the other one.
+     * Buffers which are not full are written on close by the calling thread.
+     */
+    static final class AsyncBufferedOutputStream extends OutputStream {
+        private final OutputStream out;
+
+        private final byte[][] buffers = new byte[2][];
+
+        private int current;
+
+        private int count;
+
+        private CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+
+        AsyncBufferedOutputStream(final @NotNull OutputStream out) {
+            this.out = out;
+            buffers[0] = new byte[ASYNC_BUFFER_SIZE];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == ASYNC_BUFFER_SIZE) {
+                flushBuffer();
+            }
+
+            buffers[current][count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte @NotNull [] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == ASYNC_BUFFER_SIZE) {
+                    flushBuffer();
+                }
+
+                final int chunk = Math.min(len, ASYNC_BUFFER_SIZE - count);
+                System.arraycopy(b, off, buffers[current], count, chunk);
+
+                count += chunk;
+                off += chunk;
+                len -= chunk;
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            final byte[] buffer = buffers[current];
+            final int length = count;
+            final CompletableFuture<Void> previous = inFlight;
+
+            inFlight = previous.thenRunAsync(() -> {
+                try {
+                    writeChunked(buffer, length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, getWriterPool());
+
+            // the other buffer can be reused once the previous write is completed
+            await(previous);
+
+            current ^= 1;
+            if (buffers[current] == null) {
+                buffers[current] = new byte[ASYNC_BUFFER_SIZE];
+            }
+            count = 0;
+        }
+
+        /**
+         * Writes the buffer by chunks of at most {@linkplain XodusIndexOutput#CHUNK_SIZE} bytes.
+         */
+        private void writeChunked(final byte[] buffer, final int length) throws IOException {
+            int offset = 0;
+            while (offset < length) {
+                final int chunk = Math.min(length - offset, XodusIndexOutput.CHUNK_SIZE);
+                out.write(buffer, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            await(inFlight);
+
+            writeChunked(buffers[current], count);
+            count = 0;
+
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                out.close();
+            }
+        }
+
+        private static void await(final CompletableFuture<Void> future) throws IOException {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    private static ExecutorService getWriterPool() {
+        var result = writerPool;
+        if (result == null) {
+            synchronized (XodusDirectory.class) {
+                result = writerPool;
+                if (result == null) {
+                    result = writerPool = Executors.newFixedThreadPool(
+                            Runtime.getRuntime().availableProcessors(),
+                            new DaemonThreadFactory("Xodus Lucene directory writer thread #"));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static ExecutorService getSyncPool() {
+        var result = syncPool;
+        if (result == null) {
+            synchronized (XodusDirectory.class) {
+                result = syncPool;
+                if (result == null) {
+                    result = syncPool = Executors.newFixedThreadPool(
+                            Runtime.getRuntime().availableProcessors(),
+                            new DaemonThreadFactory("Xodus Lucene directory sync thread #"));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final String namePrefix;
+        private final AtomicLong idGen = new AtomicLong();
+
+        private DaemonThreadFactory(final String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(@NotNull Runnable r) {
+            var thread = new Thread(r);
+            thread.setName(namePrefix + idGen.getAndIncrement());
+            thread.setUncaughtExceptionHandler((t, e) -> logger.error("Uncaught exception in thread" + t, e));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     private static final class StreamCipherOutputStream extends FilterOutputStream {
         private final byte[] cipherKey;
         private final StreamCipher cipher;
@@ -819,35 +1194,26 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
         }
 
         public void write(byte @NotNull [] b, int off, int len) throws IOException {
-            b = Arrays.copyOfRange(b, off, off + len);
-
-            if (position - ivPosition == pageSize) {
-                ivPosition = position;
-                generateAndStoreCipher();
-            }
-
-            int offset = -1;
-            for (int i = 0; i < b.length; i++) {
-                b[i] = cipher.crypt(b[i]);
-                position++;
-
-                if (position - ivPosition == pageSize && i < b.length - 1) {
-                    out.write(b, offset + 1, i - offset);
+            final byte[] encrypted = new byte[len];
 
+            int written = 0;
+            while (written < len) {
+                if (position - ivPosition == pageSize) {
                     ivPosition = position;
                     generateAndStoreCipher();
-
-                    offset = i;
                 }
-            }
 
-            if (offset < b.length - 1) {
-                out.write(b, offset + 1, b.length - (offset + 1));
+                final int chunk = (int) Math.min(len - written, pageSize - (position - ivPosition));
+                cipher.crypt(b, off + written, chunk, encrypted, written);
+                out.write(encrypted, written, chunk);
+
+                position += chunk;
+                written += chunk;
             }
         }
     }
 
-    final class XodusIndexInput extends IndexInput {
+    final class XodusIndexInput extends IndexInput implements RandomAccessInput {
 
         private final long fileAddress;
         private long position;
@@ -856,17 +1222,31 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
 
         private final long end;
 
+        private final long length;
+
         private byte[] page;
         private long pageAddress = -1;
 
+        /**
+         * If {@code true} then pages are read by {@linkplain #READ_AHEAD_PAGES} at once to the private buffer
+         * instead of {@linkplain SharedLogCache}.
+         */
+        private final boolean readAhead;
+        private byte[] readAheadBuffer;
+        private long readAheadAddress = -1;
+        private int readAheadLength;
+
 
-        private XodusIndexInput(String resourceDescription, long fileAddress, long position, long end) {
+        private XodusIndexInput(String resourceDescription, long fileAddress, long position, long end,
+                                boolean readAhead) {
             super(resourceDescription);
 
             this.fileAddress = fileAddress;
             this.end = end;
             this.basePosition = position;
             this.position = position;
+            this.length = subtractWithIvSpace(position, end);
+            this.readAhead = readAhead;
         }
 
         @Override
@@ -928,12 +1308,53 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
 
         private void readPageIfNeeded(long pageAddress) {
             if (this.page == null || this.pageAddress != pageAddress) {
-                this.page = sharedLogCache.getPage(XodusDirectory.this, pageAddress, fileAddress
-                );
+                if (readAhead) {
+                    this.page = readAheadPage(pageAddress);
+                } else {
+                    this.page = sharedLogCache.getPage(XodusDirectory.this, pageAddress, fileAddress
+                    );
+                }
                 this.pageAddress = pageAddress;
             }
         }
 
+        private byte[] readAheadPage(long pageAddress) {
+            if (readAheadBuffer == null) {
+                readAheadBuffer = new byte[READ_AHEAD_PAGES * pageSize];
+            }
+
+            if (pageAddress < readAheadAddress || pageAddress >= readAheadAddress + readAheadLength) {
+                readAheadLength = readPages(pageAddress, fileAddress, readAheadBuffer);
+                readAheadAddress = pageAddress;
+            }
+
+            // page can't be shared with clones, so it's copied out of the read-ahead buffer
+            var page = this.page;
+            if (page == null) {
+                page = new byte[pageSize];
+            }
+
+            var offset = (int) (pageAddress - readAheadAddress);
+            System.arraycopy(readAheadBuffer, offset, page, 0, Math.min(pageSize, readAheadLength - offset));
+
+            return page;
+        }
+
+        @Override
+        public XodusIndexInput clone() {
+            var clone = (XodusIndexInput) super.clone();
+
+            if (readAhead) {
+                clone.page = null;
+                clone.pageAddress = -1;
+                clone.readAheadBuffer = null;
+                clone.readAheadAddress = -1;
+                clone.readAheadLength = 0;
+            }
+
+            return clone;
+        }
+
         @Override
         public void close() {
             //nothing
@@ -989,7 +1410,7 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
 
         @Override
         public long length() {
-            return subtractWithIvSpace(basePosition, end);
+            return length;
         }
 
         @Override
@@ -1003,7 +1424,71 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
             var end = correctEndPosition(addWithIvSpace(start, length));
 
             return new XodusIndexInput(sliceDescription, fileAddress, start,
-                    end);
+                    end, readAhead);
+        }
+
+        @Override
+        public byte readByte(long pos) throws IOException {
+            var position = toPosition(pos, Byte.BYTES);
+            var pageOffset = (int) position & (pageSize - 1);
+
+            readPageIfNeeded(fileAddress + position - pageOffset);
+
+            return page[pageOffset];
+        }
+
+        @Override
+        public short readShort(long pos) throws IOException {
+            var position = toPosition(pos, Short.BYTES);
+            var pageOffset = (int) position & (pageSize - 1);
+
+            if (pageOffset + Short.BYTES <= pageSize) {
+                readPageIfNeeded(fileAddress + position - pageOffset);
+
+                return (short) SHORT_VAR_HANDLE.get(page, pageOffset);
+            }
+
+            return (short) (((readByte(pos) & 0xFF) << 8) | (readByte(pos + 1) & 0xFF));
+        }
+
+        @Override
+        public int readInt(long pos) throws IOException {
+            var position = toPosition(pos, Integer.BYTES);
+            var pageOffset = (int) position & (pageSize - 1);
+
+            if (pageOffset + Integer.BYTES <= pageSize) {
+                readPageIfNeeded(fileAddress + position - pageOffset);
+
+                return (int) INT_VAR_HANDLE.get(page, pageOffset);
+            }
+
+            return ((readShort(pos) & 0xFFFF) << 16) | (readShort(pos + Short.BYTES) & 0xFFFF);
+        }
+
+        @Override
+        public long readLong(long pos) throws IOException {
+            var position = toPosition(pos, Long.BYTES);
+            var pageOffset = (int) position & (pageSize - 1);
+
+            if (pageOffset + Long.BYTES <= pageSize) {
+                readPageIfNeeded(fileAddress + position - pageOffset);
+
+                return (long) LONG_VAR_HANDLE.get(page, pageOffset);
+            }
+
+            return ((long) readInt(pos) << 32) | (readInt(pos + Integer.BYTES) & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Converts position relative to the start of the input to the position in the file.
+         */
+        private long toPosition(long pos, int bytes) throws EOFException {
+            if (pos < 0 || pos > length - bytes) {
+                throw new EOFException("Read past EOF. Position: " + pos + ", requested bytes : " + bytes +
+                        ", length : " + length);
+            }
+
+            return addWithIvSpace(basePosition, pos);
         }
 
         @Override
@@ -1287,6 +1772,168 @@ public class XodusDirectory extends Directory implements CacheDataProvider {
         }
     }
 
+    /**
+     * Input of an unencrypted file mapped to memory. Mapped buffers are not unmapped explicitly,
+     * they are released once all inputs of the file are collected.
+     */
+    private static final class MappedIndexInput extends IndexInput implements RandomAccessInput {
+
+        private ByteBuffer buffer;
+
+        private MappedIndexInput(String resourceDescription, ByteBuffer buffer) {
+            super(resourceDescription);
+
+            this.buffer = buffer;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            try {
+                return buffer.get();
+            } catch (BufferUnderflowException e) {
+                throw new EOFException("Read past EOF. Position: " + buffer.position() + ".");
+            }
+        }
+
+        @Override
+        public void readBytes(byte[] b, int offset, int len) throws IOException {
+            try {
+                buffer.get(b, offset, len);
+            } catch (BufferUnderflowException e) {
+                throw new EOFException("Read past EOF. Position: " + buffer.position() +
+                        ", requested bytes : " + len);
+            }
+        }
+
+        @Override
+        public short readShort() throws IOException {
+            try {
+                return buffer.getShort();
+            } catch (BufferUnderflowException e) {
+                return super.readShort();
+            }
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            try {
+                return buffer.getInt();
+            } catch (BufferUnderflowException e) {
+                return super.readInt();
+            }
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            try {
+                return buffer.getLong();
+            } catch (BufferUnderflowException e) {
+                return super.readLong();
+            }
+        }
+
+        @Override
+        public void readLELongs(long[] dst, int offset, int length) throws IOException {
+            FutureObjects.checkFromIndexSize(offset, length, dst.length);
+
+            if (buffer.remaining() < length * Long.BYTES) {
+                throw new EOFException("Read past EOF. Position: " + buffer.position() +
+                        ", requested bytes : " + length * Long.BYTES);
+            }
+
+            for (int i = offset; i < offset + length; i++) {
+                dst[i] = Long.reverseBytes(buffer.getLong());
+            }
+        }
+
+        @Override
+        public byte readByte(long pos) throws IOException {
+            try {
+                return buffer.get(toIndex(pos));
+            } catch (IndexOutOfBoundsException e) {
+                throw new EOFException("Read past EOF. Position: " + pos + ".");
+            }
+        }
+
+        @Override
+        public short readShort(long pos) throws IOException {
+            try {
+                return buffer.getShort(toIndex(pos));
+            } catch (IndexOutOfBoundsException e) {
+                throw new EOFException("Read past EOF. Position: " + pos + ".");
+            }
+        }
+
+        @Override
+        public int readInt(long pos) throws IOException {
+            try {
+                return buffer.getInt(toIndex(pos));
+            } catch (IndexOutOfBoundsException e) {
+                throw new EOFException("Read past EOF. Position: " + pos + ".");
+            }
+        }
+
+        @Override
+        public long readLong(long pos) throws IOException {
+            try {
+                return buffer.getLong(toIndex(pos));
+            } catch (IndexOutOfBoundsException e) {
+                throw new EOFException("Read past EOF. Position: " + pos + ".");
+            }
+        }
+
+        private static int toIndex(long pos) {
+            if (pos < 0 || pos > Integer.MAX_VALUE) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            return (int) pos;
+        }
+
+        @Override
+        public long getFilePointer() {
+            return buffer.position();
+        }
+
+        @Override
+        public void seek(long pos) throws IOException {
+            if (pos < 0 || pos > buffer.limit()) {
+                throw new EOFException("Position past the file size was requested. Position : "
+                        + pos + ", file size : " + buffer.limit());
+            }
+
+            buffer.position((int) pos);
+        }
+
+        @Override
+        public long length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public IndexInput slice(String sliceDescription, long offset, long length) {
+            if (offset < 0 || length < 0 || offset + length > this.length()) {
+                throw new IllegalArgumentException("slice() " + sliceDescription +
+                        " out of bounds: offset=" + offset + ",length=" + length + ",fileLength=" + this.length() + ": " + this);
+            }
+
+            return new MappedIndexInput(sliceDescription, buffer.slice((int) offset, (int) length));
+        }
+
+        @Override
+        public MappedIndexInput clone() {
+            var clone = (MappedIndexInput) super.clone();
+            clone.buffer = buffer.duplicate();
+
+            return clone;
+        }
+
+        @Override
+        public void close() {
+            //nothing
+        }
+    }
+
     @Override
     protected void ensureOpen() throws AlreadyClosedException {
         if (!environment.isOpen()) {
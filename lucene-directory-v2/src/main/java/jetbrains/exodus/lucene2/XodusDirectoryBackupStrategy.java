@@ -0,0 +1,117 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.lucene2;
+
+import jetbrains.exodus.backup.BackupStrategy;
+import jetbrains.exodus.backup.VirtualFileDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Backs up the environment of {@linkplain XodusDirectory} together with index files which are live in the
+ * backed up state of the environment. Index files deleted during backup are kept until the backup is finished,
+ * files created during backup are not put into it.
+ */
+final class XodusDirectoryBackupStrategy extends BackupStrategy {
+
+    @NotNull
+    private final XodusDirectory directory;
+    @NotNull
+    private final BackupStrategy environmentBackupStrategy;
+
+    private List<Path> indexFiles = Collections.emptyList();
+
+    XodusDirectoryBackupStrategy(@NotNull final XodusDirectory directory,
+                                 @NotNull final BackupStrategy environmentBackupStrategy) {
+        this.directory = directory;
+        this.environmentBackupStrategy = environmentBackupStrategy;
+    }
+
+    @Override
+    public void beforeBackup() throws Exception {
+        indexFiles = directory.beforeBackup(environmentBackupStrategy);
+    }
+
+    @Override
+    public Iterable<VirtualFileDescriptor> getContents() {
+        return () -> new Iterator<>() {
+
+            private final Iterator<VirtualFileDescriptor> environmentFiles =
+                    environmentBackupStrategy.getContents().iterator();
+            private final Iterator<Path> luceneFiles = indexFiles.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return environmentFiles.hasNext() || luceneFiles.hasNext();
+            }
+
+            @Override
+            public VirtualFileDescriptor next() {
+                if (environmentFiles.hasNext()) {
+                    return environmentFiles.next();
+                }
+                if (!luceneFiles.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                final File file = luceneFiles.next().toFile();
+                // index files are encrypted page by page in their own format, so they are never re-encrypted
+                return new FileDescriptor(file, file.getParentFile().getName() + File.separator, file.length(), false);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public void afterBackup() throws Exception {
+        try {
+            directory.afterBackup(indexFiles);
+            indexFiles = Collections.emptyList();
+        } finally {
+            environmentBackupStrategy.afterBackup();
+        }
+    }
+
+    @Override
+    public boolean isInterrupted() {
+        return environmentBackupStrategy.isInterrupted();
+    }
+
+    @Override
+    public boolean isEncrypted() {
+        return environmentBackupStrategy.isEncrypted();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        environmentBackupStrategy.onError(t);
+    }
+
+    @Override
+    public long acceptFile(@NotNull final VirtualFileDescriptor file) {
+        return file.getPath().isEmpty() ? environmentBackupStrategy.acceptFile(file) : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.lucene2;
+
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakFilters;
+import jetbrains.exodus.ExodusException;
+import jetbrains.exodus.env.EnvironmentConfig;
+import jetbrains.exodus.env.Environments;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.LuceneTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+@ThreadLeakFilters(filters = XodusThreadFilter.class)
+public class XodusDirectoryAsyncOutputTest extends LuceneTestCase {
+
+    public void testLargeOutputNotEncrypted() throws Exception {
+        final EnvironmentConfig config = newConfig();
+        config.removeSetting(EnvironmentConfig.CIPHER_ID);
+        config.removeSetting(EnvironmentConfig.CIPHER_KEY);
+
+        checkLargeOutput(config);
+    }
+
+    public void testLargeOutputEncrypted() throws Exception {
+        final EnvironmentConfig config = newConfig();
+        config.setCipherId("jetbrains.exodus.crypto.streamciphers.JBChaChaStreamCipherProvider");
+        config.setCipherKey("000102030405060708090a0b0c0d0e0f000102030405060708090a0b0c0d0e0f");
+        config.setCipherBasicIV(314159262718281828L);
+
+        checkLargeOutput(config);
+    }
+
+    public void testStreamWritesBuffersInOrder() throws Exception {
+        final byte[] expected = randomBytes(XodusDirectory.ASYNC_BUFFER_SIZE * 5 + 17);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (var stream = new XodusDirectory.AsyncBufferedOutputStream(out)) {
+            stream.write(expected[0]);
+            stream.write(expected, 1, XodusDirectory.ASYNC_BUFFER_SIZE);
+            stream.write(expected, XodusDirectory.ASYNC_BUFFER_SIZE + 1,
+                    expected.length - XodusDirectory.ASYNC_BUFFER_SIZE - 1);
+        }
+
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    public void testWriteErrorSurfacesOnNextWrite() throws Exception {
+        final FailingOutputStream out = new FailingOutputStream();
+        final var stream = new XodusDirectory.AsyncBufferedOutputStream(out);
+
+        // the first full buffer is passed to the failing stream once the next byte is written
+        stream.write(new byte[XodusDirectory.ASYNC_BUFFER_SIZE]);
+        stream.write(0);
+        // filling the second buffer waits for the write of the first one
+        final IOException e = expectThrows(IOException.class,
+                () -> stream.write(new byte[XodusDirectory.ASYNC_BUFFER_SIZE]));
+        assertSame(FailingOutputStream.ERROR, e);
+
+        expectThrows(IOException.class, stream::close);
+        assertTrue(out.closed);
+    }
+
+    public void testWriteErrorSurfacesOnClose() throws Exception {
+        final FailingOutputStream out = new FailingOutputStream();
+        final var stream = new XodusDirectory.AsyncBufferedOutputStream(out);
+
+        stream.write(new byte[XodusDirectory.ASYNC_BUFFER_SIZE + 1]);
+
+        final IOException e = expectThrows(IOException.class, stream::close);
+        assertSame(FailingOutputStream.ERROR, e);
+        assertTrue(out.closed);
+    }
+
+    public void testSyncManyFiles() throws Exception {
+        final EnvironmentConfig config = newConfig();
+        config.removeSetting(EnvironmentConfig.CIPHER_ID);
+        config.removeSetting(EnvironmentConfig.CIPHER_KEY);
+
+        try (var directory = new XodusDirectory(Environments.newInstance(createTempDir().toFile(), config))) {
+            final List<String> names = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final String name = "file" + i;
+                try (var output = directory.createOutput(name, IOContext.DEFAULT)) {
+                    final byte[] bytes = randomBytes(1 + random().nextInt(4096));
+                    output.writeBytes(bytes, bytes.length);
+                }
+                names.add(name);
+            }
+
+            directory.sync(names);
+
+            final List<String> withMissing = new ArrayList<>(names);
+            withMissing.add(names.size() / 2, "missing");
+            final ExodusException e = expectThrows(ExodusException.class, () -> directory.sync(withMissing));
+            assertTrue(e.getMessage().contains("missing"));
+
+            // the directory is still usable after the failed sync
+            directory.sync(names);
+        }
+    }
+
+    private static EnvironmentConfig newConfig() {
+        final EnvironmentConfig config = new EnvironmentConfig();
+        config.setLogCachePageSize(1024);
+        return config;
+    }
+
+    private static void checkLargeOutput(final EnvironmentConfig config) throws IOException {
+        // more than two buffers, so the writer waits for the previous buffer to be written at least once
+        final byte[] expected = randomBytes(XodusDirectory.ASYNC_BUFFER_SIZE * 2 + 12345);
+
+        try (var directory = new XodusDirectory(Environments.newInstance(createTempDir().toFile(), config))) {
+            try (var output = directory.createOutput("large", IOContext.DEFAULT)) {
+                int offset = 0;
+                while (offset < expected.length) {
+                    if (random().nextBoolean()) {
+                        output.writeByte(expected[offset++]);
+                    } else {
+                        final int length = Math.min(expected.length - offset, random().nextInt(3 * 8192));
+                        output.writeBytes(expected, offset, length);
+                        offset += length;
+                    }
+                }
+            }
+
+            assertEquals(expected.length, directory.fileLength("large"));
+
+            final byte[] actual = new byte[expected.length];
+            try (var input = directory.openInput("large", IOContext.DEFAULT)) {
+                input.readBytes(actual, 0, actual.length);
+            }
+
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    private static byte[] randomBytes(final int length) {
+        final byte[] result = new byte[length];
+        random().nextBytes(result);
+        return result;
+    }
+
+    private static final class FailingOutputStream extends OutputStream {
+        private static final IOException ERROR = new IOException("Write failed");
+
+        private volatile boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            throw ERROR;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            throw ERROR;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.lucene2;
+
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakFilters;
+import jetbrains.exodus.backup.VirtualFileDescriptor;
+import jetbrains.exodus.env.EnvironmentConfig;
+import jetbrains.exodus.env.Environments;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.LuceneTestCase;
+
+import java.io.File;
+import java.util.HashSet;
+
+@ThreadLeakFilters(filters = XodusThreadFilter.class)
+public class XodusDirectoryBackupTest extends LuceneTestCase {
+
+    public void testDeletedDuringBackupFileIsKept() throws Exception {
+        final EnvironmentConfig config = new EnvironmentConfig();
+        config.setLogCachePageSize(1024);
+        config.removeSetting(EnvironmentConfig.CIPHER_ID);
+        config.removeSetting(EnvironmentConfig.CIPHER_KEY);
+
+        try (var directory = new XodusDirectory(Environments.newInstance(createTempDir().toFile(), config))) {
+            for (var name : new String[]{"a", "b"}) {
+                try (var output = directory.createOutput(name, IOContext.DEFAULT)) {
+                    output.writeBytes(new byte[4096], 4096);
+                }
+            }
+
+            var strategy = directory.getBackupStrategy();
+            strategy.beforeBackup();
+
+            directory.deleteFile("a");
+            try (var output = directory.createOutput("c", IOContext.DEFAULT)) {
+                output.writeBytes(new byte[4096], 4096);
+            }
+
+            var luceneFiles = new HashSet<File>();
+            for (VirtualFileDescriptor descriptor : strategy.getContents()) {
+                if (!descriptor.getPath().isEmpty()) {
+                    assertEquals(4096, descriptor.getFileSize());
+                    luceneFiles.add(descriptor.getFile());
+                }
+            }
+
+            assertEquals(2, luceneFiles.size());
+            for (var file : luceneFiles) {
+                assertTrue(file.exists());
+            }
+            assertFalse(directory.getPendingDeletions().isEmpty());
+
+            strategy.afterBackup();
+
+            assertTrue(directory.getPendingDeletions().isEmpty());
+            assertEquals(1, luceneFiles.stream().filter(File::exists).count());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reusable view of a {@linkplain ByteIterable} as a segment of a byte array. It can be used to access keys and
+ * values of a {@linkplain jetbrains.exodus.env.Cursor} without copying and without creating any objects per
+ * key/value pair. For {@linkplain ArrayByteIterable} instances (this is the case for data which lies inside a
+ * single page of the log) the view refers to the {@linkplain ByteIterable#getBaseBytes() base array} of the
+ * iterable, otherwise the contents of the iterable is copied once.
+ *
+ * <p>The contents of the view is valid only until the source of the iterable (e.g., the cursor) is moved, and it
+ * should never be modified.
+ *
+ * @see jetbrains.exodus.env.Cursor#getKey(ByteArrayView)
+ * @see jetbrains.exodus.env.Cursor#getValue(ByteArrayView)
+ */
+public final class ByteArrayView {
+
+    private byte[] bytes;
+    private int offset;
+    private int length;
+
+    public ByteArrayView() {
+        bytes = ByteIterable.EMPTY_BYTES;
+    }
+
+    /**
+     * Makes the view to refer to contents of specified {@linkplain ByteIterable}.
+     *
+     * @param iterable {@linkplain ByteIterable} instance
+     * @return this view
+     */
+    public ByteArrayView set(@NotNull final ByteIterable iterable) {
+        // base bytes should be got before base offset
+        bytes = iterable.getBaseBytes();
+        offset = iterable.baseOffset();
+        length = iterable.getLength();
+        return this;
+    }
+
+    /**
+     * Makes the view to refer to specified segment of specified array.
+     *
+     * @param bytes  array
+     * @param offset offset of the segment in the array
+     * @param length length of the segment
+     * @return this view
+     */
+    public ByteArrayView set(final byte @NotNull [] bytes, final int offset, final int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * @return array containing the contents of the view starting from {@linkplain #getOffset()}
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public byte byteAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return bytes[offset + index];
+    }
+
+    /**
+     * @return {@linkplain ArrayByteIterable} sharing the contents with the view
+     */
+    public ArrayByteIterable toByteIterable() {
+        return new ArrayByteIterable(bytes, offset, length);
+    }
+}
@@ -73,9 +73,21 @@ public class BindingUtils {
         }
         final ByteArraySizedInputStream sizedStream = (ByteArraySizedInputStream) stream;
         final byte[] bytes = sizedStream.toByteArray();
+        // the first byte is already read
+        final int start = sizedStream.pos() - 1;
+        final int asciiLength = UTFUtil.getAsciiLength(bytes, start, sizedStream.count());
+        int i = start + asciiLength;
+        if (i < sizedStream.count() && bytes[i] == 0) {
+            sizedStream.setPos(i + 1);
+            return UTFUtil.fromAsciiByteArray(bytes, start, asciiLength);
+        }
         final char[] chars = new char[sizedStream.size() - 1]; // minus trailing zero
-        int i = sizedStream.pos();
         int j = 0;
+        while (j < asciiLength) {
+            chars[j] = (char) bytes[start + j];
+            ++j;
+        }
+        next = bytes[i++] & 0xff;
         do {
             if (next < 128) {
                 chars[j++] = (char) next;
@@ -65,9 +65,26 @@ public class IntegerBinding extends ComparableBinding {
      * @see #signedIntToCompressedEntry(int)
      */
     public static int entryToInt(@NotNull final ByteIterable entry) {
+        if (entry instanceof ArrayByteIterable && entry.getLength() >= Integer.BYTES) {
+            // no boxing and no input stream
+            return entryToInt(entry.getBaseBytes(), entry.baseOffset());
+        }
         return (Integer) BINDING.entryToObject(entry);
     }
 
+    /**
+     * De-serializes {@code int} value from specified array starting from specified offset. The array should
+     * contain an output of {@linkplain #intToEntry(int)} at the offset.
+     *
+     * @param bytes  array
+     * @param offset offset of the value in the array
+     * @return de-serialized value
+     * @see #entryToInt(ByteIterable)
+     */
+    public static int entryToInt(final byte @NotNull [] bytes, final int offset) {
+        return BindingUtils.readInt(bytes, offset) ^ 0x80000000;
+    }
+
     /**
      * Serializes {@code int} value to the {@linkplain ArrayByteIterable} entry.
      *
@@ -96,6 +113,10 @@ public class IntegerBinding extends ComparableBinding {
      * @see #signedIntToCompressedEntry(int)
      */
     public static int compressedEntryToInt(@NotNull final ByteIterable entry) {
+        if (entry instanceof ArrayByteIterable) {
+            // no iterator
+            return readCompressed(entry.getBaseBytes(), entry.baseOffset());
+        }
         return readCompressed(entry.iterator());
     }
 
@@ -179,10 +200,14 @@ public class IntegerBinding extends ComparableBinding {
 
 
     public static int readCompressed(@NotNull final byte[] bytes) {
-        final int firstByte = bytes[0] & 0xff;
+        return readCompressed(bytes, 0);
+    }
+
+    public static int readCompressed(@NotNull final byte[] bytes, final int offset) {
+        final int firstByte = bytes[offset] & 0xff;
         int result = firstByte & 0x1f;
-        int byteLen = firstByte >> 5;
-        for (int i = 1; i <= byteLen; ++i) {
+        final int byteLen = firstByte >> 5;
+        for (int i = offset + 1; i <= offset + byteLen; ++i) {
             result = (result << 8) + (bytes[i] & 0xff);
         }
         return result;
@@ -65,9 +65,26 @@ public class LongBinding extends ComparableBinding {
      * @see #signedLongToCompressedEntry(long)
      */
     public static long entryToLong(@NotNull final ByteIterable entry) {
+        if (entry instanceof ArrayByteIterable && entry.getLength() >= Long.BYTES) {
+            // no boxing and no input stream
+            return entryToLong(entry.getBaseBytes(), entry.baseOffset());
+        }
         return (Long) BINDING.entryToObject(entry);
     }
 
+    /**
+     * De-serializes {@code long} value from specified array starting from specified offset. The array should
+     * contain an output of {@linkplain #longToEntry(long)} at the offset.
+     *
+     * @param bytes  array
+     * @param offset offset of the value in the array
+     * @return de-serialized value
+     * @see #entryToLong(ByteIterable)
+     */
+    public static long entryToLong(final byte @NotNull [] bytes, final int offset) {
+        return BindingUtils.readLong(bytes, offset) ^ 0x8000000000000000L;
+    }
+
     /**
      * Serializes {@code long} value to the {@linkplain ArrayByteIterable} entry.
      *
@@ -96,6 +113,10 @@ public class LongBinding extends ComparableBinding {
      * @see #signedLongToCompressedEntry(long)
      */
     public static long compressedEntryToLong(@NotNull final ByteIterable entry) {
+        if (entry instanceof ArrayByteIterable) {
+            // no iterator
+            return readCompressed(entry.getBaseBytes(), entry.baseOffset());
+        }
         return readCompressed(entry.iterator());
     }
 
@@ -191,6 +212,16 @@ public class LongBinding extends ComparableBinding {
         return result;
     }
 
+    public static long readCompressed(@NotNull final byte[] bytes, final int offset) {
+        final int firstByte = bytes[offset] & 0xff;
+        long result = firstByte & 0xf;
+        final int byteLen = firstByte >> 4;
+        for (int i = offset + 1; i <= offset + byteLen; ++i) {
+            result = (result << 8) + (bytes[i] & 0xff);
+        }
+        return result;
+    }
+
     public static long readCompressed(@NotNull final ByteArrayInputStream iterator) {
         final int firstByte = iterator.read() & 0xff;
         long result = firstByte & 0xf;
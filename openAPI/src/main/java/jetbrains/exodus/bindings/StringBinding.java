@@ -19,6 +19,7 @@ import jetbrains.exodus.ArrayByteIterable;
 import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.util.LightOutputStream;
 import jetbrains.exodus.util.StringInterner;
+import jetbrains.exodus.util.UTFUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.ByteArrayInputStream;
@@ -74,7 +75,80 @@ public class StringBinding extends ComparableBinding {
      * @return {@linkplain ArrayByteIterable} entry
      */
     public static ArrayByteIterable stringToEntry(@NotNull final String object) {
-        return BINDING.objectToEntry(object);
+        // encode directly to the array of exact size, that's the same as BINDING.objectToEntry(object)
+        final int utfLength = UTFUtil.getUtfByteLength(object);
+        final byte[] bytes = new byte[utfLength + 1];
+        UTFUtil.utfCharsToBytes(object, utfLength, bytes, 0);
+        return new ArrayByteIterable(bytes);
+    }
+
+    /**
+     * Compares {@linkplain ByteIterable} entry with a {@code String} value without de-serializing the entry. The
+     * result has the same sign as {@code entryToString(entry).compareTo(value)}.
+     *
+     * @param entry {@linkplain ByteIterable} instance
+     * @param value value to compare with
+     * @return a negative integer, zero, or a positive integer as the entry is less than, equal to, or greater than
+     * the value
+     * @see #compareEntries(ByteIterable, ByteIterable)
+     */
+    public static int compareEntryToString(@NotNull final ByteIterable entry, @NotNull final String value) {
+        final byte[] bytes = entry.getBaseBytes();
+        final int end = entry.baseOffset() + entry.getLength();
+        final int len = value.length();
+        int i = entry.baseOffset();
+        int j = 0;
+        // compare ASCII prefix of the entry without decoding
+        final int asciiLength = Math.min(UTFUtil.getAsciiLength(bytes, i, end), len);
+        while (j < asciiLength) {
+            final int diff = bytes[i++] - value.charAt(j++);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        while (i < end) {
+            final int next = bytes[i++] & 0xff;
+            final int c;
+            if (next < 128) {
+                if (next == 0) {
+                    break;
+                }
+                c = next;
+            } else {
+                final int high = next >> 4;
+                if (high == 12 || high == 13) {
+                    c = ((next & 0x1F) << 6) | (bytes[i++] & 0x3F);
+                } else if (high == 14) {
+                    c = ((next & 0x0F) << 12) | ((bytes[i] & 0x3F) << 6) | (bytes[i + 1] & 0x3F);
+                    i += 2;
+                } else {
+                    throw new IllegalArgumentException();
+                }
+            }
+            if (j == len) {
+                return 1;
+            }
+            final int diff = c - value.charAt(j++);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return j - len;
+    }
+
+    /**
+     * Compares two {@linkplain ByteIterable} entries without de-serializing them. Serialized strings are compared
+     * as unsigned bytes, the order is the same as the order of {@code String} values unless they contain
+     * zero characters.
+     *
+     * @param left  {@linkplain ByteIterable} instance
+     * @param right {@linkplain ByteIterable} instance
+     * @return a negative integer, zero, or a positive integer as the left entry is less than, equal to, or greater
+     * than the right one
+     * @see #compareEntryToString(ByteIterable, String)
+     */
+    public static int compareEntries(@NotNull final ByteIterable left, @NotNull final ByteIterable right) {
+        return left.compareTo(right);
     }
 
     private static class StringBindingWithXodusInterner extends StringBinding {
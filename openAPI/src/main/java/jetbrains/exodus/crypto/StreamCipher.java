@@ -42,4 +42,22 @@ public interface StreamCipher {
      * @return encrypted/decrypted byte
      */
     byte crypt(final byte b);
+
+    /**
+     * Encrypts/decrypts {@code len} bytes of {@code src} starting from {@code off} and puts the result to
+     * {@code dst} starting from {@code dstOff}. The result is the same as of calling {@linkplain #crypt(byte)}
+     * for each byte in turn, but implementations can process data a block at a time. {@code src} and {@code dst}
+     * can be the same array if {@code off == dstOff}.
+     *
+     * @param src    data to encrypt/decrypt
+     * @param off    offset of data in {@code src}
+     * @param len    length of data
+     * @param dst    array to put encrypted/decrypted data to
+     * @param dstOff offset in {@code dst}
+     */
+    default void crypt(@NotNull final byte[] src, final int off, final int len, @NotNull final byte[] dst, final int dstOff) {
+        for (int i = 0; i < len; ++i) {
+            dst[dstOff + i] = crypt(src[off + i]);
+        }
+    }
 }
\ No newline at end of file
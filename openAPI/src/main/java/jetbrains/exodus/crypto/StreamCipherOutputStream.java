@@ -42,10 +42,7 @@ public class StreamCipherOutputStream extends FilterOutputStream {
     @Override
     public void write(byte @NotNull [] b, int off, int len) throws IOException {
         var encrypted = new byte[len];
-
-        for (int i = 0; i < len; i++) {
-            encrypted[i] = cipher.crypt(b[i + off]);
-        }
+        cipher.crypt(b, off, len, encrypted, 0);
 
         out.write(encrypted, 0, len);
     }
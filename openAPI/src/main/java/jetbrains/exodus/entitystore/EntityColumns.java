@@ -0,0 +1,73 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.entitystore;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@code EntityColumns} is a columnar result of batch loading of properties or links of entities. Rows correspond to
+ * entities in the order they were enumerated by source {@linkplain EntityIterable}, columns correspond to names of
+ * properties or links.
+ *
+ * @param <T> type of values, {@linkplain Comparable} for properties and {@linkplain EntityId} for links
+ * @see StoreTransaction#loadProperties(EntityIterable, Set)
+ * @see StoreTransaction#loadLinks(EntityIterable, Set)
+ */
+public interface EntityColumns<T> {
+
+    /**
+     * @return number of rows, i.e. number of loaded entities
+     */
+    int size();
+
+    /**
+     * @param row row index
+     * @return id of the entity in specified row
+     */
+    @NotNull
+    EntityId getId(final int row);
+
+    /**
+     * @return names of loaded properties or links
+     */
+    @NotNull
+    Set<String> getNames();
+
+    /**
+     * Returns value of specified property or link of the entity in specified row.
+     *
+     * @param name name of property or link
+     * @param row  row index
+     * @return value or {@code null} if the entity doesn't have the property or the link
+     * @throws IllegalArgumentException if the property or the link was not loaded
+     */
+    @Nullable
+    T get(@NotNull final String name, final int row);
+
+    /**
+     * Returns all values of specified property or link, i-th element of the list corresponds to i-th row.
+     *
+     * @param name name of property or link
+     * @return list of values, an element is {@code null} if corresponding entity doesn't have the property or the link
+     * @throws IllegalArgumentException if the property or the link was not loaded
+     */
+    @NotNull
+    List<T> getColumn(@NotNull final String name);
+}
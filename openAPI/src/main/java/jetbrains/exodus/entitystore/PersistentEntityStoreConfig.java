@@ -299,6 +299,17 @@ public class PersistentEntityStoreConfig extends AbstractConfig {
      */
     public static final String ENTITY_ITERABLE_CACHE_COUNTS_THREAD_COUNT = "exodus.entityStore.entityIterableCache.countsThreadCount";
 
+    /**
+     * Defines the number of threads which can be used to evaluate independent operands of binary operations over
+     * {@linkplain EntityIterable entity iterables} (union, intersection, minus and concatenation) in parallel.
+     * The operands are evaluated against the same database snapshot as the transaction has, so parallel
+     * evaluation is only applied in transactions having no changes. Default value is {@code 0} which means that
+     * parallel evaluation is disabled. Long reporting queries can benefit from setting it to the number of
+     * available processors.
+     * <p>Mutable at runtime: no
+     */
+    public static final String ENTITY_ITERABLE_PARALLELISM = "exodus.entityStore.entityIterable.parallelism";
+
     /**
      * Not for public use, for debugging and troubleshooting purposes. Default value is {@code 10000L}.
      * <p>Mutable at runtime: yes
@@ -450,6 +461,15 @@ public class PersistentEntityStoreConfig extends AbstractConfig {
      */
     public static final String USE_INT_FOR_LOCAL_ID = "exodus.entityStore.useIntForLocalId";
 
+    /**
+     * If is set to {@code true} then {@linkplain PersistentEntityStore} maintains trigram indices for string property
+     * values and uses them in {@linkplain StoreTransaction#findContaining(String, String, String, boolean)} in order
+     * to avoid full scan of property values. If the setting is turned on for an existing database then the indices are
+     * built on opening the database. Default value is {@code false}.
+     * <p>Mutable at runtime: no
+     */
+    public static final String TRIGRAM_INDEX = "exodus.entityStore.trigramIndex";
+
     private static final int MAX_DEFAULT_ENTITY_ITERABLE_CACHE_DEFERRED_SIZE = 4096;
 
     public PersistentEntityStoreConfig() {
@@ -461,6 +481,7 @@ public class PersistentEntityStoreConfig extends AbstractConfig {
         super(new Pair[]{
                 new Pair(REFACTORING_SKIP_ALL, false),
                 new Pair(USE_INT_FOR_LOCAL_ID, false),
+                new Pair(TRIGRAM_INDEX, false),
                 new Pair(REFACTORING_FORCE_ALL, false),
                 new Pair(REFACTORING_NULL_INDICES, false),
                 new Pair(REFACTORING_BLOB_NULL_INDICES, false),
@@ -486,6 +507,7 @@ public class PersistentEntityStoreConfig extends AbstractConfig {
                 new Pair(ENTITY_ITERABLE_CACHE_MEMORY_PERCENTAGE, 5), // 5% of max available memory
                 new Pair(ENTITY_ITERABLE_CACHE_ENTITY_WEIGHT, 12), // 12 bytes per entityId stored in cache
                 new Pair(ENTITY_ITERABLE_CACHE_THREAD_COUNT, defaultEntityIterableCacheThreadCount()),
+                new Pair(ENTITY_ITERABLE_PARALLELISM, 0), // disabled by default
                 new Pair(ENTITY_ITERABLE_CACHE_CACHING_TIMEOUT, 10000L),
                 new Pair(ENTITY_ITERABLE_CACHE_COUNTS_THREAD_COUNT, -1), // not set by default
                 new Pair(ENTITY_ITERABLE_CACHE_COUNTS_CACHE_SIZE, 65536),
@@ -667,6 +689,14 @@ public class PersistentEntityStoreConfig extends AbstractConfig {
         return setSetting(USE_INT_FOR_LOCAL_ID, useUseIntForLocalId);
     }
 
+    public boolean getTrigramIndex() {
+        return (Boolean) getSetting(TRIGRAM_INDEX);
+    }
+
+    public PersistentEntityStoreConfig setTrigramIndex(final boolean trigramIndex) {
+        return setSetting(TRIGRAM_INDEX, trigramIndex);
+    }
+
     public boolean isCachingDisabled() {
         return (Boolean) getSetting(CACHING_DISABLED);
     }
@@ -788,6 +818,14 @@ public class PersistentEntityStoreConfig extends AbstractConfig {
         return setSetting(ENTITY_ITERABLE_CACHE_THREAD_COUNT, threadCount);
     }
 
+    public int getEntityIterableParallelism() {
+        return (Integer) getSetting(ENTITY_ITERABLE_PARALLELISM);
+    }
+
+    public PersistentEntityStoreConfig setEntityIterableParallelism(final int parallelism) {
+        return setSetting(ENTITY_ITERABLE_PARALLELISM, parallelism);
+    }
+
     public long getEntityIterableCacheCachingTimeout() {
         return (Long) getSetting(ENTITY_ITERABLE_CACHE_CACHING_TIMEOUT);
     }
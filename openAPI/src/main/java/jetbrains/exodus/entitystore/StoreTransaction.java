@@ -20,6 +20,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * {@code StoreTransaction} is a transaction started against {@linkplain EntityStore} using
@@ -590,6 +592,130 @@ public interface StoreTransaction {
     EntityIterable mergeSorted(@NotNull final List<EntityIterable> sorted,
                                @NotNull final Comparator<Entity> comparator);
 
+    /**
+     * Returns numbers of entities of specified type grouped by values of specified property. The result is computed
+     * using the index of property values, so no entity is loaded. As well as {@linkplain #find(String, String, Comparable)},
+     * it ignores character case of string values, the values are returned lower-cased. For a property having
+     * {@linkplain jetbrains.exodus.bindings.ComparableSet} values, each item of a set is counted separately.
+     *
+     * @param entityType   entity type
+     * @param propertyName name of the property
+     * @return map of property values to numbers of entities ordered by the values
+     * @see #countBy(String, String, EntityIterable)
+     */
+    @NotNull
+    Map<Comparable, Long> countBy(@NotNull final String entityType, @NotNull final String propertyName);
+
+    /**
+     * Returns numbers of entities of specified type from specified {@linkplain EntityIterable} grouped by values of
+     * specified property. Like {@linkplain #countBy(String, String)}, it doesn't load entities.
+     *
+     * @param entityType   entity type
+     * @param propertyName name of the property
+     * @param constraint   {@linkplain EntityIterable} restricting counted entities
+     * @return map of property values to numbers of entities ordered by the values
+     * @see #countBy(String, String)
+     */
+    @NotNull
+    Map<Comparable, Long> countBy(@NotNull final String entityType,
+                                  @NotNull final String propertyName,
+                                  @NotNull final EntityIterable constraint);
+
+    /**
+     * Returns distinct values of specified property of entities of specified type in ascending order. Like
+     * {@linkplain #countBy(String, String)}, it doesn't load entities and returns string values lower-cased.
+     *
+     * @param entityType   entity type
+     * @param propertyName name of the property
+     * @return list of distinct values
+     */
+    @NotNull
+    List<Comparable> distinctValues(@NotNull final String entityType, @NotNull final String propertyName);
+
+    /**
+     * Returns minimum value of specified property of entities of specified type. Like {@linkplain #countBy(String, String)},
+     * it doesn't load entities and returns string values lower-cased.
+     *
+     * @param entityType   entity type
+     * @param propertyName name of the property
+     * @return minimum value or {@code null} if no entity has the property
+     */
+    @Nullable
+    Comparable getMinValue(@NotNull final String entityType, @NotNull final String propertyName);
+
+    /**
+     * Returns minimum value of specified property of entities of specified type from specified
+     * {@linkplain EntityIterable}.
+     *
+     * @param entityType   entity type
+     * @param propertyName name of the property
+     * @param constraint   {@linkplain EntityIterable} restricting considered entities
+     * @return minimum value or {@code null} if no entity from {@code constraint} has the property
+     * @see #getMinValue(String, String)
+     */
+    @Nullable
+    Comparable getMinValue(@NotNull final String entityType,
+                           @NotNull final String propertyName,
+                           @NotNull final EntityIterable constraint);
+
+    /**
+     * Returns maximum value of specified property of entities of specified type. Like {@linkplain #countBy(String, String)},
+     * it doesn't load entities and returns string values lower-cased.
+     *
+     * @param entityType   entity type
+     * @param propertyName name of the property
+     * @return maximum value or {@code null} if no entity has the property
+     */
+    @Nullable
+    Comparable getMaxValue(@NotNull final String entityType, @NotNull final String propertyName);
+
+    /**
+     * Returns maximum value of specified property of entities of specified type from specified
+     * {@linkplain EntityIterable}.
+     *
+     * @param entityType   entity type
+     * @param propertyName name of the property
+     * @param constraint   {@linkplain EntityIterable} restricting considered entities
+     * @return maximum value or {@code null} if no entity from {@code constraint} has the property
+     * @see #getMaxValue(String, String)
+     */
+    @Nullable
+    Comparable getMaxValue(@NotNull final String entityType,
+                           @NotNull final String propertyName,
+                           @NotNull final EntityIterable constraint);
+
+    /**
+     * Loads values of specified properties of all entities enumerated by specified {@linkplain EntityIterable}. Unlike
+     * calling {@linkplain Entity#getProperty(String)} for each entity and property, it reads the properties in the
+     * order they are stored in the database, so it is much faster for large number of entities and properties.
+     * Loaded values are also cached in the transaction, so subsequent {@linkplain Entity#getProperty(String)} calls
+     * for the same entities and properties are cheap.
+     *
+     * @param entities      entities whose properties should be loaded
+     * @param propertyNames names of the properties
+     * @return {@linkplain EntityColumns} instance with a column per property name
+     * @see EntityColumns
+     * @see Entity#getProperty(String)
+     */
+    @NotNull
+    EntityColumns<Comparable> loadProperties(@NotNull final EntityIterable entities,
+                                             @NotNull final Set<String> propertyNames);
+
+    /**
+     * Loads ids of entities linked by specified links with all entities enumerated by specified
+     * {@linkplain EntityIterable}. For a link having several targets, the same value as
+     * {@linkplain Entity#getLink(String)} returns is loaded. Loaded values are also cached in the transaction.
+     *
+     * @param entities  entities whose links should be loaded
+     * @param linkNames names of the links
+     * @return {@linkplain EntityColumns} instance with a column per link name
+     * @see EntityColumns
+     * @see Entity#getLink(String)
+     */
+    @NotNull
+    EntityColumns<EntityId> loadLinks(@NotNull final EntityIterable entities,
+                                      @NotNull final Set<String> linkNames);
+
     /**
      * Parses string representation of an entity id and returns corresponding {@linkplain EntityId} instance.
      *
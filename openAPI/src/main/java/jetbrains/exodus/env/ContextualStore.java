@@ -19,6 +19,10 @@ import jetbrains.exodus.ByteIterable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+
 /**
  * {@code ContextualStore} is a {@link Store} created by {@link ContextualEnvironment}.
  * Just like {@link ContextualEnvironment}, it is aware of {@linkplain Transaction transaction}
@@ -47,6 +51,17 @@ public interface ContextualStore extends Store {
     @Nullable
     ByteIterable get(@NotNull final ByteIterable key);
 
+    /**
+     * Batch version of {@linkplain #get(ByteIterable)}. Returns values of specified keys in the same order as the
+     * keys, with {@code null} values for the keys which don't exist.
+     *
+     * @param keys requested keys in any order, can contain duplicates
+     * @return array of values of the keys, {@code null} elements correspond to the keys which don't exist
+     * @see Store#getAll(Transaction, ByteIterable[])
+     */
+    @NotNull
+    ByteIterable[] getAll(@NotNull final ByteIterable[] keys);
+
     /**
      * Checks if specified key/value pair exists in the {@code ContextualStore}.
      *
@@ -72,6 +87,28 @@ public interface ContextualStore extends Store {
      */
     boolean put(@NotNull final ByteIterable key, @NotNull final ByteIterable value);
 
+    /**
+     * Puts specified key/value pair into the {@code ContextualStore} created with {@linkplain StoreConfig#expiration
+     * expiration}. The value expires at specified time.
+     *
+     * @param key            not null key
+     * @param value          not null value
+     * @param expirationTime time when the value expires, in milliseconds since the epoch
+     * @return {@code true} if specified pair was added or value by the key was overwritten.
+     * @see Store#put(Transaction, ByteIterable, ByteIterable, long)
+     */
+    boolean put(@NotNull final ByteIterable key, @NotNull final ByteIterable value, final long expirationTime);
+
+    /**
+     * Merges {@code operand} into the value of the key using the {@linkplain MergeOperator merge operator} set for
+     * the {@code ContextualStore}.
+     *
+     * @param key     key
+     * @param operand operand to be merged into the value of the key
+     * @see Store#merge(Transaction, ByteIterable, ByteIterable)
+     */
+    void merge(@NotNull final ByteIterable key, @NotNull final ByteIterable operand);
+
     /**
      * Can be used if it is a priori known that the key is definitely greater than any other key in the {@code ContextualStore}.
      * In that case, no search is been done before insertion, so {@code putRight()} can perform several times faster
@@ -112,6 +149,46 @@ public interface ContextualStore extends Store {
      */
     long count();
 
+    /**
+     * Estimates the number of key/value pairs with keys in range {@code [from, to)} without iterating over them.
+     *
+     * @param from lower inclusive bound of the key range, {@code null} for no bound
+     * @param to   upper exclusive bound of the key range, {@code null} for no bound
+     * @return estimated number of key/value pairs in the range
+     * @see Store#estimateCount(Transaction, ByteIterable, ByteIterable)
+     */
+    long estimateCount(@Nullable ByteIterable from, @Nullable ByteIterable to);
+
+    /**
+     * Estimates the total length in bytes of keys and values with keys in range {@code [from, to)}.
+     *
+     * @param from lower inclusive bound of the key range, {@code null} for no bound
+     * @param to   upper exclusive bound of the key range, {@code null} for no bound
+     * @return estimated total length of keys and values in the range
+     * @see Store#estimateSize(Transaction, ByteIterable, ByteIterable)
+     */
+    long estimateSize(@Nullable ByteIterable from, @Nullable ByteIterable to);
+
+    /**
+     * Returns {@linkplain Spliterator} over key/value pairs of the {@code ContextualStore} in the order of keys.
+     * The spliterator can be split into key ranges read concurrently.
+     *
+     * @return spliterator over key/value pairs
+     * @see Store#spliterator(Transaction)
+     */
+    @NotNull
+    Spliterator<Map.Entry<ByteIterable, ByteIterable>> spliterator();
+
+    /**
+     * Applies {@code consumer} to all key/value pairs of the {@code ContextualStore} using at most
+     * {@code parallelism} threads.
+     *
+     * @param parallelism maximum number of threads scanning the {@code ContextualStore}
+     * @param consumer    thread-safe consumer of keys and values
+     * @see Store#parallelScan(Transaction, int, BiConsumer)
+     */
+    void parallelScan(int parallelism, @NotNull BiConsumer<ByteIterable, ByteIterable> consumer);
+
     /**
      * Opens cursor over the @{code Store}. Returned instance can only be used in current thread.
      *
@@ -15,11 +15,17 @@
  */
 package jetbrains.exodus.env;
 
+import jetbrains.exodus.ArrayByteIterable;
+import jetbrains.exodus.ByteArrayView;
 import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.ByteIterator;
+import jetbrains.exodus.bindings.IntegerBinding;
+import jetbrains.exodus.bindings.LongBinding;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.nio.ByteBuffer;
 
 /**
  * {@code Cursor} allows to access key/value pairs of a {@linkplain Store} in both successive (ascending and descending)
@@ -160,6 +166,143 @@ public interface Cursor extends Closeable {
     @NotNull
     ByteIterable getValue();
 
+    /**
+     * Makes specified view to refer to current key. Unlike {@linkplain #getKey()}, the method doesn't create
+     * any objects if the key is backed by an array. The view is valid until the {@code Cursor} is moved.
+     *
+     * @param view reusable {@linkplain ByteArrayView} instance
+     * @return the view
+     * @see #getKey()
+     */
+    @NotNull
+    default ByteArrayView getKey(@NotNull final ByteArrayView view) {
+        return view.set(getKey());
+    }
+
+    /**
+     * Makes specified view to refer to current value. Unlike {@linkplain #getValue()}, the method doesn't create
+     * any objects if the value is backed by an array. The view is valid until the {@code Cursor} is moved.
+     *
+     * @param view reusable {@linkplain ByteArrayView} instance
+     * @return the view
+     * @see #getValue()
+     */
+    @NotNull
+    default ByteArrayView getValue(@NotNull final ByteArrayView view) {
+        return view.set(getValue());
+    }
+
+    /**
+     * Copies current key to specified array starting from specified offset. If the key doesn't fit in the array,
+     * then only its first bytes are copied.
+     *
+     * @param dst    destination array
+     * @param offset offset in the destination array
+     * @return length of the key which can be greater than the number of copied bytes
+     */
+    default int getKeyInto(final byte @NotNull [] dst, final int offset) {
+        return copyInto(getKey(), dst, offset);
+    }
+
+    /**
+     * Copies current value to specified array starting from specified offset. If the value doesn't fit in the
+     * array, then only its first bytes are copied.
+     *
+     * @param dst    destination array
+     * @param offset offset in the destination array
+     * @return length of the value which can be greater than the number of copied bytes
+     */
+    default int getValueInto(final byte @NotNull [] dst, final int offset) {
+        return copyInto(getValue(), dst, offset);
+    }
+
+    /**
+     * Copies current value to specified buffer starting from its position. If the value doesn't fit in remaining
+     * bytes of the buffer, then only its first bytes are copied. The position of the buffer is advanced by the
+     * number of copied bytes.
+     *
+     * @param dst destination buffer
+     * @return length of the value which can be greater than the number of copied bytes
+     */
+    default int getValueInto(@NotNull final ByteBuffer dst) {
+        final ByteIterable value = getValue();
+        final int length = value.getLength();
+        final int count = Math.min(length, dst.remaining());
+        if (value instanceof ArrayByteIterable) {
+            dst.put(value.getBaseBytes(), value.baseOffset(), count);
+        } else {
+            final ByteIterator it = value.iterator();
+            for (int i = 0; i < count; ++i) {
+                dst.put(it.next());
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return current key as {@code long} value, the key should be an output of
+     * {@linkplain LongBinding#longToCompressedEntry(long)}
+     */
+    default long getKeyAsCompressedLong() {
+        return LongBinding.compressedEntryToLong(getKey());
+    }
+
+    /**
+     * @return current value as {@code long} value, the value should be an output of
+     * {@linkplain LongBinding#longToCompressedEntry(long)}
+     */
+    default long getValueAsCompressedLong() {
+        return LongBinding.compressedEntryToLong(getValue());
+    }
+
+    /**
+     * @return current key as {@code int} value, the key should be an output of
+     * {@linkplain IntegerBinding#intToCompressedEntry(int)}
+     */
+    default int getKeyAsCompressedInt() {
+        return IntegerBinding.compressedEntryToInt(getKey());
+    }
+
+    /**
+     * @return current value as {@code int} value, the value should be an output of
+     * {@linkplain IntegerBinding#intToCompressedEntry(int)}
+     */
+    default int getValueAsCompressedInt() {
+        return IntegerBinding.compressedEntryToInt(getValue());
+    }
+
+    /**
+     * @return current key as {@code long} value, the key should be an output of
+     * {@linkplain LongBinding#longToEntry(long)}
+     */
+    default long getKeyAsLong() {
+        return LongBinding.entryToLong(getKey());
+    }
+
+    /**
+     * @return current value as {@code long} value, the value should be an output of
+     * {@linkplain LongBinding#longToEntry(long)}
+     */
+    default long getValueAsLong() {
+        return LongBinding.entryToLong(getValue());
+    }
+
+    /**
+     * @return current key as {@code int} value, the key should be an output of
+     * {@linkplain IntegerBinding#intToEntry(int)}
+     */
+    default int getKeyAsInt() {
+        return IntegerBinding.entryToInt(getKey());
+    }
+
+    /**
+     * @return current value as {@code int} value, the value should be an output of
+     * {@linkplain IntegerBinding#intToEntry(int)}
+     */
+    default int getValueAsInt() {
+        return IntegerBinding.entryToInt(getValue());
+    }
+
     /**
      * Moves the {@code Cursor} to the specified key, and returns the value associated with the key. In
      * {@linkplain Store stores} with key duplicates, if the matching key has duplicate values, the {@code Cursor} moves
@@ -221,6 +364,27 @@ public interface Cursor extends Closeable {
     @Nullable
     ByteIterable getSearchBothRange(final @NotNull ByteIterable key, final @NotNull ByteIterable value);
 
+    /**
+     * Searches for each of specified keys like {@linkplain #getSearchKey(ByteIterable)} does and returns the array
+     * of found values in the same order as the keys. If a key is not found then the value is {@code null}.
+     * Keys are expected to be sorted in ascending order, so the {@code Cursor} moves left to right and can reuse
+     * the tree pages got by previous searches. Unsorted keys are also allowed, though can be searched slower.
+     * After the method returns, the {@code Cursor} points to the last found key.
+     *
+     * @param keys keys to search for sorted in ascending order
+     * @return array of values of the keys, {@code null} elements correspond to the keys which are not found
+     * @see #getSearchKey(ByteIterable)
+     * @see Store#getAll(Transaction, ByteIterable[])
+     */
+    @NotNull
+    default ByteIterable[] multiSeek(final @NotNull ByteIterable[] keys) {
+        final ByteIterable[] result = new ByteIterable[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            result[i] = getSearchKey(keys[i]);
+        }
+        return result;
+    }
+
     /**
      * @return the number of values in the {@linkplain Store} associated with current key
      */
@@ -248,4 +412,17 @@ public interface Cursor extends Closeable {
      */
     boolean deleteCurrent();
 
+    private static int copyInto(@NotNull final ByteIterable source, final byte @NotNull [] dst, final int offset) {
+        final int length = source.getLength();
+        final int count = Math.min(length, dst.length - offset);
+        if (source instanceof ArrayByteIterable) {
+            System.arraycopy(source.getBaseBytes(), source.baseOffset(), dst, offset, count);
+        } else {
+            final ByteIterator it = source.iterator();
+            for (int i = 0; i < count; ++i) {
+                dst[offset + i] = it.next();
+            }
+        }
+        return length;
+    }
 }
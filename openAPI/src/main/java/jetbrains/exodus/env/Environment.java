@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.env;
 
+import jetbrains.exodus.ByteIterable;
 import jetbrains.exodus.ExodusException;
 import jetbrains.exodus.backup.Backupable;
 import jetbrains.exodus.crypto.StreamCipher;
@@ -24,6 +25,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.io.File;
 import java.util.List;
 
 /**
@@ -180,6 +182,21 @@ public interface Environment extends Closeable, Backupable {
      */
     void removeStore(@NotNull String storeName, @NotNull Transaction txn);
 
+    /**
+     * Ingests key/value pairs from the file written by {@code StoreFileWriter} to the {@linkplain Store store}
+     * with specified name. The store should either not exist or be empty, it gets the config the file was written
+     * with. Only stores without duplicates and key prefixing are supported. The file is read and checked in full
+     * first, then pages of the tree are built bottom-up directly from the sorted pairs of the file and saved in a
+     * single exclusive transaction, so the pairs are never searched or inserted one by one, and the store is never
+     * visible partially ingested. Other writers are blocked till the transaction is committed. All earlier opened
+     * {@linkplain Store} instances should be re-opened.
+     *
+     * @param storeName name of store
+     * @param file      file written by {@code StoreFileWriter}
+     * @throws ExodusException if the store isn't empty or the file is malformed
+     */
+    void ingest(@NotNull String storeName, @NotNull File file);
+
     /**
      * Says environment to quicken background database garbage collector activity. Invocation of this method
      * doesn't have immediate consequences like freeing disk space, deleting particular files, etc.
@@ -385,4 +402,48 @@ public interface Environment extends Closeable, Backupable {
      * Defines an action to be executed before running database GC cycle in the background cleaner thread.
      */
     void executeBeforeGc(Runnable action);
+
+    /**
+     * Sets {@linkplain MergeOperator merge operator} used by {@linkplain Store#merge(Transaction, ByteIterable,
+     * ByteIterable)} for the {@linkplain Store} with specified name. Merge operators are not persisted, so they
+     * should be set each time the environment is opened, before any merge is done.
+     *
+     * @param storeName name of the {@linkplain Store}
+     * @param operator  merge operator, {@code null} to remove the operator of the {@linkplain Store}
+     * @see MergeOperator
+     */
+    void setMergeOperator(@NotNull String storeName, @Nullable MergeOperator operator);
+
+    /**
+     * @param storeName name of the {@linkplain Store}
+     * @return {@linkplain MergeOperator merge operator} of the {@linkplain Store} with specified name or
+     * {@code null} if it's not set
+     * @see #setMergeOperator(String, MergeOperator)
+     */
+    @Nullable
+    MergeOperator getMergeOperator(@NotNull String storeName);
+
+    /**
+     * Sets time to live of values put to the {@linkplain Store} with specified name created with
+     * {@linkplain StoreConfig#expiration expiration}. The time to live is used by
+     * {@linkplain Store#put(Transaction, ByteIterable, ByteIterable)}, {@linkplain Store#putRight(Transaction,
+     * ByteIterable, ByteIterable)} and {@linkplain Store#add(Transaction, ByteIterable, ByteIterable)}, values put
+     * without time to live never expire unless the expiration time is specified explicitly by
+     * {@linkplain Store#put(Transaction, ByteIterable, ByteIterable, long)}. Times to live are not persisted, so
+     * they should be set each time the environment is opened.
+     *
+     * @param storeName  name of the {@linkplain Store}
+     * @param timeToLive time to live in milliseconds, {@code 0} to remove time to live of the {@linkplain Store}
+     * @see StoreConfig#WITHOUT_DUPLICATES_WITH_EXPIRATION
+     * @see StoreConfig#WITHOUT_DUPLICATES_WITH_PREFIXING_WITH_EXPIRATION
+     */
+    void setStoreTimeToLive(@NotNull String storeName, long timeToLive);
+
+    /**
+     * @param storeName name of the {@linkplain Store}
+     * @return time to live in milliseconds of values put to the {@linkplain Store} with specified name or {@code 0}
+     * if it's not set
+     * @see #setStoreTimeToLive(String, long)
+     */
+    long getStoreTimeToLive(@NotNull String storeName);
 }
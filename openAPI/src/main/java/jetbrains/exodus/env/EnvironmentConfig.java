@@ -354,6 +354,14 @@ public class EnvironmentConfig extends AbstractConfig {
    */
   public static final String LOG_FULL_FILE_READ_ONLY = "exodus.log.fullFileReadonly";
 
+  /**
+   * If is set to {@code true} then each complete and immutable {@code Log} file (.xd file) is
+   * compressed page by page with LZ4. Compressed files are read transparently regardless of this
+   * setting. The setting has no effect if the log is encrypted. Default value is {@code false}.
+   * <p>Mutable at runtime: no
+   */
+  public static final String LOG_COMPRESSION = "exodus.log.compression";
+
   /**
    * For {@linkplain DataReaderWriterProvider#DEFAULT_READER_WRITER_PROVIDER} used as
    * {@linkplain DataReaderWriterProvider} service provider interface implementation, if is set to
@@ -517,6 +525,28 @@ public class EnvironmentConfig extends AbstractConfig {
    */
   public static final String ENV_TXN_SINGLE_THREAD_WRITES = "exodus.env.txn.singleThreadWrites";
 
+  /**
+   * If is set to {@code true} then a {@linkplain Transaction} which failed to flush because of a concurrent commit
+   * is rebased onto the newest database snapshot and flushed instead of being replayed, provided that the concurrent
+   * commits changed none of the stores which the transaction has read or modified. Default value is {@code false}.
+   * <p>Mutable at runtime: yes
+   *
+   * @see Transaction
+   * @see #ENV_TXN_REPLAY_MAX_COUNT
+   */
+  public static final String ENV_TXN_REBASE = "exodus.env.txn.rebase";
+
+  /**
+   * If is set to {@code true} then a read/write {@linkplain Transaction} buffers puts and deletes of stores without
+   * duplicates in a sorted transaction-local write buffer instead of copying tree pages on each change. Repeated
+   * changes of a key are coalesced, and the buffer is applied to the tree in one sorted batch when the transaction
+   * is flushed or a cursor, count or range operation needs the tree. Default value is {@code false}.
+   * <p>Mutable at runtime: yes
+   *
+   * @see Transaction
+   */
+  public static final String ENV_TXN_WRITE_BUFFER = "exodus.env.txn.writeBuffer";
+
   /**
    * If is set to {@code true} then each transaction, read/write or read-only, saves stack trace
    * when it is finished (aborted or committed). The stack trace is then reported with
@@ -625,6 +655,16 @@ public class EnvironmentConfig extends AbstractConfig {
    */
   public static final String TREE_DUP_MAX_PAGE_SIZE = "exodus.tree.dupMaxPageSize";
 
+  /**
+   * If is set to {@code true} then newly created {@linkplain Store stores} without
+   * {@linkplain StoreConfig#prefixing key prefixing} store keys of B+Tree leaves with prefix compression: a key
+   * sharing a prefix with a nearby key of the same bottom page is written as the length of the shared prefix and
+   * the rest of the key. The format is saved in store's meta information, so existing stores keep their format
+   * regardless of the setting. Default value is {@code false}.
+   * <p>Mutable at runtime: yes
+   */
+  public static final String TREE_KEY_PREFIX_COMPRESSION = "exodus.tree.keyPrefixCompression";
+
   /**
    * As of 1.0.5, is deprecated and has no effect.
    * <p>Mutable at runtime: no
@@ -829,6 +869,7 @@ public class EnvironmentConfig extends AbstractConfig {
         new Pair(LOG_CLEAR_INVALID, false),
         new Pair(LOG_SYNC_PERIOD, 10000L),
         new Pair(LOG_FULL_FILE_READ_ONLY, true),
+        new Pair(LOG_COMPRESSION, false),
         new Pair(LOG_ALLOW_REMOVABLE, false),
         new Pair(LOG_ALLOW_REMOTE, false),
         new Pair(LOG_ALLOW_RAM_DISK, false),
@@ -845,6 +886,8 @@ public class EnvironmentConfig extends AbstractConfig {
         new Pair(ENV_TXN_REPLAY_MAX_COUNT, 2),
         new Pair(ENV_TXN_DOWNGRADE_AFTER_FLUSH, true),
         new Pair(ENV_TXN_SINGLE_THREAD_WRITES, false),
+        new Pair(ENV_TXN_REBASE, false),
+        new Pair(ENV_TXN_WRITE_BUFFER, false),
         new Pair(ENV_CHECK_BACKUP_CONSISTENCY, false),
                 new Pair(ENV_CHECK_DATA_STRUCTURES_CONSISTENCY, false),
                 new Pair(ENV_TXN_TRACE_FINISH, false),
@@ -856,6 +899,7 @@ public class EnvironmentConfig extends AbstractConfig {
                 new Pair(ENV_COMPACT_ON_OPEN, false),
                 new Pair(TREE_MAX_PAGE_SIZE, 128),
                 new Pair(TREE_DUP_MAX_PAGE_SIZE, 8),
+                new Pair(TREE_KEY_PREFIX_COMPRESSION, false),
                 new Pair(GC_ENABLED, true),
                 new Pair(GC_START_IN, 10000),
                 new Pair(GC_MIN_UTILIZATION, 50),
@@ -1670,6 +1714,32 @@ public class EnvironmentConfig extends AbstractConfig {
     return setSetting(LOG_FULL_FILE_READ_ONLY, readonly);
   }
 
+  /**
+   * Returns {@code true} if each complete and immutable {@code Log} file (.xd file) should be
+   * compressed page by page with LZ4. The setting has no effect if the log is encrypted. Default
+   * value is {@code false}.
+   * <p>Mutable at runtime: no
+   *
+   * @return {@code true} if each complete and immutable .xd file should be compressed
+   */
+  public boolean getLogCompression() {
+    return (Boolean) getSetting(LOG_COMPRESSION);
+  }
+
+  /**
+   * Set {@code true} if each complete and immutable {@code Log} file (.xd file) should be
+   * compressed page by page with LZ4. Compressed files are read transparently regardless of this
+   * setting, so it can be turned off at any time. The setting has no effect if the log is
+   * encrypted. Default value is {@code false}.
+   * <p>Mutable at runtime: no
+   *
+   * @param compression {@code true} to compress each complete and immutable .xd file
+   * @return this {@code EnvironmentConfig} instance
+   */
+  public EnvironmentConfig setLogCompression(final boolean compression) {
+    return setSetting(LOG_COMPRESSION, compression);
+  }
+
   /**
    * For {@linkplain DataReaderWriterProvider#DEFAULT_READER_WRITER_PROVIDER} used as
    * {@linkplain DataReaderWriterProvider} service provider interface implementation, if is set to
@@ -2111,6 +2181,63 @@ public class EnvironmentConfig extends AbstractConfig {
     return setSetting(ENV_TXN_SINGLE_THREAD_WRITES, singleThreadWrites);
   }
 
+  /**
+   * If is set to {@code true} then a {@linkplain Transaction} which failed to flush because of a concurrent commit
+   * is rebased onto the newest database snapshot and flushed instead of being replayed, provided that the concurrent
+   * commits changed none of the stores which the transaction has read or modified. Default value is {@code false}.
+   * <p>Mutable at runtime: yes
+   *
+   * @return {@code true} if transactions not conflicting with concurrent commits are rebased instead of replaying
+   * @see Transaction
+   */
+  public boolean getEnvTxnRebase() {
+    return (Boolean) getSetting(ENV_TXN_REBASE);
+  }
+
+  /**
+   * If is set to {@code true} then a {@linkplain Transaction} which failed to flush because of a concurrent commit
+   * is rebased onto the newest database snapshot and flushed instead of being replayed, provided that the concurrent
+   * commits changed none of the stores which the transaction has read or modified. Default value is {@code false}.
+   * <p>Mutable at runtime: yes
+   *
+   * @param rebase {@code true} if transactions not conflicting with concurrent commits should be rebased instead
+   *               of replaying
+   * @return this {@code EnvironmentConfig} instance
+   * @see Transaction
+   */
+  public EnvironmentConfig setEnvTxnRebase(final boolean rebase) {
+    return setSetting(ENV_TXN_REBASE, rebase);
+  }
+
+  /**
+   * If is set to {@code true} then a read/write {@linkplain Transaction} buffers puts and deletes of stores without
+   * duplicates in a sorted transaction-local write buffer instead of copying tree pages on each change. Repeated
+   * changes of a key are coalesced, and the buffer is applied to the tree in one sorted batch when the transaction
+   * is flushed or a cursor, count or range operation needs the tree. Default value is {@code false}.
+   * <p>Mutable at runtime: yes
+   *
+   * @return {@code true} if transactions buffer changes of stores without duplicates
+   * @see Transaction
+   */
+  public boolean getEnvTxnWriteBuffer() {
+    return (Boolean) getSetting(ENV_TXN_WRITE_BUFFER);
+  }
+
+  /**
+   * If is set to {@code true} then a read/write {@linkplain Transaction} buffers puts and deletes of stores without
+   * duplicates in a sorted transaction-local write buffer instead of copying tree pages on each change. Repeated
+   * changes of a key are coalesced, and the buffer is applied to the tree in one sorted batch when the transaction
+   * is flushed or a cursor, count or range operation needs the tree. Default value is {@code false}.
+   * <p>Mutable at runtime: yes
+   *
+   * @param writeBuffer {@code true} if transactions should buffer changes of stores without duplicates
+   * @return this {@code EnvironmentConfig} instance
+   * @see Transaction
+   */
+  public EnvironmentConfig setEnvTxnWriteBuffer(final boolean writeBuffer) {
+    return setSetting(ENV_TXN_WRITE_BUFFER, writeBuffer);
+  }
+
   /**
    * If is set to {@code true} then each transaction, read/write or read-only, saves stack trace
    * when it is finished (aborted or committed). The stack trace is then reported with
@@ -2421,6 +2548,31 @@ public class EnvironmentConfig extends AbstractConfig {
     return setSetting(TREE_DUP_MAX_PAGE_SIZE, pageSize);
   }
 
+  /**
+   * Returns {@code true} if newly created {@linkplain Store stores} without
+   * {@linkplain StoreConfig#prefixing key prefixing} store keys of B+Tree leaves with prefix compression.
+   * Existing stores keep their format regardless of the setting. Default value is {@code false}.
+   * <p>Mutable at runtime: yes
+   *
+   * @return {@code true} if keys of new B+Trees are prefix-compressed
+   */
+  public boolean getTreeKeyPrefixCompression() {
+    return (Boolean) getSetting(TREE_KEY_PREFIX_COMPRESSION);
+  }
+
+  /**
+   * Set {@code true} if newly created {@linkplain Store stores} without
+   * {@linkplain StoreConfig#prefixing key prefixing} should store keys of B+Tree leaves with prefix compression.
+   * Existing stores keep their format regardless of the setting. Default value is {@code false}.
+   * <p>Mutable at runtime: yes
+   *
+   * @param compression {@code true} if keys of new B+Trees should be prefix-compressed
+   * @return this {@code EnvironmentConfig} instance
+   */
+  public EnvironmentConfig setTreeKeyPrefixCompression(final boolean compression) {
+    return setSetting(TREE_KEY_PREFIX_COMPRESSION, compression);
+  }
+
   /**
    * As of 1.0.5, is deprecated and has no effect.
    * <p>Mutable at runtime: no
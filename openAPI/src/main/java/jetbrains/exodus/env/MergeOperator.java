@@ -0,0 +1,60 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.env;
+
+import jetbrains.exodus.ByteIterable;
+import jetbrains.exodus.CompoundByteIterable;
+import jetbrains.exodus.bindings.LongBinding;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Operator merging operands into values of a {@linkplain Store}. It is used by
+ * {@linkplain Store#merge(Transaction, ByteIterable, ByteIterable)} to change values without reading them
+ * by application code, e.g. to increment counters or to append to lists. The operator should be a pure function of
+ * its arguments, since merges can be applied again to a newer version of the {@code Store} on commit.
+ *
+ * <p>Merge operators are not persisted. An operator should be registered by
+ * {@linkplain Environment#setMergeOperator(String, MergeOperator)} each time the {@linkplain Environment} is opened.
+ *
+ * @see Store#merge(Transaction, ByteIterable, ByteIterable)
+ * @see Environment#setMergeOperator(String, MergeOperator)
+ */
+@FunctionalInterface
+public interface MergeOperator {
+
+    /**
+     * Adds operands to values, both are {@linkplain LongBinding#longToEntry(long) long entries}.
+     */
+    MergeOperator LONG_SUM = (value, operand) ->
+            value == null ? operand : LongBinding.longToEntry(LongBinding.entryToLong(value) + LongBinding.entryToLong(operand));
+
+    /**
+     * Appends operands to values.
+     */
+    MergeOperator APPEND = (value, operand) ->
+            value == null ? operand : new CompoundByteIterable(new ByteIterable[]{value, operand});
+
+    /**
+     * Merges operand into value.
+     *
+     * @param value   current value, {@code null} if the key doesn't exist
+     * @param operand operand passed to {@linkplain Store#merge(Transaction, ByteIterable, ByteIterable)}
+     * @return new value
+     */
+    @NotNull
+    ByteIterable merge(@Nullable ByteIterable value, @NotNull ByteIterable operand);
+}
@@ -19,6 +19,10 @@ import jetbrains.exodus.ByteIterable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+
 /**
  * Store is a named collection of key/value pairs. {@code Store} can be opened using any of {@linkplain Environment
  * Environment.openStore()} methods. If a Store is opened using {@linkplain StoreConfig#WITHOUT_DUPLICATES}
@@ -66,6 +70,21 @@ public interface Store {
     @Nullable
     ByteIterable get(@NotNull Transaction txn, @NotNull ByteIterable key);
 
+    /**
+     * Batch version of {@linkplain #get(Transaction, ByteIterable)}. Returns values of specified keys in the same
+     * order as the keys, with {@code null} values for the keys which don't exist. Keys are sorted and looked up in
+     * a single left to right pass over the {@code Store} using {@linkplain Cursor#multiSeek(ByteIterable[])}, so
+     * the pages of the tree common for several keys are read once. This makes getting values of many keys at once
+     * several times faster than calling {@linkplain #get(Transaction, ByteIterable)} for each of them.
+     *
+     * @param txn  {@linkplain Transaction transaction} instance
+     * @param keys requested keys in any order, can contain duplicates
+     * @return array of values of the keys, {@code null} elements correspond to the keys which don't exist
+     * @see Cursor#multiSeek(ByteIterable[])
+     */
+    @NotNull
+    ByteIterable[] getAll(@NotNull Transaction txn, @NotNull ByteIterable[] keys);
+
     /**
      * Checks if specified key/value pair exists in the {@code Store}.
      *
@@ -93,6 +112,40 @@ public interface Store {
      */
     boolean put(@NotNull Transaction txn, @NotNull ByteIterable key, @NotNull ByteIterable value);
 
+    /**
+     * Puts specified key/value pair into the {@code Store} created with {@linkplain StoreConfig#expiration
+     * expiration}. The value expires at specified time, after that it is neither returned by
+     * {@linkplain #get(Transaction, ByteIterable)} nor visible to cursors, and database GC deletes it instead of
+     * copying. {@linkplain #count(Transaction)} includes expired values which are not yet deleted by GC.
+     *
+     * @param txn            {@linkplain Transaction transaction} instance
+     * @param key            not null key
+     * @param value          not null value
+     * @param expirationTime time when the value expires, in milliseconds since the epoch
+     * @return {@code true} if specified pair was added or value by the key was overwritten.
+     * @throws jetbrains.exodus.ExodusException if the {@code Store} was created without expiration
+     * @see Environment#setStoreTimeToLive(String, long)
+     */
+    boolean put(@NotNull Transaction txn, @NotNull ByteIterable key, @NotNull ByteIterable value, long expirationTime);
+
+
+    /**
+     * Merges {@code operand} into the value of the key using the {@linkplain MergeOperator merge operator} set for
+     * the {@code Store} by {@linkplain Environment#setMergeOperator(String, MergeOperator)}. If the key doesn't exist,
+     * the value is got by merging the operand into {@code null}. This lets increment counters or append to lists
+     * without reading values by application code.
+     *
+     * <p>Unlike {@code get} followed by {@code put}, merging doesn't make the transaction depend on the value. If the
+     * transaction changes a {@code Store} only by merging and doesn't read it, then commits of other transactions
+     * changing the {@code Store} don't make the transaction to be replayed: on commit, its merges are applied again
+     * to the newest version of the {@code Store}. The {@code Store} should not have key duplicates.
+     *
+     * @param txn     {@linkplain Transaction transaction} instance
+     * @param key     key
+     * @param operand operand to be merged into the value of the key
+     * @see MergeOperator
+     */
+    void merge(@NotNull Transaction txn, @NotNull ByteIterable key, @NotNull ByteIterable operand);
 
     /**
      * Can be used if it is a priori known that the key is definitely greater than any other key in the {@code Store}.
@@ -138,6 +191,67 @@ public interface Store {
      */
     long count(@NotNull Transaction txn);
 
+    /**
+     * Estimates the number of key/value pairs with keys in range {@code [from, to)} without iterating over them.
+     * The estimate is computed by descending the search tree along the paths to the range bounds and interpolating
+     * positions of the bounds among children of visited nodes, assuming that sibling subtrees have equal sizes.
+     * So it reads a few tree nodes per bound, and its error depends on how balanced the tree is. For B+ tree
+     * the error of each bound's position is limited by the variation of page sizes and is small for stores filled
+     * in order of keys. Patricia trie is not balanced, so for stores with key prefixing the error is small for
+     * uniformly distributed keys and can be as large as the size of the largest subtree on the path to a bound
+     * for skewed ones. For stores with key duplicates, all values of a key are assumed to be evenly distributed.
+     *
+     * @param txn  {@linkplain Transaction transaction} instance
+     * @param from lower inclusive bound of the key range, {@code null} for no bound
+     * @param to   upper exclusive bound of the key range, {@code null} for no bound
+     * @return estimated number of key/value pairs in the range
+     * @see #estimateSize(Transaction, ByteIterable, ByteIterable)
+     */
+    long estimateCount(@NotNull Transaction txn, @Nullable ByteIterable from, @Nullable ByteIterable to);
+
+    /**
+     * Estimates the total length in bytes of keys and values with keys in range {@code [from, to)}. The estimate is
+     * {@linkplain #estimateCount(Transaction, ByteIterable, ByteIterable) the estimated number of pairs} multiplied
+     * by the average length of a few first pairs of the range, so in addition to the error of the estimated number
+     * of pairs it is biased if lengths of pairs vary along the range. Space taken by the search tree structure and
+     * by the log is not counted.
+     *
+     * @param txn  {@linkplain Transaction transaction} instance
+     * @param from lower inclusive bound of the key range, {@code null} for no bound
+     * @param to   upper exclusive bound of the key range, {@code null} for no bound
+     * @return estimated total length of keys and values in the range
+     * @see #estimateCount(Transaction, ByteIterable, ByteIterable)
+     */
+    long estimateSize(@NotNull Transaction txn, @Nullable ByteIterable from, @Nullable ByteIterable to);
+
+    /**
+     * Returns {@linkplain Spliterator} over key/value pairs of the {@code Store} in the order of keys. The spliterator
+     * can be split into key ranges at boundaries of internal nodes of the underlying search tree, so it can be used
+     * with parallel {@linkplain java.util.stream.Stream streams}. Each range is read by its own cursor over the same
+     * snapshot of the database, so the ranges can be read concurrently. If the transaction has changes in the
+     * {@code Store}, the spliterator can't be split. The transaction should not be finished until the spliterator
+     * and the spliterators it was split into are used.
+     *
+     * @param txn {@linkplain Transaction transaction} instance
+     * @return spliterator over key/value pairs
+     * @see #parallelScan(Transaction, int, BiConsumer)
+     */
+    @NotNull
+    Spliterator<Map.Entry<ByteIterable, ByteIterable>> spliterator(@NotNull Transaction txn);
+
+    /**
+     * Applies {@code consumer} to all key/value pairs of the {@code Store} using at most {@code parallelism} threads.
+     * The key space is split into balanced ranges as {@linkplain #spliterator(Transaction)} does, and the ranges
+     * are scanned concurrently, so the consumer should be thread-safe. Pairs of each range are passed to the
+     * consumer in the order of keys. The method returns after all pairs are consumed.
+     *
+     * @param txn         {@linkplain Transaction transaction} instance
+     * @param parallelism maximum number of threads scanning the {@code Store}
+     * @param consumer    thread-safe consumer of keys and values
+     * @see #spliterator(Transaction)
+     */
+    void parallelScan(@NotNull Transaction txn, int parallelism, @NotNull BiConsumer<ByteIterable, ByteIterable> consumer);
+
     /**
      * Opens cursor over the @{code Store} associated with a transaction.
      *
@@ -25,6 +25,11 @@ package jetbrains.exodus.env;
  * performance characteristics: stores with key prefixing has better random key access, whereas stores without key
  * prefixing are preferable for sequential access in order of keys.
  * <p>
+ * Stores without duplicates can also be created with {@code expiration}. Each value of such a {@linkplain Store}
+ * has an expiration time, expired values are neither returned by
+ * {@linkplain Store#get(Transaction, jetbrains.exodus.ByteIterable)} nor visible to cursors, and database GC deletes
+ * them instead of copying.
+ * <p>
  * <table border=1>
  * <tr><th>With duplicates</th><th>Without duplicates</th></tr>
  * <tr><th>With key prefixing</th><td>{@link #WITH_DUPLICATES_WITH_PREFIXING}</td><td>{@link #WITH_DUPLICATES_WITH_PREFIXING}</td></tr>
@@ -58,7 +63,21 @@ public enum StoreConfig {
      * {@code StoreConfig.USE_EXISTING} configuration. In that case, you don't need to know whether the
      * {@linkplain Store} can have duplicate keys or was it created with key prefixing.
      */
-    USE_EXISTING(5, "00001000");
+    USE_EXISTING(5, "00001000"),
+    /**
+     * Store with this config has no key duplicates, doesn't support key prefixing and has expiring values.
+     *
+     * @see Store#put(Transaction, jetbrains.exodus.ByteIterable, jetbrains.exodus.ByteIterable, long)
+     * @see Environment#setStoreTimeToLive(String, long)
+     */
+    WITHOUT_DUPLICATES_WITH_EXPIRATION(6, "00010000"),
+    /**
+     * Store with this config has no key duplicates, supports key prefixing and has expiring values.
+     *
+     * @see Store#put(Transaction, jetbrains.exodus.ByteIterable, jetbrains.exodus.ByteIterable, long)
+     * @see Environment#setStoreTimeToLive(String, long)
+     */
+    WITHOUT_DUPLICATES_WITH_PREFIXING_WITH_EXPIRATION(7, "00010010");
 
     public final int id;
 
@@ -66,6 +85,7 @@ public enum StoreConfig {
     public final boolean prefixing;
     public final boolean temporaryEmpty;
     public final boolean useExisting;
+    public final boolean expiration;
 
     StoreConfig(final int id, final String mask) {
         this.id = id;
@@ -74,11 +94,12 @@ public enum StoreConfig {
         prefixing = ((bits >> 1) & 1) > 0;
         temporaryEmpty = ((bits >> 2) & 1) > 0;
         useExisting = ((bits >> 3) & 1) > 0;
+        expiration = ((bits >> 4) & 1) > 0;
     }
 
     @Override
     public String toString() {
-        return "duplicates: " + duplicates + ", prefixing: " + prefixing + ", temporaryEmpty: " + temporaryEmpty + ", useExisting: " + useExisting;
+        return "duplicates: " + duplicates + ", prefixing: " + prefixing + ", temporaryEmpty: " + temporaryEmpty + ", useExisting: " + useExisting + ", expiration: " + expiration;
     }
 
     /**
@@ -100,4 +121,23 @@ public enum StoreConfig {
         }
         return prefixing ? WITHOUT_DUPLICATES_WITH_PREFIXING : WITHOUT_DUPLICATES;
     }
+
+    /**
+     * Returns {@code StoreConfig} value corresponding to the specified {@linkplain Store} attributes.
+     *
+     * @param duplicates {@code true} if key duplicates are allowed
+     * @param prefixing  {@code true} if key prefixing is desired
+     * @param expiration {@code true} if values should expire
+     * @return {@code StoreConfig} value corresponding to the specified {@linkplain Store} attributes
+     * @throws IllegalArgumentException if both {@code duplicates} and {@code expiration} are {@code true}
+     */
+    public static StoreConfig getStoreConfig(final boolean duplicates, final boolean prefixing, final boolean expiration) {
+        if (!expiration) {
+            return getStoreConfig(duplicates, prefixing);
+        }
+        if (duplicates) {
+            throw new IllegalArgumentException("Store with duplicates can't have expiring values");
+        }
+        return prefixing ? WITHOUT_DUPLICATES_WITH_PREFIXING_WITH_EXPIRATION : WITHOUT_DUPLICATES_WITH_EXPIRATION;
+    }
 }
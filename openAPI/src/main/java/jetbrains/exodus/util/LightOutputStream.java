@@ -91,7 +91,7 @@ public class LightOutputStream extends OutputStream {
         } else if (value.length() > 0) {
             final int utfLength = UTFUtil.getUtfByteLength(value);
             ensureCapacity(len + utfLength + 1); // + 1 for zero terminator
-            UTFUtil.utfCharsToBytes(value, buf, len);
+            UTFUtil.utfCharsToBytes(value, utfLength, buf, len);
             len += utfLength;
         }
         write(0);
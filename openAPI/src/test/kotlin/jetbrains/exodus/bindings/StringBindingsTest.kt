@@ -39,6 +39,35 @@ class StringBindingsTest {
         Assert.assertArrayEquals(serializedHash, value)
     }
 
+    @Test
+    fun testAsciiAndNonAsciiRoundTrip() {
+        val strings = listOf(
+            "", "a", "0123456789abcdef", "0123456789abcdef\u0080", "\u00e9t\u00e9", "\u0000", "ascii then \u4e2d\u6587",
+            "\ud83d\ude00", "x".repeat(1000) + "\u0439"
+        )
+        strings.forEach { string ->
+            val entry = StringBinding.stringToEntry(string)
+            Assert.assertArrayEquals(propertyValueToEntry(string), entry.bytesUnsafe.copyOf(entry.length))
+            Assert.assertEquals(string, StringBinding.entryToString(entry))
+        }
+    }
+
+    @Test
+    fun testCompareEntries() {
+        val strings = listOf("", "a", "ab", "abc", "abd", "b", "\u00e9", "\u4e2d", "\ud83d\ude00", "\uffff")
+        strings.forEach { left ->
+            val leftEntry = StringBinding.stringToEntry(left)
+            strings.forEach { right ->
+                val expected = Integer.signum(left.compareTo(right))
+                Assert.assertEquals(expected, Integer.signum(StringBinding.compareEntryToString(leftEntry, right)))
+                Assert.assertEquals(
+                    expected,
+                    Integer.signum(StringBinding.compareEntries(leftEntry, StringBinding.stringToEntry(right)))
+                )
+            }
+        }
+    }
+
     private fun propertyValueToEntry(value: String): ByteArray {
         val output = LightOutputStream()
         stringBinding.writeObject(output, value)
@@ -39,6 +39,27 @@ open class StreamCipherTest {
         Assert.assertEquals(RENAT_GILFANOV, String(cipherInputStream.readBytesBlockWise(64)))
     }
 
+    @Test
+    fun testBulkCrypt() {
+        val data = RENAT_GILFANOV.toByteArray()
+        val expected = createCipher().init().let { cipher -> ByteArray(data.size) { i -> cipher.crypt(data[i]) } }
+        for (chunk in intArrayOf(1, 7, 64, 100, 257, data.size)) {
+            val cipher = createCipher().init()
+            val result = ByteArray(data.size + 1)
+            var offset = 0
+            while (offset < data.size) {
+                val len = minOf(chunk, data.size - offset)
+                cipher.crypt(data, offset, len, result, offset + 1)
+                offset += len
+            }
+            Assert.assertArrayEquals(expected, result.copyOfRange(1, result.size))
+            // in place
+            val inPlace = data.copyOf()
+            createCipher().init().crypt(inPlace, 0, inPlace.size, inPlace, 0)
+            Assert.assertArrayEquals(expected, inPlace)
+        }
+    }
+
     private fun makeInput(): ByteArrayInputStream {
         val baseOutputStream = LightOutputStream()
         val cipherOutputStream = baseOutputStream encryptBy createCipher().init()
@@ -0,0 +1,245 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.query
+
+import jetbrains.exodus.ArrayByteIterable
+import jetbrains.exodus.entitystore.*
+import jetbrains.exodus.entitystore.tables.PropertyTypes
+import mu.KLogging
+import java.io.*
+import java.lang.ref.Cleaner
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.*
+
+/**
+ * Sorts entities by values returned by [valueGetter] like [InMemoryMergeSortIterableWithValueGetter] does, but
+ * holds in memory at most [runSize] entities with their values. If the source has more entities, sorted runs of
+ * (value, entity id) pairs are spilled to temporary files, and the runs are lazily merged by k-way merge during
+ * iteration. Entities which are not spilled are sorted lazily by [MergeSortTournament], so if the source fits in
+ * a single run, the sort costs as much as [InMemoryMergeSortIterableWithValueGetter] does. Values are encoded by [jetbrains.exodus.bindings.ComparableBinding] of corresponding property types,
+ * so if a value of a type unknown to the entity store is met, the sort continues in memory. The sort is stable.
+ *
+ * Entities of spilled runs are got by [entityGetter] from their ids. Temporary files are deleted as soon as
+ * they are read completely or the iterator becomes unreachable.
+ */
+class ExternalMergeSortIterable @JvmOverloads constructor(
+    private val store: PersistentEntityStoreImpl,
+    private val source: Iterable<Entity>,
+    private val valueGetter: ComparableGetter,
+    private val comparator: Comparator<Comparable<Any>>,
+    private val runSize: Int = DEFAULT_RUN_SIZE,
+    private val entityGetter: (EntityId) -> Entity = { store.getEntity(it) }
+) : Iterable<Entity> {
+
+    init {
+        require(runSize > 0) { "Run size should be positive" }
+    }
+
+    override fun iterator(): Iterator<Entity> = MergingIterator()
+
+    private inner class MergingIterator : Iterator<Entity> {
+
+        private val runs = ArrayList<Run>()
+        private val queue: PriorityQueue<Run>
+
+        init {
+            val propertyTypes = store.propertyTypes
+            var spillable = true
+            var entities = arrayOfNulls<Entity>(16)
+            var values = arrayOfNulls<Comparable<Any>>(16)
+            var size = 0
+            try {
+                for (entity in source) {
+                    if (size >= runSize && spillable) {
+                        val run = spill(propertyTypes, runs.size, entities, values, size)
+                        if (run == null) {
+                            spillable = false
+                        } else {
+                            runs.add(run)
+                            size = 0
+                        }
+                    }
+                    if (size >= entities.size) {
+                        val newSize = if (spillable) minOf(entities.size shl 1, runSize) else entities.size shl 1
+                        entities = entities.copyOf(newSize)
+                        values = values.copyOf(newSize)
+                    }
+                    entities[size] = entity
+                    values[size] = valueGetter.select(entity)
+                    ++size
+                }
+                if (size > 0) {
+                    runs.add(MemoryRun(runs.size, entities, values, MergeSortTournament(values, size, comparator)))
+                }
+            } catch (t: Throwable) {
+                runs.forEach { it.close() }
+                throw t
+            }
+            if (runs.any { it is FileRun }) {
+                logger.info { "Merging ${runs.size} sorted runs, at most $runSize entities each" }
+                CLEANER.register(this, RunsCleanup(runs))
+            }
+            queue = PriorityQueue(maxOf(runs.size, 1)) { r1, r2 ->
+                val cmp = comparator.compare(r1.value, r2.value)
+                if (cmp != 0) cmp else r1.index.compareTo(r2.index)
+            }
+            runs.forEach { if (it.advance()) queue.add(it) }
+        }
+
+        override fun hasNext() = queue.isNotEmpty()
+
+        override fun next(): Entity {
+            val run = queue.poll() ?: throw NoSuchElementException()
+            val result = run.entity
+            if (run.advance()) {
+                queue.add(run)
+            }
+            return result
+        }
+
+        private fun spill(propertyTypes: PropertyTypes,
+                          index: Int,
+                          entities: Array<Entity?>,
+                          values: Array<Comparable<Any>?>,
+                          size: Int): Run? {
+            val sorted = MergeSortTournament(values, size, comparator)
+            val file = Files.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX)
+            try {
+                DataOutputStream(BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE)).use { output ->
+                    while (sorted.hasNext()) {
+                        val i = sorted.next()
+                        val id = entities[i]!!.id
+                        output.writeInt(id.typeId)
+                        output.writeLong(id.localId)
+                        val value = values[i]
+                        if (value == null) {
+                            output.writeInt(-1)
+                        } else {
+                            val entry = PropertyTypes.propertyValueToEntry(propertyTypes.dataToPropertyValue(value))
+                            output.writeInt(entry.length)
+                            output.write(entry.bytesUnsafe, 0, entry.length)
+                        }
+                    }
+                }
+            } catch (e: EntityStoreException) {
+                // value of unsupported property type
+                logger.warn { "Can't spill sorted run to disk, continue sorting in memory: ${e.message}" }
+                Files.deleteIfExists(file)
+                return null
+            } catch (t: Throwable) {
+                Files.deleteIfExists(file)
+                throw t
+            }
+            return FileRun(index, file, propertyTypes)
+        }
+    }
+
+    private abstract class Run(val index: Int) : Closeable {
+
+        var value: Comparable<Any>? = null
+            protected set
+
+        abstract val entity: Entity
+
+        abstract fun advance(): Boolean
+
+        override fun close() {}
+    }
+
+    private class MemoryRun(index: Int,
+                            private val entities: Array<Entity?>,
+                            private val values: Array<Comparable<Any>?>,
+                            private val sorted: MergeSortTournament) : Run(index) {
+
+        private var current = -1
+
+        override val entity: Entity get() = entities[current]!!
+
+        override fun advance(): Boolean {
+            if (!sorted.hasNext()) return false
+            current = sorted.next()
+            value = values[current]
+            return true
+        }
+    }
+
+    private inner class FileRun(index: Int,
+                                private val file: Path,
+                                private val propertyTypes: PropertyTypes) : Run(index) {
+
+        private var input: DataInputStream? =
+            DataInputStream(BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))
+        private var id: EntityId? = null
+
+        override val entity: Entity get() = entityGetter(id!!)
+
+        override fun advance(): Boolean {
+            val input = input ?: return false
+            val typeId: Int
+            try {
+                typeId = input.readInt()
+            } catch (_: EOFException) {
+                close()
+                return false
+            }
+            id = PersistentEntityId(typeId, input.readLong())
+            val length = input.readInt()
+            value = if (length < 0) {
+                null
+            } else {
+                val bytes = ByteArray(length)
+                input.readFully(bytes)
+                @Suppress("UNCHECKED_CAST")
+                propertyTypes.entryToPropertyValue(ArrayByteIterable(bytes)).data as Comparable<Any>
+            }
+            return true
+        }
+
+        override fun close() {
+            input?.let {
+                input = null
+                it.close()
+                Files.deleteIfExists(file)
+            }
+        }
+    }
+
+    private class RunsCleanup(private val runs: List<Closeable>) : Runnable {
+
+        override fun run() {
+            runs.forEach {
+                try {
+                    it.close()
+                } catch (e: IOException) {
+                    logger.warn(e) { "Failed to delete sorted run" }
+                }
+            }
+        }
+    }
+
+    companion object : KLogging() {
+
+        @JvmField
+        val DEFAULT_RUN_SIZE: Int = Integer.getInteger("jetbrains.exodus.query.externalSortRunSize", 1000000)
+
+        private const val TEMP_FILE_PREFIX = "exodus-sort-"
+        private const val TEMP_FILE_SUFFIX = ".run"
+        private const val BUFFER_SIZE = 65536
+
+        private val CLEANER = Cleaner.create()
+    }
+}
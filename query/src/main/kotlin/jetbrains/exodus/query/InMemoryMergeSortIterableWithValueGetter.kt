@@ -27,13 +27,9 @@ class InMemoryMergeSortIterableWithValueGetter(private val source: Iterable<Enti
             private var values: Array<Comparable<Any>?> = arrayOfNulls(1)
             private var src: Array<Entity?> = arrayOfNulls(1)
             private var size: Int = 0
-            private var height: Int = 0
-            private var size2: Int = 0
-            private var next: IntArray
-            private var current: Int = 0
+            private val sorted: MergeSortTournament
 
             init {
-                src = arrayOfNulls<Entity>(1)
                 for (entity in source) {
                     if (size >= src.size) {
                         val size = src.size shl 1
@@ -45,62 +41,15 @@ class InMemoryMergeSortIterableWithValueGetter(private val source: Iterable<Enti
                     values[currentSize] = valueGetter.select(entity)
                     size++
                 }
-                height = 1
-                run {
-                    var i = size
-                    while (i > 1) {
-                        height++
-                        i = i + 1 shr 1
-                    }
-                }
-                next = IntArray(1 shl height)
-                size2 = 1 shl height - 1
-                for (i in 0..size - 1) {
-                    next[i + size2] = i
-                }
-                for (i in size2 + size..next.size - 1) {
-                    next[i] = size
-                }
-                for (i in 1..size2 - 1) {
-                    next[i] = -1
-                }
-                current = 0
+                sorted = MergeSortTournament(values, size, comparator)
             }
 
             override fun hasNext(): Boolean {
-                return current < size
+                return sorted.hasNext()
             }
 
             override fun next(): Entity {
-                var segment = 1
-                // next[current] is index of the least remaining element on current segment
-                // next[current] == -1 means minimum on current segment is not counted yet
-                // next[current] == src.size() means current segment is exhausted
-                while (next[1] < 0) {
-                    segment = segment shl 1
-                    if (segment >= size2 || next[segment] >= 0 && next[segment + 1] >= 0) {
-                        if (next[segment + 1] >= size || next[segment] < size && comparator.compare(values[next[segment]], values[next[segment + 1]]) <= 0) {
-                            next[segment shr 1] = next[segment]
-                        } else {
-                            next[segment shr 1] = next[segment + 1]
-                        }
-                        segment = segment shr 2
-                    } else if (next[segment] >= 0) {
-                        segment++
-                    }
-                }
-                val r = next[1]
-                if (r >= size) {
-                    throw NoSuchElementException()
-                }
-                next[r + size2] = size
-                var i = r + size2 shr 1
-                while (i >= 1) {
-                    next[i] = -1
-                    i = i shr 1
-                }
-                current++
-                return src[r].notNull
+                return src[sorted.next()].notNull
             }
 
             override fun remove() {
@@ -0,0 +1,87 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.query
+
+/**
+ * Tournament tree over indices of the first [size] [values] yielding the indices in ascending order of their
+ * values lazily: building the tree takes O(n) comparisons on the first [next] call, then each index takes
+ * O(log n) comparisons, so getting k first indices of n costs O(n + k log n). Indices of equal values are
+ * yielded in ascending order, i.e. the sort is stable.
+ */
+internal class MergeSortTournament(private val values: Array<Comparable<Any>?>,
+                                   private val size: Int,
+                                   private val comparator: Comparator<Comparable<Any>>) {
+
+    private val next: IntArray
+    private val size2: Int
+    private var current: Int = 0
+
+    init {
+        var height = 1
+        var i = size
+        while (i > 1) {
+            height++
+            i = i + 1 shr 1
+        }
+        next = IntArray(1 shl height)
+        size2 = 1 shl height - 1
+        for (j in 0 until size) {
+            next[j + size2] = j
+        }
+        for (j in size2 + size until next.size) {
+            next[j] = size
+        }
+        for (j in 1 until size2) {
+            next[j] = -1
+        }
+    }
+
+    fun hasNext(): Boolean {
+        return current < size
+    }
+
+    fun next(): Int {
+        var segment = 1
+        // next[current] is index of the least remaining element on current segment
+        // next[current] == -1 means minimum on current segment is not counted yet
+        // next[current] == size means current segment is exhausted
+        while (next[1] < 0) {
+            segment = segment shl 1
+            if (segment >= size2 || next[segment] >= 0 && next[segment + 1] >= 0) {
+                if (next[segment + 1] >= size || next[segment] < size && comparator.compare(values[next[segment]], values[next[segment + 1]]) <= 0) {
+                    next[segment shr 1] = next[segment]
+                } else {
+                    next[segment shr 1] = next[segment + 1]
+                }
+                segment = segment shr 2
+            } else if (next[segment] >= 0) {
+                segment++
+            }
+        }
+        val r = next[1]
+        if (r >= size) {
+            throw NoSuchElementException()
+        }
+        next[r + size2] = size
+        var i = r + size2 shr 1
+        while (i >= 1) {
+            next[i] = -1
+            i = i shr 1
+        }
+        current++
+        return r
+    }
+}
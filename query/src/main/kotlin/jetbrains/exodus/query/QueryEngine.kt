@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.query
 
+import jetbrains.exodus.bindings.ComparableSet
 import jetbrains.exodus.entitystore.Entity
 import jetbrains.exodus.entitystore.EntityIterable
 import jetbrains.exodus.entitystore.PersistentEntityStoreImpl
@@ -30,6 +31,7 @@ import jetbrains.exodus.query.Utils.isTypeOf
 import jetbrains.exodus.query.metadata.ModelMetaData
 import jetbrains.exodus.util.doIfTrue
 import mu.KLogging
+import java.util.*
 
 open class QueryEngine(val modelMetaData: ModelMetaData?, val persistentStore: PersistentEntityStoreImpl) : KLogging() {
 
@@ -310,6 +312,51 @@ open class QueryEngine(val modelMetaData: ModelMetaData?, val persistentStore: P
         return txn.getAll(entityType)
     }
 
+    /**
+     * Returns numbers of entities of specified type grouped by values of specified property. If [instance] is not
+     * `null`, only its entities are counted. Unless [instance] cannot be converted to an [EntityIterable], the result
+     * is computed by the property value index without loading entities.
+     */
+    open fun countBy(entityType: String, propertyName: String, instance: Iterable<Entity>? = null): Map<Comparable<*>, Long> {
+        val txn = persistentStore.andCheckCurrentTransaction
+        instance ?: return txn.countBy(entityType, propertyName)
+        if (instance.isEmpty) return emptyMap()
+        val it = instantiateAndAdjust(instance)
+        return if (it is EntityIterable) {
+            txn.countBy(entityType, propertyName, it)
+        } else {
+            inMemoryCountBy(it, entityType, propertyName)
+        }
+    }
+
+    open fun distinctValues(entityType: String, propertyName: String, instance: Iterable<Entity>? = null): List<Comparable<*>> {
+        return countBy(entityType, propertyName, instance).keys.toList()
+    }
+
+    open fun minValue(entityType: String, propertyName: String, instance: Iterable<Entity>? = null): Comparable<*>? {
+        val txn = persistentStore.andCheckCurrentTransaction
+        instance ?: return txn.getMinValue(entityType, propertyName)
+        if (instance.isEmpty) return null
+        val it = instantiateAndAdjust(instance)
+        return if (it is EntityIterable) {
+            txn.getMinValue(entityType, propertyName, it)
+        } else {
+            inMemoryCountBy(it, entityType, propertyName).keys.firstOrNull()
+        }
+    }
+
+    open fun maxValue(entityType: String, propertyName: String, instance: Iterable<Entity>? = null): Comparable<*>? {
+        val txn = persistentStore.andCheckCurrentTransaction
+        instance ?: return txn.getMaxValue(entityType, propertyName)
+        if (instance.isEmpty) return null
+        val it = instantiateAndAdjust(instance)
+        return if (it is EntityIterable) {
+            txn.getMaxValue(entityType, propertyName, it)
+        } else {
+            inMemoryCountBy(it, entityType, propertyName).keys.lastOrNull()
+        }
+    }
+
     open fun isPersistentIterable(it: Iterable<Entity>): Boolean = it.isPersistent
 
     open fun assertOperational() {}
@@ -350,6 +397,21 @@ open class QueryEngine(val modelMetaData: ModelMetaData?, val persistentStore: P
         return if (ids.isEmpty) left else left.filter { it.id !in ids }
     }
 
+    protected open fun inMemoryCountBy(it: Iterable<Entity>, entityType: String, propertyName: String): Map<Comparable<*>, Long> {
+        reportInMemoryError()
+        val result = TreeMap<Comparable<*>, Long>()
+        it.forEach { entity ->
+            if (entity.type == entityType) {
+                when (val value = entity.getProperty(propertyName)) {
+                    null -> {}
+                    is ComparableSet<*> -> for (item in value) result.count(item)
+                    else -> result.count(value)
+                }
+            }
+        }
+        return result
+    }
+
     protected open fun wrap(entity: Entity): Iterable<Entity>? {
         return SingleEntityIterable(persistentStore.andCheckCurrentTransaction, entity.id)
     }
@@ -404,6 +466,12 @@ private val Iterable<Entity>.asEntityIdSet: EntityIdSet
         return ids
     }
 
+// values are grouped the same way as the property value index does, i.e. strings ignoring character case
+private fun TreeMap<Comparable<*>, Long>.count(value: Comparable<*>) {
+    val key = if (value is String) value.lowercase() else value
+    this[key] = (this[key] ?: 0L) + 1L
+}
+
 private fun List<Entity>.distinct(): Iterable<Entity> {
     var ids = EntityIdSetFactory.newSet()
     return filter { (it.id !in ids).apply { if (this) ids = ids.add(it.id) } }
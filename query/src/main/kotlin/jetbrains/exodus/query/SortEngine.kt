@@ -195,6 +195,11 @@ open class SortEngine {
                         ReverseComparator(toComparator(valueGetter))
             )
             InMemoryMergeSortIterable(source, comparator)
+        } else if (source.mayOverflowSortRun) {
+            // values of sources overflowing the sorted run are spilled to disk
+            val store = queryEngine.persistentStore
+            ExternalMergeSortIterable(store, source, valueGetter, caseInsensitiveComparator(asc),
+                    EXTERNAL_SORT_RUN_SIZE) { id -> attach(store.getEntity(id)) }
         } else {
             InMemoryMergeSortIterableWithValueGetter(source, valueGetter, caseInsensitiveComparator(asc))
         }
@@ -349,6 +354,7 @@ open class SortEngine {
         private val MAX_ENTRIES_TO_SORT_IN_MEMORY = Integer.getInteger("jetbrains.exodus.query.maxEntriesToSortInMemory", 10000000)
         private val MAX_ENUM_COUNT_TO_SORT_LINKS = Integer.getInteger("jetbrains.exodus.query.maxEnumCountToSortLinks", 2048)
         private val MIN_ENTRIES_TO_SORT_LINKS = Integer.getInteger("jetbrains.exodus.query.minEntriesToSortLinks", 16)
+        private val EXTERNAL_SORT_RUN_SIZE = ExternalMergeSortIterable.DEFAULT_RUN_SIZE
 
         private val PROPERTY_VALUE_COMPARATOR = Comparator<Comparable<Any>> { o1, o2 -> compareNullableComparables(o1, o2) }
         private val REVERSE_PROPERTY_VALUE_COMPARATOR = Comparator<Comparable<Any>> { o1, o2 -> compareNullableComparables(o2, o1) }
@@ -366,6 +372,22 @@ open class SortEngine {
 
         }
 
+        /**
+         * Source which is known to fit in a single sorted run is sorted by [InMemoryMergeSortIterableWithValueGetter].
+         * Other sources, including ones of unknown size, are sorted by [ExternalMergeSortIterable] which spills
+         * sorted runs to disk only if the source actually overflows the run, and otherwise sorts lazily in memory
+         * as well.
+         */
+        private val Iterable<Entity>.mayOverflowSortRun: Boolean
+            get() {
+                val count = when (this) {
+                    is Collection<*> -> size.toLong()
+                    is EntityIterableBase -> roughCount
+                    else -> -1L
+                }
+                return count < 0 || count > EXTERNAL_SORT_RUN_SIZE
+            }
+
         private fun caseInsensitiveComparator(asc: Boolean): Comparator<Comparable<Any>> {
             return if (asc) PROPERTY_VALUE_COMPARATOR else REVERSE_PROPERTY_VALUE_COMPARATOR
         }
@@ -102,6 +102,27 @@ class InMemorySortTest : EntityStoreTestBase() {
         ) { InMemoryBoundedHeapSortIterable(PAGE_SIZE, it, comparator) }
     }
 
+    @Test
+    fun testExternalMergeSort() {
+        testSort(storeTransaction.getAll("Issue"),
+                { ExternalMergeSortIterable(entityStore, it, valueGetter, valueComparator, 1000) }, valueGetter, valueComparator)
+    }
+
+    @Test
+    fun testExternalMergeSortInMemory() {
+        testSort(storeTransaction.getAll("Issue"),
+                { ExternalMergeSortIterable(entityStore, it, valueGetter, valueComparator) }, valueGetter, valueComparator)
+    }
+
+    @Test
+    fun testExternalMergeSortIsStable() {
+        // few distinct values, so stability matters
+        val valueGetter = ComparableGetter { (it.getProperty("int") as Int) % 10 }
+        val expected = InMemoryMergeSortIterableWithValueGetter(storeTransaction.getAll("Issue"), valueGetter, valueComparator).map { it.id }
+        val actual = ExternalMergeSortIterable(entityStore, storeTransaction.getAll("Issue"), valueGetter, valueComparator, 999).map { it.id }
+        Assert.assertEquals(expected, actual)
+    }
+
     private fun testSort(it: Iterable<Entity>, sortFun: (it: Iterable<Entity>) -> SortEngine.InMemorySortIterable) {
         val sorted = sortFun(it)
         var prev: Entity? = null
@@ -15,6 +15,7 @@
  */
 package jetbrains.exodus.crypto
 
+import jetbrains.exodus.crypto.streamciphers.AES_CTR_CIPHER_ID
 import jetbrains.exodus.crypto.streamciphers.CHACHA_CIPHER_ID
 import jetbrains.exodus.crypto.streamciphers.SALSA20_CIPHER_ID
 import jetbrains.exodus.entitystore.util.BackupUtil
@@ -79,6 +80,7 @@ fun main(args: Array<String>) {
     val cipherId = when (type) {
         "salsa" -> SALSA20_CIPHER_ID
         "chacha" -> CHACHA_CIPHER_ID
+        "aes" -> AES_CTR_CIPHER_ID
         else -> {
             abort("Unknown cipher id: $type")
         }
@@ -138,7 +140,7 @@ private fun parseIV(arg: String): Long {
 private fun printUsage(): Nothing {
     println("Usage: Scytale [options] source target key basicIV [cipher]")
     println("Source can be archive or folder")
-    println("Cipher can be 'Salsa' or 'ChaCha', 'ChaCha' is default")
+    println("Cipher can be 'Salsa', 'ChaCha' or 'AES', 'ChaCha' is default")
     println("Options:")
     println("  -g              use gzip compression when opening archive")
     println("  -z              make target an archive")
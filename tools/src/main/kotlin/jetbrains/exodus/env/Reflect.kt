@@ -29,6 +29,7 @@ import jetbrains.exodus.log.LogConfig
 import jetbrains.exodus.log.LogUtil
 import jetbrains.exodus.log.NullLoggable
 import jetbrains.exodus.tree.LongIterator
+import jetbrains.exodus.tree.btree.BTreeBase
 import jetbrains.exodus.tree.patricia.PatriciaTreeBase
 import java.io.File
 import java.io.PrintWriter
@@ -141,7 +142,9 @@ class Reflect(directory: File) {
 
     companion object {
 
-        private const val MAX_VALID_LOGGABLE_TYPE = PatriciaTreeBase.MAX_VALID_LOGGABLE_TYPE.toInt()
+        // prefix-compressed B-tree leaves have the type greater than any Patricia loggable type
+        private val MAX_VALID_LOGGABLE_TYPE =
+                maxOf(PatriciaTreeBase.MAX_VALID_LOGGABLE_TYPE.toInt(), BTreeBase.LEAF_PREFIXED.toInt())
 
         private fun inc(counts: IntHashMap<Int>, key: Int) {
             val count = counts[key]
@@ -0,0 +1,162 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.hash;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for open-addressing hash tables with SWAR (SIMD within a register) probing. Slots are arranged in
+ * groups of 8, each slot has a control byte, and control bytes of a group are packed in a single {@code long}, so
+ * all slots of a group can be matched against a hash fragment in a few arithmetic operations.
+ *
+ * A control byte is either {@link #CTRL_EMPTY}, {@link #CTRL_DELETED} (a tombstone) or 7 low bits of the key hash
+ * for a full slot. Lookup stops at the first group having an empty slot.
+ */
+final class FlatHashUtil {
+
+    static final int GROUP_SIZE = 8;
+    static final int GROUP_SIZE_LOG = 3;
+    static final long CTRL_EMPTY = 0x80L;
+    static final long CTRL_DELETED = 0xFEL;
+    static final long CTRL_EMPTY_GROUP = 0x8080808080808080L;
+
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private FlatHashUtil() {
+    }
+
+    static long hash(final long key) {
+        final long h = key * MULTIPLIER;
+        return h ^ (h >>> 32);
+    }
+
+    static int groupIndex(final long hash, final int groupMask) {
+        return (int) (hash >>> 7) & groupMask;
+    }
+
+    static long control(final long hash) {
+        return hash & 0x7F;
+    }
+
+    /**
+     * @return bit mask having high bits set in bytes of the group equal to specified control byte. Can rarely
+     * yield a false positive, so keys should be compared anyway.
+     */
+    static long match(final long group, final long control) {
+        final long x = group ^ (control * LSBS);
+        return (x - LSBS) & ~x & MSBS;
+    }
+
+    static long matchEmpty(final long group) {
+        return group & (~group << 6) & MSBS;
+    }
+
+    static long matchEmptyOrDeleted(final long group) {
+        return group & ~(group << 7) & MSBS;
+    }
+
+    static long matchFull(final long group) {
+        return ~group & MSBS;
+    }
+
+    /**
+     * @return index within a group of the lowest matching slot.
+     */
+    static int lowestSlot(final long matches) {
+        return Long.numberOfTrailingZeros(matches) >>> 3;
+    }
+
+    static long getControl(final long[] controls, final int slot) {
+        return (controls[slot >>> GROUP_SIZE_LOG] >>> ((slot & (GROUP_SIZE - 1)) << 3)) & 0xFF;
+    }
+
+    static void setControl(final long[] controls, final int slot, final long control) {
+        final int groupIndex = slot >>> GROUP_SIZE_LOG;
+        final int shift = (slot & (GROUP_SIZE - 1)) << 3;
+        controls[groupIndex] = (controls[groupIndex] & ~(0xFFL << shift)) | (control << shift);
+    }
+
+    /**
+     * Clears full slot. The slot can become empty only if its group already has an empty slot: in that case,
+     * no lookup probed beyond the group, otherwise a tombstone is required.
+     *
+     * @return {@code true} if the slot became empty, {@code false} if it became a tombstone.
+     */
+    static boolean clearControl(final long[] controls, final int slot) {
+        if (matchEmpty(controls[slot >>> GROUP_SIZE_LOG]) != 0) {
+            setControl(controls, slot, CTRL_EMPTY);
+            return true;
+        }
+        setControl(controls, slot, CTRL_DELETED);
+        return false;
+    }
+
+    /**
+     * @return index of the first empty or deleted slot in the probe sequence of the hash.
+     */
+    static int findInsertSlot(final long[] controls, final long hash) {
+        final int groupMask = controls.length - 1;
+        int groupIndex = groupIndex(hash, groupMask);
+        while (true) {
+            final long matches = matchEmptyOrDeleted(controls[groupIndex]);
+            if (matches != 0) {
+                return (groupIndex << GROUP_SIZE_LOG) + lowestSlot(matches);
+            }
+            groupIndex = (groupIndex + 1) & groupMask;
+        }
+    }
+
+    /**
+     * @return index of the first full slot not less than specified one, or {@code -1} if there is no such slot.
+     */
+    static int nextFullSlot(final long[] controls, final int slot) {
+        int groupIndex = slot >>> GROUP_SIZE_LOG;
+        if (groupIndex >= controls.length) {
+            return -1;
+        }
+        long matches = matchFull(controls[groupIndex]) & (-1L << ((slot & (GROUP_SIZE - 1)) << 3));
+        while (matches == 0) {
+            if (++groupIndex == controls.length) {
+                return -1;
+            }
+            matches = matchFull(controls[groupIndex]);
+        }
+        return (groupIndex << GROUP_SIZE_LOG) + lowestSlot(matches);
+    }
+
+    /**
+     * @return number of groups (a power of 2) enough to hold specified number of elements.
+     */
+    static int groupsFor(final int capacity) {
+        final int minGroups = Math.max(1, (capacity + GROUP_SIZE - 2) / (GROUP_SIZE - 1));
+        return Integer.highestOneBit(minGroups) == minGroups ? minGroups : Integer.highestOneBit(minGroups) << 1;
+    }
+
+    /**
+     * Maximum load factor is 7/8, so there is always at least one empty slot and lookups terminate.
+     */
+    static int maxSize(final int groups) {
+        return groups * (GROUP_SIZE - 1);
+    }
+
+    static long[] allocateControls(final int groups) {
+        final long[] result = new long[groups];
+        Arrays.fill(result, CTRL_EMPTY_GROUP);
+        return result;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.hash;
+
+import java.util.Map;
+
+import static jetbrains.exodus.core.dataStructures.hash.FlatHashUtil.*;
+
+/**
+ * Open-addressing map with {@code long} keys. Unlike {@link LongHashMap}, it doesn't allocate an entry per mapping:
+ * keys and values are stored in flat arrays and probed by groups of 8 slots using {@link FlatHashUtil SWAR control
+ * bytes}. Entries are created only on demand by the {@link Map} API.
+ */
+public class LongFlatHashMap<V> extends AbstractHashMap<Long, V> {
+
+    private long[] controls;
+    private long[] keys;
+    private Object[] values;
+    private int growthLeft;
+
+    public LongFlatHashMap() {
+        this(0);
+    }
+
+    public LongFlatHashMap(int capacity) {
+        init(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+        final int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    public V get(final Object key) {
+        return get(((Long) key).longValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(final long key, final V value) {
+        final int slot = find(key);
+        if (slot >= 0) {
+            final V result = (V) values[slot];
+            values[slot] = value;
+            return result;
+        }
+        insert(key, value);
+        return null;
+    }
+
+    @Override
+    public V put(final Long key, final V value) {
+        return put(key.longValue(), value);
+    }
+
+    public boolean containsKey(final long key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return containsKey(((Long) key).longValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(final long key) {
+        final int slot = find(key);
+        if (slot < 0) return null;
+        final V result = (V) values[slot];
+        removeSlot(slot);
+        return result;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return remove(((Long) key).longValue());
+    }
+
+    @Override
+    protected Map.Entry<Long, V> getEntry(final Object key) {
+        final int slot = find((Long) key);
+        return slot < 0 ? null : new Entry(slot);
+    }
+
+    @Override
+    protected void init(int capacity) {
+        final int groups = groupsFor(capacity);
+        controls = allocateControls(groups);
+        keys = new long[groups << GROUP_SIZE_LOG];
+        values = new Object[groups << GROUP_SIZE_LOG];
+        growthLeft = maxSize(groups);
+        _size = 0;
+    }
+
+    @Override
+    protected HashMapIterator hashIterator() {
+        return new HashIterator();
+    }
+
+    private int find(final long key) {
+        final long hash = hash(key);
+        final long control = control(hash);
+        final long[] controls = this.controls;
+        final long[] keys = this.keys;
+        final int groupMask = controls.length - 1;
+        int groupIndex = groupIndex(hash, groupMask);
+        while (true) {
+            final long group = controls[groupIndex];
+            for (long matches = match(group, control); matches != 0; matches &= matches - 1) {
+                final int slot = (groupIndex << GROUP_SIZE_LOG) + lowestSlot(matches);
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            if (matchEmpty(group) != 0) {
+                return -1;
+            }
+            groupIndex = (groupIndex + 1) & groupMask;
+        }
+    }
+
+    private void insert(final long key, final V value) {
+        final long hash = hash(key);
+        int slot = findInsertSlot(controls, hash);
+        if (growthLeft == 0 && getControl(controls, slot) == CTRL_EMPTY) {
+            rehash();
+            slot = findInsertSlot(controls, hash);
+        }
+        if (getControl(controls, slot) == CTRL_EMPTY) {
+            --growthLeft;
+        }
+        setControl(controls, slot, control(hash));
+        keys[slot] = key;
+        values[slot] = value;
+        _size += 1;
+    }
+
+    private void removeSlot(final int slot) {
+        if (clearControl(controls, slot)) {
+            ++growthLeft;
+        }
+        values[slot] = null;
+        _size -= 1;
+    }
+
+    /**
+     * Doubles the table or, if it's mostly filled with tombstones, just rebuilds it in place.
+     */
+    private void rehash() {
+        final long[] oldControls = controls;
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        final int groups = oldControls.length;
+        final int size = _size;
+        init(maxSize(size <= maxSize(groups) / 2 ? groups : groups << 1));
+        final long[] controls = this.controls;
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+        for (int i = nextFullSlot(oldControls, 0); i >= 0; i = nextFullSlot(oldControls, i + 1)) {
+            final long key = oldKeys[i];
+            final long hash = hash(key);
+            final int slot = findInsertSlot(controls, hash);
+            setControl(controls, slot, control(hash));
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+        growthLeft -= size;
+        _size = size;
+    }
+
+    /**
+     * Entry refers to the slot it was created for as long as the slot holds its key, i.e. until the table is
+     * rehashed. After that, it falls back to lookups.
+     */
+    private final class Entry implements Map.Entry<Long, V> {
+
+        private final long key;
+        private int slot;
+
+        private Entry(final int slot) {
+            this.key = keys[slot];
+            this.slot = slot;
+        }
+
+        @Override
+        public Long getKey() {
+            return key;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V getValue() {
+            final int slot = getSlot();
+            return slot < 0 ? null : (V) values[slot];
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V setValue(final V value) {
+            final int slot = getSlot();
+            if (slot < 0) {
+                return put(key, value);
+            }
+            final V result = (V) values[slot];
+            values[slot] = value;
+            return result;
+        }
+
+        private int getSlot() {
+            final int slot = this.slot;
+            if (slot >= 0 && slot < keys.length && keys[slot] == key && getControl(controls, slot) < CTRL_EMPTY) {
+                return slot;
+            }
+            return this.slot = find(key);
+        }
+    }
+
+    private final class HashIterator extends HashMapIterator {
+
+        private final long[] controls = LongFlatHashMap.this.controls;
+        private int slot;
+        private int last = -1;
+
+        HashIterator() {
+            slot = nextFullSlot(controls, 0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot >= 0;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            removeSlot(last);
+            last = -1;
+        }
+
+        @Override
+        protected Entry nextEntry() {
+            final Entry result = new Entry(last = slot);
+            slot = nextFullSlot(controls, slot + 1);
+            return result;
+        }
+    }
+}
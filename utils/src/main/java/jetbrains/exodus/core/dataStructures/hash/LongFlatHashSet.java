@@ -0,0 +1,237 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.hash;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+import static jetbrains.exodus.core.dataStructures.hash.FlatHashUtil.*;
+
+/**
+ * Open-addressing set of {@code long} values. Unlike {@link LongHashSet}, it doesn't allocate an entry per element,
+ * elements are stored in a flat array and probed by groups of 8 slots using {@link FlatHashUtil SWAR control bytes}.
+ */
+public class LongFlatHashSet extends AbstractSet<Long> implements LongSet {
+
+    private long[] controls;
+    private long[] keys;
+    private int size;
+    private int growthLeft;
+
+    public LongFlatHashSet() {
+        this(0);
+    }
+
+    public LongFlatHashSet(int capacity) {
+        init(capacity);
+    }
+
+    public LongFlatHashSet(@NotNull final LongSet source) {
+        this(source.size());
+        final LongIterator itr = source.iterator();
+        while (itr.hasNext()) {
+            add(itr.nextLong());
+        }
+    }
+
+    public LongFlatHashSet(@NotNull final Collection<Long> source) {
+        this(source.size());
+        for (final long element : source) {
+            add(element);
+        }
+    }
+
+    @Override
+    public boolean contains(final long key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public boolean contains(final Object key) {
+        return contains(((Long) key).longValue());
+    }
+
+    @Override
+    public boolean add(final long key) {
+        if (find(key) >= 0) {
+            return false;
+        }
+        final long hash = hash(key);
+        int slot = findInsertSlot(controls, hash);
+        if (growthLeft == 0 && getControl(controls, slot) == CTRL_EMPTY) {
+            rehash();
+            slot = findInsertSlot(controls, hash);
+        }
+        if (getControl(controls, slot) == CTRL_EMPTY) {
+            --growthLeft;
+        }
+        setControl(controls, slot, control(hash));
+        keys[slot] = key;
+        size += 1;
+        return true;
+    }
+
+    @Override
+    public boolean add(Long key) {
+        return add(key.longValue());
+    }
+
+    @Override
+    public boolean remove(long key) {
+        final int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object key) {
+        return remove(((Long) key).longValue());
+    }
+
+    @Override
+    public void clear() {
+        init(0);
+    }
+
+    @Override
+    public @NotNull LongIterator iterator() {
+        return new HashSetIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long[] toLongArray() {
+        if (size == 0) return EMPTY_ARRAY;
+        final long[] result = new long[size];
+        final long[] controls = this.controls;
+        final long[] keys = this.keys;
+        int i = 0;
+        for (int slot = nextFullSlot(controls, 0); slot >= 0; slot = nextFullSlot(controls, slot + 1)) {
+            result[i++] = keys[slot];
+        }
+        return result;
+    }
+
+    private void init(int capacity) {
+        final int groups = groupsFor(capacity);
+        controls = allocateControls(groups);
+        keys = new long[groups << GROUP_SIZE_LOG];
+        growthLeft = maxSize(groups);
+        size = 0;
+    }
+
+    private int find(final long key) {
+        final long hash = hash(key);
+        final long control = control(hash);
+        final long[] controls = this.controls;
+        final long[] keys = this.keys;
+        final int groupMask = controls.length - 1;
+        int groupIndex = groupIndex(hash, groupMask);
+        while (true) {
+            final long group = controls[groupIndex];
+            for (long matches = match(group, control); matches != 0; matches &= matches - 1) {
+                final int slot = (groupIndex << GROUP_SIZE_LOG) + lowestSlot(matches);
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            if (matchEmpty(group) != 0) {
+                return -1;
+            }
+            groupIndex = (groupIndex + 1) & groupMask;
+        }
+    }
+
+    private void removeSlot(final int slot) {
+        if (clearControl(controls, slot)) {
+            ++growthLeft;
+        }
+        size -= 1;
+    }
+
+    /**
+     * Doubles the table or, if it's mostly filled with tombstones, just rebuilds it in place.
+     */
+    private void rehash() {
+        final long[] oldControls = controls;
+        final long[] oldKeys = keys;
+        final int groups = oldControls.length;
+        final int size = this.size;
+        init(maxSize(size <= maxSize(groups) / 2 ? groups : groups << 1));
+        final long[] controls = this.controls;
+        final long[] keys = this.keys;
+        for (int i = nextFullSlot(oldControls, 0); i >= 0; i = nextFullSlot(oldControls, i + 1)) {
+            final long key = oldKeys[i];
+            final long hash = hash(key);
+            final int slot = findInsertSlot(controls, hash);
+            setControl(controls, slot, control(hash));
+            keys[slot] = key;
+        }
+        growthLeft -= size;
+        this.size = size;
+    }
+
+    private class HashSetIterator implements LongIterator {
+
+        private final long[] controls = LongFlatHashSet.this.controls;
+        private final long[] keys = LongFlatHashSet.this.keys;
+        private int slot;
+        private int last = -1;
+
+        HashSetIterator() {
+            slot = nextFullSlot(controls, 0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot >= 0;
+        }
+
+        @Override
+        public Long next() {
+            return nextLong();
+        }
+
+        @Override
+        public long nextLong() {
+            if (slot < 0) {
+                throw new NoSuchElementException();
+            }
+            final long result = keys[last = slot];
+            slot = nextFullSlot(controls, slot + 1);
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            removeSlot(last);
+            last = -1;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.persistent;
+
+import jetbrains.exodus.core.dataStructures.hash.PairProcedure;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+
+abstract class AbstractPersistentChampHashMap<K, V> {
+
+    @NotNull
+    abstract ChampNode<K, V> getRootNode();
+
+    public abstract int size();
+
+    public final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Nullable
+    public final V get(@NotNull final K key) {
+        return getRootNode().find(key, key.hashCode(), 0);
+    }
+
+    public final boolean containsKey(@NotNull final K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Iterates over entries until the procedure returns {@code false}.
+     *
+     * @return {@code false} if iteration was stopped by the procedure
+     */
+    public final boolean forEach(@NotNull final PairProcedure<K, V> procedure) {
+        return getRootNode().forEach(procedure);
+    }
+
+    public final Iterator<K> keyIterator() {
+        return new KeyIterator<>(getRootNode());
+    }
+
+    /**
+     * Reports entries added, removed or changed in the specified map compared to this one. If the maps are
+     * versions of the same {@linkplain PersistentChampHashMap}, unchanged sub-trees are shared and skipped.
+     */
+    public final void diff(@NotNull final AbstractPersistentChampHashMap<K, V> to,
+                           @NotNull final PersistentChampHashMap.DiffVisitor<K, V> visitor) {
+        ChampNode.diff(getRootNode(), to.getRootNode(), 0, visitor);
+    }
+
+    @Override
+    public final boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof AbstractPersistentChampHashMap)) {
+            return false;
+        }
+        final AbstractPersistentChampHashMap<?, ?> that = (AbstractPersistentChampHashMap<?, ?>) obj;
+        return size() == that.size() && ChampNode.equals(getRootNode(), that.getRootNode());
+    }
+
+    @Override
+    public final int hashCode() {
+        final int[] result = {0};
+        forEach((key, value) -> {
+            result[0] += key.hashCode() ^ value.hashCode();
+            return true;
+        });
+        return result[0];
+    }
+
+    private static final class KeyIterator<K, V> extends ChampNode.EntryIterator<K, V> implements Iterator<K> {
+
+        private KeyIterator(@NotNull final ChampNode<K, V> root) {
+            super(root);
+        }
+
+        @Override
+        public K next() {
+            final int index = nextIndex();
+            return dataNode().keyAt(index);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.persistent;
+
+import jetbrains.exodus.core.dataStructures.hash.ObjectProcedure;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+
+/**
+ * Keys of CHAMP-encoded sets are stored as their own values, so {@linkplain #getKey(Object)} returns
+ * the instance which was added to the set.
+ */
+abstract class AbstractPersistentChampHashSet<K> implements Iterable<K> {
+
+    @NotNull
+    abstract ChampNode<K, K> getRootNode();
+
+    public abstract int size();
+
+    public final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public final boolean contains(@NotNull final K key) {
+        return getKey(key) != null;
+    }
+
+    @Nullable
+    public final K getKey(@NotNull final K key) {
+        return getRootNode().find(key, key.hashCode(), 0);
+    }
+
+    @Override
+    public final Iterator<K> iterator() {
+        return new KeyIterator<>(getRootNode());
+    }
+
+    /**
+     * Iterates over keys until the procedure returns {@code false}.
+     *
+     * @return {@code false} if iteration was stopped by the procedure
+     */
+    public final boolean forEachKey(@NotNull final ObjectProcedure<K> procedure) {
+        return getRootNode().forEachKey(procedure);
+    }
+
+    /**
+     * Reports keys added or removed in the specified set compared to this one. If the sets are versions
+     * of the same {@linkplain PersistentChampHashSet}, unchanged sub-trees are shared and skipped.
+     */
+    public final void diff(@NotNull final AbstractPersistentChampHashSet<K> to,
+                           @NotNull final PersistentChampHashSet.DiffVisitor<K> visitor) {
+        ChampNode.diff(getRootNode(), to.getRootNode(), 0, new PersistentChampHashMap.DiffVisitor<K, K>() {
+            @Override
+            public void added(@NotNull final K key, @NotNull final K value) {
+                visitor.added(key);
+            }
+
+            @Override
+            public void removed(@NotNull final K key, @NotNull final K value) {
+                visitor.removed(key);
+            }
+
+            @Override
+            public void changed(@NotNull final K key, @NotNull final K oldValue, @NotNull final K newValue) {
+                // equal keys are equal values
+            }
+        });
+    }
+
+    @Override
+    public final boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof AbstractPersistentChampHashSet)) {
+            return false;
+        }
+        final AbstractPersistentChampHashSet<?> that = (AbstractPersistentChampHashSet<?>) obj;
+        return size() == that.size() && ChampNode.equals(getRootNode(), that.getRootNode());
+    }
+
+    @Override
+    public final int hashCode() {
+        final int[] result = {0};
+        forEachKey(key -> {
+            result[0] += key.hashCode();
+            return true;
+        });
+        return result[0];
+    }
+
+    private static final class KeyIterator<K> extends ChampNode.EntryIterator<K, K> implements Iterator<K> {
+
+        private KeyIterator(@NotNull final ChampNode<K, K> root) {
+            super(root);
+        }
+
+        @Override
+        public K next() {
+            final int index = nextIndex();
+            return dataNode().keyAt(index);
+        }
+    }
+}
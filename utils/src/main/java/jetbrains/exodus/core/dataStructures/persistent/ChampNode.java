@@ -0,0 +1,813 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.persistent;
+
+import jetbrains.exodus.core.dataStructures.hash.ObjectProcedure;
+import jetbrains.exodus.core.dataStructures.hash.PairProcedure;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Node of Compressed Hash-Array Mapped Prefix-tree (CHAMP). A bitmap indexed node keeps key/value pairs inline
+ * in the beginning of its content array and sub-nodes in the end of the array in reverse order, so there are no
+ * empty slots and no intermediate entry objects. After removals the tree is compacted to its canonical form, so
+ * equal maps have equal shapes regardless of history of modifications, that allows structural equality and diff.
+ * <p>
+ * A node created by a mutable map is tagged with the map's owner token and can be edited in place by the same
+ * mutable map until the map publishes its changes, which saves allocations in batches of modifications.
+ */
+abstract class ChampNode<K, V> {
+
+    static final int BITS_PER_LEVEL = 5;
+    static final int BITS_IN_HASH = 32;
+    static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+    static final int MAX_DEPTH = (BITS_IN_HASH + BITS_PER_LEVEL - 1) / BITS_PER_LEVEL + 1;
+
+    static final Object[] EMPTY_CONTENT = {};
+    @SuppressWarnings("rawtypes")
+    static final ChampNode EMPTY_NODE = new BitmapIndexedNode(null, 0, 0, EMPTY_CONTENT);
+
+    private static final int SIZE_EMPTY = 0;
+    private static final int SIZE_ONE = 1;
+    private static final int SIZE_MORE = 2;
+
+    @Nullable
+    final Object owner;
+
+    ChampNode(@Nullable final Object owner) {
+        this.owner = owner;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> ChampNode<K, V> emptyNode() {
+        return (ChampNode<K, V>) EMPTY_NODE;
+    }
+
+    @Nullable
+    abstract V find(@NotNull K key, int hash, int shift);
+
+    @NotNull
+    abstract ChampNode<K, V> put(@Nullable Object owner, @NotNull K key, @NotNull V value, int hash, int shift, @NotNull Change<V> change);
+
+    @NotNull
+    abstract ChampNode<K, V> remove(@Nullable Object owner, @NotNull K key, int hash, int shift, @NotNull Change<V> change);
+
+    abstract int dataArity();
+
+    abstract K keyAt(int index);
+
+    abstract V valueAt(int index);
+
+    abstract int nodeArity();
+
+    abstract ChampNode<K, V> nodeAt(int index);
+
+    abstract boolean structurallyEquals(@NotNull ChampNode<K, V> node);
+
+    abstract void checkNode(int shift);
+
+    final boolean isEditableBy(@Nullable final Object owner) {
+        return owner != null && this.owner == owner;
+    }
+
+    final int sizePredicate() {
+        if (nodeArity() != 0) {
+            return SIZE_MORE;
+        }
+        final int dataArity = dataArity();
+        return dataArity == 0 ? SIZE_EMPTY : (dataArity == 1 ? SIZE_ONE : SIZE_MORE);
+    }
+
+    final boolean forEach(@NotNull final PairProcedure<K, V> procedure) {
+        final int dataArity = dataArity();
+        for (int i = 0; i < dataArity; ++i) {
+            if (!procedure.execute(keyAt(i), valueAt(i))) {
+                return false;
+            }
+        }
+        final int nodeArity = nodeArity();
+        for (int i = 0; i < nodeArity; ++i) {
+            if (!nodeAt(i).forEach(procedure)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    final boolean forEachKey(@NotNull final ObjectProcedure<K> procedure) {
+        final int dataArity = dataArity();
+        for (int i = 0; i < dataArity; ++i) {
+            if (!procedure.execute(keyAt(i))) {
+                return false;
+            }
+        }
+        final int nodeArity = nodeArity();
+        for (int i = 0; i < nodeArity; ++i) {
+            if (!nodeAt(i).forEachKey(procedure)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int mask(final int hash, final int shift) {
+        return (hash >>> shift) & LEVEL_MASK;
+    }
+
+    static int bitpos(final int mask) {
+        return 1 << mask;
+    }
+
+    static boolean equals(@NotNull final ChampNode<?, ?> node1, @NotNull final ChampNode<?, ?> node2) {
+        //noinspection unchecked,rawtypes
+        return node1 == node2 || ((ChampNode) node1).structurallyEquals(node2);
+    }
+
+    /**
+     * Reports differences between two trees. Sub-trees shared by the trees are skipped, so the diff of a version
+     * of a map with its modification costs proportionally to the size of the modification.
+     */
+    static <K, V> void diff(@NotNull final ChampNode<K, V> from,
+                            @NotNull final ChampNode<K, V> to,
+                            final int shift,
+                            @NotNull final PersistentChampHashMap.DiffVisitor<K, V> visitor) {
+        if (from == to) {
+            return;
+        }
+        if (shift >= BITS_IN_HASH) {
+            diffByLookup(from, to, shift, visitor);
+            return;
+        }
+        final BitmapIndexedNode<K, V> fromNode = (BitmapIndexedNode<K, V>) from;
+        final BitmapIndexedNode<K, V> toNode = (BitmapIndexedNode<K, V>) to;
+        int bitmap = fromNode.dataMap | fromNode.nodeMap | toNode.dataMap | toNode.nodeMap;
+        while (bitmap != 0) {
+            final int bitpos = Integer.lowestOneBit(bitmap);
+            bitmap ^= bitpos;
+            if ((fromNode.dataMap & bitpos) != 0) {
+                final int fromIndex = fromNode.dataIndex(bitpos);
+                final K fromKey = fromNode.keyAt(fromIndex);
+                final V fromValue = fromNode.valueAt(fromIndex);
+                if ((toNode.dataMap & bitpos) != 0) {
+                    final int toIndex = toNode.dataIndex(bitpos);
+                    final K toKey = toNode.keyAt(toIndex);
+                    final V toValue = toNode.valueAt(toIndex);
+                    if (fromKey.equals(toKey)) {
+                        if (!fromValue.equals(toValue)) {
+                            visitor.changed(fromKey, fromValue, toValue);
+                        }
+                    } else {
+                        visitor.removed(fromKey, fromValue);
+                        visitor.added(toKey, toValue);
+                    }
+                } else if ((toNode.nodeMap & bitpos) != 0) {
+                    diffEntryWithNode(fromKey, fromValue, toNode.nodeAt(toNode.nodeIndex(bitpos)), false, visitor);
+                } else {
+                    visitor.removed(fromKey, fromValue);
+                }
+            } else if ((fromNode.nodeMap & bitpos) != 0) {
+                final ChampNode<K, V> fromSubNode = fromNode.nodeAt(fromNode.nodeIndex(bitpos));
+                if ((toNode.dataMap & bitpos) != 0) {
+                    final int toIndex = toNode.dataIndex(bitpos);
+                    diffEntryWithNode(toNode.keyAt(toIndex), toNode.valueAt(toIndex), fromSubNode, true, visitor);
+                } else if ((toNode.nodeMap & bitpos) != 0) {
+                    diff(fromSubNode, toNode.nodeAt(toNode.nodeIndex(bitpos)), shift + BITS_PER_LEVEL, visitor);
+                } else {
+                    fromSubNode.forEach((key, value) -> {
+                        visitor.removed(key, value);
+                        return true;
+                    });
+                }
+            } else if ((toNode.dataMap & bitpos) != 0) {
+                final int toIndex = toNode.dataIndex(bitpos);
+                visitor.added(toNode.keyAt(toIndex), toNode.valueAt(toIndex));
+            } else {
+                toNode.nodeAt(toNode.nodeIndex(bitpos)).forEach((key, value) -> {
+                    visitor.added(key, value);
+                    return true;
+                });
+            }
+        }
+    }
+
+    /**
+     * Reports differences between a sub-tree and an entry which replaces it in the other tree or is replaced by it.
+     *
+     * @param entryIsNew {@code true} if the entry belongs to the new tree and the node belongs to the old one
+     */
+    private static <K, V> void diffEntryWithNode(@NotNull final K entryKey,
+                                                 @NotNull final V entryValue,
+                                                 @NotNull final ChampNode<K, V> node,
+                                                 final boolean entryIsNew,
+                                                 @NotNull final PersistentChampHashMap.DiffVisitor<K, V> visitor) {
+        final boolean[] found = {false};
+        node.forEach((key, value) -> {
+            if (key.equals(entryKey)) {
+                found[0] = true;
+                if (!value.equals(entryValue)) {
+                    if (entryIsNew) {
+                        visitor.changed(key, value, entryValue);
+                    } else {
+                        visitor.changed(key, entryValue, value);
+                    }
+                }
+            } else if (entryIsNew) {
+                visitor.removed(key, value);
+            } else {
+                visitor.added(key, value);
+            }
+            return true;
+        });
+        if (!found[0]) {
+            if (entryIsNew) {
+                visitor.added(entryKey, entryValue);
+            } else {
+                visitor.removed(entryKey, entryValue);
+            }
+        }
+    }
+
+    private static <K, V> void diffByLookup(@NotNull final ChampNode<K, V> from,
+                                            @NotNull final ChampNode<K, V> to,
+                                            final int shift,
+                                            @NotNull final PersistentChampHashMap.DiffVisitor<K, V> visitor) {
+        from.forEach((key, value) -> {
+            final V toValue = to.find(key, key.hashCode(), shift);
+            if (toValue == null) {
+                visitor.removed(key, value);
+            } else if (!value.equals(toValue)) {
+                visitor.changed(key, value, toValue);
+            }
+            return true;
+        });
+        to.forEach((key, value) -> {
+            if (from.find(key, key.hashCode(), shift) == null) {
+                visitor.added(key, value);
+            }
+            return true;
+        });
+    }
+
+    private static <K, V> ChampNode<K, V> mergeTwoEntries(@Nullable final Object owner,
+                                                          @NotNull final K key0, @NotNull final V value0, final int hash0,
+                                                          @NotNull final K key1, @NotNull final V value1, final int hash1,
+                                                          final int shift) {
+        if (shift >= BITS_IN_HASH) {
+            //noinspection unchecked
+            return new HashCollisionNode<>(owner, hash0, (K[]) new Object[]{key0, key1}, (V[]) new Object[]{value0, value1});
+        }
+        final int mask0 = mask(hash0, shift);
+        final int mask1 = mask(hash1, shift);
+        if (mask0 != mask1) {
+            final int dataMap = bitpos(mask0) | bitpos(mask1);
+            return new BitmapIndexedNode<>(owner, dataMap, 0, mask0 < mask1 ?
+                    new Object[]{key0, value0, key1, value1} : new Object[]{key1, value1, key0, value0});
+        }
+        final ChampNode<K, V> node = mergeTwoEntries(owner, key0, value0, hash0, key1, value1, hash1, shift + BITS_PER_LEVEL);
+        return new BitmapIndexedNode<>(owner, 0, bitpos(mask0), new Object[]{node});
+    }
+
+    /**
+     * Published version of a tree: its root node and number of entries.
+     */
+    static final class Root<K, V> {
+
+        @SuppressWarnings("rawtypes")
+        static final Root EMPTY = new Root<>(emptyNode(), 0);
+
+        @NotNull
+        final ChampNode<K, V> node;
+        final int size;
+
+        Root(@NotNull final ChampNode<K, V> node, final int size) {
+            this.node = node;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <K, V> Root<K, V> empty() {
+            return (Root<K, V>) EMPTY;
+        }
+    }
+
+    /**
+     * Result of a modification of a tree. The instance is reused by a mutable map for all its modifications.
+     */
+    static final class Change<V> {
+
+        boolean modified;
+        int sizeDelta;
+        @Nullable
+        V oldValue;
+
+        void reset() {
+            modified = false;
+            sizeDelta = 0;
+            oldValue = null;
+        }
+    }
+
+    static final class BitmapIndexedNode<K, V> extends ChampNode<K, V> {
+
+        private int dataMap;
+        private int nodeMap;
+        private Object[] content;
+
+        BitmapIndexedNode(@Nullable final Object owner, final int dataMap, final int nodeMap, @NotNull final Object[] content) {
+            super(owner);
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            //noinspection AssignmentToCollectionOrArrayFieldFromParameter
+            this.content = content;
+        }
+
+        @Override
+        @Nullable
+        V find(@NotNull final K key, final int hash, final int shift) {
+            final int bitpos = bitpos(mask(hash, shift));
+            if ((dataMap & bitpos) != 0) {
+                final int index = dataIndex(bitpos);
+                return key.equals(keyAt(index)) ? valueAt(index) : null;
+            }
+            if ((nodeMap & bitpos) != 0) {
+                return nodeAt(nodeIndex(bitpos)).find(key, hash, shift + BITS_PER_LEVEL);
+            }
+            return null;
+        }
+
+        @Override
+        @NotNull
+        ChampNode<K, V> put(@Nullable final Object owner, @NotNull final K key, @NotNull final V value,
+                            final int hash, final int shift, @NotNull final Change<V> change) {
+            final int bitpos = bitpos(mask(hash, shift));
+            if ((dataMap & bitpos) != 0) {
+                final int index = dataIndex(bitpos);
+                final K currentKey = keyAt(index);
+                if (currentKey.equals(key)) {
+                    final V currentValue = valueAt(index);
+                    change.oldValue = currentValue;
+                    if (currentKey == key && currentValue == value) {
+                        return this;
+                    }
+                    change.modified = true;
+                    return copyAndSetEntry(owner, index, key, value);
+                }
+                final ChampNode<K, V> node = mergeTwoEntries(owner,
+                        currentKey, valueAt(index), currentKey.hashCode(), key, value, hash, shift + BITS_PER_LEVEL);
+                change.modified = true;
+                change.sizeDelta = 1;
+                return copyAndMigrateFromInlineToNode(owner, bitpos, node);
+            }
+            if ((nodeMap & bitpos) != 0) {
+                final ChampNode<K, V> node = nodeAt(nodeIndex(bitpos));
+                final ChampNode<K, V> newNode = node.put(owner, key, value, hash, shift + BITS_PER_LEVEL, change);
+                return newNode == node ? this : copyAndSetNode(owner, bitpos, newNode);
+            }
+            change.modified = true;
+            change.sizeDelta = 1;
+            return copyAndInsertEntry(owner, bitpos, key, value);
+        }
+
+        @Override
+        @NotNull
+        ChampNode<K, V> remove(@Nullable final Object owner, @NotNull final K key,
+                               final int hash, final int shift, @NotNull final Change<V> change) {
+            final int bitpos = bitpos(mask(hash, shift));
+            if ((dataMap & bitpos) != 0) {
+                final int index = dataIndex(bitpos);
+                if (!key.equals(keyAt(index))) {
+                    return this;
+                }
+                change.modified = true;
+                change.sizeDelta = -1;
+                change.oldValue = valueAt(index);
+                if (shift > 0 && nodeMap == 0 && Integer.bitCount(dataMap) == 2) {
+                    // the remaining entry will be inlined by the parent node, or it will become a root
+                    // node, so its position is calculated for the root level
+                    final int remaining = 1 - index;
+                    return new BitmapIndexedNode<>(owner, bitpos(mask(keyAt(remaining).hashCode(), 0)), 0,
+                            new Object[]{keyAt(remaining), valueAt(remaining)});
+                }
+                return copyAndRemoveEntry(owner, bitpos);
+            }
+            if ((nodeMap & bitpos) != 0) {
+                final ChampNode<K, V> node = nodeAt(nodeIndex(bitpos));
+                final ChampNode<K, V> newNode = node.remove(owner, key, hash, shift + BITS_PER_LEVEL, change);
+                if (!change.modified) {
+                    return this;
+                }
+                if (newNode.sizePredicate() == SIZE_ONE) {
+                    if (dataMap == 0 && Integer.bitCount(nodeMap) == 1) {
+                        // escalate the single entry
+                        return newNode;
+                    }
+                    return copyAndMigrateFromNodeToInline(owner, bitpos, newNode);
+                }
+                return newNode == node ? this : copyAndSetNode(owner, bitpos, newNode);
+            }
+            return this;
+        }
+
+        @Override
+        int dataArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        K keyAt(final int index) {
+            return (K) content[index << 1];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        V valueAt(final int index) {
+            return (V) content[(index << 1) + 1];
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        ChampNode<K, V> nodeAt(final int index) {
+            return (ChampNode<K, V>) content[content.length - 1 - index];
+        }
+
+        int dataIndex(final int bitpos) {
+            return Integer.bitCount(dataMap & (bitpos - 1));
+        }
+
+        int nodeIndex(final int bitpos) {
+            return Integer.bitCount(nodeMap & (bitpos - 1));
+        }
+
+        @Override
+        boolean structurallyEquals(@NotNull final ChampNode<K, V> node) {
+            if (this == node) {
+                return true;
+            }
+            if (!(node instanceof BitmapIndexedNode)) {
+                return false;
+            }
+            final BitmapIndexedNode<K, V> that = (BitmapIndexedNode<K, V>) node;
+            if (dataMap != that.dataMap || nodeMap != that.nodeMap) {
+                return false;
+            }
+            final int dataLength = dataArity() << 1;
+            for (int i = 0; i < dataLength; ++i) {
+                if (!content[i].equals(that.content[i])) {
+                    return false;
+                }
+            }
+            for (int i = dataLength; i < content.length; ++i) {
+                if (!ChampNode.equals((ChampNode<?, ?>) content[i], (ChampNode<?, ?>) that.content[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void checkNode(final int shift) {
+            if (content.length != (dataArity() << 1) + nodeArity()) {
+                throw new RuntimeException("Inconsistent bitmaps and content");
+            }
+            if ((dataMap & nodeMap) != 0) {
+                throw new RuntimeException("Intersecting data and node bitmaps");
+            }
+            if (shift > 0 && sizePredicate() != SIZE_MORE) {
+                throw new RuntimeException("Non-canonical node of size " + sizePredicate());
+            }
+            for (Object o : content) {
+                if (o == null) {
+                    throw new RuntimeException("Null in content");
+                }
+            }
+            final int nodeArity = nodeArity();
+            for (int i = 0; i < nodeArity; ++i) {
+                nodeAt(i).checkNode(shift + BITS_PER_LEVEL);
+            }
+        }
+
+        private ChampNode<K, V> copyAndSetEntry(@Nullable final Object owner, final int index, final K key, final V value) {
+            final int keyIndex = index << 1;
+            if (isEditableBy(owner)) {
+                content[keyIndex] = key;
+                content[keyIndex + 1] = value;
+                return this;
+            }
+            final Object[] newContent = content.clone();
+            newContent[keyIndex] = key;
+            newContent[keyIndex + 1] = value;
+            return new BitmapIndexedNode<>(owner, dataMap, nodeMap, newContent);
+        }
+
+        private ChampNode<K, V> copyAndSetNode(@Nullable final Object owner, final int bitpos, final ChampNode<K, V> node) {
+            final int index = content.length - 1 - nodeIndex(bitpos);
+            if (isEditableBy(owner)) {
+                content[index] = node;
+                return this;
+            }
+            final Object[] newContent = content.clone();
+            newContent[index] = node;
+            return new BitmapIndexedNode<>(owner, dataMap, nodeMap, newContent);
+        }
+
+        private ChampNode<K, V> copyAndInsertEntry(@Nullable final Object owner, final int bitpos, final K key, final V value) {
+            final int index = dataIndex(bitpos) << 1;
+            final Object[] newContent = new Object[content.length + 2];
+            System.arraycopy(content, 0, newContent, 0, index);
+            newContent[index] = key;
+            newContent[index + 1] = value;
+            System.arraycopy(content, index, newContent, index + 2, content.length - index);
+            return update(owner, dataMap | bitpos, nodeMap, newContent);
+        }
+
+        private ChampNode<K, V> copyAndRemoveEntry(@Nullable final Object owner, final int bitpos) {
+            final int index = dataIndex(bitpos) << 1;
+            final Object[] newContent = new Object[content.length - 2];
+            System.arraycopy(content, 0, newContent, 0, index);
+            System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+            return update(owner, dataMap ^ bitpos, nodeMap, newContent);
+        }
+
+        private ChampNode<K, V> copyAndMigrateFromInlineToNode(@Nullable final Object owner, final int bitpos, final ChampNode<K, V> node) {
+            final int oldIndex = dataIndex(bitpos) << 1;
+            final int newIndex = content.length - 2 - nodeIndex(bitpos);
+            final Object[] newContent = new Object[content.length - 1];
+            System.arraycopy(content, 0, newContent, 0, oldIndex);
+            System.arraycopy(content, oldIndex + 2, newContent, oldIndex, newIndex - oldIndex);
+            newContent[newIndex] = node;
+            System.arraycopy(content, newIndex + 2, newContent, newIndex + 1, content.length - newIndex - 2);
+            return update(owner, dataMap ^ bitpos, nodeMap | bitpos, newContent);
+        }
+
+        private ChampNode<K, V> copyAndMigrateFromNodeToInline(@Nullable final Object owner, final int bitpos, final ChampNode<K, V> node) {
+            final int oldIndex = content.length - 1 - nodeIndex(bitpos);
+            final int newIndex = dataIndex(bitpos) << 1;
+            final Object[] newContent = new Object[content.length + 1];
+            System.arraycopy(content, 0, newContent, 0, newIndex);
+            newContent[newIndex] = node.keyAt(0);
+            newContent[newIndex + 1] = node.valueAt(0);
+            System.arraycopy(content, newIndex, newContent, newIndex + 2, oldIndex - newIndex);
+            System.arraycopy(content, oldIndex + 1, newContent, oldIndex + 2, content.length - oldIndex - 1);
+            return update(owner, dataMap | bitpos, nodeMap ^ bitpos, newContent);
+        }
+
+        private ChampNode<K, V> update(@Nullable final Object owner, final int dataMap, final int nodeMap, final Object[] content) {
+            if (isEditableBy(owner)) {
+                this.dataMap = dataMap;
+                this.nodeMap = nodeMap;
+                //noinspection AssignmentToCollectionOrArrayFieldFromParameter
+                this.content = content;
+                return this;
+            }
+            return new BitmapIndexedNode<>(owner, dataMap, nodeMap, content);
+        }
+    }
+
+    /**
+     * Node of keys with equal hash codes, it appears only below the levels consuming all bits of hash code.
+     */
+    static final class HashCollisionNode<K, V> extends ChampNode<K, V> {
+
+        private final int hash;
+        private final K[] keys;
+        private final V[] values;
+
+        HashCollisionNode(@Nullable final Object owner, final int hash, @NotNull final K[] keys, @NotNull final V[] values) {
+            super(owner);
+            this.hash = hash;
+            //noinspection AssignmentToCollectionOrArrayFieldFromParameter
+            this.keys = keys;
+            //noinspection AssignmentToCollectionOrArrayFieldFromParameter
+            this.values = values;
+        }
+
+        @Override
+        @Nullable
+        V find(@NotNull final K key, final int hash, final int shift) {
+            if (this.hash == hash) {
+                for (int i = 0; i < keys.length; ++i) {
+                    if (keys[i].equals(key)) {
+                        return values[i];
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        @NotNull
+        ChampNode<K, V> put(@Nullable final Object owner, @NotNull final K key, @NotNull final V value,
+                            final int hash, final int shift, @NotNull final Change<V> change) {
+            final int length = keys.length;
+            for (int i = 0; i < length; ++i) {
+                if (keys[i].equals(key)) {
+                    final V currentValue = values[i];
+                    change.oldValue = currentValue;
+                    if (keys[i] == key && currentValue == value) {
+                        return this;
+                    }
+                    change.modified = true;
+                    if (isEditableBy(owner)) {
+                        keys[i] = key;
+                        values[i] = value;
+                        return this;
+                    }
+                    final K[] newKeys = keys.clone();
+                    final V[] newValues = values.clone();
+                    newKeys[i] = key;
+                    newValues[i] = value;
+                    return new HashCollisionNode<>(owner, hash, newKeys, newValues);
+                }
+            }
+            change.modified = true;
+            change.sizeDelta = 1;
+            final K[] newKeys = Arrays.copyOf(keys, length + 1);
+            final V[] newValues = Arrays.copyOf(values, length + 1);
+            newKeys[length] = key;
+            newValues[length] = value;
+            return new HashCollisionNode<>(owner, hash, newKeys, newValues);
+        }
+
+        @Override
+        @NotNull
+        @SuppressWarnings("unchecked")
+        ChampNode<K, V> remove(@Nullable final Object owner, @NotNull final K key,
+                               final int hash, final int shift, @NotNull final Change<V> change) {
+            final int length = keys.length;
+            for (int i = 0; i < length; ++i) {
+                if (keys[i].equals(key)) {
+                    change.modified = true;
+                    change.sizeDelta = -1;
+                    change.oldValue = values[i];
+                    if (length == 2) {
+                        // the remaining entry will be inlined by the parent node, or it will become a root node
+                        final int remaining = 1 - i;
+                        return new BitmapIndexedNode<>(owner, bitpos(mask(hash, 0)), 0,
+                                new Object[]{keys[remaining], values[remaining]});
+                    }
+                    final K[] newKeys = (K[]) new Object[length - 1];
+                    final V[] newValues = (V[]) new Object[length - 1];
+                    System.arraycopy(keys, 0, newKeys, 0, i);
+                    System.arraycopy(keys, i + 1, newKeys, i, length - i - 1);
+                    System.arraycopy(values, 0, newValues, 0, i);
+                    System.arraycopy(values, i + 1, newValues, i, length - i - 1);
+                    return new HashCollisionNode<>(owner, hash, newKeys, newValues);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        int dataArity() {
+            return keys.length;
+        }
+
+        @Override
+        K keyAt(final int index) {
+            return keys[index];
+        }
+
+        @Override
+        V valueAt(final int index) {
+            return values[index];
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        @Override
+        ChampNode<K, V> nodeAt(final int index) {
+            throw new IndexOutOfBoundsException("Hash collision node has no sub-nodes");
+        }
+
+        @Override
+        boolean structurallyEquals(@NotNull final ChampNode<K, V> node) {
+            if (this == node) {
+                return true;
+            }
+            if (!(node instanceof HashCollisionNode)) {
+                return false;
+            }
+            final HashCollisionNode<K, V> that = (HashCollisionNode<K, V>) node;
+            if (hash != that.hash || keys.length != that.keys.length) {
+                return false;
+            }
+            // order of keys depends on history of modifications
+            for (int i = 0; i < keys.length; ++i) {
+                final V value = that.find(keys[i], hash, BITS_IN_HASH);
+                if (value == null || !value.equals(values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void checkNode(final int shift) {
+            if (shift < BITS_IN_HASH) {
+                throw new RuntimeException("Hash collision node above the last level");
+            }
+            if (keys.length < 2) {
+                throw new RuntimeException("Unnecessary hash collision node of cardinality " + keys.length);
+            }
+            for (K key : keys) {
+                if (key == null || key.hashCode() != hash) {
+                    throw new RuntimeException("Invalid key in collision list");
+                }
+            }
+        }
+    }
+
+    /**
+     * Depth-first iterator over entries of a tree which doesn't allocate per entry.
+     */
+    abstract static class EntryIterator<K, V> {
+
+        @SuppressWarnings("unchecked")
+        private final ChampNode<K, V>[] nodes = new ChampNode[MAX_DEPTH];
+        private final int[] nodeCursors = new int[MAX_DEPTH];
+        private int depth;
+        private ChampNode<K, V> dataNode;
+        private int dataCursor;
+        private int dataLength;
+
+        EntryIterator(@NotNull final ChampNode<K, V> root) {
+            if (root.nodeArity() > 0) {
+                nodes[0] = root;
+                depth = 0;
+            } else {
+                depth = -1;
+            }
+            dataNode = root;
+            dataLength = root.dataArity();
+        }
+
+        public boolean hasNext() {
+            return dataCursor < dataLength || searchNextDataNode();
+        }
+
+        final int nextIndex() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return dataCursor++;
+        }
+
+        final ChampNode<K, V> dataNode() {
+            return dataNode;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private boolean searchNextDataNode() {
+            while (depth >= 0) {
+                final ChampNode<K, V> parent = nodes[depth];
+                final int cursor = nodeCursors[depth];
+                if (cursor < parent.nodeArity()) {
+                    nodeCursors[depth] = cursor + 1;
+                    final ChampNode<K, V> node = parent.nodeAt(cursor);
+                    if (node.nodeArity() > 0) {
+                        nodes[++depth] = node;
+                        nodeCursors[depth] = 0;
+                    }
+                    final int dataArity = node.dataArity();
+                    if (dataArity > 0) {
+                        dataNode = node;
+                        dataCursor = 0;
+                        dataLength = dataArity;
+                        return true;
+                    }
+                } else {
+                    nodes[depth--] = null;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.persistent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Persistent hash map encoded as Compressed Hash-Array Mapped Prefix-tree (CHAMP). Unlike {@linkplain PersistentHashMap},
+ * it doesn't allocate an entry per key/value pair, and a {@linkplain MutablePersistentChampHashMap} edits nodes created
+ * by itself in place until it publishes its changes by {@linkplain MutablePersistentChampHashMap#endWrite()}.
+ * Versions of the map can be compared by {@linkplain #equals(Object)} and
+ * {@linkplain AbstractPersistentChampHashMap#diff(AbstractPersistentChampHashMap, DiffVisitor)} without full traversal.
+ */
+public class PersistentChampHashMap<K, V> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<PersistentChampHashMap, ChampNode.Root> rootUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(PersistentChampHashMap.class, ChampNode.Root.class, "root");
+
+    @NotNull
+    private volatile ChampNode.Root<K, V> root;
+
+    public PersistentChampHashMap() {
+        this(ChampNode.Root.empty());
+    }
+
+    private PersistentChampHashMap(@NotNull final ChampNode.Root<K, V> root) {
+        this.root = root;
+    }
+
+    public ImmutablePersistentChampHashMap getCurrent() {
+        return new ImmutablePersistentChampHashMap(root);
+    }
+
+    public PersistentChampHashMap<K, V> getClone() {
+        return new PersistentChampHashMap<>(root);
+    }
+
+    public MutablePersistentChampHashMap beginWrite() {
+        return new MutablePersistentChampHashMap(root);
+    }
+
+    public boolean endWrite(@NotNull final MutablePersistentChampHashMap map) {
+        return map.endWrite();
+    }
+
+    public interface DiffVisitor<K, V> {
+
+        void added(@NotNull K key, @NotNull V value);
+
+        void removed(@NotNull K key, @NotNull V value);
+
+        void changed(@NotNull K key, @NotNull V oldValue, @NotNull V newValue);
+    }
+
+    public class ImmutablePersistentChampHashMap extends AbstractPersistentChampHashMap<K, V> {
+
+        @NotNull
+        private final ChampNode.Root<K, V> root;
+
+        ImmutablePersistentChampHashMap(@NotNull final ChampNode.Root<K, V> root) {
+            this.root = root;
+        }
+
+        @Override
+        @NotNull
+        ChampNode<K, V> getRootNode() {
+            return root.node;
+        }
+
+        @Override
+        public int size() {
+            return root.size;
+        }
+    }
+
+    public class MutablePersistentChampHashMap extends AbstractPersistentChampHashMap<K, V> {
+
+        private final ChampNode.Change<V> change = new ChampNode.Change<>();
+        @NotNull
+        private ChampNode.Root<K, V> startingRoot;
+        @NotNull
+        private ChampNode<K, V> root;
+        private int size;
+        /**
+         * Token of nodes which can be edited in place, it's replaced after the nodes are published.
+         */
+        @NotNull
+        private Object owner = new Object();
+
+        MutablePersistentChampHashMap(@NotNull final ChampNode.Root<K, V> startingRoot) {
+            this.startingRoot = startingRoot;
+            root = startingRoot.node;
+            size = startingRoot.size;
+        }
+
+        @Override
+        @NotNull
+        ChampNode<K, V> getRootNode() {
+            return root;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return previous value associated with the key or {@code null} if there was no such value
+         */
+        @Nullable
+        public V put(@NotNull final K key, @NotNull final V value) {
+            change.reset();
+            root = root.put(owner, key, value, key.hashCode(), 0, change);
+            size += change.sizeDelta;
+            return change.oldValue;
+        }
+
+        /**
+         * @return removed value associated with the key or {@code null} if there was no such value
+         */
+        @Nullable
+        public V removeKey(@NotNull final K key) {
+            change.reset();
+            root = root.remove(owner, key, key.hashCode(), 0, change);
+            size += change.sizeDelta;
+            return change.oldValue;
+        }
+
+        /**
+         * Try to merge changes into the base map.
+         *
+         * @return true if merging succeeded
+         */
+        public boolean endWrite() {
+            final ChampNode.Root<K, V> newRoot = new ChampNode.Root<>(root, size);
+            //noinspection unchecked
+            if (rootUpdater.compareAndSet(PersistentChampHashMap.this, startingRoot, newRoot)) {
+                startingRoot = newRoot;
+                owner = new Object();
+                return true;
+            }
+            return false;
+        }
+
+        public void checkTip() {
+            root.checkNode(0);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.persistent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Persistent hash set encoded as Compressed Hash-Array Mapped Prefix-tree (CHAMP).
+ * <p>
+ * The set shares {@linkplain ChampNode} with {@linkplain PersistentChampHashMap} and stores each key as its own
+ * value, so content arrays of its nodes have one redundant reference per key. Key-only nodes would save that
+ * reference, but would duplicate the insertion, removal, canonical compaction, equality and diff code of the nodes
+ * for a different entry width. The redundant reference costs 4 bytes per key with compressed oops.
+ *
+ * @see PersistentChampHashMap
+ */
+public class PersistentChampHashSet<K> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<PersistentChampHashSet, ChampNode.Root> rootUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(PersistentChampHashSet.class, ChampNode.Root.class, "root");
+
+    @NotNull
+    private volatile ChampNode.Root<K, K> root;
+
+    public PersistentChampHashSet() {
+        this(ChampNode.Root.empty());
+    }
+
+    private PersistentChampHashSet(@NotNull final ChampNode.Root<K, K> root) {
+        this.root = root;
+    }
+
+    public ImmutablePersistentChampHashSet<K> beginRead() {
+        return new ImmutablePersistentChampHashSet<>(root);
+    }
+
+    public PersistentChampHashSet<K> getClone() {
+        return new PersistentChampHashSet<>(root);
+    }
+
+    public MutablePersistentChampHashSet<K> beginWrite() {
+        return new MutablePersistentChampHashSet<>(this);
+    }
+
+    boolean endWrite(@NotNull final ChampNode.Root<K, K> startingRoot, @NotNull final ChampNode.Root<K, K> newRoot) {
+        //noinspection unchecked
+        return rootUpdater.compareAndSet(this, startingRoot, newRoot);
+    }
+
+    public interface DiffVisitor<K> {
+
+        void added(@NotNull K key);
+
+        void removed(@NotNull K key);
+    }
+
+    public static class ImmutablePersistentChampHashSet<K> extends AbstractPersistentChampHashSet<K> {
+
+        @NotNull
+        private final ChampNode.Root<K, K> root;
+
+        ImmutablePersistentChampHashSet(@NotNull final ChampNode.Root<K, K> root) {
+            this.root = root;
+        }
+
+        @Override
+        @NotNull
+        ChampNode<K, K> getRootNode() {
+            return root.node;
+        }
+
+        @Override
+        public int size() {
+            return root.size;
+        }
+    }
+
+    public static class MutablePersistentChampHashSet<K> extends AbstractPersistentChampHashSet<K> {
+
+        private final PersistentChampHashSet<K> baseSet;
+        private final ChampNode.Change<K> change = new ChampNode.Change<>();
+        @NotNull
+        private ChampNode.Root<K, K> startingRoot;
+        @NotNull
+        private ChampNode<K, K> root;
+        private int size;
+        /**
+         * Token of nodes which can be edited in place, it's replaced after the nodes are published.
+         */
+        @NotNull
+        private Object owner = new Object();
+
+        MutablePersistentChampHashSet(@NotNull final PersistentChampHashSet<K> set) {
+            baseSet = set;
+            startingRoot = set.root;
+            root = startingRoot.node;
+            size = startingRoot.size;
+        }
+
+        @Override
+        @NotNull
+        ChampNode<K, K> getRootNode() {
+            return root;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return true if the set didn't contain the key
+         */
+        public boolean add(@NotNull final K key) {
+            change.reset();
+            root = root.put(owner, key, key, key.hashCode(), 0, change);
+            size += change.sizeDelta;
+            return change.sizeDelta != 0;
+        }
+
+        /**
+         * @return true if the set contained the key
+         */
+        public boolean remove(@NotNull final K key) {
+            change.reset();
+            root = root.remove(owner, key, key.hashCode(), 0, change);
+            size += change.sizeDelta;
+            return change.sizeDelta != 0;
+        }
+
+        /**
+         * Try to merge changes into the base set.
+         *
+         * @return true if merging succeeded
+         */
+        public boolean endWrite() {
+            final ChampNode.Root<K, K> newRoot = new ChampNode.Root<>(root, size);
+            if (baseSet.endWrite(startingRoot, newRoot)) {
+                startingRoot = newRoot;
+                owner = new Object();
+                return true;
+            }
+            return false;
+        }
+
+        public void checkTip() {
+            root.checkNode(0);
+        }
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.execution;
+
+import jetbrains.exodus.core.dataStructures.Pair;
+import jetbrains.exodus.core.dataStructures.Priority;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Job processor executing its jobs on the work-stealing {@linkplain ForkJoinPool} shared by all such processors,
+ * so a long job of one processor doesn't delay jobs of other processors while there are idle cores. Jobs are queued
+ * the same way as by {@linkplain ThreadJobProcessor}: they are polled in order of their priorities, equal jobs are
+ * merged, timed jobs are executed when there are no immediate jobs. Up to {@code parallelism} jobs of the processor
+ * can be executed at the same time, so with parallelism {@code 1} the processor executes jobs one by one like
+ * {@linkplain ThreadJobProcessor} does.
+ * <p>
+ * Jobs are executed directly by pool workers. Jobs known to block (e.g. waiting for I/O or locks) should implement
+ * {@linkplain BlockingJob}, they are executed as {@linkplain ForkJoinPool.ManagedBlocker managed blockers}, so the
+ * pool compensates them with spare threads. The pool size is limited by four times the number of available
+ * processors, when the limit is reached blocking jobs are executed without compensation.
+ */
+public class ForkJoinJobProcessor extends JobProcessorQueueAdapter {
+
+    private static final String TIMER_NAME = "Exodus shared fork-join job processor timer";
+    private static final int MAX_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 4;
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private static volatile ForkJoinPool sharedPool;
+
+    @NotNull
+    private final String name;
+    private final int parallelism;
+    @NotNull
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    @NotNull
+    private final ConcurrentLinkedQueue<Pair<Long, Job>> outdatedTimedJobs = new ConcurrentLinkedQueue<>();
+    @NotNull
+    private final ConcurrentHashMap<Job, Long> queuedAt = new ConcurrentHashMap<>();
+    @NotNull
+    private final ConcurrentHashMap<Thread, Job> runningJobs = new ConcurrentHashMap<>();
+    @NotNull
+    private final TimedJobsWakeUp timedJobsWakeUp = new TimedJobsWakeUp();
+    @NotNull
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    @NotNull
+    private final LatencyHistogram timedJobLatency = new LatencyHistogram();
+    private volatile boolean suspended;
+
+    public ForkJoinJobProcessor(@NotNull final String name) {
+        this(name, 1);
+    }
+
+    public ForkJoinJobProcessor(@NotNull final String name, final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive: " + parallelism);
+        }
+        this.name = name;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!started.getAndSet(true)) {
+            finished.set(false);
+            scheduleTimedJobs();
+            dispatch();
+        }
+    }
+
+    /**
+     * Signals the processor to finish and waits until currently executed jobs are finished.
+     */
+    @Override
+    public void finish() {
+        if (started.get() && !finished.getAndSet(true)) {
+            super.finish();
+            try {
+                waitForRunningJobs();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            clearQueues();
+            outdatedTimedJobs.clear();
+            queuedAt.clear();
+            started.set(false);
+        }
+    }
+
+    /**
+     * Stops starting new jobs and waits until currently executed jobs are finished.
+     */
+    @Override
+    public void suspend() throws InterruptedException {
+        suspended = true;
+        waitForRunningJobs();
+    }
+
+    @Override
+    public void resume() {
+        if (suspended) {
+            suspended = false;
+            dispatch();
+        }
+    }
+
+    @Override
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return histogram of times passed since jobs were queued until they were started.
+     */
+    @NotNull
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * @return histogram of times passed since timed jobs should have been started until they were started.
+     */
+    @NotNull
+    public LatencyHistogram getTimedJobLatency() {
+        return timedJobLatency;
+    }
+
+    @Override
+    public int pendingJobs() {
+        return super.pendingJobs() + runningJobs.size();
+    }
+
+    @Override
+    public int pendingTimedJobs() {
+        return super.pendingTimedJobs() + outdatedTimedJobs.size();
+    }
+
+    @Nullable
+    @Override
+    public Job getCurrentJob() {
+        final Iterator<Job> it = runningJobs.values().iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    @Override
+    public long getCurrentJobStartedAt() {
+        final Job job = getCurrentJob();
+        return job == null ? 0L : job.getStartedAt();
+    }
+
+    @Override
+    public String toString() {
+        return "ForkJoinJobProcessor[" + name + ']';
+    }
+
+    @Override
+    protected boolean push(final Job job, final Priority priority) {
+        final boolean stamped = stampQueued(job);
+        if (super.push(job, priority)) {
+            return true;
+        }
+        if (stamped) {
+            queuedAt.remove(job);
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean queueLowest(@NotNull final Job job) {
+        final boolean stamped = stampQueued(job);
+        if (super.queueLowest(job)) {
+            return true;
+        }
+        if (stamped) {
+            queuedAt.remove(job);
+        }
+        return false;
+    }
+
+    @Override
+    protected void jobQueued() {
+        dispatch();
+    }
+
+    @Override
+    protected void timedJobQueued() {
+        scheduleTimedJobs();
+    }
+
+    private boolean stampQueued(@NotNull final Job job) {
+        return queuedAt.putIfAbsent(job, System.nanoTime()) == null;
+    }
+
+    private boolean canExecute() {
+        return started.get() && !isFinished() && !suspended;
+    }
+
+    /**
+     * Submits a task executing a job if there are jobs to execute and the processor's parallelism allows.
+     * Each task re-dispatches after its job is executed, so queued jobs are not lost if there were no free slots.
+     */
+    private void dispatch() {
+        while (canExecute() && (super.pendingJobs() > 0 || !outdatedTimedJobs.isEmpty())) {
+            final int active = activeTasks.get();
+            if (active >= parallelism) {
+                return;
+            }
+            if (activeTasks.compareAndSet(active, active + 1)) {
+                final JobTask task = new JobTask();
+                final ForkJoinPool pool = getSharedPool();
+                if (ForkJoinTask.getPool() == pool) {
+                    task.fork();
+                } else {
+                    pool.execute(task);
+                }
+                return;
+            }
+        }
+    }
+
+    @Nullable
+    private Job pollJob() {
+        final Job job = popJob();
+        if (job != null) {
+            final Long queuedNanos = queuedAt.remove(job);
+            if (queuedNanos != null) {
+                queueLatency.record(System.nanoTime() - queuedNanos);
+            }
+            return job;
+        }
+        final Pair<Long, Job> timedJob = outdatedTimedJobs.poll();
+        if (timedJob != null) {
+            timedJobLatency.record(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - timedJob.getFirst()));
+            return timedJob.getSecond();
+        }
+        return null;
+    }
+
+    private void executeNextJob() {
+        if (!canExecute()) {
+            return;
+        }
+        final Job job = pollJob();
+        if (job == null) {
+            return;
+        }
+        final Thread thread = Thread.currentThread();
+        final ClassLoader classLoader = thread.getContextClassLoader();
+        runningJobs.put(thread, job);
+        try {
+            thread.setContextClassLoader(job.getClass().getClassLoader());
+            if (job instanceof BlockingJob) {
+                ForkJoinPool.managedBlock(new JobBlocker(job));
+            } else {
+                executeJob(job);
+            }
+        } catch (InterruptedException e) {
+            thread.interrupt();
+        } finally {
+            thread.setContextClassLoader(classLoader);
+            runningJobs.remove(thread);
+            if (suspended || isFinished()) {
+                synchronized (runningJobs) {
+                    runningJobs.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for jobs executed by threads other than the current one, so a job can suspend its processor.
+     */
+    private void waitForRunningJobs() throws InterruptedException {
+        final Thread currentThread = Thread.currentThread();
+        synchronized (runningJobs) {
+            while (true) {
+                boolean hasRunningJobs = false;
+                for (final Thread thread : runningJobs.keySet()) {
+                    if (thread != currentThread) {
+                        hasRunningJobs = true;
+                        break;
+                    }
+                }
+                if (!hasRunningJobs) {
+                    break;
+                }
+                runningJobs.wait(100);
+            }
+        }
+    }
+
+    /**
+     * Moves outdated timed jobs to the queue of jobs ready for execution and schedules the next wake-up.
+     */
+    private void dispatchTimedJobs() {
+        final long currentTime = System.currentTimeMillis();
+        Pair<Long, Job> timedJob;
+        while ((timedJob = popOutdatedTimedJob(currentTime)) != null) {
+            outdatedTimedJobs.add(timedJob);
+        }
+        scheduleTimedJobs();
+        dispatch();
+    }
+
+    private void scheduleTimedJobs() {
+        if (!started.get()) {
+            return;
+        }
+        // re-queueing the same wake-up job moves it to the new time, so the earliest time is computed
+        // and the job is queued atomically in order not to postpone the wake-up for the earliest timed job
+        synchronized (timedJobsWakeUp) {
+            final long time = nextTimedJobTime();
+            if (time >= 0) {
+                ThreadJobProcessorPool.getOrCreateJobProcessor(TIMER_NAME).queueAt(timedJobsWakeUp, time);
+            }
+        }
+    }
+
+    private static ForkJoinPool getSharedPool() {
+        ForkJoinPool result = sharedPool;
+        if (result == null) {
+            synchronized (ForkJoinJobProcessor.class) {
+                result = sharedPool;
+                if (result == null) {
+                    final int parallelism = Runtime.getRuntime().availableProcessors();
+                    // saturate instead of throwing RejectedExecutionException if no more spare threads can be added
+                    sharedPool = result = new ForkJoinPool(parallelism, new WorkerThreadFactory(), null, true,
+                            0, MAX_POOL_SIZE, 1, pool -> true, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+                }
+            }
+        }
+        return result;
+    }
+
+    private final class JobTask extends RecursiveAction {
+
+        @Override
+        protected void compute() {
+            try {
+                executeNextJob();
+            } finally {
+                activeTasks.decrementAndGet();
+                dispatch();
+            }
+        }
+    }
+
+    /**
+     * Marker interface of jobs which can block for a long time, the pool compensates such jobs with spare threads.
+     */
+    public interface BlockingJob {
+    }
+
+    private final class JobBlocker implements ForkJoinPool.ManagedBlocker {
+
+        @NotNull
+        private final Job job;
+        private boolean done;
+
+        private JobBlocker(@NotNull final Job job) {
+            this.job = job;
+        }
+
+        @Override
+        public boolean block() {
+            if (!done) {
+                executeJob(job);
+                done = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    private final class TimedJobsWakeUp extends Job {
+
+        @Override
+        protected void execute() {
+            dispatchTimedJobs();
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Exodus shared fork-join job processor worker #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
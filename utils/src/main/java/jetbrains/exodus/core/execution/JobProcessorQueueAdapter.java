@@ -56,7 +56,7 @@ public abstract class JobProcessorQueueAdapter extends JobProcessorAdapter {
                 return false;
             }
         }
-        awake.release();
+        jobQueued();
         return true;
     }
 
@@ -71,7 +71,7 @@ public abstract class JobProcessorQueueAdapter extends JobProcessorAdapter {
                 return false;
             }
         }
-        awake.release();
+        jobQueued();
         return true;
     }
 
@@ -93,7 +93,7 @@ public abstract class JobProcessorQueueAdapter extends JobProcessorAdapter {
         if (pair != null && pair.getFirst() != priority) {
             return oldJob;
         }
-        awake.release();
+        timedJobQueued();
         return oldJob;
     }
 
@@ -112,7 +112,7 @@ public abstract class JobProcessorQueueAdapter extends JobProcessorAdapter {
                 return false;
             }
         }
-        awake.release();
+        timedJobQueued();
         return true;
     }
 
@@ -159,11 +159,7 @@ public abstract class JobProcessorQueueAdapter extends JobProcessorAdapter {
         try {
             if (!isFinished()) {
                 if (jobsQueued) {
-                    final Job job;
-                    try (Guard ignored = queue.lock()) {
-                        job = queue.pop();
-                    }
-                    doExecuteJob(job);
+                    doExecuteJob(popJob());
                 } else {
                     doTimedJobs();
                 }
@@ -173,6 +169,56 @@ public abstract class JobProcessorQueueAdapter extends JobProcessorAdapter {
         }
     }
 
+    /**
+     * Called after a job is queued for immediate execution.
+     */
+    protected void jobQueued() {
+        awake.release();
+    }
+
+    /**
+     * Called after a timed job is queued if it is the earliest one or is queued as the lowest.
+     */
+    protected void timedJobQueued() {
+        awake.release();
+    }
+
+    /**
+     * @return queued job with the highest priority or null if there are no queued jobs.
+     */
+    @Nullable
+    protected Job popJob() {
+        try (Guard ignored = queue.lock()) {
+            return queue.pop();
+        }
+    }
+
+    /**
+     * @return the earliest timed job with its time if the time is not after {@code currentTime}, else null.
+     */
+    @Nullable
+    protected Pair<Long, Job> popOutdatedTimedJob(final long currentTime) {
+        try (Guard ignored = timeQueue.lock()) {
+            final Pair<Long, Job> pair = timeQueue.peekPair();
+            if (pair == null || pair.getFirst() < Long.MAX_VALUE - currentTime) {
+                return null;
+            }
+            timeQueue.pop();
+            return new Pair<>(Long.MAX_VALUE - pair.getFirst(), pair.getSecond());
+        }
+    }
+
+    /**
+     * @return time of the earliest timed job or -1 if there are no timed jobs.
+     */
+    protected long nextTimedJobTime() {
+        final Pair<Long, Job> pair;
+        try (Guard ignored = timeQueue.lock()) {
+            pair = timeQueue.peekPair();
+        }
+        return pair == null ? -1L : Long.MAX_VALUE - pair.getFirst();
+    }
+
     protected void clearQueues() {
         queue.clear();
         timeQueue.clear();
@@ -0,0 +1,123 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies with power-of-two microsecond buckets. Bucket {@code i > 0} counts latencies
+ * in range {@code [2^(i-1), 2^i)} microseconds, bucket {@code 0} counts latencies less than a microsecond.
+ */
+public final class LatencyHistogram {
+
+    public static final int BUCKETS = 40;
+
+    @NotNull
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    @NotNull
+    private final LongAdder totalNanos = new LongAdder();
+    @NotNull
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(final long nanos) {
+        final long latency = Math.max(nanos, 0L);
+        buckets.incrementAndGet(getBucket(latency));
+        totalNanos.add(latency);
+        long max = maxNanos.get();
+        while (latency > max && !maxNanos.compareAndSet(max, latency)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        long result = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            result += buckets.get(i);
+        }
+        return result;
+    }
+
+    public long getMean(@NotNull final TimeUnit unit) {
+        final long count = getCount();
+        return count == 0L ? 0L : unit.convert(totalNanos.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMax(@NotNull final TimeUnit unit) {
+        return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param percentile value in range {@code (0, 100]}
+     * @return upper bound of the bucket containing the percentile, but not greater than the maximum latency
+     */
+    public long getPercentile(final double percentile, @NotNull final TimeUnit unit) {
+        final long[] counts = getBuckets();
+        long count = 0L;
+        for (long c : counts) {
+            count += c;
+        }
+        if (count == 0L) {
+            return 0L;
+        }
+        final long threshold = (long) Math.ceil(count * percentile / 100);
+        long accumulated = 0L;
+        for (int i = 0; i < BUCKETS; ++i) {
+            accumulated += counts[i];
+            if (accumulated >= threshold) {
+                return Math.min(unit.convert(1L << i, TimeUnit.MICROSECONDS), getMax(unit));
+            }
+        }
+        return getMax(unit);
+    }
+
+    /**
+     * @return snapshot of counts of latencies per bucket
+     */
+    public long[] getBuckets() {
+        final long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            result[i] = buckets.get(i);
+        }
+        return result;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            buckets.set(i, 0L);
+        }
+        totalNanos.reset();
+        maxNanos.set(0L);
+    }
+
+    @Override
+    public String toString() {
+        return "count: " + getCount() +
+                ", mean: " + getMean(TimeUnit.MICROSECONDS) +
+                "us, p50: " + getPercentile(50, TimeUnit.MICROSECONDS) +
+                "us, p99: " + getPercentile(99, TimeUnit.MICROSECONDS) +
+                "us, max: " + getMax(TimeUnit.MICROSECONDS) + "us";
+    }
+
+    static int getBucket(final long nanos) {
+        final long micros = nanos / 1000L;
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+}
@@ -19,6 +19,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 
 public class UTFUtil {
 
@@ -26,6 +29,11 @@ public class UTFUtil {
 
     private static final int SINGLE_UTF_CHUNK_SIZE = 0x10000 / 3;
 
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
+
     private UTFUtil() {
     }
 
@@ -74,15 +82,8 @@ public class UTFUtil {
                 try {
                     final int utfLen = dataInput.readUnsignedShort();
                     if (utfLen == streamSize - 2) {
-                        boolean isAscii = true;
                         final byte[] bytes = sizedStream.toByteArray();
-                        for (int i = 0; i < utfLen; ++i) {
-                            if ((bytes[i + 2] & 0xff) > 127) {
-                                isAscii = false;
-                                break;
-                            }
-                        }
-                        if (isAscii) {
+                        if (getAsciiLength(bytes, 2, utfLen + 2) == utfLen) {
                             return fromAsciiByteArray(bytes, 2, utfLen);
                         }
                     }
@@ -139,6 +140,31 @@ public class UTFUtil {
         return new String(bytes, 0, off, len);
     }
 
+    /**
+     * Returns the number of bytes starting from {@code offset} and not exceeding {@code limit} which are
+     * non-zero ASCII characters, i.e. can be decoded as is. Bytes are checked by 8-byte words.
+     *
+     * @param bytes  array of bytes
+     * @param offset start offset
+     * @param limit  end offset (exclusive)
+     * @return length of ASCII prefix
+     */
+    public static int getAsciiLength(final byte @NotNull [] bytes, final int offset, final int limit) {
+        int i = offset;
+        while (i + Long.BYTES <= limit) {
+            final long word = (long) LONG_VIEW.get(bytes, i);
+            // high bit is set in a byte if it's not ASCII or if it's zero
+            if (((word | ((word - LSBS) & ~word)) & MSBS) != 0) {
+                break;
+            }
+            i += Long.BYTES;
+        }
+        while (i < limit && bytes[i] > 0) {
+            ++i;
+        }
+        return i - offset;
+    }
+
     public static int getUtfByteLength(@NotNull final String value) {
         final int strLen = value.length();
         int len = strLen;
@@ -151,6 +177,25 @@ public class UTFUtil {
         return len;
     }
 
+    /**
+     * Encodes string to the array of bytes. If the string consists of non-zero ASCII characters only, i.e. if
+     * {@code utfLength} is equal to string length, the characters are copied in bulk.
+     *
+     * @param value     string to encode
+     * @param utfLength length of encoded string as returned by {@link #getUtfByteLength(String)}
+     * @param bytes     array of bytes to encode to
+     * @param offset    offset in the array
+     */
+    @SuppressWarnings("deprecation")
+    public static void utfCharsToBytes(@NotNull final String value, final int utfLength, byte[] bytes, int offset) {
+        final int len = value.length();
+        if (utfLength == len) {
+            value.getBytes(0, len, bytes, offset);
+        } else {
+            utfCharsToBytes(value, bytes, offset);
+        }
+    }
+
     public static void utfCharsToBytes(@NotNull final String value, byte[] bytes, int offset) {
         for (int i = 0; i < value.length(); i++) {
             final int c = value.charAt(i);
@@ -21,9 +21,9 @@ import java.util.*
 private const val LONG_BITS: Int = SIZE
 private const val LONG_BITS_LOG: Int = 6
 
-class PackedLongHashSet(source: Collection<Long>? = null, loadFactor: Float = HashUtil.DEFAULT_LOAD_FACTOR) : AbstractSet<Long>(), LongSet {
+class PackedLongHashSet(source: Collection<Long>? = null) : AbstractSet<Long>(), LongSet {
 
-    private val map = LongLongHashMap(20, loadFactor)
+    private val map = LongLongFlatHashMap(20)
     private var count: Int = 0
 
     init {
@@ -36,8 +36,7 @@ class PackedLongHashSet(source: Collection<Long>? = null, loadFactor: Float = Ha
         }
 
     override fun contains(element: Long): Boolean {
-        val v = map[element.key]
-        return v != null && v and masks[element.bit] != 0L
+        return map.get(element.key, 0L) and masks[element.bit] != 0L
     }
 
     override fun add(element: Long): Boolean {
@@ -86,14 +85,14 @@ class PackedLongHashSet(source: Collection<Long>? = null, loadFactor: Float = Ha
     override fun toLongArray(): LongArray {
         return LongArray(count).apply {
             var i = 0
-            map.forEach { entry ->
-                val base = entry.key shl LONG_BITS_LOG
-                val value = entry.value
+            map.forEachKeyValue { key, value ->
+                val base = key shl LONG_BITS_LOG
                 for (j in 0 until LONG_BITS) {
                     if (value and masks[j] != 0L) {
                         this[i++] = base + j
                     }
                 }
+                true
             }
         }
     }
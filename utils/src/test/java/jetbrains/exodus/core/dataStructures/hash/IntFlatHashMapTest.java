@@ -0,0 +1,43 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.hash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class IntFlatHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        final Map<Integer, String> tested = new IntFlatHashMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            tested.put(i - 500, Integer.toString(i));
+        }
+        Assert.assertEquals(1000, tested.size());
+        for (int i = 0; i < 1000; i += 2) {
+            Assert.assertEquals(Integer.toString(i), tested.remove(i - 500));
+        }
+        Assert.assertEquals(500, tested.size());
+        for (int i = 0; i < 1000; ++i) {
+            Assert.assertEquals((i % 2 == 0) ? null : Integer.toString(i), tested.get(i - 500));
+        }
+        tested.clear();
+        Assert.assertTrue(tested.isEmpty());
+        Assert.assertNull(tested.get(1));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.hash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class LongFlatHashMapTest {
+
+    @Test
+    public void testPutGet() {
+        final Map<Long, String> tested = new LongFlatHashMap<>();
+        for (long i = 0; i < 1000; ++i) {
+            tested.put(i - 500, Long.toString(i));
+        }
+        Assert.assertEquals(1000, tested.size());
+        for (long i = 0; i < 1000; ++i) {
+            Assert.assertEquals(Long.toString(i), tested.get(i - 500));
+        }
+        for (long i = 0; i < 1000; ++i) {
+            Assert.assertEquals(Long.toString(i), tested.put(i - 500, Long.toString(i + 1)));
+        }
+        Assert.assertEquals(1000, tested.size());
+        for (long i = 0; i < 1000; ++i) {
+            Assert.assertEquals(Long.toString(i + 1), tested.get(i - 500));
+        }
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        final Map<Long, String> tested = new LongFlatHashMap<>();
+        for (long i = 0; i < 1000; ++i) {
+            tested.put(i, Long.toString(i));
+        }
+        Assert.assertEquals(1000, tested.size());
+        for (long i = 0; i < 1000; i += 2) {
+            Assert.assertEquals(Long.toString(i), tested.remove(i));
+        }
+        Assert.assertEquals(500, tested.size());
+        for (long i = 0; i < 1000; ++i) {
+            Assert.assertEquals((i % 2 == 0) ? null : Long.toString(i), tested.get(i));
+        }
+    }
+
+    @Test
+    public void tombstones() {
+        // churn of insertions and removals with small number of live keys leaves a lot of tombstones
+        final LongFlatHashMap<String> tested = new LongFlatHashMap<>();
+        final Random rnd = new Random(239);
+        final long[] live = new long[5];
+        for (int i = 0; i < 100000; ++i) {
+            final int j = i % live.length;
+            if (i >= live.length) {
+                Assert.assertEquals(Long.toString(live[j]), tested.remove(live[j]));
+            }
+            live[j] = rnd.nextLong();
+            Assert.assertNull(tested.put(live[j], Long.toString(live[j])));
+            Assert.assertEquals(Math.min(i + 1, live.length), tested.size());
+        }
+        for (final long key : live) {
+            Assert.assertEquals(Long.toString(key), tested.get(key));
+        }
+    }
+
+    @Test
+    public void entrySet() {
+        final Map<Long, String> tested = new LongFlatHashMap<>();
+        for (long i = 0; i < 10000; ++i) {
+            tested.put(i, Long.toString(i));
+        }
+        final Iterator<Map.Entry<Long, String>> it = tested.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<Long, String> entry = it.next();
+            if (entry.getKey() % 2 == 0) {
+                it.remove();
+            } else {
+                entry.setValue(Long.toString(-entry.getKey()));
+            }
+        }
+        Assert.assertEquals(5000, tested.size());
+        for (long i = 0; i < 10000; ++i) {
+            Assert.assertEquals(i % 2 == 0 ? null : Long.toString(-i), tested.get(i));
+        }
+    }
+
+    @Test
+    public void keySet() {
+        final Map<Long, String> tested = new LongFlatHashMap<>();
+        final Set<Long> set = new LongHashSet();
+
+        for (long i = 0; i < 10000; ++i) {
+            tested.put(i, Long.toString(i));
+            set.add(i);
+        }
+        for (Long key : tested.keySet()) {
+            Assert.assertTrue(set.remove(key));
+        }
+        Assert.assertEquals(0, set.size());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.hash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongLongFlatHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        final LongLongFlatHashMap tested = new LongLongFlatHashMap();
+        for (long i = 0; i < 1000; ++i) {
+            Assert.assertNull(tested.put(i << 32, i));
+        }
+        Assert.assertEquals(1000, tested.size());
+        for (long i = 0; i < 1000; i += 2) {
+            Assert.assertEquals(Long.valueOf(i), tested.remove(i << 32));
+        }
+        Assert.assertEquals(500, tested.size());
+        for (long i = 0; i < 1000; ++i) {
+            Assert.assertEquals(i % 2 == 0 ? -1L : i, tested.get(i << 32, -1L));
+        }
+    }
+
+    @Test
+    public void bits() {
+        final LongLongFlatHashMap tested = new LongLongFlatHashMap();
+        Assert.assertTrue(tested.addBit(1, 1));
+        Assert.assertFalse(tested.addBit(1, 1));
+        Assert.assertTrue(tested.addBit(1, 4));
+        Assert.assertEquals(5L, tested.get(1, 0L));
+        Assert.assertTrue(tested.removeBit(1, 1));
+        Assert.assertFalse(tested.removeBit(1, 1));
+        Assert.assertTrue(tested.removeBit(1, 4));
+        Assert.assertFalse(tested.containsKey(1));
+        Assert.assertTrue(tested.isEmpty());
+    }
+
+    @Test
+    public void forEachKeyValue() {
+        final LongLongFlatHashMap tested = new LongLongFlatHashMap();
+        for (long i = 0; i < 1000; ++i) {
+            tested.put(i, i * 2);
+        }
+        final long[] sum = {0, 0};
+        Assert.assertTrue(tested.forEachKeyValue((key, value) -> {
+            Assert.assertEquals(key * 2, value);
+            sum[0] += key;
+            sum[1]++;
+            return true;
+        }));
+        Assert.assertEquals(499500L, sum[0]);
+        Assert.assertEquals(1000L, sum[1]);
+        Assert.assertFalse(tested.forEachKeyValue((key, value) -> false));
+    }
+}
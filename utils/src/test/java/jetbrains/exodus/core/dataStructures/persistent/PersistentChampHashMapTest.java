@@ -0,0 +1,253 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.persistent;
+
+import jetbrains.exodus.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PersistentChampHashMapTest {
+
+    private static final int ENTRIES_TO_ADD = 5000;
+
+    @Test
+    public void mutableTreeRandomInsertDeleteTest() {
+        Random random = new Random(2343489);
+        PersistentChampHashMap<Integer, String> map = new PersistentChampHashMap<>();
+        checkInsertRemove(random, map, 100);
+        checkInsertRemove(random, map, ENTRIES_TO_ADD);
+        for (int i = 0; i < 100; i++) {
+            checkInsertRemove(random, map, 100);
+        }
+    }
+
+    @Test
+    public void hashKeyCollision() {
+        final PersistentChampHashMap<HashKey, String> map = new PersistentChampHashMap<>();
+        PersistentChampHashMap<HashKey, String>.MutablePersistentChampHashMap w = map.beginWrite();
+        HashKey first = new HashKey(1);
+        w.put(first, "a");
+        HashKey second = new HashKey(1);
+        w.put(second, "b");
+        HashKey third = new HashKey(1);
+        w.put(third, "c");
+        w.checkTip();
+        w.endWrite();
+        Assert.assertEquals(3, map.getCurrent().size());
+        w = map.beginWrite();
+        Assert.assertEquals("a", w.removeKey(first));
+        w.checkTip();
+        Assert.assertEquals("b", w.removeKey(second));
+        w.checkTip();
+        w.endWrite();
+        Assert.assertEquals(1, map.getCurrent().size());
+        Assert.assertEquals("c", map.getCurrent().get(third));
+    }
+
+    @Test
+    public void competingWritesTest() {
+        PersistentChampHashMap<Integer, String> tree = new PersistentChampHashMap<>();
+        PersistentChampHashMap<Integer, String>.MutablePersistentChampHashMap write1 = tree.beginWrite();
+        PersistentChampHashMap<Integer, String>.MutablePersistentChampHashMap write2 = tree.beginWrite();
+        write1.put(0, "0");
+        write2.removeKey(1);
+        Assert.assertTrue(write2.endWrite());
+        Assert.assertFalse(write1.endWrite());
+        write1 = tree.beginWrite();
+        write1.put(0, "0");
+        Assert.assertTrue(write1.endWrite());
+        PersistentChampHashMap<Integer, String>.ImmutablePersistentChampHashMap read = tree.getCurrent();
+        Assert.assertTrue(read.containsKey(0));
+        Assert.assertEquals(1, read.size());
+
+        // write1 keeps editing after its changes are published, the published version must not change
+        write1.put(2, "2");
+        write1.put(0, "_0");
+        Assert.assertEquals("0", read.get(0));
+        Assert.assertFalse(read.containsKey(2));
+        Assert.assertTrue(write1.endWrite());
+        read = tree.getCurrent();
+        Assert.assertEquals("_0", read.get(0));
+        Assert.assertEquals(2, read.size());
+    }
+
+    @Test
+    public void testOverwrite() {
+        final PersistentChampHashMap<Integer, String> tree = new PersistentChampHashMap<>();
+        PersistentChampHashMap<Integer, String>.MutablePersistentChampHashMap mutable = tree.beginWrite();
+        Assert.assertNull(mutable.put(0, "0"));
+        Assert.assertTrue(mutable.endWrite());
+        Assert.assertEquals("0", tree.getCurrent().get(0));
+        mutable = tree.beginWrite();
+        Assert.assertEquals("0", mutable.put(0, "0.0"));
+        Assert.assertTrue(mutable.endWrite());
+        Assert.assertEquals("0.0", tree.getCurrent().get(0));
+    }
+
+    @Test
+    public void structuralEquality() {
+        Random random = new Random(7643);
+        final PersistentChampHashMap<Integer, String> map1 = new PersistentChampHashMap<>();
+        final PersistentChampHashMap<Integer, String> map2 = new PersistentChampHashMap<>();
+        PersistentChampHashMap<Integer, String>.MutablePersistentChampHashMap write1 = map1.beginWrite();
+        PersistentChampHashMap<Integer, String>.MutablePersistentChampHashMap write2 = map2.beginWrite();
+        addEntries(random, write1, ENTRIES_TO_ADD);
+        // the second map gets extra entries which are removed, so its history differs
+        addEntries(random, write2, ENTRIES_TO_ADD * 2);
+        for (int i = ENTRIES_TO_ADD; i < ENTRIES_TO_ADD * 2; i++) {
+            write2.removeKey(i);
+        }
+        write2.checkTip();
+        Assert.assertTrue(write1.endWrite());
+        Assert.assertTrue(write2.endWrite());
+        Assert.assertEquals(map1.getCurrent(), map2.getCurrent());
+        Assert.assertEquals(map1.getCurrent().hashCode(), map2.getCurrent().hashCode());
+        write2.put(0, "changed");
+        Assert.assertNotEquals(map1.getCurrent(), write2);
+    }
+
+    @Test
+    public void diff() {
+        Random random = new Random(1265);
+        final PersistentChampHashMap<Integer, String> map = new PersistentChampHashMap<>();
+        PersistentChampHashMap<Integer, String>.MutablePersistentChampHashMap write = map.beginWrite();
+        addEntries(random, write, ENTRIES_TO_ADD);
+        Assert.assertTrue(write.endWrite());
+        final PersistentChampHashMap<Integer, String>.ImmutablePersistentChampHashMap before = map.getCurrent();
+
+        final Map<Integer, String> expected = new HashMap<>();
+        before.forEach((key, value) -> {
+            expected.put(key, value);
+            return true;
+        });
+        for (int i = 0; i < 100; i++) {
+            final int key = random.nextInt(ENTRIES_TO_ADD * 2);
+            if (random.nextBoolean()) {
+                write.removeKey(key);
+                expected.remove(key);
+            } else {
+                write.put(key, "new " + key);
+                expected.put(key, "new " + key);
+            }
+        }
+        Assert.assertTrue(write.endWrite());
+
+        final Map<Integer, String> actual = new HashMap<>();
+        before.forEach((key, value) -> {
+            actual.put(key, value);
+            return true;
+        });
+        before.diff(map.getCurrent(), new PersistentChampHashMap.DiffVisitor<Integer, String>() {
+            @Override
+            public void added(Integer key, String value) {
+                Assert.assertNull(actual.put(key, value));
+            }
+
+            @Override
+            public void removed(Integer key, String value) {
+                Assert.assertEquals(value, actual.remove(key));
+            }
+
+            @Override
+            public void changed(Integer key, String oldValue, String newValue) {
+                Assert.assertEquals(oldValue, actual.put(key, newValue));
+            }
+        });
+        Assert.assertEquals(expected, actual);
+    }
+
+    private static void checkInsertRemove(Random random, PersistentChampHashMap<Integer, String> map, int count) {
+        PersistentChampHashMap<Integer, String>.MutablePersistentChampHashMap write = map.beginWrite();
+        write.checkTip();
+        addEntries(random, write, count);
+        removeEntries(random, write, count);
+        Assert.assertEquals(0, write.size());
+        Assert.assertTrue(write.isEmpty());
+        Assert.assertTrue(write.endWrite());
+    }
+
+    private static void addEntries(Random random, PersistentChampHashMap<Integer, String>.MutablePersistentChampHashMap tree, int count) {
+        int[] p = genPermutation(random, count);
+        for (int i = 0; i < count; i++) {
+            int size = tree.size();
+            Assert.assertEquals(i, size);
+            int key = p[i];
+            tree.put(key, key + " ");
+            Assert.assertFalse(tree.isEmpty());
+            tree.checkTip();
+            Assert.assertEquals(i + 1, tree.size());
+            tree.put(key, String.valueOf(key));
+            tree.checkTip();
+            Assert.assertEquals(i + 1, tree.size());
+            for (int j = 0; j <= 10; j++) {
+                int testKey = p[i * j / 10];
+                Assert.assertTrue(tree.containsKey(testKey));
+            }
+            if (i < count - 1) {
+                Assert.assertFalse(tree.containsKey(p[i + 1]));
+            }
+        }
+    }
+
+    private static void removeEntries(Random random, PersistentChampHashMap<Integer, String>.MutablePersistentChampHashMap tree, int count) {
+        int[] p = genPermutation(random, count);
+        for (int i = 0; i < count; i++) {
+            int size = tree.size();
+            Assert.assertEquals(count - i, size);
+            Assert.assertFalse(tree.isEmpty());
+            int key = p[i];
+            Assert.assertEquals(String.valueOf(key), tree.removeKey(key));
+            tree.checkTip();
+            Assert.assertNull(tree.removeKey(key));
+            tree.checkTip();
+            for (int j = 0; j <= 10; j++) {
+                int testKey = p[i * j / 10];
+                Assert.assertFalse(tree.containsKey(testKey));
+            }
+            if (i < count - 1) {
+                Assert.assertTrue(tree.containsKey(p[i + 1]));
+            }
+        }
+    }
+
+    private static int[] genPermutation(Random random, int size) {
+        int[] p = new int[size];
+        for (int i = 1; i < size; i++) {
+            int j = random.nextInt(i);
+            p[i] = p[j];
+            p[j] = i;
+        }
+        return p;
+    }
+
+    private static class HashKey {
+        private final int hashCode;
+
+        private HashKey(int hashCode) {
+            this.hashCode = hashCode;
+        }
+
+        // equals isn't overriden intentionally (default is identity comparison) to emulate hash collision
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
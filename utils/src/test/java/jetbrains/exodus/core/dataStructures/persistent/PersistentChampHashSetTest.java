@@ -0,0 +1,374 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.dataStructures.persistent;
+
+import jetbrains.exodus.util.Random;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+public class PersistentChampHashSetTest {
+
+    private static final int ENTRIES_TO_ADD = 5000;
+
+    @Test
+    public void mutableSetRandomInsertDeleteTest() {
+        Random random = new Random(2343489);
+        PersistentChampHashSet.MutablePersistentChampHashSet<Integer> tree = new PersistentChampHashSet<Integer>().beginWrite();
+        tree.checkTip();
+        int[] p = genPermutation(random);
+        for (int i = 0; i < ENTRIES_TO_ADD; i++) {
+            int size = tree.size();
+            Assert.assertEquals(i, size);
+            int key = p[i];
+            Assert.assertTrue(tree.add(key));
+            Assert.assertFalse(tree.isEmpty());
+            tree.checkTip();
+            Assert.assertFalse(tree.add(key));
+            Assert.assertEquals(i + 1, tree.size());
+            tree.checkTip();
+            for (int j = 0; j <= 10; j++) {
+                int testKey = p[i * j / 10];
+                Assert.assertTrue(tree.contains(testKey));
+                if (i < ENTRIES_TO_ADD - 1) {
+                    Assert.assertFalse(tree.contains(p[i + 1]));
+                }
+            }
+        }
+        p = genPermutation(random);
+        for (int i = 0; i < ENTRIES_TO_ADD; i++) {
+            int size = tree.size();
+            Assert.assertEquals(ENTRIES_TO_ADD - i, size);
+            Assert.assertFalse(tree.isEmpty());
+            int key = p[i];
+            Assert.assertTrue(tree.remove(key));
+            tree.checkTip();
+            Assert.assertFalse(tree.remove(key));
+            tree.checkTip();
+            for (int j = 0; j <= 10; j++) {
+                int testKey = p[i * j / 10];
+                Assert.assertFalse(tree.contains(testKey));
+                if (i < ENTRIES_TO_ADD - 1) {
+                    Assert.assertTrue(tree.contains(p[i + 1]));
+                }
+            }
+        }
+        Assert.assertEquals(0, tree.size());
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertTrue(tree.endWrite());
+    }
+
+    @Test
+    public void competingWritesTest() {
+        PersistentChampHashSet<Integer> tree = new PersistentChampHashSet<>();
+        PersistentChampHashSet.MutablePersistentChampHashSet<Integer> write1 = tree.beginWrite();
+        PersistentChampHashSet.MutablePersistentChampHashSet<Integer> write2 = tree.beginWrite();
+        write1.add(0);
+        write2.remove(1);
+        Assert.assertTrue(write2.endWrite());
+        Assert.assertFalse(write1.endWrite());
+        write1 = tree.beginWrite();
+        write1.add(0);
+        Assert.assertTrue(write1.endWrite());
+        PersistentChampHashSet.ImmutablePersistentChampHashSet<Integer> read = tree.beginRead();
+        Assert.assertTrue(read.contains(0));
+        Assert.assertFalse(read.contains(1));
+        Assert.assertEquals(1, read.size());
+
+        // write1 keeps editing after its changes are published, the published version must not change
+        write1.add(2);
+        write1.remove(0);
+        write2.add(3);
+        Assert.assertTrue(read.contains(0));
+        Assert.assertFalse(read.contains(2));
+        Assert.assertEquals(1, read.size());
+        Assert.assertTrue(write1.endWrite());
+        Assert.assertFalse(write2.endWrite());
+        Assert.assertTrue(read.contains(0));
+        Assert.assertFalse(read.contains(2));
+        Assert.assertEquals(1, read.size());
+        read = tree.beginRead();
+        Assert.assertFalse(read.contains(0));
+        Assert.assertTrue(read.contains(2));
+        Assert.assertFalse(read.contains(3));
+        Assert.assertEquals(1, read.size());
+    }
+
+    @Test
+    public void iterationTest() {
+        Random random = new Random(8234890);
+        PersistentChampHashSet.MutablePersistentChampHashSet<Integer> tree = new PersistentChampHashSet<Integer>().beginWrite();
+        int[] p = genPermutation(random);
+        HashSet<Integer> added = new HashSet<>();
+        for (int i = 0; i < ENTRIES_TO_ADD; i++) {
+            int size = tree.size();
+            Assert.assertEquals(i, size);
+            if ((size & 1023) == 0 || size < 100) {
+                Collection<Integer> actual = new HashSet<>(size);
+                for (Integer key : tree) {
+                    Assert.assertFalse(actual.contains(key));
+                    actual.add(key);
+                }
+                Assert.assertEquals(added, actual);
+
+                Iterator<Integer> treeItr = tree.iterator();
+                actual.clear();
+                for (int j = 0; j < size; j++) {
+                    Assert.assertTrue(treeItr.hasNext());
+                    Integer key = treeItr.next();
+                    Assert.assertFalse(actual.contains(key));
+                    actual.add(key);
+                }
+                Assert.assertFalse(treeItr.hasNext());
+                Assert.assertEquals(added, actual);
+            }
+            tree.add(p[i]);
+            added.add(p[i]);
+        }
+    }
+
+    @Test
+    public void forEachKeyTest() {
+        Random random = new Random(8234890);
+        PersistentChampHashSet.MutablePersistentChampHashSet<Integer> tree = new PersistentChampHashSet<Integer>().beginWrite();
+        int[] p = genPermutation(random);
+        HashSet<Integer> added = new HashSet<>();
+        for (int i = 0; i < ENTRIES_TO_ADD; i++) {
+            int size = tree.size();
+            Assert.assertEquals(i, size);
+            if ((size & 1023) == 0 || size < 100) {
+                final Collection<Integer> actual = new HashSet<>(size);
+                Assert.assertTrue(tree.forEachKey(object -> {
+                    Assert.assertFalse(actual.contains(object));
+                    actual.add(object);
+                    return true;
+                }));
+                Assert.assertEquals(added, actual);
+            }
+            tree.add(p[i]);
+            added.add(p[i]);
+        }
+        final int[] visited = {0};
+        Assert.assertFalse(tree.forEachKey(object -> ++visited[0] < 10));
+        Assert.assertEquals(10, visited[0]);
+    }
+
+    @Test
+    public void hashKeyCollision() {
+        final PersistentChampHashSet<Object> source = new PersistentChampHashSet<>();
+        PersistentChampHashSet.MutablePersistentChampHashSet<Object> writeable = source.beginWrite();
+        final Object first = createClashingHashCodeObject();
+        final Object second = createClashingHashCodeObject();
+        final Object third = createClashingHashCodeObject();
+        Assert.assertTrue(writeable.add(first));
+        Assert.assertTrue(writeable.add(second));
+        Assert.assertTrue(writeable.add(third));
+        Assert.assertFalse(writeable.add(second));
+        writeable.checkTip();
+        Assert.assertEquals(3, writeable.size());
+        Assert.assertTrue(writeable.endWrite());
+        writeable = source.beginWrite();
+        Assert.assertTrue(writeable.remove(first));
+        writeable.checkTip();
+        Assert.assertTrue(writeable.remove(second));
+        writeable.checkTip();
+        Assert.assertFalse(writeable.remove(second));
+        Assert.assertTrue(writeable.endWrite());
+        final PersistentChampHashSet.ImmutablePersistentChampHashSet<Object> read = source.beginRead();
+        Assert.assertEquals(1, read.size());
+        Assert.assertFalse(read.contains(first));
+        Assert.assertTrue(read.contains(third));
+    }
+
+    @SuppressWarnings("EqualsAndHashcode")
+    private static Object createClashingHashCodeObject() {
+        return new Object() {
+            @Override
+            public int hashCode() {
+                return 0xFFFFF;
+            }
+        };
+    }
+
+    @Test
+    public void structuralEquality() {
+        Random random = new Random(7643);
+        final PersistentChampHashSet<Integer> set1 = new PersistentChampHashSet<>();
+        final PersistentChampHashSet<Integer> set2 = new PersistentChampHashSet<>();
+        PersistentChampHashSet.MutablePersistentChampHashSet<Integer> write1 = set1.beginWrite();
+        PersistentChampHashSet.MutablePersistentChampHashSet<Integer> write2 = set2.beginWrite();
+        for (int key : genPermutation(random)) {
+            write1.add(key);
+        }
+        // the second set gets extra keys which are removed, so its history differs
+        for (int key : genPermutation(random)) {
+            write2.add(key + ENTRIES_TO_ADD);
+            write2.add(key);
+        }
+        for (int i = ENTRIES_TO_ADD; i < ENTRIES_TO_ADD * 2; i++) {
+            Assert.assertTrue(write2.remove(i));
+        }
+        write2.checkTip();
+        Assert.assertTrue(write1.endWrite());
+        Assert.assertTrue(write2.endWrite());
+        Assert.assertEquals(set1.beginRead(), set2.beginRead());
+        Assert.assertEquals(set1.beginRead().hashCode(), set2.beginRead().hashCode());
+        Assert.assertEquals(write1, set2.beginRead());
+        write2.remove(0);
+        Assert.assertNotEquals(set1.beginRead(), write2);
+        write2.add(0);
+        Assert.assertEquals(set1.beginRead(), write2);
+        write2.add(-1);
+        Assert.assertNotEquals(set1.beginRead(), write2);
+        Assert.assertNotEquals(set1.beginRead(), new PersistentChampHashSet<Integer>().beginRead());
+    }
+
+    @Test
+    public void diff() {
+        Random random = new Random(1265);
+        final PersistentChampHashSet<Integer> set = new PersistentChampHashSet<>();
+        PersistentChampHashSet.MutablePersistentChampHashSet<Integer> write = set.beginWrite();
+        for (int key : genPermutation(random)) {
+            write.add(key);
+        }
+        Assert.assertTrue(write.endWrite());
+        final PersistentChampHashSet.ImmutablePersistentChampHashSet<Integer> before = set.beginRead();
+
+        final Set<Integer> expected = new HashSet<>();
+        before.forEach(expected::add);
+        for (int i = 0; i < 100; i++) {
+            final int key = random.nextInt(ENTRIES_TO_ADD * 2);
+            if (random.nextBoolean()) {
+                write.remove(key);
+                expected.remove(key);
+            } else {
+                write.add(key);
+                expected.add(key);
+            }
+        }
+        Assert.assertTrue(write.endWrite());
+
+        final Set<Integer> actual = new HashSet<>();
+        before.forEach(actual::add);
+        before.diff(set.beginRead(), new PersistentChampHashSet.DiffVisitor<Integer>() {
+            @Override
+            public void added(@NotNull Integer key) {
+                Assert.assertTrue(actual.add(key));
+            }
+
+            @Override
+            public void removed(@NotNull Integer key) {
+                Assert.assertTrue(actual.remove(key));
+            }
+        });
+        Assert.assertEquals(expected, actual);
+
+        // no differences between a version and itself
+        before.diff(before, new PersistentChampHashSet.DiffVisitor<Integer>() {
+            @Override
+            public void added(@NotNull Integer key) {
+                Assert.fail();
+            }
+
+            @Override
+            public void removed(@NotNull Integer key) {
+                Assert.fail();
+            }
+        });
+    }
+
+    @Test
+    public void testSizeAtomicity() throws InterruptedException {
+        final PersistentChampHashSet<Integer> source = new PersistentChampHashSet<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        final int itr = 10000;
+        final List<Throwable> errors = new LinkedList<>();
+        final Thread writer = new Thread(() -> {
+            try {
+                latch.countDown();
+                boolean even = true;
+                for (int i = 0; i < itr; i++) {
+                    final PersistentChampHashSet.MutablePersistentChampHashSet<Integer> tree = source.beginWrite();
+                    if (even) {
+                        tree.add(1);
+                        tree.add(2);
+                        even = false;
+                    } else {
+                        tree.remove(1);
+                        tree.remove(2);
+                        even = true;
+                    }
+                    tree.endWrite();
+                }
+            } catch (Throwable t) {
+                rememberError(errors, t);
+            }
+        });
+        final Thread reader = new Thread(() -> {
+            try {
+                latch.countDown();
+                for (int i = 0; i < itr; i++) {
+                    final PersistentChampHashSet.ImmutablePersistentChampHashSet<Integer> tree = source.beginRead();
+                    int size = 0;
+                    for (final Integer ignored : tree) {
+                        size++;
+                    }
+                    Assert.assertEquals("at reader iteration " + i, size, tree.size());
+                }
+            } catch (Throwable t) {
+                rememberError(errors, t);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        for (final Throwable t : errors) {
+            t.printStackTrace();
+        }
+        Assert.assertTrue(errors.isEmpty());
+    }
+
+    private void rememberError(List<Throwable> errors, Throwable t) {
+        synchronized (errors) {
+            errors.add(t);
+        }
+    }
+
+    @Test
+    public void getSavesObject() {
+        final PersistentChampHashSet<Integer> set = new PersistentChampHashSet<>();
+        final PersistentChampHashSet.MutablePersistentChampHashSet<Integer> mutableSet = set.beginWrite();
+        @SuppressWarnings("UnnecessaryBoxing") final Integer e = new Integer(271828);
+        mutableSet.add(e);
+        mutableSet.endWrite();
+        //noinspection NumberEquality
+        Assert.assertSame(e, set.beginRead().getKey(271828));
+    }
+
+    private static int[] genPermutation(Random random) {
+        int[] p = new int[ENTRIES_TO_ADD];
+        for (int i = 1; i < ENTRIES_TO_ADD; i++) {
+            int j = random.nextInt(i);
+            p[i] = p[j];
+            p[j] = i;
+        }
+        return p;
+    }
+}
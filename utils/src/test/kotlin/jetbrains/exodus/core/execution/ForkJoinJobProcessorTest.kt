@@ -0,0 +1,81 @@
+/*
+ * Copyright ${inceptionYear} - ${year} ${owner}
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrains.exodus.core.execution
+
+import org.junit.Assert
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class ForkJoinJobProcessorTest : JobProcessorTest() {
+
+    override fun createProcessor(): JobProcessor = ForkJoinJobProcessor("fork-join${Any().hashCode()}", 1)
+
+    @Test
+    fun parallelExecution() {
+        val processor = ForkJoinJobProcessor("parallel fork-join${Any().hashCode()}", 4).apply { start() }
+        try {
+            val latch = CountDownLatch(4)
+            repeat(4) {
+                processor.queue(object : Job(), ForkJoinJobProcessor.BlockingJob {
+                    override fun execute() {
+                        latch.countDown()
+                        latch.await(5, TimeUnit.SECONDS)
+                    }
+                })
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS))
+        } finally {
+            processor.finish()
+        }
+    }
+
+    @Test
+    fun blockingJobs() {
+        // more blocking jobs than available processors wait for each other, so the pool has to compensate them
+        val jobCount = Runtime.getRuntime().availableProcessors() + 2
+        val processor = ForkJoinJobProcessor("blocking fork-join${Any().hashCode()}", jobCount).apply { start() }
+        try {
+            val latch = CountDownLatch(jobCount)
+            repeat(jobCount) {
+                processor.queue(object : Job(), ForkJoinJobProcessor.BlockingJob {
+                    override fun execute() {
+                        latch.countDown()
+                        latch.await(5, TimeUnit.SECONDS)
+                    }
+                })
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS))
+        } finally {
+            processor.finish()
+        }
+    }
+
+    @Test
+    fun queueLatency() {
+        val processor = processor as ForkJoinJobProcessor
+        processor.queueLatency.reset()
+        processor.timedJobLatency.reset()
+        count = 0
+        repeat(10) { IncrementJob(processor, 1) }
+        processor.queueIn(IncrementJob(), 50)
+        sleep(200)
+        processor.waitForJobs(100)
+        Assert.assertEquals(11, count)
+        Assert.assertEquals(10, processor.queueLatency.count)
+        Assert.assertEquals(1, processor.timedJobLatency.count)
+    }
+}